@@ -0,0 +1,114 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.benchmarks;
+
+import java.util.Collection;
+
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.knime.core.node.NodeLogger;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Headless application that runs the JMH benchmarks of this fragment, e.g.
+ *
+ * <pre>
+ * knime -nosplash -consoleLog -application org.knime.core.benchmarks DataContainerBenchmark -rf json
+ * </pre>
+ *
+ * All program arguments are passed on to JMH, see {@code -h} for the supported options. Benchmarks always run in the
+ * JVM of the application since a forked JVM would lack the OSGi framework (and hence the extension points) that most
+ * of the benchmarked code relies on; use {@code -wi}, {@code -i}, and {@code -t} to configure the runs instead.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class BenchmarkApplication implements IApplication {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(BenchmarkApplication.class);
+
+    @Override
+    public Object start(final IApplicationContext context) throws Exception {
+        final Object args = context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+        final String[] jmhArgs = args instanceof String[] ? (String[])args : new String[0];
+        final CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions(jmhArgs);
+        } catch (CommandLineOptionException e) {
+            LOGGER.error("Invalid benchmark arguments: " + e.getMessage(), e);
+            return Integer.valueOf(1);
+        }
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return IApplication.EXIT_OK;
+        }
+        final Options options = new OptionsBuilder().parent(commandLine).forks(0).build();
+
+        // JMH is embedded in this fragment (see Bundle-ClassPath) so that it finds the generated benchmark list and
+        // classes; some of its lookups go through the context class loader, which therefore needs to see them as well
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(BenchmarkApplication.class.getClassLoader());
+        try {
+            final Collection<RunResult> results = new Runner(options).run();
+            LOGGER.info("Finished " + results.size() + " benchmark(s)");
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+        return IApplication.EXIT_OK;
+    }
+
+    @Override
+    public void stop() {
+        // benchmarks cannot be stopped
+    }
+
+}
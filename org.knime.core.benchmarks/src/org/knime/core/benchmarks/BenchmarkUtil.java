@@ -0,0 +1,131 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.benchmarks;
+
+import java.util.Random;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Utility methods shared by the benchmarks, i.e., creation of an {@link ExecutionContext} outside of a workflow and of
+ * (reproducible) random input tables.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class BenchmarkUtil {
+
+    /** The spec of the tables created by {@link #createTable(ExecutionContext, int, int, long)}. */
+    public static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("double", DoubleCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+
+    private BenchmarkUtil() {
+    }
+
+    /**
+     * @return a new execution context of a dummy node that caches small tables in memory
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static ExecutionContext createExecutionContext() {
+        final Node node = new Node((NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0]));
+        return new ExecutionContext(new DefaultNodeProgressMonitor(), node,
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+    }
+
+    /**
+     * Creates a random row of the {@link #SPEC}.
+     *
+     * @param index the index of the row, used for the row key
+     * @param distinctValues the number of distinct values in the int and the string column
+     * @param random the source of randomness
+     * @return a new row
+     */
+    public static DefaultRow createRow(final long index, final int distinctValues, final Random random) {
+        final int key = random.nextInt(distinctValues);
+        return new DefaultRow(RowKey.createRowKey(index), new DataCell[]{new IntCell(key),
+            new DoubleCell(random.nextDouble()), new StringCell("Value " + key)});
+    }
+
+    /**
+     * Creates a table of the {@link #SPEC} with random content.
+     *
+     * @param exec the context used to create the table
+     * @param rowCount the number of rows
+     * @param distinctValues the number of distinct values in the int and the string column
+     * @param seed the seed of the random generator, tables with the same arguments have the same content
+     * @return a new table
+     */
+    public static BufferedDataTable createTable(final ExecutionContext exec, final int rowCount,
+        final int distinctValues, final long seed) {
+        final Random random = new Random(seed);
+        final BufferedDataContainer container = exec.createDataContainer(SPEC);
+        for (int i = 0; i < rowCount; i++) {
+            container.addRowToTable(createRow(i, distinctValues, random));
+        }
+        container.close();
+        return container.getTable();
+    }
+
+}
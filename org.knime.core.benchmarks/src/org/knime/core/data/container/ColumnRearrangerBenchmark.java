@@ -0,0 +1,146 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkUtil;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link ExecutionContext#createColumnRearrangeTable(BufferedDataTable, ColumnRearranger,
+ * org.knime.core.node.ExecutionMonitor) createColumnRearrangeTable} with an {@link AbstractCellFactory} that appends a
+ * (moderately expensive) computed column, for a varying number of parallel workers.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ColumnRearrangerBenchmark {
+
+    /** The number of rows of the input table. */
+    @Param({"100000"})
+    public int rowCount;
+
+    /** The number of parallel workers of the cell factory, 0 for sequential processing. */
+    @Param({"0", "1", "4", "16"})
+    public int workers;
+
+    /** The number of iterations of the computation per row, i.e., the cost of a single cell. */
+    @Param({"100"})
+    public int work;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_table;
+
+    /** Creates the input table. */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_exec = BenchmarkUtil.createExecutionContext();
+        m_table = BenchmarkUtil.createTable(m_exec, rowCount, 1000, 0);
+    }
+
+    /** Deletes the input table. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_exec.clearTable(m_table);
+    }
+
+    /**
+     * Appends the computed column and deletes the result.
+     *
+     * @throws CanceledExecutionException never
+     */
+    @Benchmark
+    public void appendColumn() throws CanceledExecutionException {
+        final ColumnRearranger rearranger = new ColumnRearranger(m_table.getDataTableSpec());
+        rearranger.append(new ComputingCellFactory(workers, work));
+        m_exec.clearTable(m_exec.createColumnRearrangeTable(m_table, rearranger, m_exec));
+    }
+
+    private static final class ComputingCellFactory extends AbstractCellFactory {
+
+        private final int m_work;
+
+        ComputingCellFactory(final int workers, final int work) {
+            super(new DataColumnSpecCreator("computed", DoubleCell.TYPE).createSpec());
+            if (workers > 0) {
+                setParallelProcessing(true, workers, 10 * workers);
+            }
+            m_work = work;
+        }
+
+        @Override
+        public DataCell[] getCells(final DataRow row) {
+            double value = ((DoubleValue)row.getCell(1)).getDoubleValue();
+            for (int i = 0; i < m_work; i++) {
+                value = Math.sin(value) + Math.sqrt(i + value * value);
+            }
+            return new DataCell[]{new DoubleCell(value)};
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkUtil;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how the throughput of a {@link DataContainer} scales with the number of threads handling its rows (see
+ * {@link DataContainerSettings#withMaxThreadsPerContainer(int)}), and how the lookup of cell serializers in an
+ * {@link AbstractTableStoreWriter} scales with the number of threads sharing the writer. Note that the threads per
+ * container are capped by the number of container threads, which defaults to the number of available processors.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContainerThreadScalingBenchmark {
+
+    /** The rows and settings of the containers written by {@link ContainerThreadScalingBenchmark#writeTable}. */
+    @State(Scope.Benchmark)
+    public static class ContainerState {
+
+        /** The number of threads handling the rows of a container. */
+        @Param({"1", "4", "16"})
+        public int threads;
+
+        /** The number of rows written per invocation. */
+        @Param({"100000"})
+        public int rowCount;
+
+        private DataRow[] m_rows;
+
+        private DataContainerSettings m_settings;
+
+        /** Creates the rows to write. */
+        @Setup(Level.Trial)
+        public void setup() {
+            final Random random = new Random(0);
+            m_rows = new DataRow[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                m_rows[i] = BenchmarkUtil.createRow(i, 1000, random);
+            }
+            m_settings = DataContainerSettings.getDefault() //
+                .withMaxCellsInMemory(0) //
+                .withInitializedDomain(true) //
+                .withMaxThreadsPerContainer(threads) //
+                .withBufferSettings(BufferSettings.getDefault().withLRU(false));
+        }
+    }
+
+    /** A writer shared by all threads looking up serializers. */
+    @State(Scope.Benchmark)
+    public static class WriterState {
+
+        private AbstractTableStoreWriter m_writer;
+
+        private CellClassInfo[] m_cellClasses;
+
+        /** Creates the writer and the types of the looked up cells. */
+        @Setup(Level.Trial)
+        public void setup() {
+            m_writer = new AbstractTableStoreWriter(BenchmarkUtil.SPEC, true) {
+                @Override
+                public void writeRow(final DataRow row) {
+                    // rows are not written, only serializers are looked up
+                }
+
+                @Override
+                public void close() {
+                    // nothing to close
+                }
+            };
+            m_cellClasses = new CellClassInfo[]{CellClassInfo.get(new IntCell(0)),
+                CellClassInfo.get(new DoubleCell(0)), CellClassInfo.get(new StringCell(""))};
+        }
+    }
+
+    /**
+     * Writes all rows to a new container (computing the domain on the container threads) and deletes the resulting
+     * table.
+     *
+     * @param state the rows and settings of the container
+     */
+    @Benchmark
+    public void writeTable(final ContainerState state) {
+        final DataContainer container = new DataContainer(BenchmarkUtil.SPEC, state.m_settings);
+        for (final DataRow row : state.m_rows) {
+            container.addRowToTable(row);
+        }
+        container.close();
+        ((ContainerTable)container.getTable()).clear();
+    }
+
+    /**
+     * Looks up the serializers of a row's cells from a single thread.
+     *
+     * @param state the shared writer
+     * @param blackhole consumes the serializers
+     * @throws IOException if the lookup fails
+     */
+    @Benchmark
+    @Threads(1)
+    public void lookupSerializer1Thread(final WriterState state, final Blackhole blackhole) throws IOException {
+        lookupSerializers(state, blackhole);
+    }
+
+    /**
+     * Looks up the serializers of a row's cells from 4 threads sharing the writer.
+     *
+     * @param state the shared writer
+     * @param blackhole consumes the serializers
+     * @throws IOException if the lookup fails
+     */
+    @Benchmark
+    @Threads(4)
+    public void lookupSerializer4Threads(final WriterState state, final Blackhole blackhole) throws IOException {
+        lookupSerializers(state, blackhole);
+    }
+
+    /**
+     * Looks up the serializers of a row's cells from 16 threads sharing the writer.
+     *
+     * @param state the shared writer
+     * @param blackhole consumes the serializers
+     * @throws IOException if the lookup fails
+     */
+    @Benchmark
+    @Threads(16)
+    public void lookupSerializer16Threads(final WriterState state, final Blackhole blackhole) throws IOException {
+        lookupSerializers(state, blackhole);
+    }
+
+    private static void lookupSerializers(final WriterState state, final Blackhole blackhole) throws IOException {
+        for (final CellClassInfo cellClass : state.m_cellClasses) {
+            blackhole.consume(state.m_writer.getSerializerForDataCell(cellClass));
+            blackhole.consume(state.m_writer.getTypeShortCut(cellClass));
+        }
+    }
+
+}
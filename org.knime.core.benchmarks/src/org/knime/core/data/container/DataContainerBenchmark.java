@@ -0,0 +1,147 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkUtil;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.container.DefaultTableStoreFormat.DefaultTableStoreSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the write and read throughput of a {@link DataContainer} (and hence of its {@link Buffer}) for each
+ * {@link CompressionFormat} of the default table store format. All rows are written to disk and the LRU cache is
+ * disabled, i.e., reads always deserialize the rows from disk.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataContainerBenchmark {
+
+    /** The compression format of the table files. */
+    @Param({"NONE", "GZIP", "SNAPPY"})
+    public CompressionFormat compression;
+
+    /** The number of rows written and read per invocation. */
+    @Param({"100000"})
+    public int rowCount;
+
+    private DataRow[] m_rows;
+
+    private DataContainerSettings m_settings;
+
+    private ContainerTable m_table;
+
+    /** Creates the rows to write and the table to read. */
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(0);
+        m_rows = new DataRow[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            m_rows[i] = BenchmarkUtil.createRow(i, 1000, random);
+        }
+        final DefaultTableStoreFormat format =
+            new DefaultTableStoreFormat(DefaultTableStoreSettings.getDefault().withCompression(compression));
+        m_settings = DataContainerSettings.getDefault() //
+            .withMaxCellsInMemory(0) //
+            .withBufferSettings(BufferSettings.getDefault().withLRU(false).withOutputFormat(format));
+        m_table = write();
+    }
+
+    /** Deletes the table to read. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_table.clear();
+    }
+
+    /**
+     * Writes all rows to a new container and deletes the resulting table.
+     */
+    @Benchmark
+    public void writeTable() {
+        write().clear();
+    }
+
+    /**
+     * Reads all rows of the table.
+     *
+     * @param blackhole consumes the read cells
+     */
+    @Benchmark
+    public void readTable(final Blackhole blackhole) {
+        for (final DataRow row : m_table) {
+            for (int i = 0; i < row.getNumCells(); i++) {
+                blackhole.consume(row.getCell(i));
+            }
+        }
+    }
+
+    private ContainerTable write() {
+        final DataContainer container = new DataContainer(BenchmarkUtil.SPEC, m_settings);
+        for (final DataRow row : m_rows) {
+            container.addRowToTable(row);
+        }
+        container.close();
+        return (ContainerTable)container.getTable();
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.join.implementation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkUtil;
+import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinSpecification.InputTable;
+import org.knime.core.data.join.JoinSpecification.OutputRowOrder;
+import org.knime.core.data.join.JoinTableSettings;
+import org.knime.core.data.join.JoinTableSettings.JoinColumn;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures an inner equi-join of two random tables with the {@link BlockHashJoin}. The smaller (right) table is
+ * indexed in memory (build phase), the larger (left) table is streamed against the index (probe phase). The keys are
+ * drawn from as many distinct values as the hash table has rows, i.e., each probe row has about one join partner.
+ * Varying the number of hash rows shifts the cost between the build and the probe phase; the probe parallelism is
+ * varied to measure the concurrent probing of row ranges.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockHashJoinBenchmark {
+
+    /** The number of rows of the hash (build) input. */
+    @Param({"10000", "250000"})
+    public int hashRows;
+
+    /** The number of rows of the probe input. */
+    @Param({"1000000"})
+    public int probeRows;
+
+    /** The maximum number of threads probing the index concurrently. */
+    @Param({"1", "4"})
+    public int probeParallelism;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_probeTable;
+
+    private BufferedDataTable m_hashTable;
+
+    private JoinSpecification m_joinSpecification;
+
+    /**
+     * Creates the input tables and the join specification.
+     *
+     * @throws InvalidSettingsException never
+     */
+    @Setup(Level.Trial)
+    public void setup() throws InvalidSettingsException {
+        m_exec = BenchmarkUtil.createExecutionContext();
+        m_probeTable = BenchmarkUtil.createTable(m_exec, probeRows, hashRows, 0);
+        m_hashTable = BenchmarkUtil.createTable(m_exec, hashRows, hashRows, 1);
+
+        final JoinTableSettings left = new JoinTableSettings(false, JoinColumn.array("int"),
+            new String[]{"int", "double", "string"}, InputTable.LEFT, m_probeTable);
+        final JoinTableSettings right = new JoinTableSettings(false, JoinColumn.array("int"),
+            new String[]{"double", "string"}, InputTable.RIGHT, m_hashTable);
+        m_joinSpecification = new JoinSpecification.Builder(left, right) //
+            .columnNameDisambiguator(name -> name + " (right)") //
+            .mergeJoinColumns(false) //
+            .conjunctive(true) //
+            .outputRowOrder(OutputRowOrder.ARBITRARY) //
+            .rowKeyFactory(JoinSpecification.createConcatRowKeysFactory("_")) //
+            .retainMatched(true) //
+            .build();
+    }
+
+    /** Deletes the input tables. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_exec.clearTable(m_probeTable);
+        m_exec.clearTable(m_hashTable);
+    }
+
+    /**
+     * Joins the tables and deletes the result.
+     *
+     * @throws CanceledExecutionException never
+     * @throws InvalidSettingsException never
+     */
+    @Benchmark
+    public void join() throws CanceledExecutionException, InvalidSettingsException {
+        final BlockHashJoin joiner = new BlockHashJoin(m_joinSpecification, m_exec);
+        joiner.setProbeParallelism(probeParallelism);
+        m_exec.clearTable(joiner.joinOutputCombined().getResults().getTable());
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkUtil;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the {@link BufferedDataTableSorter} on a random table, sorting by an int and a double column, both in
+ * memory and with the chunked (external) merge sort. The latter is enforced by limiting the number of rows per chunk.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BufferedDataTableSorterBenchmark {
+
+    /** The number of rows of the table to sort. */
+    @Param({"100000", "1000000"})
+    public int rowCount;
+
+    /** The maximum number of rows per sorted chunk, 0 for no limit (i.e., the chunk size depends on the memory). */
+    @Param({"0", "100000"})
+    public int rowsPerChunk;
+
+    /** The maximum number of threads used for sorting, see {@link BufferedDataTableSorter#setMaxThreads(int)}. */
+    @Param({"1", "4"})
+    public int maxThreads;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_table;
+
+    /** Creates the table to sort. */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_exec = BenchmarkUtil.createExecutionContext();
+        m_table = BenchmarkUtil.createTable(m_exec, rowCount, 1000, 0);
+    }
+
+    /** Deletes the table to sort. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_exec.clearTable(m_table);
+    }
+
+    /**
+     * Sorts the table and deletes the result.
+     *
+     * @throws CanceledExecutionException never
+     */
+    @Benchmark
+    public void sort() throws CanceledExecutionException {
+        final BufferedDataTableSorter sorter =
+            new BufferedDataTableSorter(m_table, Arrays.asList("int", "double"), new boolean[]{true, false});
+        if (rowsPerChunk > 0) {
+            sorter.setMaxRows(rowsPerChunk);
+        }
+        sorter.setMaxThreads(maxThreads);
+        m_exec.clearTable(sorter.sort(m_exec));
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures saving a {@link Config} to and loading it from XML, using {@link NodeSettings} with nested sub configs of
+ * the common entry types, similar to the settings written for each node of a workflow.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigXMLBenchmark {
+
+    /** The number of sub configs, each of which holds a handful of entries. */
+    @Param({"10", "1000"})
+    public int configCount;
+
+    private NodeSettings m_settings;
+
+    private byte[] m_xml;
+
+    /**
+     * Creates the settings to save and their XML representation to load.
+     *
+     * @throws IOException if the settings cannot be saved
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        m_settings = new NodeSettings("benchmark");
+        for (int i = 0; i < configCount; i++) {
+            final NodeSettingsWO sub = m_settings.addNodeSettings("config_" + i);
+            sub.addString("name", "Column " + i);
+            sub.addInt("index", i);
+            sub.addLong("size", 1L << (i % 63));
+            sub.addDouble("weight", i / 7.0);
+            sub.addBoolean("enabled", i % 2 == 0);
+            sub.addStringArray("values", "a < b", "\"quoted\"", "x & y", null);
+        }
+        m_xml = save();
+    }
+
+    /**
+     * Saves the settings to XML.
+     *
+     * @return the XML representation (returned so that it is not eliminated as dead code)
+     * @throws IOException never
+     */
+    @Benchmark
+    public byte[] saveToXML() throws IOException {
+        return save();
+    }
+
+    /**
+     * Loads the settings from XML.
+     *
+     * @return the loaded settings
+     * @throws IOException never
+     */
+    @Benchmark
+    public NodeSettingsRO loadFromXML() throws IOException {
+        return NodeSettings.loadFromXML(new ByteArrayInputStream(m_xml));
+    }
+
+    private byte[] save() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        m_settings.saveToXML(out);
+        return out.toByteArray();
+    }
+
+}
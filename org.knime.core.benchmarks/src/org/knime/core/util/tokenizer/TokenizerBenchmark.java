@@ -0,0 +1,125 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.util.tokenizer;
+
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link Tokenizer#nextToken()} on comma separated content as read by the file reader, with and without
+ * quoted tokens.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TokenizerBenchmark {
+
+    /** The number of lines of the content. */
+    @Param({"10000"})
+    public int lineCount;
+
+    /** Whether the string tokens are put in quotes (containing escaped quotes and delimiters). */
+    @Param({"false", "true"})
+    public boolean quoted;
+
+    private String m_content;
+
+    private TokenizerSettings m_settings;
+
+    /** Creates the content to tokenize. */
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(0);
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            content.append(random.nextInt()).append(',');
+            content.append(random.nextDouble()).append(',');
+            if (quoted) {
+                content.append("\"Value, \\\"").append(random.nextInt(1000)).append("\\\"\"");
+            } else {
+                content.append("Value ").append(random.nextInt(1000));
+            }
+            content.append('\n');
+        }
+        m_content = content.toString();
+
+        m_settings = new TokenizerSettings();
+        m_settings.addDelimiterPattern(",", false, false, false);
+        m_settings.addDelimiterPattern("\n", false, true, false);
+        m_settings.addQuotePattern("\"", "\"", '\\');
+    }
+
+    /**
+     * Tokenizes the entire content.
+     *
+     * @param blackhole consumes the tokens
+     */
+    @Benchmark
+    public void tokenize(final Blackhole blackhole) {
+        final Tokenizer tokenizer = new Tokenizer(new StringReader(m_content));
+        tokenizer.setSettings(m_settings);
+        String token;
+        while ((token = tokenizer.nextToken()) != null) {
+            blackhole.consume(token);
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.node.util.CheckUtils;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream.BLOCKSIZE;
+import net.jpountz.lz4.LZ4FrameOutputStream.FLG;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Compression codec writing LZ4 frames. Level 0 uses the fast LZ4 compressor, levels 1 to 17 the LZ4 HC compressor,
+ * which compresses better (and slower) with increasing level. Decompression is equally fast for all levels.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class Lz4CompressionCodec implements CompressionCodec {
+
+    /** The default level, using the fast compressor. */
+    private static final int DEF_LEVEL = 0;
+
+    private static final int MAX_LEVEL = 17;
+
+    private final int m_level;
+
+    /** Creates the codec with the default level, used by the extension point. */
+    public Lz4CompressionCodec() {
+        this(DEF_LEVEL);
+    }
+
+    private Lz4CompressionCodec(final int level) {
+        CheckUtils.checkArgument(level >= DEF_LEVEL && level <= MAX_LEVEL,
+            "LZ4 compression level must be between %d and %d: %d", DEF_LEVEL, MAX_LEVEL, level);
+        m_level = level;
+    }
+
+    @Override
+    public String getName() {
+        return "LZ4";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return ".bin.lz4";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            return LZ4Factory.fastestInstance() != null;
+        } catch (LinkageError e) { // NOSONAR
+            return false;
+        }
+    }
+
+    @Override
+    public int getLevel() {
+        return m_level;
+    }
+
+    @Override
+    public int getMinLevel() {
+        return DEF_LEVEL;
+    }
+
+    @Override
+    public int getMaxLevel() {
+        return MAX_LEVEL;
+    }
+
+    @Override
+    public CompressionCodec withLevel(final int level) {
+        return level == m_level ? this : new Lz4CompressionCodec(level);
+    }
+
+    @Override
+    public OutputStream createOutputStream(final OutputStream out) throws IOException {
+        final LZ4Factory factory = LZ4Factory.fastestInstance();
+        final LZ4Compressor compressor =
+            m_level == DEF_LEVEL ? factory.fastCompressor() : factory.highCompressor(m_level);
+        return new BufferedOutputStream(new LZ4FrameOutputStream(out, BLOCKSIZE.SIZE_64KB, -1L, compressor,
+            XXHashFactory.fastestInstance().hash32(), FLG.Bits.BLOCK_INDEPENDENCE));
+    }
+
+    @Override
+    public InputStream createInputStream(final InputStream in) throws IOException {
+        return new BufferedInputStream(new LZ4FrameInputStream(in));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof Lz4CompressionCodec && ((Lz4CompressionCodec)obj).m_level == m_level;
+    }
+
+    @Override
+    public int hashCode() {
+        return Lz4CompressionCodec.class.hashCode() ^ m_level;
+    }
+
+    @Override
+    public String toString() {
+        return getName() + " (level " + m_level + ")";
+    }
+
+}
@@ -68,8 +68,19 @@
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
 import org.knime.core.data.meta.TestDataColumnMetaData;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
 
 /**
  * Testcases for {@link DataTableDomainCreator}.
@@ -631,4 +642,58 @@ public void testInitMetaData() {
         assertThat(getMetaData(domainCreator), is(new TestDataColumnMetaData(concat)));
     }
 
-}
\ No newline at end of file
+    /**
+     * Checks that the domain of a buffered data table computed in parallel equals the one computed by a sequential
+     * scan, including the order of the possible values.
+     *
+     * @throws Exception if the table cannot be scanned
+     */
+    @Test
+    public void testParallelScanOfBufferedDataTable() throws Exception {
+        final DataTableSpec tableSpec = new DataTableSpec(//
+            new DataColumnSpecCreator("String col", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Double col", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Int col", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Long col", LongCell.TYPE).createSpec());
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        final ExecutionContext exec = new ExecutionContext(new DefaultNodeProgressMonitor(),
+            new Node((NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0])),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+        final int rowCount = 350_000;
+        final BufferedDataContainer cont = exec.createDataContainer(tableSpec);
+        for (int i = 0; i < rowCount; i++) {
+            // values first occurring in later parts of the table must keep their position in the domain
+            final String s = i < 150_000 ? ("A" + (i % 3)) : (i < 300_000 ? "B" : ("C" + (i % 2)));
+            final DataCell d = i % 1000 == 0 ? DataType.getMissingCell()
+                : new DoubleCell(i % 999 == 0 ? Double.NaN : Math.sin(i) * i);
+            cont.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new StringCell(s), d,
+                new IntCell(i % 2 == 0 ? i : -i), new LongCell((long)i * i)));
+        }
+        cont.close();
+        final BufferedDataTable table = cont.getTable();
+
+        final DataTableDomainCreator sequential = new DataTableDomainCreator(tableSpec, false);
+        sequential.updateDomain(table, null, table.size());
+        final DataTableDomainCreator parallel = new DataTableDomainCreator(tableSpec, false);
+        parallel.updateDomain(table, exec);
+
+        final DataTableSpec expected = sequential.createSpec();
+        final DataTableSpec actual = parallel.createSpec();
+        for (int i = 0; i < tableSpec.getNumColumns(); i++) {
+            final DataColumnDomain expectedDomain = expected.getColumnSpec(i).getDomain();
+            final DataColumnDomain actualDomain = actual.getColumnSpec(i).getDomain();
+            assertThat("Unexpected lower bound in column " + i, actualDomain.getLowerBound(),
+                is(expectedDomain.getLowerBound()));
+            assertThat("Unexpected upper bound in column " + i, actualDomain.getUpperBound(),
+                is(expectedDomain.getUpperBound()));
+            assertThat("Unexpected possible values in column " + i,
+                actualDomain.hasValues() ? new ArrayList<>(actualDomain.getValues()) : null,
+                is(expectedDomain.hasValues() ? new ArrayList<>(expectedDomain.getValues()) : null));
+        }
+        assertThat("Unexpected possible values", new ArrayList<>(actual.getColumnSpec(0).getDomain().getValues()),
+            is(Arrays.asList(new StringCell("A0"), new StringCell("A1"), new StringCell("A2"), new StringCell("B"),
+                new StringCell("C0"), new StringCell("C1"))));
+    }
+
+}
@@ -171,6 +171,64 @@ public void testSoftRefCache() throws InterruptedException {
         }
     }
 
+    /**
+     * Tests that the soft-references LRU cache is bounded by the estimated size of its tables in bytes and that the
+     * most recently used tables are retained.
+     */
+    @Test
+    public void testSoftRefCacheBytes() {
+        final List<Pair<Buffer, List<BlobSupportDataRow>>> tables = generateKTables(4, true);
+        final BufferCache cache = new BufferCache();
+        addTablesToCache(tables.subList(0, 1), cache, true);
+        final long bytesPerTable = cache.getStatistics().getSoftlyCachedBytes();
+        Assert.assertTrue("Size of table not estimated.", bytesPerTable > 0);
+
+        // allow for two tables (later tables might be slightly larger due to longer row keys and strings)
+        cache.setLRUCacheBytes(2 * bytesPerTable + bytesPerTable / 2);
+        addTablesToCache(tables.subList(1, 3), cache, true);
+        Assert.assertEquals("Wrong number of tables in LRU cache.", 2, cache.getStatistics().getSoftlyCachedTables());
+
+        // access second table, such that the third one is evicted when adding the fourth one
+        cache.get(tables.get(1).getFirst());
+        addTablesToCache(tables.subList(3, 4), cache, true);
+        Assert.assertEquals("Wrong number of tables in LRU cache.", 2, cache.getStatistics().getSoftlyCachedTables());
+        cache.get(tables.get(1).getFirst());
+        Assert.assertEquals("Recently used table evicted from LRU cache.", 2, cache.getStatistics().getSoftHits());
+
+        // a table exceeding the byte limit on its own is still retained
+        cache.setLRUCacheBytes(bytesPerTable / 2);
+        final TableCacheStatistics stats = cache.getStatistics();
+        Assert.assertEquals("Most recently used table evicted.", 1, stats.getSoftlyCachedTables());
+        Assert.assertTrue("Wrong size of LRU cache.", stats.getSoftlyCachedBytes() >= bytesPerTable);
+    }
+
+    /**
+     * Tests that hits and misses are counted exactly once per lookup.
+     */
+    @Test
+    public void testStatistics() {
+        final List<Pair<Buffer, List<BlobSupportDataRow>>> tables = generateKTables(2, true);
+        final BufferCache cache = new BufferCache();
+        cache.put(tables.get(0).getFirst(), tables.get(0).getSecond());
+        addTablesToCache(tables.subList(1, 2), cache, true);
+
+        getTablesFromCache(tables, cache);
+        cache.getSilent(tables.get(0).getFirst());
+        cache.invalidate(tables.get(1).getFirst());
+        cache.get(tables.get(1).getFirst());
+
+        final TableCacheStatistics stats = cache.getStatistics();
+        Assert.assertEquals("Wrong number of hard hits.", 1, stats.getHardHits());
+        Assert.assertEquals("Wrong number of soft hits.", 1, stats.getSoftHits());
+        Assert.assertEquals("Wrong number of weak hits.", 0, stats.getWeakHits());
+        Assert.assertEquals("Wrong number of misses.", 0, stats.getMisses());
+        Assert.assertEquals("Wrong number of lookups.", 2, stats.getLookups());
+        Assert.assertEquals("Wrong number of distinct tables.", 2, stats.getDistinctTables());
+        Assert.assertEquals("Wrong number of invalidated tables.", 1, stats.getInvalidatedTables());
+        Assert.assertEquals("Wrong number of cached tables.", 1, stats.getCachedTables());
+        Assert.assertEquals("Wrong number of tables in LRU cache.", 1, stats.getSoftlyCachedTables());
+    }
+
     private static List<Pair<Buffer, List<BlobSupportDataRow>>> generateKTables(final int k,
         final boolean flushToDisk) {
 
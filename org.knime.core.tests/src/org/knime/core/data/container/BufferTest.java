@@ -48,12 +48,26 @@
  */
 package org.knime.core.data.container;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.filter.RowPredicate;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
 import org.knime.core.data.util.memory.MemoryAlertSystem;
 import org.knime.core.data.util.memory.MemoryAlertSystemTest;
 
@@ -132,6 +146,182 @@ public void testTableDroppedWhileIteratedOver() throws InterruptedException {
         }
     }
 
+    /**
+     * Tests that a table that has been written to disk is correctly filtered by a {@link TableFilter} with a row range
+     * and a {@link RowPredicate}.
+     */
+    @Test
+    public void testIteratorWithPredicateFromDisk() {
+        final DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+        final DataContainer container = new DataContainer(spec, true, 0);
+        for (int i = 0; i < 1000; i++) {
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i),
+                i % 3 == 0 ? DataType.getMissingCell() : new StringCell(Integer.toString(i))));
+        }
+        container.close();
+        final Buffer buffer = ((BufferedContainerTable)container.getBufferedTable()).getBuffer();
+
+        final TableFilter filter = new TableFilter.Builder().withFromRowIndex(100).withToRowIndex(199)
+            .withPredicate(RowPredicate.isMissing(1).and(RowPredicate.lessThan(0, new IntCell(150)))).build();
+        int expected = 102;
+        try (final CloseableRowIterator it = buffer.iteratorWithFilter(filter)) {
+            while (it.hasNext()) {
+                final DataRow row = it.next();
+                Assert.assertEquals("Row key", RowKey.createRowKey((long)expected), row.getKey());
+                Assert.assertEquals("Cell 0", new IntCell(expected), row.getCell(0));
+                Assert.assertTrue("Cell 1", row.getCell(1).isMissing());
+                expected += 3;
+            }
+        }
+        Assert.assertEquals("Number of rows retained by predicate", 150, expected);
+    }
+
+    /**
+     * Tests that a table that has been written to disk is read ahead on a background thread, that all rows are returned
+     * in order, and that closing the iterator before its end releases the underlying stream.
+     */
+    @Test(timeout = 10000)
+    public void testReadAheadFromDisk() {
+        final int rowCount = 10 * ReadAheadRowIterator.BATCH_SIZE + 17;
+        final Buffer buffer = generateTableOnDisk(rowCount);
+
+        try (final CloseableRowIterator it = buffer.iterator()) {
+            Assert.assertTrue("Table on disk not read ahead", it instanceof ReadAheadRowIterator);
+            for (int i = 0; i < rowCount; i++) {
+                Assert.assertTrue("Iterator has rows", it.hasNext());
+                final DataRow row = it.next();
+                Assert.assertEquals("Row key", RowKey.createRowKey((long)i), row.getKey());
+                Assert.assertEquals("Cell 1", new StringCell(Integer.toString(i)), row.getCell(1));
+            }
+            Assert.assertFalse("Iterator with more than " + rowCount + " rows", it.hasNext());
+        }
+        Assert.assertEquals("Open input streams after iteration", 0, buffer.getNrOpenInputStreams());
+        Assert.assertEquals("Open resources after iteration", 0, buffer.getNrOpenResources());
+
+        try (final CloseableRowIterator it = buffer.iteratorWithFilter(TableFilter.filterRangeOfRows(1000, 2000))) {
+            Assert.assertEquals("First row of range", RowKey.createRowKey(1000L), it.next().getKey());
+            it.close();
+            Assert.assertFalse("Rows read ahead returned after close", it.hasNext());
+        }
+        Assert.assertEquals("Open input streams after close", 0, buffer.getNrOpenInputStreams());
+        Assert.assertEquals("Open resources after close", 0, buffer.getNrOpenResources());
+    }
+
+    /**
+     * Tests that the background reader of an iterator reading ahead stops and releases the underlying stream once the
+     * iterator has been garbage-collected without being closed.
+     *
+     * @throws InterruptedException thrown when the thread is unexpectedly interrupted during sleep
+     */
+    @Test(timeout = 10000)
+    @SuppressWarnings("resource") // we explicitly want to test that we catch resource leaks
+    public void testReadAheadStoppedOnIteratorFinalize() throws InterruptedException {
+        final Buffer buffer = generateTableOnDisk(10 * ReadAheadRowIterator.BATCH_SIZE + 17);
+
+        CloseableRowIterator it = buffer.iterator();
+        Assert.assertTrue("Table on disk not read ahead", it instanceof ReadAheadRowIterator);
+        it.next();
+        final ReadAheadRowIterator.Reader reader = ((ReadAheadRowIterator)it).getReader();
+        Assert.assertTrue("Reader stopped before table has been read", reader.isReading());
+        Assert.assertEquals("Open input streams while iterating", 1, buffer.getNrOpenInputStreams());
+
+        // do not close the iterator; wait for it to be garbage-collected and for its reader to stop
+        final WeakReference<?> ref = new WeakReference<>(it);
+        it = null;
+        while (ref.get() != null) {
+            MemoryAlertSystemTest.forceGC();
+        }
+        while (reader.isReading()) {
+            Thread.sleep(10);
+        }
+
+        // the stale reader is released once the buffer's resources are checked
+        Assert.assertEquals("Open resources after iterator finalize", 0, buffer.getNrOpenResources());
+        Assert.assertEquals("Open input streams after iterator finalize", 0, buffer.getNrOpenInputStreams());
+        buffer.clear();
+    }
+
+    /**
+     * Tests that a table of primitive and string columns that is read back from disk is put into the cache as a
+     * {@link ColumnarRowList}, that its rows are returned unchanged while and after reading it back, and that the
+     * cache uses the (smaller) estimate of the columnar table.
+     *
+     * @throws InterruptedException thrown when the thread is unexpectedly interrupted during sleep
+     */
+    @Test
+    public void testReadBackIntoMemoryCompacted() throws InterruptedException {
+        final int rowCount = 1000;
+        final DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("long", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("double", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+        final DataContainer container = new DataContainer(spec, true, 0);
+        for (int i = 0; i < rowCount; i++) {
+            container.addRowToTable(createPrimitiveRow(i));
+        }
+        container.close();
+        final Buffer buffer = ((BufferedContainerTable)container.getBufferedTable()).getBuffer();
+        waitForBufferToBeFlushed(buffer);
+
+        buffer.setRestoreIntoMemoryOnCacheMiss();
+        assertPrimitiveRows(buffer, rowCount);
+
+        final List<BlobSupportDataRow> cached =
+            buffer.getCachedTable().orElseThrow(() -> new AssertionError("Table not cached after reading it back"));
+        Assert.assertTrue("Cached table not compacted: " + cached.getClass(), cached instanceof ColumnarRowList);
+        Assert.assertEquals("Number of cached rows", rowCount, cached.size());
+        for (int i = 0; i < rowCount; i++) {
+            assertPrimitiveRow(i, cached.get(i));
+        }
+
+        final long estimate = BufferCache.estimateBytes(cached);
+        Assert.assertEquals("Cache estimate of compacted table", ((ColumnarRowList)cached).estimateBytes(), estimate);
+        Assert.assertTrue("Cache estimate of compacted table not smaller than of its rows",
+            estimate > 0 && estimate < BufferCache.estimateBytes(new ArrayList<>(cached)));
+
+        // iterate again, this time from the cache
+        assertPrimitiveRows(buffer, rowCount);
+        buffer.clear();
+    }
+
+    private static DataRow createPrimitiveRow(final int i) {
+        return new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i), new LongCell(i * 1000000007L),
+            i % 5 == 0 ? DataType.getMissingCell() : new DoubleCell(i / 7d),
+            i % 3 == 0 ? DataType.getMissingCell() : new StringCell(Integer.toString(i % 100)));
+    }
+
+    private static void assertPrimitiveRows(final Buffer buffer, final int rowCount) {
+        try (final CloseableRowIterator it = buffer.iterator()) {
+            for (int i = 0; i < rowCount; i++) {
+                Assert.assertTrue("Iterator has rows", it.hasNext());
+                assertPrimitiveRow(i, it.next());
+            }
+            Assert.assertFalse("Iterator with more than " + rowCount + " rows", it.hasNext());
+        }
+    }
+
+    private static void assertPrimitiveRow(final int i, final DataRow row) {
+        final DataRow expected = createPrimitiveRow(i);
+        Assert.assertEquals("Row key", expected.getKey(), row.getKey());
+        Assert.assertEquals("Number of cells in row " + i, expected.getNumCells(), row.getNumCells());
+        for (int c = 0; c < expected.getNumCells(); c++) {
+            Assert.assertEquals("Cell " + c + " of row " + i, expected.getCell(c), row.getCell(c));
+        }
+    }
+
+    private static Buffer generateTableOnDisk(final int rowCount) {
+        final DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+        final DataContainer container = new DataContainer(spec, true, 0);
+        for (int i = 0; i < rowCount; i++) {
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i),
+                new StringCell(Integer.toString(i))));
+        }
+        container.close();
+        return ((BufferedContainerTable)container.getBufferedTable()).getBuffer();
+    }
+
     /**
      * Generate a small-sized table. Medium-sized means smaller than a container's maximum number of cells.
      *
@@ -0,0 +1,160 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.internal.ReferencedFile;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Tests {@link BufferedContainerTable}, in particular tables that are read lazily from a workflow.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class BufferedContainerTableTest {
+
+    private static final int ROW_COUNT = 1000;
+
+    private static final DataTableSpec SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+
+    /** Temporary folder acting as the original and the new workflow location. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private static DataRow createRow(final int i) {
+        return new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i), new StringCell("Row " + i));
+    }
+
+    /** Writes a table as data.zip into a new directory, as saving a node does. */
+    private File writeTableFile(final String dirName) throws Exception {
+        final DataContainer cont = new DataContainer(SPEC);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            cont.addRowToTable(createRow(i));
+        }
+        cont.close();
+        final File file = new File(m_tempFolder.newFolder(dirName), "data.zip");
+        DataContainer.writeToZip(cont.getTable(), file, new ExecutionMonitor(new DefaultNodeProgressMonitor()));
+        return file;
+    }
+
+    private static void assertTableContent(final ContainerTable table) {
+        try (final CloseableRowIterator it = table.iterator()) {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                assertThat("Iterator has rows", it.hasNext(), is(true));
+                final DataRow row = it.next();
+                assertThat("Row key " + i, row.getKey(), equalTo(createRow(i).getKey()));
+                assertThat("Cell 0 in row " + i, row.getCell(0), equalTo(createRow(i).getCell(0)));
+                assertThat("Cell 1 in row " + i, row.getCell(1), equalTo(createRow(i).getCell(1)));
+            }
+            assertThat("Iterator with more than " + ROW_COUNT + " rows", it.hasNext(), is(false));
+        }
+    }
+
+    private static ContainerTable readDelayed(final File file) {
+        return DataContainer.readFromZipDelayed(new CopyOnAccessTask(new ReferencedFile(file), SPEC, -1,
+            NotInWorkflowDataRepository.newInstance(), true), SPEC);
+    }
+
+    /**
+     * Saves a table that was read lazily and not accessed yet to a new location (as "save as" does), deletes the
+     * original location and then accesses the table, which needs to read from the new location.
+     *
+     * @throws Exception if writing or reading fails
+     */
+    @Test
+    public void testSaveAsAndDeleteOriginal() throws Exception {
+        final File original = writeTableFile("original");
+        final BufferedContainerTable table = (BufferedContainerTable)readDelayed(original);
+        final File savedAs = new File(m_tempFolder.newFolder("saved_as"), "data.zip");
+        assertThat("Table file reused", table.saveToFileFromPersistedFile(savedAs), is(true));
+        assertThat("Table file exists", savedAs.isFile(), is(true));
+
+        Files.delete(original.toPath());
+        assertTableContent(table);
+        assertThat("Table file reused after table was accessed", table.saveToFileFromPersistedFile(
+            new File(m_tempFolder.newFolder("saved_again"), "data.zip")), is(false));
+    }
+
+    /**
+     * Tests that a lazily read table saved to a new location still reads from its original location as long as that
+     * exists, also if the file in the new location is replaced in the meantime.
+     *
+     * @throws Exception if writing or reading fails
+     */
+    @Test
+    public void testSaveAsAndReplaceCopy() throws Exception {
+        final File original = writeTableFile("original");
+        final BufferedContainerTable table = (BufferedContainerTable)readDelayed(original);
+        final File savedAs = new File(m_tempFolder.newFolder("saved_as"), "data.zip");
+        assertThat("Table file reused", table.saveToFileFromPersistedFile(savedAs), is(true));
+
+        // the node in the new location is saved again with a different table (files are deleted, never overwritten)
+        Files.delete(savedAs.toPath());
+        Files.write(savedAs.toPath(), new byte[]{1, 2, 3});
+        assertTableContent(table);
+    }
+}
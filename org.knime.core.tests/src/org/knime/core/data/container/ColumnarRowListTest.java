@@ -0,0 +1,148 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.MissingCell;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Test cases for the class <code>ColumnarRowList</code>.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ColumnarRowListTest {
+
+    private static List<BlobSupportDataRow> createTable(final int size, final boolean defaultKeys) {
+        final List<BlobSupportDataRow> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final DataCell[] cells = new DataCell[]{//
+                new IntCell(i), //
+                new LongCell(Long.MAX_VALUE - i), //
+                i % 3 == 0 ? DataType.getMissingCell() : new DoubleCell(i / 7d), //
+                i % 2 == 0 ? BooleanCell.TRUE : BooleanCell.FALSE, //
+                new StringCell("value" + (i % 5)), //
+                DataType.getMissingCell()};
+            final RowKey key = defaultKeys ? RowKey.createRowKey((long)i) : new RowKey("key" + i);
+            list.add(new BlobSupportDataRow(key, cells));
+        }
+        return list;
+    }
+
+    private static void assertSameContent(final List<BlobSupportDataRow> expected,
+        final List<BlobSupportDataRow> actual) {
+        Assert.assertEquals("Wrong number of rows.", expected.size(), actual.size());
+        for (int r = 0; r < expected.size(); r++) {
+            final BlobSupportDataRow expectedRow = expected.get(r);
+            final BlobSupportDataRow actualRow = actual.get(r);
+            Assert.assertEquals("Wrong row key.", expectedRow.getKey(), actualRow.getKey());
+            Assert.assertEquals("Wrong number of cells.", expectedRow.getNumCells(), actualRow.getNumCells());
+            for (int c = 0; c < expectedRow.getNumCells(); c++) {
+                Assert.assertEquals("Wrong cell in row " + r + ", column " + c + ".", expectedRow.getCell(c),
+                    actualRow.getCell(c));
+            }
+        }
+    }
+
+    /**
+     * Tests that tables of supported cells are converted without altering their content.
+     */
+    @Test
+    public void testCompact() {
+        for (boolean defaultKeys : new boolean[]{true, false}) {
+            final List<BlobSupportDataRow> list = createTable(1000, defaultKeys);
+            final List<BlobSupportDataRow> compacted = ColumnarRowList.compact(list);
+            Assert.assertTrue("Table not converted.", compacted instanceof ColumnarRowList);
+            assertSameContent(list, compacted);
+            Assert.assertTrue("Size of table not estimated.", ((ColumnarRowList)compacted).estimateBytes() > 0);
+            Assert.assertSame("Converted table converted again.", compacted, ColumnarRowList.compact(compacted));
+        }
+    }
+
+    /**
+     * Tests that tables with unsupported cells are not converted.
+     */
+    @Test
+    public void testUnsupportedCells() {
+        final List<BlobSupportDataRow> list = createTable(10, true);
+        // a missing cell with an error message carries more information than a missing value
+        list.set(5, new BlobSupportDataRow(RowKey.createRowKey(5L),
+            new DataCell[]{new IntCell(5), new LongCell(5), new MissingCell("error"), BooleanCell.TRUE,
+                new StringCell("five"), DataType.getMissingCell()}));
+        Assert.assertSame("Table with unsupported cell converted.", list, ColumnarRowList.compact(list));
+
+        // cells of different classes in the same column
+        final List<BlobSupportDataRow> mixed = createTable(10, true);
+        mixed.set(5, new BlobSupportDataRow(RowKey.createRowKey(5L),
+            new DataCell[]{new LongCell(5), new LongCell(5), new DoubleCell(5), BooleanCell.TRUE,
+                new StringCell("five"), DataType.getMissingCell()}));
+        Assert.assertSame("Table with mixed column converted.", mixed, ColumnarRowList.compact(mixed));
+
+        final List<BlobSupportDataRow> empty = new ArrayList<>();
+        Assert.assertSame("Empty table converted.", empty, ColumnarRowList.compact(empty));
+    }
+
+    /**
+     * Tests that the created list is unmodifiable, as required for tables held in the cache.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnmodifiable() {
+        final List<BlobSupportDataRow> list = createTable(10, true);
+        ColumnarRowList.compact(list).add(list.get(0));
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.stream.IntStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.MissingCell;
+import org.knime.core.data.MissingValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.UnmaterializedCell;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.container.filter.RowPredicate;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.NodeSettings;
+
+/**
+ * Tests writing and reading tables in the {@link ColumnarTableStoreFormat}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class ColumnarTableStoreFormatTest {
+
+    private static final int ROW_COUNT = 500;
+
+    private static final int ROWS_PER_GROUP = 64;
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("string", StringCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("long", LongCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("double", DoubleCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("boolean", BooleanCell.TYPE).createSpec());
+
+    /** Temporary folder for tables written without a data container. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    /**
+     * Rows with runs (for run-length encoding), few distinct strings (for dictionary encoding), missing cells with
+     * and without error, NaN and negative zero.
+     */
+    private static DataRow[] createRows(final int rowCount, final boolean generatedKeys) {
+        return IntStream.range(0, rowCount).mapToObj(i -> {
+            final RowKey key = generatedKeys ? RowKey.createRowKey((long)i) : new RowKey("Key " + (i * 7 % 13));
+            final DataCell intCell = i % 11 == 0 ? DataType.getMissingCell() : new IntCell(i / 10);
+            final DataCell stringCell =
+                i % 17 == 0 ? new MissingCell("error " + i) : new StringCell("value " + (i % 5));
+            final DataCell longCell = new LongCell(i % 3 == 0 ? Long.MIN_VALUE : (long)i << 33);
+            final DataCell doubleCell;
+            if (i % 13 == 0) {
+                doubleCell = new MissingCell("no double");
+            } else if (i % 7 == 0) {
+                doubleCell = new DoubleCell(i % 2 == 0 ? Double.NaN : -0d);
+            } else {
+                doubleCell = new DoubleCell(i + .5);
+            }
+            final DataCell booleanCell =
+                i % 19 == 0 ? DataType.getMissingCell() : BooleanCell.get((i / 3) % 2 == 0);
+            return new DefaultRow(key, intCell, stringCell, longCell, doubleCell, booleanCell);
+        }).toArray(DataRow[]::new);
+    }
+
+    @SuppressWarnings("resource")
+    private static Buffer write(final DataRow[] rows, final CompressionFormat compression) {
+        final DataContainer cont = new DataContainer(SPEC,
+            DataContainerSettings.getDefault().withMaxCellsInMemory(0).withInitializedDomain(false)
+                .withBufferSettings(BufferSettings.getDefault()
+                    .withOutputFormat(new ColumnarTableStoreFormat(compression, ROWS_PER_GROUP))));
+        for (final DataRow row : rows) {
+            cont.addRowToTable(row);
+        }
+        final Buffer b = ((BufferedDataContainerDelegate)cont.getDataContainerDelegate()).getBuffer();
+        cont.close();
+        return b;
+    }
+
+    private static void assertRowEquals(final String message, final DataRow expected, final DataRow actual) {
+        assertThat(message + ": key", actual.getKey(), equalTo(expected.getKey()));
+        for (int j = 0; j < expected.getNumCells(); j++) {
+            final DataCell expectedCell = expected.getCell(j);
+            final DataCell actualCell = actual.getCell(j);
+            if (expectedCell.isMissing()) {
+                assertThat(message + ": cell " + j + " is missing", actualCell.isMissing(), is(true));
+                assertThat(message + ": error of cell " + j, ((MissingValue)actualCell).getError(),
+                    equalTo(((MissingValue)expectedCell).getError()));
+            } else {
+                assertThat(message + ": cell " + j, actualCell, equalTo(expectedCell));
+            }
+        }
+    }
+
+    /** Round trip for all compression formats with generated and custom row keys spanning several row groups. */
+    @Test
+    public void testRoundTrip() {
+        for (final boolean generatedKeys : new boolean[]{true, false}) {
+            final DataRow[] rows = createRows(ROW_COUNT, generatedKeys);
+            for (final CompressionFormat compression : CompressionFormat.values()) {
+                final Buffer b = write(rows, compression);
+                assertThat("Output format", b.getOutputFormat(), instanceOf(ColumnarTableStoreFormat.class));
+                try (final CloseableRowIterator it = b.iterator()) {
+                    for (int i = 0; i < rows.length; i++) {
+                        assertThat("Iterator has rows", it.hasNext(), is(true));
+                        assertRowEquals("Row " + i + " (" + compression + ")", rows[i], it.next());
+                    }
+                    assertThat("Iterator with more than " + rows.length + " rows", it.hasNext(), is(false));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests cells of a type compatible with, but not equal to, the column type (e.g. {@link IntCell} in a double
+     * column), which must be read back unchanged, and strings that aren't valid UTF-16 or contain characters outside
+     * the basic multilingual plane.
+     */
+    @Test
+    public void testCompatibleCellsAndStrings() {
+        final String[] strings = {"plain", "\u00e4\u0000\u07ff\u0800", "lone \ud800 high", "lone \udc00 low",
+            "swapped \udc00\ud800", "emoji \ud83d\ude00", "", "\uffff"};
+        final DataRow[] rows = IntStream.range(0, ROW_COUNT).mapToObj(i -> {
+            final DataCell intCell = i % 2 == 0 ? BooleanCell.get(i % 4 == 0) : new IntCell(i);
+            final DataCell stringCell = new StringCell(strings[i % strings.length]);
+            final DataCell longCell = i % 3 == 0 ? new IntCell(-i) : (i % 3 == 1 ? BooleanCell.TRUE : new LongCell(i));
+            final DataCell doubleCell;
+            if (i % 4 == 0) {
+                doubleCell = new IntCell(i);
+            } else if (i % 4 == 1) {
+                doubleCell = new LongCell(Long.MAX_VALUE - i);
+            } else if (i % 4 == 2) {
+                doubleCell = BooleanCell.get(i % 8 == 2);
+            } else {
+                doubleCell = new DoubleCell(i / 3d);
+            }
+            return new DefaultRow(RowKey.createRowKey((long)i), intCell, stringCell, longCell, doubleCell,
+                i % 7 == 0 ? DataType.getMissingCell() : BooleanCell.get(i % 5 == 0));
+        }).toArray(DataRow[]::new);
+
+        final Buffer b = write(rows, CompressionFormat.GZIP);
+        assertThat("Output format", b.getOutputFormat(), instanceOf(ColumnarTableStoreFormat.class));
+        try (final CloseableRowIterator it = b.iterator()) {
+            for (final DataRow row : rows) {
+                final DataRow actual = it.next();
+                assertRowEquals("Row " + row.getKey(), row, actual);
+                for (int j = 0; j < row.getNumCells(); j++) {
+                    assertThat("Row " + row.getKey() + ": class of cell " + j, actual.getCell(j).getClass(),
+                        equalTo(row.getCell(j).getClass()));
+                }
+            }
+            assertThat("Iterator at end", it.hasNext(), is(false));
+        }
+    }
+
+    /** Tests that tables with unsupported columns fall back to the default format. */
+    @Test
+    public void testUnsupportedSpec() {
+        final DataTableSpec spec = new DataTableSpec(SPEC,
+            new DataTableSpec(new DataColumnSpecCreator("other", DataType.getType(DataCell.class)).createSpec()));
+        final ColumnarTableStoreFormat format = new ColumnarTableStoreFormat();
+        assertThat("Accepts primitive columns", format.accepts(SPEC), is(true));
+        assertThat("Accepts generic columns", format.accepts(spec), is(false));
+    }
+
+    /** Tests row ranges, also across row group boundaries, and column selection. */
+    @Test
+    public void testFilter() {
+        final DataRow[] rows = createRows(ROW_COUNT, true);
+        final Buffer b = write(rows, CompressionFormat.SNAPPY);
+        for (final int from : new int[]{0, ROWS_PER_GROUP - 1, ROWS_PER_GROUP, 100, ROW_COUNT - 1}) {
+            final int to = Math.min(from + 70, ROW_COUNT - 1);
+            try (final CloseableRowIterator it = b.iteratorWithFilter(TableFilter.filterRangeOfRows(from, to))) {
+                for (int i = from; i <= to; i++) {
+                    assertThat("Iterator has rows", it.hasNext(), is(true));
+                    assertRowEquals("Row " + i, rows[i], it.next());
+                }
+                assertThat("Iterator with more than " + (to - from + 1) + " rows", it.hasNext(), is(false));
+            }
+        }
+
+        try (final CloseableRowIterator it = b.iteratorWithFilter(TableFilter.materializeCols(1, 3))) {
+            for (int i = 0; i < rows.length; i++) {
+                final DataRow row = it.next();
+                assertThat("Row key " + i, row.getKey(), equalTo(rows[i].getKey()));
+                for (final int j : new int[]{0, 2, 4}) {
+                    assertThat("Unmaterialized cell " + j, row.getCell(j),
+                        equalTo((DataCell)UnmaterializedCell.getInstance()));
+                }
+                assertThat("String cell", row.getCell(1), equalTo(rows[i].getCell(1)));
+                assertThat("Double cell", row.getCell(3), equalTo(rows[i].getCell(3)));
+            }
+            assertThat("Iterator at end", it.hasNext(), is(false));
+        }
+
+        final TableFilter filter = TableFilter.filterRows(RowPredicate.equalTo(1, new StringCell("value 3")));
+        try (final CloseableRowIterator it = b.iteratorWithFilter(filter)) {
+            for (final DataRow row : rows) {
+                if (new StringCell("value 3").equals(row.getCell(1))) {
+                    assertRowEquals("Row " + row.getKey(), row, it.next());
+                }
+            }
+            assertThat("Iterator at end", it.hasNext(), is(false));
+        }
+    }
+
+    /**
+     * Tests the statistics persisted per chunk.
+     *
+     * @throws Exception if writing or reading fails
+     */
+    @Test
+    public void testStatistics() throws Exception {
+        final DataRow[] rows = createRows(ROW_COUNT, true);
+        final ColumnarTableStoreFormat format = new ColumnarTableStoreFormat(CompressionFormat.GZIP, ROWS_PER_GROUP);
+        final File file = m_tempFolder.newFile("table" + format.getFilenameSuffix());
+        final NodeSettings settings = new NodeSettings("format");
+        @SuppressWarnings("resource")
+        final AbstractTableStoreWriter writer = format.createWriter(file, SPEC, true);
+        for (final DataRow row : rows) {
+            writer.writeRow(row);
+        }
+        // meta information is written after the writer has been closed, as in the buffer
+        writer.close();
+        writer.writeMetaInfoAfterWrite(settings);
+        final ColumnarTableStoreReader reader = (ColumnarTableStoreReader)format.createReader(file, SPEC,
+            NotInWorkflowDataRepository.newInstance(), settings, Buffer.IVERSION, true);
+        assertThat("Number of row groups", reader.getGroupCount(),
+            is((ROW_COUNT + ROWS_PER_GROUP - 1) / ROWS_PER_GROUP));
+        for (int g = 0; g < reader.getGroupCount(); g++) {
+            final int first = g * ROWS_PER_GROUP;
+            final int last = Math.min(first + ROWS_PER_GROUP, ROW_COUNT) - 1;
+            final long missingInts = IntStream.rangeClosed(first, last).filter(i -> i % 11 == 0).count();
+            assertThat("Missing ints in group " + g, (long)reader.getMissingCount(g, 0), is(missingInts));
+            final int minInt = IntStream.rangeClosed(first, last).filter(i -> i % 11 != 0).map(i -> i / 10).min()
+                .getAsInt();
+            final int maxInt = IntStream.rangeClosed(first, last).filter(i -> i % 11 != 0).map(i -> i / 10).max()
+                .getAsInt();
+            assertThat("Minimum int in group " + g, reader.getMin(g, 0), is((long)minInt));
+            assertThat("Maximum int in group " + g, reader.getMax(g, 0), is((long)maxInt));
+            assertThat("Minimum string in group " + g, reader.getMinString(g, 1), equalTo("value 0"));
+            assertThat("Maximum string in group " + g, reader.getMaxString(g, 1), equalTo("value 4"));
+            assertThat("Minimum string of a numeric column", reader.getMinString(g, 0), nullValue());
+        }
+        try (final CloseableRowIterator it = reader.iterator()) {
+            for (final DataRow row : rows) {
+                assertRowEquals("Row " + row.getKey(), row, it.next());
+            }
+            assertThat("Iterator at end", it.hasNext(), is(false));
+        }
+    }
+
+}
@@ -63,10 +63,14 @@
 import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
 import org.knime.core.data.MissingValue;
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.container.DefaultTableStoreFormat.DefaultTableStoreSettings;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.data.container.storage.CompressionCodecRegistry;
 import org.knime.core.data.def.BooleanCell;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.DoubleCell;
@@ -136,6 +140,190 @@ public void testCompressions()
         }
     }
 
+    /**
+     * Ensures that tables can be written and read with all codecs available at the {@link CompressionCodecRegistry},
+     * including those contributed via extension point, and that the codec is applied to the table store format.
+     */
+    @SuppressWarnings("static-method")
+    @Test
+    public void testCompressionCodecs() {
+        final DataContainerSettings settings =
+            DataContainerSettings.getDefault().withMaxCellsInMemory(0).withInitializedDomain(false);
+        final Pair<DataTableSpec, DataRow[]> data = createData(ROW_COUNT);
+
+        for (final CompressionCodec codec : CompressionCodecRegistry.getInstance().getCompressionCodecs()) {
+            writeAndReadAtMinAndMaxLevel(codec, settings, data);
+        }
+    }
+
+    /**
+     * Ensures that the LZ4 and Zstandard codecs contributed by the fragment org.knime.core.data.compression are
+     * registered and that tables can be written and read with them at their minimum and maximum level.
+     */
+    @SuppressWarnings("static-method")
+    @Test
+    public void testLz4AndZstdCodecs() {
+        final DataContainerSettings settings =
+            DataContainerSettings.getDefault().withMaxCellsInMemory(0).withInitializedDomain(false);
+        final Pair<DataTableSpec, DataRow[]> data = createData(ROW_COUNT);
+
+        for (final String name : new String[]{"LZ4", "Zstd"}) {
+            writeAndReadAtMinAndMaxLevel(getContributedCodec(name), settings, data);
+        }
+    }
+
+    /**
+     * Ensures that codecs are looked up by their (case-insensitive) name, optionally followed by a level, and that
+     * unsupported levels are rejected.
+     */
+    @SuppressWarnings("static-method")
+    @Test
+    public void testParseCompressionCodec() {
+        final CompressionCodecRegistry registry = CompressionCodecRegistry.getInstance();
+        Assert.assertThat(DefaultTableStoreFormat.parseCompressionCodec("gzip"),
+            sameInstance((CompressionCodec)CompressionFormat.GZIP));
+        Assert.assertThat(DefaultTableStoreFormat.parseCompressionCodec("true"),
+            sameInstance((CompressionCodec)CompressionFormat.GZIP));
+        Assert.assertThat(registry.parseCompressionCodec("Snappy"),
+            sameInstance((CompressionCodec)CompressionFormat.SNAPPY));
+        try {
+            CompressionFormat.GZIP.withLevel(5);
+            fail("Built-in compression formats don't support levels");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            registry.parseCompressionCodec("no-such-codec");
+            fail("Unknown codec was parsed");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        final CompressionCodec zstd = getContributedCodec("zstd");
+        final CompressionCodec parsed = DefaultTableStoreFormat.parseCompressionCodec("ZSTD:9");
+        Assert.assertThat(parsed.getName(), equalTo(zstd.getName()));
+        Assert.assertThat(parsed.getLevel(), is(9));
+        try {
+            zstd.withLevel(zstd.getMaxLevel() + 1);
+            fail("Level above the maximum was accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Ensures that tables written in independently compressed blocks of rows can be read as a whole and from any row
+     * onward, for all compression formats.
+     */
+    @SuppressWarnings("static-method")
+    @Test
+    public void testRowBlocks() {
+        final DataContainerSettings settings =
+            DataContainerSettings.getDefault().withMaxCellsInMemory(0).withInitializedDomain(false);
+        final Pair<DataTableSpec, DataRow[]> data = createData(ROW_COUNT);
+
+        for (final CompressionFormat cFormat : CompressionFormat.values()) {
+            DataContainer cont = new DataContainer(data.getFirst(),
+                settings.withBufferSettings(BufferSettings.getDefault().withOutputFormat(new DefaultTableStoreFormat(
+                    DefaultTableStoreSettings.getDefault().withCompression(cFormat).withRowsPerBlock(64)))));
+            writeData(data.getSecond(), cont);
+            @SuppressWarnings("resource")
+            final Buffer b = ((BufferedDataContainerDelegate)cont.getDataContainerDelegate()).getBuffer();
+            cont.close();
+
+            // read the whole table, i.e., the concatenation of all blocks
+            read(b, data.getSecond());
+
+            // read ranges starting at the beginning of, in the middle of and right before the end of a block
+            for (final int from : new int[]{0, 64, 100, 191, 448, ROW_COUNT - 1}) {
+                final int to = Math.min(from + 70, ROW_COUNT - 1);
+                try (final CloseableRowIterator rowIt = b.iteratorWithFilter(TableFilter.filterRangeOfRows(from, to))) {
+                    for (int i = from; i <= to; i++) {
+                        Assert.assertThat("Iterator has rows", rowIt.hasNext(), is(true));
+                        Assert.assertThat("Row " + i + " (" + cFormat + ")", rowIt.next().getKey(),
+                            equalTo(data.getSecond()[i].getKey()));
+                    }
+                    Assert.assertThat("Iterator with more than " + (to - from + 1) + " rows", rowIt.hasNext(),
+                        is(false));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ensures that primitive cells read from uncompressed files (which are memory-mapped unless disabled) are decoded
+     * correctly, including values whose serialized form contains escaped bytes and extreme values.
+     */
+    @SuppressWarnings("static-method")
+    @Test
+    public void testUncompressedPrimitives() {
+        final DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("long", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("double", DoubleCell.TYPE).createSpec());
+        // 0x61 and 0x62 are the terminate and escape bytes of the stream
+        final int[] ints = {0, 0x61, 0x62, 0x6162, 0x61616161, 0x62626262, -1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        final DataRow[] rows = new DataRow[ints.length * 2];
+        for (int i = 0; i < ints.length; i++) {
+            final long l = ((long)ints[i] << 32) | 0x62L;
+            rows[2 * i] = new DefaultRow(RowKey.createRowKey((long)2 * i), new IntCell(ints[i]), new LongCell(l),
+                new DoubleCell(Double.longBitsToDouble(l)));
+            rows[2 * i + 1] = new DefaultRow(RowKey.createRowKey((long)2 * i + 1), DataType.getMissingCell(),
+                new LongCell(Long.MIN_VALUE + i), new DoubleCell(i % 2 == 0 ? Double.NaN : -0d));
+        }
+
+        final DataContainer cont = new DataContainer(spec,
+            DataContainerSettings.getDefault().withMaxCellsInMemory(0).withInitializedDomain(false)
+                .withBufferSettings(BufferSettings.getDefault().withOutputFormat(new DefaultTableStoreFormat(
+                    DefaultTableStoreSettings.getDefault().withCompression(CompressionFormat.NONE)))));
+        writeData(rows, cont);
+        @SuppressWarnings("resource")
+        final Buffer b = ((BufferedDataContainerDelegate)cont.getDataContainerDelegate()).getBuffer();
+        cont.close();
+        read(b, rows);
+    }
+
+    /**
+     * Looks up a codec contributed by the fragment org.knime.core.data.compression, failing if it is not installed.
+     *
+     * @param name the name of the codec
+     * @return the codec
+     */
+    private static CompressionCodec getContributedCodec(final String name) {
+        return CompressionCodecRegistry.getInstance().getCompressionCodec(name)
+            .orElseThrow(() -> new AssertionError("Compression codec \"" + name
+                + "\" not registered, is the fragment org.knime.core.data.compression installed?"));
+    }
+
+    /**
+     * Writes the data with the given codec at its minimum and its maximum level and verifies that it is read back
+     * unchanged.
+     *
+     * @param codec the codec to test
+     * @param settings the container settings, keeping no rows in memory
+     * @param data the data to write
+     */
+    private static void writeAndReadAtMinAndMaxLevel(final CompressionCodec codec,
+        final DataContainerSettings settings, final Pair<DataTableSpec, DataRow[]> data) {
+        for (final int level : new int[]{codec.getMinLevel(), codec.getMaxLevel()}) {
+            final CompressionCodec leveledCodec = codec.withLevel(level);
+            final DataContainerSettings codecSettings = settings.withCompression(leveledCodec);
+            Assert.assertThat("Codec of output format",
+                codecSettings.getBufferSettings().getOutputFormat(data.getFirst()).getCompressionCodec().get(),
+                equalTo(leveledCodec));
+
+            final DataContainer cont = new DataContainer(data.getFirst(), codecSettings);
+            writeData(data.getSecond(), cont);
+            @SuppressWarnings("resource")
+            final Buffer b = ((BufferedDataContainerDelegate)cont.getDataContainerDelegate()).getBuffer();
+            cont.close();
+
+            Assert.assertThat("Compressed file has wrong file extension:",
+                b.getBinFile().getName().substring(b.getBinFile().getName().indexOf(".")),
+                equalTo(codec.getFileExtension()));
+            read(b, data.getSecond());
+        }
+    }
+
     /**
      * Creates the data.
      *
@@ -0,0 +1,214 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.filter.RowPredicate;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.WorkflowCreationHelper;
+import org.knime.core.node.workflow.WorkflowDataRepository;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Tests {@link RowRangeTable} and {@link ExecutionContext#createRowRangeTable(BufferedDataTable, long, long)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class RowRangeTableTest {
+
+    private static final DataTableSpec SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec());
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final ExecutionContext EXEC = new ExecutionContext(new DefaultNodeProgressMonitor(),
+        new Node((NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0])),
+        SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+
+    private static BufferedDataTable createTable(final int rowCount, final boolean keepInMemory) {
+        final BufferedDataContainer cont = EXEC.createDataContainer(SPEC, true, keepInMemory ? Integer.MAX_VALUE : 0);
+        for (int i = 0; i < rowCount; i++) {
+            cont.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i)));
+        }
+        cont.close();
+        return cont.getTable();
+    }
+
+    private static List<Integer> values(final Iterable<DataRow> table) {
+        final List<Integer> result = new ArrayList<>();
+        for (DataRow row : table) {
+            result.add(((IntValue)row.getCell(0)).getIntValue());
+        }
+        return result;
+    }
+
+    private static List<Integer> range(final int from, final int to) {
+        final List<Integer> result = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    /** Splitting a table into row ranges and concatenating them again yields the original table. */
+    @Test
+    public void testChunksAndConcatenate() throws Exception {
+        for (boolean keepInMemory : new boolean[]{true, false}) {
+            final BufferedDataTable table = createTable(100, keepInMemory);
+            final BufferedDataTable[] chunks = new BufferedDataTable[]{EXEC.createRowRangeTable(table, 0, 32),
+                EXEC.createRowRangeTable(table, 33, 65), EXEC.createRowRangeTable(table, 66, 99)};
+            assertThat("Chunk size", chunks[0].size(), is(33L));
+            assertThat("Chunk size", chunks[2].size(), is(34L));
+            assertThat("Chunk content", values(chunks[1]), is(range(33, 65)));
+            final BufferedDataTable concatenated = EXEC.createConcatenateTable(EXEC, chunks);
+            assertThat("Concatenated size", concatenated.size(), is(100L));
+            assertThat("Concatenated content", values(concatenated), is(range(0, 99)));
+        }
+    }
+
+    /** Row indices of filters are relative to the range, predicates are applied within the range only. */
+    @Test
+    public void testFilter() throws Exception {
+        final BufferedDataTable chunk = EXEC.createRowRangeTable(createTable(100, false), 40, 59);
+        assertThat("Filtered rows", values(chunk.filter(TableFilter.filterRangeOfRows(5, 9))), is(range(45, 49)));
+        assertThat("Filtered rows", values(chunk.filter(TableFilter.filterRowsFromIndex(15))), is(range(55, 59)));
+        assertThat("Filtered rows", values(chunk.filter(TableFilter.filterRowsFromIndex(20))), is(range(0, -1)));
+        final RowPredicate lessThan45 = RowPredicate.lessThan(0, new IntCell(45));
+        assertThat("Filtered rows", values(chunk.filter(TableFilter.filterRows(lessThan45))), is(range(40, 44)));
+        final TableFilter rangeAndPredicate =
+            new TableFilter.Builder().withFromRowIndex(3).withToRowIndex(10).withPredicate(lessThan45).build();
+        assertThat("Filtered rows", values(chunk.filter(rangeAndPredicate)), is(range(43, 44)));
+    }
+
+    /** Empty ranges are allowed, invalid ranges are rejected. */
+    @Test
+    public void testEmptyAndInvalidRanges() {
+        final BufferedDataTable table = createTable(10, true);
+        final BufferedDataTable empty = EXEC.createRowRangeTable(table, 5, 4);
+        assertThat("Empty size", empty.size(), is(0L));
+        assertThat("Empty content", values(empty), is(range(0, -1)));
+        for (long[] invalid : new long[][]{{-1, 3}, {5, 3}, {0, 10}}) {
+            try {
+                EXEC.createRowRangeTable(table, invalid[0], invalid[1]);
+                throw new AssertionError("Invalid range not rejected: " + invalid[0] + " - " + invalid[1]);
+            } catch (IllegalArgumentException e) { // NOSONAR expected
+            }
+        }
+    }
+
+    /**
+     * Saves a row range table and loads it again, resolving the referenced table from the table repository, as done
+     * when a workflow is saved and loaded. Invalid settings are rejected.
+     */
+    @Test
+    public void testSaveLoadRoundTrip() throws Exception {
+        final WorkflowManager project =
+            WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(), new WorkflowCreationHelper());
+        try {
+            final WorkflowDataRepository dataRepository = project.getWorkflowDataRepository();
+            final BufferedDataTable table = createTable(100, false);
+            final RowRangeTable rangeTable = new RowRangeTable(table, 20, 49);
+            final NodeSettings settings = new NodeSettings("table_meta");
+            rangeTable.saveToFile(null, settings, EXEC);
+
+            final Map<Integer, BufferedDataTable> tblRep = new HashMap<>();
+            BufferedDataTable.putDataTable(tblRep, table);
+            final RowRangeTable loaded = RowRangeTable.load(settings, tblRep, dataRepository);
+            assertThat("Reference table", loaded.getReferenceTables()[0], is(sameInstance(table)));
+            assertThat("From index", loaded.getFromIndex(), is(20L));
+            assertThat("To index", loaded.getToIndex(), is(49L));
+            assertThat("Loaded size", loaded.size(), is(30L));
+            assertThat("Loaded content", values(loaded), is(range(20, 49)));
+
+            try {
+                RowRangeTable.load(settings, new HashMap<>(), dataRepository);
+                throw new AssertionError("Missing reference table not rejected");
+            } catch (InvalidSettingsException e) { // NOSONAR expected
+            }
+            final NodeSettings invalid = new NodeSettings("table_meta");
+            final NodeSettingsWO invalidMeta = invalid.addNodeSettings("meta_internal");
+            invalidMeta.addInt("table_reference_ID", table.getBufferedTableId());
+            invalidMeta.addLong("from_row_index", 90);
+            invalidMeta.addLong("to_row_index", 100);
+            try {
+                RowRangeTable.load(invalid, tblRep, dataRepository);
+                throw new AssertionError("Range beyond the reference table not rejected");
+            } catch (InvalidSettingsException e) { // NOSONAR expected
+            }
+        } finally {
+            WorkflowManager.ROOT.removeProject(project.getID());
+        }
+    }
+}
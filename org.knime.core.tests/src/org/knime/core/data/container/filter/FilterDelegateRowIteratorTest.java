@@ -118,4 +118,25 @@ public void testFilterSome() {
         }
     }
 
+    /**
+     * Tests that {@link TableFilter TableFilters} with a {@link RowPredicate} and a range of rows are correctly handled
+     * by a {@link FilterDelegateRowIterator}, i.e., the range refers to the indices of the unfiltered rows.
+     */
+    @Test
+    public void testFilterPredicate() {
+        // keep only rows with an index between 10 and 20 and with an int value greater than 14 or a true boolean
+        final RowPredicate predicate = RowPredicate.greaterThan(0, new IntCell(14))
+            .or(RowPredicate.equalTo(4, BooleanCell.TRUE));
+        TableFilter filter =
+            (new TableFilter.Builder()).withFromRowIndex(10).withToRowIndex(20).withPredicate(predicate).build();
+
+        try (final CloseableRowIterator rowIt = new FilterDelegateRowIterator(new TestIterator(), filter, 100, null)) {
+            for (String key : new String[]{"11", "13", "15", "16", "17", "18", "19", "20"}) {
+                assertTrue(rowIt.hasNext());
+                assertEquals(key, rowIt.next().getKey().getString());
+            }
+            assertFalse(rowIt.hasNext());
+        }
+    }
+
 }
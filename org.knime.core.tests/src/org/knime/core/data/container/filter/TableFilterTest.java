@@ -48,9 +48,15 @@
  */
 package org.knime.core.data.container.filter;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
 import org.junit.Test;
 import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
 import org.knime.core.data.def.BooleanCell;
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
@@ -131,4 +137,32 @@ public void testInvalidRangeOfRows() {
         TableFilter.filterRangeOfRows(5, 3).validate(SPEC, 0);
     }
 
+    /**
+     * Tests that attempting to build a filter with a predicate on a too high column index throws an
+     * {@link IndexOutOfBoundsException}.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPredicateColumnIndexOutOfBounds() {
+        TableFilter.filterRows(RowPredicate.isMissing(1).and(RowPredicate.isMissing(5))).validate(SPEC, 0);
+    }
+
+    /**
+     * Tests that attempting to build a predicate comparing against a missing value throws an
+     * {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPredicateMissingValue() {
+        RowPredicate.lessThan(0, DataType.getMissingCell());
+    }
+
+    /**
+     * Tests that the columns accessed by a predicate are materialized.
+     */
+    @Test
+    public void testPredicateColumnsMaterialized() {
+        final TableFilter filter = new TableFilter.Builder().withMaterializeColumnIndices(0, 3)
+            .withPredicate(RowPredicate.equalTo(2, new DoubleCell(1))).build();
+        assertEquals(new HashSet<>(Arrays.asList(0, 2, 3)), filter.getMaterializeColumnIndices().get());
+    }
+
 }
@@ -0,0 +1,162 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container.storage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.CellClassInfo;
+import org.knime.core.data.container.KNIMEStreamConstants;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.NodeSettings;
+
+/**
+ * Test cases for the type shortcuts of the {@link AbstractTableStoreWriter}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class AbstractTableStoreWriterTest {
+
+    private static final CellClassInfo[] TYPES = {CellClassInfo.get(new IntCell(0)),
+        CellClassInfo.get(new DoubleCell(0)), CellClassInfo.get(new StringCell("")),
+        CellClassInfo.get(new LongCell(0)), CellClassInfo.get(BooleanCell.TRUE)};
+
+    private static AbstractTableStoreWriter createWriter() {
+        return new AbstractTableStoreWriter(
+            new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec()), true) {
+            @Override
+            public void writeRow(final DataRow row) {
+                // not needed
+            }
+
+            @Override
+            public void close() {
+                // not needed
+            }
+        };
+    }
+
+    /**
+     * Tests that types are assigned consecutive shortcuts in the order they are first written, and that these are
+     * written to the meta info.
+     *
+     * @throws Exception if the lookup fails
+     */
+    @Test
+    public void testShortCutsInOrder() throws Exception {
+        final AbstractTableStoreWriter writer = createWriter();
+        Assert.assertNull("Shortcut of unwritten type", writer.getTypeShortCut(TYPES[0]));
+        for (int i = 0; i < TYPES.length; i++) {
+            Assert.assertSame("Serializer", TYPES[i].getSerializer(), writer.getSerializerForDataCell(TYPES[i]));
+            // looking up a type again must not assign a new shortcut
+            writer.getSerializerForDataCell(TYPES[0]);
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            Assert.assertEquals("Shortcut of " + TYPES[i],
+                Byte.valueOf((byte)(KNIMEStreamConstants.BYTE_TYPE_START + i)), writer.getTypeShortCut(TYPES[i]));
+        }
+
+        final NodeSettings settings = new NodeSettings("meta");
+        writer.writeMetaInfoAfterWrite(settings);
+        Assert.assertEquals("Number of written cell classes", TYPES.length,
+            settings.getNodeSettings(TableStoreFormat.CFG_CELL_CLASSES).keySet().size());
+    }
+
+    /**
+     * Tests that concurrently written types are assigned distinct shortcuts, each type exactly one.
+     *
+     * @throws Exception if the lookup fails
+     */
+    @Test(timeout = 10000)
+    public void testConcurrentShortCuts() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int run = 0; run < 100; run++) {
+                final AbstractTableStoreWriter writer = createWriter();
+                final List<Future<Void>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    final int offset = t;
+                    futures.add(executor.submit((Callable<Void>)() -> {
+                        for (int i = 0; i < TYPES.length; i++) {
+                            writer.getSerializerForDataCell(TYPES[(i + offset) % TYPES.length]);
+                        }
+                        return null;
+                    }));
+                }
+                for (final Future<Void> future : futures) {
+                    future.get();
+                }
+                final Set<Byte> shortCuts = new HashSet<>();
+                for (final CellClassInfo type : TYPES) {
+                    final Byte shortCut = writer.getTypeShortCut(type);
+                    Assert.assertNotNull("Shortcut of " + type, shortCut);
+                    Assert.assertTrue("Shortcut " + shortCut + " assigned twice", shortCuts.add(shortCut));
+                    Assert.assertTrue("Shortcut " + shortCut + " out of range",
+                        shortCut - KNIMEStreamConstants.BYTE_TYPE_START < TYPES.length);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
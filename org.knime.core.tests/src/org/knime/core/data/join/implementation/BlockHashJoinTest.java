@@ -52,143 +52,28 @@
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assume.assumeThat;
 
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-
-import org.junit.experimental.theories.DataPoints;
-import org.junit.experimental.theories.Theories;
-import org.junit.experimental.theories.Theory;
-import org.junit.runner.RunWith;
-import org.knime.core.data.DataRow;
 import org.knime.core.data.join.JoinSpecification;
-import org.knime.core.data.join.JoinTest;
 import org.knime.core.data.join.JoinTestInput;
-import org.knime.core.data.join.results.JoinResult;
-import org.knime.core.data.join.results.JoinResult.OutputCombined;
-import org.knime.core.data.join.results.JoinResult.OutputSplit;
-import org.knime.core.node.BufferedDataTable;
-import org.knime.core.node.CanceledExecutionException;
-import org.knime.core.node.InvalidSettingsException;
 
 /**
- * Tests all combinations of
- * <ul>
- * <li>join types: inner, outer, anti</li>
- * <li>output orders: arbitrary, probe-hash, left-right</li>
- * <li>execution modes: in-memory, partially in-memory, on disk</li>
- * </ul>
- * The test inputs as defined in {@link JoinTestInput} specify the remaining aspects:
- * <ul>
- * <li>match mode: match all, match any</li>
- * <li>output mode: merge join columns or don't</li>
- * </ul>
- *
+ * Tests the {@link BlockHashJoin} in memory and partially in memory, see {@link JoinImplementationTest}.
  *
  * @author Carl Witt, KNIME AG, Zurich, Switzerland
  */
-@RunWith(Theories.class)
-public class BlockHashJoinTest extends JoinTest {
-
-    /**
-     * The join inputs (tables, join specification, expected join result) to test the algorithm on.
-     */
-    @DataPoints
-    public static List<JoinTestInput> inputs;
-    static {
-        inputs = new LinkedList<>();
-        // join test inputs that are configured to use match any, e.g., disjunctive join clauses
-        inputs.addAll(Arrays.asList(JoinTestInput.DISJUNCTIVE));
-        // join test inputs that are configured to use match all, e.g., conjunctive join clauses
-        inputs.addAll(Arrays.asList(JoinTestInput.CONJUNCTIVE));
-    }
-
-    /**
-     * @param input the left and right input table
-     * @param joinMode which results to retain
-     * @param order output row order
-     * @param executionMode
-     * @throws CanceledExecutionException
-     * @throws InvalidSettingsException
-     */
-    @Theory
-    public void testJoinOutputCombined(final JoinTestInput input, final JoinMode joinMode, final OutputOrder order,
-        final Execution executionMode)
-        throws CanceledExecutionException, InvalidSettingsException {
+public class BlockHashJoinTest extends JoinImplementationTest {
 
-        // TODO fast sort not yet supported
-        assumeThat(order, is(not(OutputOrder.PROBE_HASH)));
-        // consider in memory and partial in memory (on disk doesn't make a difference compared to partial in memory)
-        assumeThat(executionMode, is(not(Execution.ON_DISK)));
-
-        System.out.println(String.format("getSingleTable %-15s %-10s %-10s %-15s", input, joinMode.name(),
-            order.m_rowOrder.name(), executionMode.name()));
-
-        // create the joiner
-        JoinSpecification joinSpec = input.getJoinSpecification(joinMode, order.m_rowOrder);
+    @Override
+    protected JoinImplementation createJoiner(final JoinSpecification joinSpec, final Execution executionMode) {
         BlockHashJoin blockHashJoin = new BlockHashJoin(joinSpec, JoinTestInput.EXEC);
         blockHashJoin.getProgress().m_assumeMemoryLow = executionMode != Execution.IN_MEMORY;
-
-        // do the join
-        JoinResult<OutputCombined> results = blockHashJoin.joinOutputCombined();
-
-        // compare to expected results
-        DataRow[] expected = input.ordered(joinMode, order.m_rowOrder);
-        order.m_validator.accept(results.getResults().getTable(), expected);
-
+        return blockHashJoin;
     }
 
-    /**
-     * @param input the left and right input table
-     * @param joinMode which results to retain
-     * @param order output row order
-     * @param executionMode
-     * @param mergeJoinColumns
-     * @throws CanceledExecutionException
-     * @throws InvalidSettingsException
-     */
-    @Theory
-    public void testJoinOutputSplit(final JoinTestInput input, final JoinMode joinMode, final OutputOrder order,
-        final Execution executionMode)
-        throws CanceledExecutionException, InvalidSettingsException {
-
-        // TODO fast sort not yet supported
-        assumeThat(order, is(not(OutputOrder.PROBE_HASH)));
+    @Override
+    protected void assumeSupported(final OutputOrder order, final Execution executionMode) {
+        super.assumeSupported(order, executionMode);
         // consider in memory and partial in memory (on disk doesn't make a difference compared to partial in memory)
         assumeThat(executionMode, is(not(Execution.ON_DISK)));
-
-        System.out.println(String.format("getSingleTable %-15s %-10s %-10s %-15s", input, joinMode.name(),
-            order.m_rowOrder.name(), executionMode.name()));
-
-        // create the joiner
-        JoinSpecification joinSpec = input.getJoinSpecification(joinMode, order.m_rowOrder);
-        BlockHashJoin blockHashJoin = new BlockHashJoin(joinSpec, JoinTestInput.EXEC);
-        blockHashJoin.getProgress().m_assumeMemoryLow = executionMode != Execution.IN_MEMORY;
-
-        // do the join
-        JoinResult<OutputSplit> results = blockHashJoin.joinOutputSplit();
-
-        if (joinMode.m_retainMatches) {
-            DataRow[] expectedMatches = input.ordered(JoinMode.INNER, order.m_rowOrder);
-            BufferedDataTable actual = results.getResults().getMatches();
-            order.m_validator.accept(actual, expectedMatches);
-        }
-
-        if (joinMode.m_retainLeftUnmatched) {
-            // validate left unmatched rows by comparing the produced left unmatched rows with the expected join result
-            // for a left antijoin (only left unmatched rows)
-            DataRow[] expectedLeft = input.leftOuter(order.m_rowOrder);
-            BufferedDataTable actual = results.getResults().getLeftOuter();
-            order.m_validator.accept(actual, expectedLeft);
-        }
-
-        if (joinMode.m_retainRightUnmatched) {
-            // validate right unmatched rows
-            DataRow[] expectedRight = input.rightOuter(order.m_rowOrder);
-            BufferedDataTable actual = results.getResults().getRightOuter();
-            order.m_validator.accept(actual, expectedRight);
-        }
-
     }
 
 }
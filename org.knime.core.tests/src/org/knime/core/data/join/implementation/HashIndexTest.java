@@ -0,0 +1,200 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.join.implementation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinSpecification.DataCellComparisonMode;
+import org.knime.core.data.join.JoinSpecification.InputTable;
+import org.knime.core.data.join.JoinSpecification.OutputRowOrder;
+import org.knime.core.data.join.JoinTableSettings;
+import org.knime.core.data.join.JoinTableSettings.JoinColumn;
+import org.knime.core.data.join.JoinTestInput;
+import org.knime.core.data.join.results.JoinResult;
+import org.knime.core.data.join.results.JoinResult.OutputSplit;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+
+/**
+ * Tests the {@link HashIndex} on joins that use a {@link PrimitiveKeyIndex}. The tables contain enough distinct keys
+ * to make the index grow, and duplicate keys on both sides.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class HashIndexTest {
+
+    /** Left table has keys 0...1499, each twice, plus a missing value. */
+    private static BufferedDataTable left(final DataType type, final LongFunction<DataCell> cell) {
+        return table(type, 3000, i -> i % 1500, cell);
+    }
+
+    /** Right table has keys 0, 2, ..., 1998, each twice, plus a missing value. */
+    private static BufferedDataTable right(final DataType type, final LongFunction<DataCell> cell) {
+        return table(type, 2000, i -> 2 * (i % 1000), cell);
+    }
+
+    private static BufferedDataTable table(final DataType type, final int rows,
+        final LongUnaryOperator key, final LongFunction<DataCell> cell) {
+        DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("Key", type).createSpec());
+        BufferedDataContainer container = JoinTestInput.EXEC.createDataContainer(spec);
+        for (int i = 0; i < rows; i++) {
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), cell.apply(key.applyAsLong(i))));
+        }
+        container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)rows), DataType.getMissingCell()));
+        container.close();
+        return container.getTable();
+    }
+
+    private static JoinResult<OutputSplit> join(final BufferedDataTable left, final BufferedDataTable right,
+        final DataCellComparisonMode mode) throws Exception {
+        return join(left, right, mode, OutputRowOrder.ARBITRARY, 1);
+    }
+
+    private static JoinResult<OutputSplit> join(final BufferedDataTable left, final BufferedDataTable right,
+        final DataCellComparisonMode mode, final OutputRowOrder order, final int probeParallelism) throws Exception {
+        JoinTableSettings leftSettings = new JoinTableSettings(true, JoinColumn.array("Key"), new String[]{"Key"},
+            InputTable.LEFT, left);
+        JoinTableSettings rightSettings = new JoinTableSettings(true, JoinColumn.array("Key"), new String[]{"Key"},
+            InputTable.RIGHT, right);
+        JoinSpecification joinSpec = new JoinSpecification.Builder(leftSettings, rightSettings)
+            .columnNameDisambiguator(name -> name.concat("*")).conjunctive(true)
+            .outputRowOrder(order).dataCellComparisonMode(mode)
+            .rowKeyFactory(JoinSpecification.createConcatRowKeysFactory("+")).retainMatched(true).build();
+        BlockHashJoin blockHashJoin = new BlockHashJoin(joinSpec, JoinTestInput.EXEC);
+        blockHashJoin.setProbeParallelism(probeParallelism);
+        // split the probe table into several ranges
+        blockHashJoin.m_minRowsPerProbeRange = 100;
+        return blockHashJoin.joinOutputSplit();
+    }
+
+    /**
+     * Keys 0, 2, ..., 1498 occur twice in each table. The missing values never match.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIntKeys() throws Exception {
+        JoinResult<OutputSplit> results = join(left(IntCell.TYPE, i -> new IntCell((int)i)),
+            right(IntCell.TYPE, i -> new IntCell((int)i)), DataCellComparisonMode.STRICT);
+        assertEquals(4 * 750, results.getResults().getMatches().size());
+        assertEquals(3001 - 2 * 750, results.getResults().getLeftOuter().size());
+        assertEquals(2001 - 2 * 750, results.getResults().getRightOuter().size());
+    }
+
+    /**
+     * Integer and long cells match only if their values are compared as long values.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIntAndLongKeys() throws Exception {
+        BufferedDataTable left = left(IntCell.TYPE, i -> new IntCell((int)i));
+        BufferedDataTable right = right(LongCell.TYPE, LongCell::new);
+
+        JoinResult<OutputSplit> strict = join(left, right, DataCellComparisonMode.STRICT);
+        assertEquals(0, strict.getResults().getMatches().size());
+        assertEquals(3001, strict.getResults().getLeftOuter().size());
+        assertEquals(2001, strict.getResults().getRightOuter().size());
+
+        JoinResult<OutputSplit> numeric = join(left, right, DataCellComparisonMode.NUMERIC_AS_LONG);
+        assertEquals(4 * 750, numeric.getResults().getMatches().size());
+        assertEquals(3001 - 2 * 750, numeric.getResults().getLeftOuter().size());
+        assertEquals(2001 - 2 * 750, numeric.getResults().getRightOuter().size());
+    }
+
+    /**
+     * Probing row ranges of the larger table concurrently gives the same results in the same order as probing on a
+     * single thread.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testParallelProbe() throws Exception {
+        BufferedDataTable left = left(IntCell.TYPE, i -> new IntCell((int)i));
+        BufferedDataTable right = right(IntCell.TYPE, i -> new IntCell((int)i));
+
+        OutputSplit sequential =
+            join(left, right, DataCellComparisonMode.STRICT, OutputRowOrder.LEFT_RIGHT, 1).getResults();
+        OutputSplit parallel =
+            join(left, right, DataCellComparisonMode.STRICT, OutputRowOrder.LEFT_RIGHT, 4).getResults();
+
+        assertTableEquals(sequential.getMatches(), parallel.getMatches());
+        assertTableEquals(sequential.getLeftOuter(), parallel.getLeftOuter());
+        assertTableEquals(sequential.getRightOuter(), parallel.getRightOuter());
+    }
+
+    private static void assertTableEquals(final BufferedDataTable expected, final BufferedDataTable actual) {
+        assertEquals(expected.size(), actual.size());
+        try (CloseableRowIterator expectedRows = expected.iterator();
+                CloseableRowIterator actualRows = actual.iterator()) {
+            while (expectedRows.hasNext()) {
+                DataRow expectedRow = expectedRows.next();
+                DataRow actualRow = actualRows.next();
+                assertEquals(expectedRow.getKey(), actualRow.getKey());
+                for (int i = 0; i < expectedRow.getNumCells(); i++) {
+                    assertEquals(expectedRow.getCell(i), actualRow.getCell(i));
+                }
+            }
+        }
+    }
+
+}
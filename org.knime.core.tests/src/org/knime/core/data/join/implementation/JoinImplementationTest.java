@@ -0,0 +1,195 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.join.implementation;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assume.assumeThat;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinTest;
+import org.knime.core.data.join.JoinTestInput;
+import org.knime.core.data.join.results.JoinResult;
+import org.knime.core.data.join.results.JoinResult.OutputCombined;
+import org.knime.core.data.join.results.JoinResult.OutputSplit;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.InvalidSettingsException;
+
+/**
+ * Tests a {@link JoinImplementation} on all combinations of
+ * <ul>
+ * <li>join types: inner, outer, anti</li>
+ * <li>output orders: arbitrary, probe-hash, left-right</li>
+ * <li>execution modes: in-memory, partially in-memory, on disk</li>
+ * </ul>
+ * that the implementation supports, see {@link #assumeSupported(OutputOrder, Execution)}. The test inputs as defined
+ * in {@link JoinTestInput} specify the remaining aspects:
+ * <ul>
+ * <li>match mode: match all, match any</li>
+ * <li>output mode: merge join columns or don't</li>
+ * </ul>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@RunWith(Theories.class)
+public abstract class JoinImplementationTest extends JoinTest {
+
+    /**
+     * The join inputs (tables, join specification, expected join result) to test the algorithm on.
+     */
+    @DataPoints
+    public static List<JoinTestInput> inputs;
+    static {
+        inputs = new LinkedList<>();
+        // join test inputs that are configured to use match any, e.g., disjunctive join clauses
+        inputs.addAll(Arrays.asList(JoinTestInput.DISJUNCTIVE));
+        // join test inputs that are configured to use match all, e.g., conjunctive join clauses
+        inputs.addAll(Arrays.asList(JoinTestInput.CONJUNCTIVE));
+    }
+
+    /**
+     * @param joinSpec the join to perform
+     * @param executionMode how much of the join the implementation should assume to fit into memory
+     * @return the join implementation under test
+     */
+    protected abstract JoinImplementation createJoiner(JoinSpecification joinSpec, Execution executionMode);
+
+    /**
+     * Skips (via {@link org.junit.Assume}) the combinations that the implementation doesn't support or that are not
+     * worth testing. By default skips the probe-hash output order, which is not yet supported.
+     *
+     * @param order output row order
+     * @param executionMode how much of the join is assumed to fit into memory
+     */
+    protected void assumeSupported(final OutputOrder order, final Execution executionMode) {
+        // TODO fast sort not yet supported
+        assumeThat(order, is(not(OutputOrder.PROBE_HASH)));
+    }
+
+    /**
+     * @param input the left and right input table
+     * @param joinMode which results to retain
+     * @param order output row order
+     * @param executionMode
+     * @throws CanceledExecutionException
+     * @throws InvalidSettingsException
+     */
+    @Theory
+    public void testJoinOutputCombined(final JoinTestInput input, final JoinMode joinMode, final OutputOrder order,
+        final Execution executionMode)
+        throws CanceledExecutionException, InvalidSettingsException {
+
+        assumeSupported(order, executionMode);
+
+        // create the joiner
+        JoinSpecification joinSpec = input.getJoinSpecification(joinMode, order.m_rowOrder);
+        JoinImplementation joiner = createJoiner(joinSpec, executionMode);
+
+        // do the join
+        JoinResult<OutputCombined> results = joiner.joinOutputCombined();
+
+        // compare to expected results
+        DataRow[] expected = input.ordered(joinMode, order.m_rowOrder);
+        order.m_validator.accept(results.getResults().getTable(), expected);
+
+    }
+
+    /**
+     * @param input the left and right input table
+     * @param joinMode which results to retain
+     * @param order output row order
+     * @param executionMode
+     * @throws CanceledExecutionException
+     * @throws InvalidSettingsException
+     */
+    @Theory
+    public void testJoinOutputSplit(final JoinTestInput input, final JoinMode joinMode, final OutputOrder order,
+        final Execution executionMode)
+        throws CanceledExecutionException, InvalidSettingsException {
+
+        assumeSupported(order, executionMode);
+
+        // create the joiner
+        JoinSpecification joinSpec = input.getJoinSpecification(joinMode, order.m_rowOrder);
+        JoinImplementation joiner = createJoiner(joinSpec, executionMode);
+
+        // do the join
+        JoinResult<OutputSplit> results = joiner.joinOutputSplit();
+
+        if (joinMode.m_retainMatches) {
+            DataRow[] expectedMatches = input.ordered(JoinMode.INNER, order.m_rowOrder);
+            BufferedDataTable actual = results.getResults().getMatches();
+            order.m_validator.accept(actual, expectedMatches);
+        }
+
+        if (joinMode.m_retainLeftUnmatched) {
+            // validate left unmatched rows by comparing the produced left unmatched rows with the expected join result
+            // for a left antijoin (only left unmatched rows)
+            DataRow[] expectedLeft = input.leftOuter(order.m_rowOrder);
+            BufferedDataTable actual = results.getResults().getLeftOuter();
+            order.m_validator.accept(actual, expectedLeft);
+        }
+
+        if (joinMode.m_retainRightUnmatched) {
+            // validate right unmatched rows
+            DataRow[] expectedRight = input.rightOuter(order.m_rowOrder);
+            BufferedDataTable actual = results.getResults().getRightOuter();
+            order.m_validator.accept(actual, expectedRight);
+        }
+
+    }
+
+}
@@ -48,9 +48,13 @@
 package org.knime.core.data.sort;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -66,14 +70,19 @@
 import org.knime.core.data.IntValue;
 import org.knime.core.data.RowIterator;
 import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.def.BooleanCell;
 import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 import org.knime.core.data.def.StringCell;
 import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.DefaultNodeProgressMonitor;
 import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.Node;
 import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeModel;
@@ -140,9 +149,153 @@ public final void testMultiStageMerge() throws CanceledExecutionException {
         runMemoryTest(100, 5, 8);
     }
 
+    /**
+     * Test if chunks that are sorted and read ahead by multiple threads are merged correctly.
+     * @throws CanceledExecutionException
+     */
+    @Test
+    public final void testParallelMultiStageMerge() throws CanceledExecutionException {
+        runMemoryTest(100, 20, 3, 4);
+    }
+
+    /**
+     * Test if comparing normalized keys gives the same order as the row comparator for all supported column types, sort
+     * orders, and positions of missing values.
+     * @throws CanceledExecutionException
+     */
+    @Test
+    public final void testNormalizedKeys() throws CanceledExecutionException {
+        final DataTableSpec spec = new DataTableSpec(new String[]{"Int", "Long", "Double", "String", "Boolean"},
+            new DataType[]{IntCell.TYPE, LongCell.TYPE, DoubleCell.TYPE, StringCell.TYPE, BooleanCell.TYPE});
+        final double[] doubles = {Double.NaN, Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, 2.5, Double.MAX_VALUE};
+        final String[] strings = {"", "a", "ab", "b", "a\u0000", "\u00e4", "\u4e00", "\uffff"};
+        final Random rand = new Random(42);
+        final BufferedDataContainer container = m_exec.createDataContainer(spec);
+        for (int i = 0; i < 1000; i++) {
+            final DataCell[] cells = new DataCell[]{new IntCell(rand.nextInt(5) - 2),
+                new LongCell(rand.nextInt(5) - 2L), new DoubleCell(doubles[rand.nextInt(doubles.length)]),
+                new StringCell(strings[rand.nextInt(strings.length)]), BooleanCell.get(rand.nextBoolean())};
+            cells[rand.nextInt(cells.length)] = DataType.getMissingCell();
+            container.addRowToTable(new DefaultRow("Row" + i, cells));
+        }
+        container.close();
+        final BufferedDataTable table = container.getTable();
+
+        for (final boolean sortMissingsToEnd : new boolean[]{false, true}) {
+            for (int c = 0; c < spec.getNumColumns(); c++) {
+                final List<String> columns = Arrays.asList(spec.getColumnSpec(c).getName(),
+                    spec.getColumnSpec((c + 1) % spec.getNumColumns()).getName(),
+                    AbstractTableSorter.ROWKEY_SORT_SPEC.getName());
+                final boolean[] ascending = {c % 2 == 0, c % 3 == 0, c % 2 == 1};
+
+                final BufferedDataTableSorter comparing =
+                    new BufferedDataTableSorter(table, columns, ascending, sortMissingsToEnd);
+                comparing.setUseNormalizedKeys(false);
+                final BufferedDataTableSorter normalizing =
+                    new BufferedDataTableSorter(table, columns, ascending, sortMissingsToEnd);
+                // also compare normalized keys during the merge
+                normalizing.setMaxRows(100);
+
+                final RowIterator expected = comparing.sort(m_exec).iterator();
+                final RowIterator actual = normalizing.sort(m_exec).iterator();
+                while (expected.hasNext()) {
+                    final DataRow expectedRow = expected.next();
+                    final DataRow actualRow = actual.next();
+                    Assert.assertEquals(expectedRow.getKey(), actualRow.getKey());
+                    for (int i = 0; i < expectedRow.getNumCells(); i++) {
+                        Assert.assertEquals(expectedRow.getCell(i), actualRow.getCell(i));
+                    }
+                }
+                Assert.assertFalse(actual.hasNext());
+            }
+        }
+    }
+
+    /**
+     * Sorts with a comparator that isn't thread-safe (it fails if called concurrently) using the default settings,
+     * which must not sort concurrently with a client comparator, even if the table is large enough to be split into
+     * several slices.
+     *
+     * @throws CanceledExecutionException
+     */
+    @Test
+    public final void testStatefulComparatorSortedSequentiallyByDefault() throws CanceledExecutionException {
+        final BufferedDataTable table = m_exec.createBufferedDataTable(new TestData(1000, 1), m_exec);
+        final AtomicInteger concurrentCalls = new AtomicInteger();
+        final AtomicBoolean calledConcurrently = new AtomicBoolean();
+        final Comparator<DataRow> statefulComparator = new Comparator<DataRow>() {
+            // reused between calls, as done by comparators caching (e.g. parsed) values
+            private int m_lastValue;
+
+            @Override
+            public int compare(final DataRow o1, final DataRow o2) {
+                if (concurrentCalls.incrementAndGet() > 1) {
+                    calledConcurrently.set(true);
+                }
+                try {
+                    m_lastValue = ((IntValue)o1.getCell(0)).getIntValue();
+                    Thread.yield();
+                    return Integer.compare(m_lastValue, ((IntValue)o2.getCell(0)).getIntValue());
+                } finally {
+                    concurrentCalls.decrementAndGet();
+                }
+            }
+        };
+        final BufferedDataTableSorter sorter = new BufferedDataTableSorter(table, statefulComparator);
+        Assert.assertEquals("Default number of threads", 1, sorter.getMaxThreads());
+        sorter.setMinRowsPerThread(1);
+        sorter.setMaxRows(100);
+        final BufferedDataTable result = sorter.sort(m_exec);
+
+        Assert.assertFalse("Comparator called concurrently", calledConcurrently.get());
+        Assert.assertEquals("Row count", table.size(), result.size());
+        int prevValue = Integer.MIN_VALUE;
+        for (DataRow row : result) {
+            final int value = ((IntValue)row.getCell(0)).getIntValue();
+            Assert.assertTrue("Rows not sorted: " + value + " after " + prevValue, value >= prevValue);
+            prevValue = value;
+        }
+    }
+
+    /**
+     * Sorts according to a sort column using the default settings, which sort concurrently, and checks that the result
+     * equals the result of sorting on the calling thread.
+     *
+     * @throws CanceledExecutionException
+     */
+    @Test
+    public final void testSortColumnsSortedConcurrentlyByDefault() throws CanceledExecutionException {
+        final BufferedDataTable table = m_exec.createBufferedDataTable(new TestData(1000, 1), m_exec);
+        final BufferedDataTableSorter sorter =
+            new BufferedDataTableSorter(table, Arrays.asList("Index"), new boolean[]{true});
+        Assert.assertEquals("Default number of threads",
+            Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads())),
+            sorter.getMaxThreads());
+        sorter.setMinRowsPerThread(1);
+        sorter.setMaxRows(100);
+        final BufferedDataTable result = sorter.sort(m_exec);
+
+        sorter.setMaxThreads(1);
+        final BufferedDataTable sequentialResult = sorter.sort(m_exec);
+        Assert.assertEquals("Row count", sequentialResult.size(), result.size());
+        final Iterator<DataRow> sequentialIt = sequentialResult.iterator();
+        for (DataRow row : result) {
+            final DataRow sequentialRow = sequentialIt.next();
+            Assert.assertEquals("Row key", sequentialRow.getKey(), row.getKey());
+            Assert.assertEquals("Cell", sequentialRow.getCell(0), row.getCell(0));
+        }
+    }
+
     private void runMemoryTest(final int numRows,
             final int maxNumRowsPerContainer,
             final int maxOpenContainers) throws CanceledExecutionException {
+        runMemoryTest(numRows, maxNumRowsPerContainer, maxOpenContainers, 1);
+    }
+
+    private void runMemoryTest(final int numRows,
+            final int maxNumRowsPerContainer,
+            final int maxOpenContainers, final int maxThreads) throws CanceledExecutionException {
         // Create data with fields that consume a lot memory
         DataTable inputTable = new TestData(numRows, 1);
 
@@ -156,6 +309,8 @@ private void runMemoryTest(final int numRows,
 
 
         sorter.setMaxRows(maxNumRowsPerContainer);
+        sorter.setMaxThreads(maxThreads);
+        sorter.setMinRowsPerThread(1);
         // 10MB free memory
         long currentlyUsed = MemoryAlertSystem.getUsedMemory();
         double fraction = Math.min(1, (currentlyUsed + (10 << 20)) / (double)MemoryAlertSystem.getMaximumMemory());
@@ -0,0 +1,134 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.exec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Tests {@link RankedJobQueue}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class RankedJobQueueTest {
+
+    /**
+     * Tasks waiting for a thread are run by decreasing rank, equal ranks in submission order.
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 10000)
+    public void testOrderByRank() throws Exception {
+        ThreadPool pool = new ThreadPool(1);
+        RankedJobQueue queue = new RankedJobQueue(pool);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.enqueue(() -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Future<?> last = null;
+        for (String[] task : new String[][]{{"a", "1"}, {"b", "5"}, {"c", "3"}, {"d", "5"}, {"e", "0"}}) {
+            last = queue.enqueue(() -> order.add(task[0]), Long.parseLong(task[1]));
+        }
+        Assert.assertEquals("Pending tasks", 5, queue.getPendingCount());
+        blocker.countDown();
+        pool.waitForTermination();
+        last.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("Execution order", Arrays.asList("b", "d", "c", "a", "e"), order);
+        Assert.assertEquals("Pending tasks", 0, queue.getPendingCount());
+    }
+
+    /**
+     * Canceling a waiting task removes it from the queue, the remaining tasks are still run.
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 10000)
+    public void testCancelPending() throws Exception {
+        ThreadPool pool = new ThreadPool(1);
+        RankedJobQueue queue = new RankedJobQueue(pool);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.enqueue(() -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Future<?> high = queue.enqueue(() -> order.add("high"), 10);
+        Future<?> low = queue.enqueue(() -> order.add("low"), 1);
+        Assert.assertTrue("Task not canceled", high.cancel(true));
+        Assert.assertEquals("Pending tasks", 1, queue.getPendingCount());
+        blocker.countDown();
+        low.get(5, TimeUnit.SECONDS);
+        pool.waitForTermination();
+        Assert.assertTrue("Canceled task not reported as such", high.isCancelled());
+        Assert.assertEquals("Execution order", Collections.singletonList("low"), order);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.exec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * Tests {@link StreamingRowChannel}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class StreamingRowChannelTest {
+
+    private static final DataTableSpec SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec());
+
+    private static DataRow row(final int i) {
+        return new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i));
+    }
+
+    private static List<Integer> readAll(final RowInput input) throws InterruptedException {
+        List<Integer> result = new ArrayList<>();
+        DataRow r;
+        while ((r = input.poll()) != null) {
+            result.add(((IntCell)r.getCell(0)).getIntValue());
+        }
+        input.close();
+        return result;
+    }
+
+    /** Rows are handed to all consumers in order while the queues block the producer. */
+    @Test(timeout = 10000)
+    public void testFanOut() throws Exception {
+        StreamingRowChannel channel = new StreamingRowChannel(SPEC, 3, 2);
+        RowInput in1 = channel.createConsumer();
+        RowInput in2 = channel.createConsumer();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Integer>> f1 = executor.submit(() -> readAll(in1));
+            Future<List<Integer>> f2 = executor.submit(() -> readAll(in2));
+            channel.open(null);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                channel.push(row(i));
+                expected.add(i);
+            }
+            channel.close();
+            Assert.assertEquals("Rows of first consumer", expected, f1.get());
+            Assert.assertEquals("Rows of second consumer", expected, f2.get());
+            Assert.assertEquals("Spec of consumer", SPEC, in1.getDataTableSpec());
+            Assert.assertFalse("Producer inactive", channel.isProducerInactive());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /** A consumer that closes its input early must not block the producer. */
+    @Test(timeout = 10000)
+    public void testEarlyClose() throws Exception {
+        StreamingRowChannel channel = new StreamingRowChannel(SPEC, 1, 1);
+        RowInput in = channel.createConsumer();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<DataRow> first = executor.submit(() -> {
+                DataRow r = in.poll();
+                in.close();
+                return r;
+            });
+            channel.open(null);
+            for (int i = 0; i < 100; i++) {
+                channel.push(row(i));
+            }
+            channel.close();
+            Assert.assertEquals("First row", row(0).getKey(), first.get().getKey());
+            Assert.assertNull("Input after close", in.poll());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Inactive producers end the stream right away. */
+    @Test(timeout = 10000)
+    public void testInactive() throws Exception {
+        StreamingRowChannel channel = new StreamingRowChannel(SPEC, 10, 1);
+        RowInput in = channel.createConsumer();
+        channel.openInactive();
+        Assert.assertTrue("Input inactive", in.isInactive());
+        Assert.assertNull("Rows of inactive input", in.poll());
+        Assert.assertTrue("Channel closed", channel.isClosed());
+    }
+
+}
@@ -56,6 +56,7 @@
 
 import java.io.File;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -230,4 +231,26 @@ public void testFileResolvedFromUncUrlContainsTheProtocolHostAndPathInItsAbsolut
         File resolvedFile = FileUtil.getFileFromURL(new URL("file://HOST/path"));
         assertThat("Resolved file does not have a correct UNC path", resolvedFile.getAbsolutePath(), is("\\\\HOST\\path"));
     }
+
+    /**
+     * Tests {@link FileUtil#linkOrCopy(File, File)}, which must replace an existing destination file and leave the
+     * source untouched.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testLinkOrCopy() throws Exception {
+        File tempDir = FileUtil.createTempDir(getClass().getSimpleName());
+        try {
+            Path source = new File(tempDir, "source.bin").toPath();
+            Path destination = new File(tempDir, "destination.bin").toPath();
+            Files.write(source, new byte[]{1, 2, 3});
+            Files.write(destination, new byte[]{4, 5});
+            FileUtil.linkOrCopy(source.toFile(), destination.toFile());
+            assertThat("Unexpected content in destination", Files.readAllBytes(destination), is(new byte[]{1, 2, 3}));
+            assertThat("Unexpected content in source", Files.readAllBytes(source), is(new byte[]{1, 2, 3}));
+        } finally {
+            FileUtil.deleteRecursively(tempDir);
+        }
+    }
 }
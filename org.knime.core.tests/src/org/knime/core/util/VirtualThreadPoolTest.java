@@ -0,0 +1,163 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link VirtualThreadPool}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class VirtualThreadPoolTest {
+
+    /**
+     * Checks that the maximum thread counts of a pool and its sub pools are respected.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 30000)
+    public void testConcurrencyLimits() throws Exception {
+        final ThreadPool root = new VirtualThreadPool(4);
+        final ThreadPool sub = root.createSubPool(2);
+        final AtomicInteger runningInRoot = new AtomicInteger();
+        final AtomicInteger runningInSub = new AtomicInteger();
+        final AtomicInteger maxInRoot = new AtomicInteger();
+        final AtomicInteger maxInSub = new AtomicInteger();
+
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final boolean inSub = i % 2 == 0;
+            futures.add((inSub ? sub : root).enqueue(() -> {
+                maxInRoot.accumulateAndGet(runningInRoot.incrementAndGet(), Math::max);
+                if (inSub) {
+                    maxInSub.accumulateAndGet(runningInSub.incrementAndGet(), Math::max);
+                }
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                if (inSub) {
+                    runningInSub.decrementAndGet();
+                }
+                runningInRoot.decrementAndGet();
+            }));
+        }
+        root.waitForTermination();
+
+        for (Future<?> f : futures) {
+            assertTrue("Task not finished", f.isDone());
+        }
+        assertTrue("Too many concurrent tasks in root pool: " + maxInRoot.get(), maxInRoot.get() <= 4);
+        assertTrue("Too many concurrent tasks in sub pool: " + maxInSub.get(), maxInSub.get() <= 2);
+        assertEquals(0, root.getRunningThreads());
+        assertEquals(0, root.getQueueSize());
+    }
+
+    /**
+     * Checks that a task waiting for another task of the same pool hands its permit back so that the pool does not
+     * deadlock.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 30000)
+    public void testInvisibleWhileWaiting() throws Exception {
+        final ThreadPool root = new VirtualThreadPool(1);
+        final Future<Integer> outer = root.enqueue(() -> {
+            assertSame(root, ThreadPool.currentPool());
+            return root.createSubPool().enqueue(() -> 42).get() + 1;
+        });
+        assertEquals(Integer.valueOf(43), outer.get());
+        assertNull(ThreadPool.currentPool());
+        root.waitForTermination();
+        assertEquals(0, root.getRunningThreads());
+    }
+
+    /**
+     * Checks that {@link ThreadPool#trySubmit(Runnable)} does not queue tasks and that raising the maximum thread
+     * count starts queued tasks.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 30000)
+    public void testTrySubmitAndSetMaxThreads() throws Exception {
+        final ThreadPool root = new VirtualThreadPool(1);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final Future<?> first = root.submit(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertNull("Task submitted although no thread is available", root.trySubmit(() -> {
+        }));
+        final Future<?> queued = root.enqueue(() -> {
+        });
+        assertEquals(1, root.getQueueSize());
+
+        root.setMaxThreads(2);
+        queued.get(10, TimeUnit.SECONDS);
+        blocker.countDown();
+        first.get();
+        root.waitForTermination();
+        assertEquals(0, root.getQueueSize());
+    }
+}
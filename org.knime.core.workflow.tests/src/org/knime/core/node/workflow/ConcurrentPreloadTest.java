@@ -0,0 +1,128 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.workflow.WorkflowPersistor.LoadResultEntry.LoadResultEntryType;
+import org.knime.core.node.workflow.WorkflowPersistor.WorkflowLoadResult;
+
+/**
+ * Tests that pre-loading the nodes of a workflow concurrently gives the same workflow and load result as pre-loading
+ * them one after another (see {@link FileWorkflowPersistor#PROPERTY_SEQUENTIAL_PRELOAD}). The workflow contains native
+ * nodes, a metanode and a component, the latter two also contain native nodes.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ConcurrentPreloadTest extends WorkflowTestCase {
+
+    /**
+     * Loads the workflow concurrently and sequentially and compares the nodes, their states and the load results.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentPreloadEqualsSequentialPreload() throws Exception {
+        final File workflowDir = getWorkflowDirectory("bug5517_NodeMessagesFromWFM");
+
+        final WorkflowLoadResult concurrentResult = loadWorkflow(workflowDir, new ExecutionMonitor());
+        final String sequentialPreload = System.getProperty(FileWorkflowPersistor.PROPERTY_SEQUENTIAL_PRELOAD);
+        final WorkflowLoadResult sequentialResult;
+        try {
+            System.setProperty(FileWorkflowPersistor.PROPERTY_SEQUENTIAL_PRELOAD, "true");
+            sequentialResult = loadWorkflow(workflowDir, new ExecutionMonitor());
+        } finally {
+            if (sequentialPreload == null) {
+                System.clearProperty(FileWorkflowPersistor.PROPERTY_SEQUENTIAL_PRELOAD);
+            } else {
+                System.setProperty(FileWorkflowPersistor.PROPERTY_SEQUENTIAL_PRELOAD, sequentialPreload);
+            }
+            WorkflowManager.ROOT.removeProject(concurrentResult.getWorkflowManager().getID());
+        }
+        final WorkflowManager sequentialWFM = sequentialResult.getWorkflowManager();
+        final WorkflowManager concurrentWFM = concurrentResult.getWorkflowManager();
+        // the second workflow is removed by the test case
+        setManager(sequentialWFM);
+
+        final List<String> concurrentNodes = describeNodes(concurrentWFM, concurrentWFM.getID());
+        final List<String> sequentialNodes = describeNodes(sequentialWFM, sequentialWFM.getID());
+        assertThat("Nodes of the metanode and the component loaded", concurrentNodes.size() > 6, is(true));
+        assertThat("Nodes loaded concurrently", concurrentNodes, is(sequentialNodes));
+
+        assertThat("Load result type", concurrentResult.getType(), is(sequentialResult.getType()));
+        assertThat("Load result",
+            concurrentResult.getFilteredError("", LoadResultEntryType.Ok)
+                .replace(concurrentWFM.getID().toString(), "<project>"),
+            is(sequentialResult.getFilteredError("", LoadResultEntryType.Ok)
+                .replace(sequentialWFM.getID().toString(), "<project>")));
+    }
+
+    /**
+     * @return the ID (relative to the project), name and state of all nodes of the workflow, including those in
+     *         metanodes and components, in the order of the workflow
+     */
+    private static List<String> describeNodes(final WorkflowManager wfm, final NodeID projectID) {
+        final List<String> nodes = new ArrayList<>();
+        for (NodeContainer nc : wfm.getNodeContainers()) {
+            nodes.add(nc.getID().toString().substring(projectID.toString().length()) + " " + nc.getName() + " "
+                + nc.getInternalState());
+            if (nc instanceof WorkflowManager) {
+                nodes.addAll(describeNodes((WorkflowManager)nc, projectID));
+            } else if (nc instanceof SubNodeContainer) {
+                nodes.addAll(describeNodes(((SubNodeContainer)nc).getWorkflowManager(), projectID));
+            }
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.exec.ThreadNodeExecutionJobManager;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Tests the critical path costs of {@link Workflow} and that the {@link ThreadNodeExecutionJobManager} runs the
+ * waiting node with the most expensive remaining path first. The workflow has two sources with a short (A &rarr; A1)
+ * and a long, branching remainder (B &rarr; B1 &rarr; B2, B &rarr; B3).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class CriticalPathSchedulingTest {
+
+    private static final List<NodeID> EXECUTION_ORDER = new CopyOnWriteArrayList<>();
+
+    private WorkflowManager m_project;
+
+    private NodeID m_a, m_a1, m_b, m_b1, m_b2, m_b3;
+
+    /**
+     * Creates the workflow.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        EXECUTION_ORDER.clear();
+        m_project = createEmptyWorkflow();
+        m_a = m_project.createAndAddNode(new RecordingNodeFactory(true));
+        m_a1 = addSuccessor(m_a);
+        m_b = m_project.createAndAddNode(new RecordingNodeFactory(true));
+        m_b1 = addSuccessor(m_b);
+        m_b2 = addSuccessor(m_b1);
+        m_b3 = addSuccessor(m_b);
+    }
+
+    /** Removes the project. */
+    @After
+    public void tearDown() {
+        if (m_project != null) {
+            WorkflowManager.ROOT.removeProject(m_project.getID());
+        }
+    }
+
+    /**
+     * Without recorded timings each node costs one, i.e. the cost is the length of the longest path. The cached costs
+     * are invalidated when the workflow changes.
+     */
+    @Test
+    public void testCriticalPathCost() {
+        assertThat("Cost of A", m_project.getCriticalPathCost(m_a), is(2L));
+        assertThat("Cost of A1", m_project.getCriticalPathCost(m_a1), is(1L));
+        assertThat("Cost of B", m_project.getCriticalPathCost(m_b), is(3L));
+        assertThat("Cost of B1", m_project.getCriticalPathCost(m_b1), is(2L));
+        assertThat("Cost of B2", m_project.getCriticalPathCost(m_b2), is(1L));
+        assertThat("Cost of B3", m_project.getCriticalPathCost(m_b3), is(1L));
+
+        NodeID b4 = addSuccessor(m_b3);
+        addSuccessor(b4);
+        assertThat("Cost of B after adding nodes", m_project.getCriticalPathCost(m_b), is(4L));
+        assertThat("Cost of B3 after adding nodes", m_project.getCriticalPathCost(m_b3), is(3L));
+
+        m_project.removeNode(b4);
+        assertThat("Cost of B after removing node", m_project.getCriticalPathCost(m_b), is(3L));
+        assertThat("Cost of removed node", m_project.getCriticalPathCost(b4), is(0L));
+    }
+
+    /**
+     * The cached costs are invalidated when a node finishes execution, such that its execution time is taken into
+     * account.
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 30000)
+    public void testCriticalPathCostAfterExecution() throws Exception {
+        NodeID slow = m_project.createAndAddNode(new RecordingNodeFactory(false, 100));
+        m_project.addConnection(m_a1, 1, slow, 1);
+        assertThat("Cost of A before execution", m_project.getCriticalPathCost(m_a), is(3L));
+
+        m_project.executeUpToHere(slow);
+        assertThat("Workflow still executing", m_project.waitWhileInExecution(20, TimeUnit.SECONDS), is(true));
+        assertThat("Cost of A after execution", m_project.getCriticalPathCost(m_a), greaterThanOrEqualTo(100L));
+    }
+
+    /**
+     * Both sources wait for the single thread of the pool, the one with the longer remaining path must run first.
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 30000)
+    public void testQueueOrder() throws Exception {
+        ThreadPool pool = new ThreadPool(1);
+        ThreadNodeExecutionJobManager jobManager = new ThreadNodeExecutionJobManager(pool);
+        for (NodeContainer nc : m_project.getNodeContainers()) {
+            m_project.setJobManager(nc.getID(), jobManager);
+        }
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.enqueue(() -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+
+        m_project.executeAll();
+        blocker.countDown();
+        assertThat("Workflow still executing", m_project.waitWhileInExecution(20, TimeUnit.SECONDS), is(true));
+
+        assertThat("Executed nodes: " + EXECUTION_ORDER, EXECUTION_ORDER.size(), is(6));
+        assertThat("First executed node", EXECUTION_ORDER.get(0), is(m_b));
+        assertThat("Execution order: " + EXECUTION_ORDER, EXECUTION_ORDER.indexOf(m_b1),
+            lessThan(EXECUTION_ORDER.indexOf(m_a1)));
+    }
+
+    private NodeID addSuccessor(final NodeID predecessor) {
+        NodeID id = m_project.createAndAddNode(new RecordingNodeFactory(false));
+        m_project.addConnection(predecessor, 1, id, 1);
+        return id;
+    }
+
+    private static WorkflowManager createEmptyWorkflow() throws IOException {
+        File dir = FileUtil.createTempDir("workflow");
+        File workflowFile = new File(dir, WorkflowPersistor.WORKFLOW_FILE);
+        if (workflowFile.createNewFile()) {
+            WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+            WorkflowContext.Factory fac = new WorkflowContext.Factory(workflowFile.getParentFile());
+            creationHelper.setWorkflowContext(fac.createContext());
+            return WorkflowManager.ROOT.createAndAddProject("workflow", creationHelper);
+        } else {
+            throw new IllegalStateException("Creating empty workflow failed");
+        }
+    }
+
+    /** Adapter node recording the order in which the nodes are executed. */
+    public static final class RecordingNodeFactory extends AdapterNodeFactory {
+
+        private final boolean m_isSource;
+
+        private final long m_sleepMillis;
+
+        RecordingNodeFactory(final boolean isSource) {
+            this(isSource, 0L);
+        }
+
+        RecordingNodeFactory(final boolean isSource, final long sleepMillis) {
+            m_isSource = isSource;
+            m_sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(m_isSource ? 0 : 1, 1) {
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    EXECUTION_ORDER.add(NodeContext.getContext().getNodeContainer().getID());
+                    Thread.sleep(m_sleepMillis);
+                    return super.execute(inObjects, exec);
+                }
+            };
+        }
+    }
+}
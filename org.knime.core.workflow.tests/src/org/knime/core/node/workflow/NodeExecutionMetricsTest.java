@@ -0,0 +1,134 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.BufferedDataTable;
+
+/**
+ * Tests the {@link NodeExecutionMetrics} recorded by the {@link NodeTimer} and the {@link WorkflowExecutionReport}.
+ * Reuses the workflow of {@link Bug5510_LoopEndEmptyTable} (a table creator followed by two loops).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodeExecutionMetricsTest extends WorkflowTestCase {
+
+    private NodeID m_tableCreate_1;
+
+    private NodeID m_loopEnd_Single_3;
+
+    /**
+     * Loads the workflow.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        NodeID baseID = loadAndSetWorkflow(getWorkflowDirectory("bug5510_LoopEndEmptyTable"));
+        m_tableCreate_1 = new NodeID(baseID, 1);
+        m_loopEnd_Single_3 = new NodeID(baseID, 3);
+    }
+
+    /**
+     * Metrics are only available after execution and describe the output tables.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMetricsAfterExecution() throws Exception {
+        final WorkflowManager mgr = getManager();
+        final NodeContainer tableCreator = mgr.getNodeContainer(m_tableCreate_1);
+        assertThat("Metrics before execution", tableCreator.getNodeTimer().getLastExecutionMetrics() == null,
+            is(true));
+        executeAllAndWait();
+        checkState(m_tableCreate_1, InternalNodeContainerState.EXECUTED);
+
+        final NodeExecutionMetrics metrics = tableCreator.getNodeTimer().getLastExecutionMetrics();
+        assertThat("Metrics after execution", metrics, is(notNullValue()));
+        assertThat("Wall time", metrics.getWallTimeMillis() >= 0, is(true));
+        assertThat("Queue time", metrics.getQueueTimeNanos() >= 0, is(true));
+        assertThat("Lock wait time", metrics.getLockWaitTimeNanos() >= 0, is(true));
+        final long[] outputRowCounts = metrics.getOutputRowCounts();
+        assertThat("Number of output ports", outputRowCounts.length, is(tableCreator.getNrOutPorts()));
+        assertThat("Row count at flow variable port", outputRowCounts[0], is(-1L));
+        final BufferedDataTable table = (BufferedDataTable)tableCreator.getOutPort(1).getPortObject();
+        assertThat("Row count at table port", outputRowCounts[1], is(table.size()));
+
+        final NodeExecutionMetrics loopEndMetrics =
+            mgr.getNodeContainer(m_loopEnd_Single_3).getNodeTimer().getLastExecutionMetrics();
+        assertThat("Number of input ports", loopEndMetrics.getInputRowCounts().length,
+            is(mgr.getNodeContainer(m_loopEnd_Single_3).getNrInPorts()));
+    }
+
+    /**
+     * The report lists all executed nodes, longest running first.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testReport() throws Exception {
+        executeAllAndWait();
+        final WorkflowExecutionReport report = WorkflowExecutionReport.create(getManager());
+        assertThat("Workflow name", report.getWorkflowName(), is(getManager().getName()));
+        assertThat("Table creator in report", report.getNodes().stream().map(WorkflowExecutionReport.NodeEntry::getNodeID)
+            .collect(Collectors.toList()).contains(m_tableCreate_1), is(true));
+        long previous = Long.MAX_VALUE;
+        for (WorkflowExecutionReport.NodeEntry e : report.getNodes()) {
+            assertThat("Nodes sorted by wall time", e.getMetrics().getWallTimeMillis() <= previous, is(true));
+            previous = e.getMetrics().getWallTimeMillis();
+        }
+        assertThat("Report contains table creator", report.toString().contains(
+            getManager().getNodeContainer(m_tableCreate_1).getNameWithID()), is(true));
+    }
+}
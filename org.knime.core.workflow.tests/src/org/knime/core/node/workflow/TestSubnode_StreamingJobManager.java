@@ -0,0 +1,128 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.knime.core.node.workflow.InternalNodeContainerState.EXECUTED;
+import static org.knime.core.node.workflow.InternalNodeContainerState.IDLE;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.exec.StreamingNodeExecutionJobManager;
+import org.knime.core.node.exec.StreamingNodeExecutionJobManagerFactory;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Executes a component with the {@link StreamingNodeExecutionJobManager} and compares its outputs to the ones of a
+ * metanode with the same content (using the difference checker nodes in the workflow, which fail if they differ).
+ * Uses the workflow of {@link TestSubnode_StreamingPortObject}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class TestSubnode_StreamingJobManager extends WorkflowTestCase {
+
+    private NodeID m_streamedSubnode_8;
+    private NodeID m_tableDiffChecker_5;
+    private NodeID m_modelDiffChecker_6;
+    private NodeID m_modelDiffChecker_7;
+    private File m_tmpWorkflowDir;
+
+    @Before
+    public void setUp() throws Exception {
+        m_tmpWorkflowDir = FileUtil.createTempDir(getClass().getSimpleName() + "-tempTestInstance");
+        FileUtil.copyDir(getWorkflowDirectory("testSubnode_StreamingPortObject"), m_tmpWorkflowDir);
+        NodeID baseID = loadAndSetWorkflow(m_tmpWorkflowDir);
+        m_streamedSubnode_8 = baseID.createChild(8);
+        m_tableDiffChecker_5 = baseID.createChild(5);
+        m_modelDiffChecker_6 = baseID.createChild(6);
+        m_modelDiffChecker_7 = baseID.createChild(7);
+        // small chunks and queues so that the streamed nodes block each other frequently
+        StreamingNodeExecutionJobManager jobManager = StreamingNodeExecutionJobManagerFactory.INSTANCE.getInstance();
+        jobManager.setChunkSize(1);
+        jobManager.setQueueCapacity(1);
+        getManager().setJobManager(m_streamedSubnode_8, jobManager);
+    }
+
+    /** Executes the workflow and checks that the outputs of the component equal the ones of the metanode.
+     * @throws Exception ... */
+    @Test
+    public void testExecuteAndCompare() throws Exception {
+        checkState(m_streamedSubnode_8, IDLE);
+        executeAllAndWait();
+        checkState(m_streamedSubnode_8, EXECUTED);
+        checkStateOfMany(EXECUTED, m_tableDiffChecker_5, m_modelDiffChecker_6, m_modelDiffChecker_7);
+        checkState(getManager(), EXECUTED);
+    }
+
+    /** Same as {@link #testExecuteAndCompare()} with a global thread pool of a single thread, the streamed inner
+     * nodes must not wait for each other's threads.
+     * @throws Exception ... */
+    @Test(timeout = 60000)
+    public void testExecuteWithSingleThread() throws Exception {
+        final int maxThreads = KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads();
+        KNIMEConstants.GLOBAL_THREAD_POOL.setMaxThreads(1);
+        try {
+            executeAllAndWait();
+        } finally {
+            KNIMEConstants.GLOBAL_THREAD_POOL.setMaxThreads(maxThreads);
+        }
+        checkState(m_streamedSubnode_8, EXECUTED);
+        checkStateOfMany(EXECUTED, m_tableDiffChecker_5, m_modelDiffChecker_6, m_modelDiffChecker_7);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        FileUtil.deleteRecursively(m_tmpWorkflowDir);
+    }
+
+}
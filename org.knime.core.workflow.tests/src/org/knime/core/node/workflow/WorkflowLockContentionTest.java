@@ -0,0 +1,233 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.port.PortType;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Stress test for the status queries on a {@link WorkflowManager} that don't need to acquire the (project wide)
+ * workflow lock: the state of a workflow, its nodes and their connections.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class WorkflowLockContentionTest {
+
+    private static final int NR_METANODES = 200;
+
+    private static final int NR_READERS = 8;
+
+    private WorkflowManager m_project;
+
+    private List<WorkflowManager> m_metanodes;
+
+    /**
+     * Creates a project with a chain of metanodes.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        m_project = createEmptyWorkflow();
+        m_metanodes = new ArrayList<>();
+        PortType[] ports = new PortType[]{BufferedDataTable.TYPE};
+        for (int i = 0; i < NR_METANODES; i++) {
+            WorkflowManager metanode = m_project.createAndAddSubWorkflow(ports, ports, "metanode " + i);
+            if (i > 0) {
+                m_project.addConnection(m_metanodes.get(i - 1).getID(), 0, metanode.getID(), 0);
+            }
+            m_metanodes.add(metanode);
+        }
+    }
+
+    /** Removes the project. */
+    @After
+    public void tearDown() {
+        if (m_project != null) {
+            WorkflowManager.ROOT.removeProject(m_project.getID());
+        }
+    }
+
+    /**
+     * Status queries must return while another thread holds the workflow lock, even if that thread has queued a state
+     * update (as done by all modifications of the workflow).
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 30000)
+    public void testStatusQueriesWhileLocked() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> lockHolder = executor.submit(() -> {
+                try (WorkflowLock lock = m_project.lock()) {
+                    lock.queueCheckForNodeStateChangeNotification(true);
+                    locked.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            locked.await();
+            WorkflowManager metanode = m_metanodes.get(NR_METANODES / 2);
+            assertThat("Number of nodes", m_project.getNodeContainers().size(), is(NR_METANODES));
+            assertThat("Project state", m_project.getNodeContainerState().isIdle(), is(true));
+            assertThat("Metanode state", metanode.getNodeContainerState().isIdle(), is(true));
+            assertThat("Incoming connections", m_project.getIncomingConnectionsFor(metanode.getID()).size(), is(1));
+            assertThat("Outgoing connections", m_project.getOutgoingConnectionsFor(metanode.getID(), 0).size(), is(1));
+            ConnectionContainer cc = m_project.getIncomingConnectionFor(metanode.getID(), 0);
+            assertThat("Connection by ID", m_project.getConnection(cc.getID()), is(cc));
+            release.countDown();
+            lockHolder.get();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs status queries from several threads while another thread keeps modifying the workflow. The query threads
+     * must never wait for the workflow lock, nor see inconsistent (concurrently modified) data structures.
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 60000)
+    public void testConcurrentQueriesAndModifications() throws Exception {
+        ReentrantLock reentrantLock = m_project.getReentrantLockInstance();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong nrQueries = new AtomicLong();
+        List<Thread> readers = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        for (int r = 0; r < NR_READERS; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!stop.get()) {
+                        for (NodeContainer nc : m_project.getNodeContainers()) {
+                            nc.getNodeContainerState();
+                            if (m_project.containsNodeContainer(nc.getID())) {
+                                try {
+                                    m_project.getIncomingConnectionsFor(nc.getID());
+                                    m_project.getOutgoingConnectionsFor(nc.getID());
+                                } catch (IllegalArgumentException e) { // NOSONAR removed concurrently
+                                }
+                            }
+                        }
+                        m_project.getNodeContainerState();
+                        nrQueries.incrementAndGet();
+                    }
+                } catch (Throwable t) { // NOSONAR
+                    synchronized (errors) {
+                        errors.add(t);
+                    }
+                }
+            }, "Lock contention reader " + r);
+            readers.add(reader);
+        }
+        readers.forEach(Thread::start);
+
+        long waitingReaderSamples = 0;
+        PortType[] ports = new PortType[]{BufferedDataTable.TYPE};
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(3);
+        int round = 0;
+        while (System.currentTimeMillis() < end) {
+            // modify: add a metanode, connect it and remove it again, all while holding the lock
+            try (WorkflowLock lock = m_project.lock()) {
+                WorkflowManager metanode = m_project.createAndAddSubWorkflow(ports, ports, "temp " + round);
+                m_project.addConnection(m_metanodes.get(round % NR_METANODES).getID(), 0, metanode.getID(), 0);
+                for (Thread reader : readers) {
+                    if (reentrantLock.hasQueuedThread(reader)) {
+                        waitingReaderSamples++;
+                    }
+                }
+                m_project.removeNode(metanode.getID());
+            }
+            round++;
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat("Errors in query threads: " + errors, errors.isEmpty(), is(true));
+        assertThat("Samples of query threads waiting for the workflow lock", waitingReaderSamples, is(0L));
+        assertThat("No query rounds completed", nrQueries.get() > 0, is(true));
+        assertThat("Number of nodes after test", m_project.getNodeContainers().size(), is(NR_METANODES));
+    }
+
+    private static WorkflowManager createEmptyWorkflow() throws IOException {
+        File dir = FileUtil.createTempDir("workflow");
+        File workflowFile = new File(dir, WorkflowPersistor.WORKFLOW_FILE);
+        if (workflowFile.createNewFile()) {
+            WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+            WorkflowContext.Factory fac = new WorkflowContext.Factory(workflowFile.getParentFile());
+            creationHelper.setWorkflowContext(fac.createContext());
+            return WorkflowManager.ROOT.createAndAddProject("workflow", creationHelper);
+        } else {
+            throw new IllegalStateException("Creating empty workflow failed");
+        }
+    }
+}
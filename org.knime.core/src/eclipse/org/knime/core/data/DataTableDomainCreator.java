@@ -46,23 +46,36 @@
  */
 package org.knime.core.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.knime.core.data.DataColumnMetaDataCalculators.MetaDataCalculator;
 import org.knime.core.data.container.BlobWrapperDataCell;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.container.DataContainerSettings;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.util.CheckUtils;
+import org.knime.core.util.ThreadPool;
 
 /**
  * Create or recreate domain of a data table. The original spec has to be given in the constructor. The possible values
@@ -74,6 +87,15 @@
  * @since 2.10
  */
 public class DataTableDomainCreator {
+    /** Whether to scan tables in a single thread, see {@link #updateDomain(BufferedDataTable, ExecutionMonitor)}. */
+    private static final boolean DISABLE_PARALLEL_SCAN = Boolean.getBoolean("knime.domain.sequential");
+
+    /** The minimum number of rows scanned by a thread when computing the domain of a table in parallel. */
+    private static final long MIN_ROWS_PER_CHUNK = 100_000;
+
+    /** The number of rows after which a thread scanning a chunk of a table checks for cancelation. */
+    private static final long PROGRESS_INTERVAL = 1_000;
+
     /** Defines columns to recreate or drop domain values. */
     private final DomainCreatorColumnSelection m_domainValuesColumnSelection;
 
@@ -285,11 +307,8 @@ private void updateMinMax(final int col, final DataCell cell, final DataCell[] m
         final DataValueComparator[] comparators) {
         final boolean isMissing = cell.isMissing();
 
-        if (!isMissing && m_possVals[col] != null) {
-            if (m_possVals[col].putIfAbsent(cell, m_batchId) == null
-                && (m_possVals[col].size() > m_maxPossibleValues)) {
-                m_possVals[col] = null;
-            }
+        if (!isMissing) {
+            updatePossibleValues(col, cell);
         }
 
         if (mins[col] == null || isMissing) {
@@ -307,6 +326,13 @@ private void updateMinMax(final int col, final DataCell cell, final DataCell[] m
         updateMax(col, maxs, unwrapped, comparator);
     }
 
+    private void updatePossibleValues(final int col, final DataCell cell) {
+        if (m_possVals[col] != null && m_possVals[col].putIfAbsent(cell, m_batchId) == null
+            && (m_possVals[col].size() > m_maxPossibleValues)) {
+            m_possVals[col] = null;
+        }
+    }
+
     private void updateMin(final int col, final DataCell[] mins, final DataCell cell,
         final Comparator<DataCell> comparator) {
         if (m_minsMissing[col] || (comparator.compare(cell, mins[col]) < 0)) {
@@ -458,7 +484,9 @@ public void updateDomain(final DataTable table, final ExecutionMonitor exec, fin
 
     /**
      * Updates the domain values by scanning a whole table. Note that the table's structure must match the table spec
-     * that has been provided to the constructor.
+     * that has been provided to the constructor. Large tables are split into ranges of rows which are scanned
+     * concurrently using the {@link KNIMEConstants#GLOBAL_THREAD_POOL global thread pool}; the result is the same as
+     * the one of a sequential scan.
      *
      * @param table the table to be processed
      * @param exec an execution monitor to check for cancellation and report progress. Might be <code>null</code> if not
@@ -467,7 +495,128 @@ public void updateDomain(final DataTable table, final ExecutionMonitor exec, fin
      */
     public void updateDomain(final BufferedDataTable table, final ExecutionMonitor exec)
         throws CanceledExecutionException {
-        updateDomain(table, exec, table.size());
+        final long size = table.size();
+        final int nrChunks = DISABLE_PARALLEL_SCAN ? 1
+            : (int)Math.min(KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads(), size / MIN_ROWS_PER_CHUNK);
+        if (nrChunks < 2) {
+            updateDomain(table, exec, size);
+            return;
+        }
+        if (!m_inputSpec.equalStructure(table.getDataTableSpec())) {
+            throw new IllegalArgumentException("Spec of table to scan does not match spec given in constructor");
+        }
+
+        // the domain of each chunk is computed by a copy of this instance; since a chunk's batch id is larger than the
+        // ones of its predecessors, merging the copies retains the order of the possible values in the table
+        final long rowsPerChunk = (size + nrChunks - 1) / nrChunks;
+        final AtomicLong processedRows = new AtomicLong();
+        final List<Callable<DataTableDomainCreator>> tasks = new ArrayList<>(nrChunks);
+        for (int i = 0; i < nrChunks; i++) {
+            final DataTableDomainCreator chunkCreator = new DataTableDomainCreator(this);
+            chunkCreator.setBatchId(m_batchId + i);
+            final long fromIndex = i * rowsPerChunk;
+            final long toIndex = Math.min(size, fromIndex + rowsPerChunk) - 1;
+            tasks.add(() -> chunkCreator.updateDomain(table, fromIndex, toIndex, exec, processedRows, size));
+        }
+
+        final List<Future<DataTableDomainCreator>> futures = new ArrayList<>(nrChunks - 1);
+        final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(nrChunks - 1);
+        for (Callable<DataTableDomainCreator> task : tasks.subList(1, nrChunks)) {
+            futures.add(pool.enqueue(task));
+        }
+
+        Throwable failure = null;
+        try {
+            merge(tasks.get(0).call());
+        } catch (Exception e) { // NOSONAR rethrown below
+            failure = e;
+        }
+        for (Future<DataTableDomainCreator> future : futures) {
+            try {
+                final DataTableDomainCreator chunkCreator = future.get();
+                if (failure == null) {
+                    merge(chunkCreator);
+                }
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? new CanceledExecutionException("Interrupted while computing domain.")
+                    : failure;
+            }
+        }
+
+        if (failure instanceof CanceledExecutionException) {
+            throw (CanceledExecutionException)failure;
+        } else if (failure instanceof Error) {
+            throw (Error)failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        } else if (failure != null) {
+            throw new IllegalStateException(failure.getMessage(), failure);
+        }
+        // subsequently added rows succeed the rows of the last chunk
+        m_batchId += nrChunks - 1;
+
+        if (exec != null) {
+            exec.checkCanceled();
+            exec.setProgress(1.0);
+        }
+    }
+
+    /**
+     * Updates the domain values by scanning a range of rows of a table. Called on a copy of the instance computing the
+     * domain of the whole table, possibly concurrently to other copies.
+     *
+     * @return this instance
+     */
+    private DataTableDomainCreator updateDomain(final BufferedDataTable table, final long fromIndex,
+        final long toIndex, final ExecutionMonitor exec, final AtomicLong processedRows, final long rowCount)
+        throws CanceledExecutionException {
+        final NumericBounds[] bounds = new NumericBounds[m_mins.length];
+        for (int i = 0; i < bounds.length; i++) {
+            if (m_mins[i] != null) {
+                bounds[i] = NumericBounds.create(m_comparators[i]);
+            }
+        }
+
+        long row = 0;
+        try (CloseableRowIterator it = table.filter(TableFilter.filterRangeOfRows(fromIndex, toIndex)).iterator()) {
+            while (it.hasNext()) {
+                updateDomain(it.next(), bounds);
+                if (++row % PROGRESS_INTERVAL == 0 && exec != null) {
+                    exec.checkCanceled();
+                    final long processed = processedRows.addAndGet(PROGRESS_INTERVAL);
+                    exec.setProgress(Math.min(processed / (double)rowCount, 1.0),
+                        () -> String.format("Row %,d/%,d", processed, rowCount));
+                }
+            }
+        }
+
+        for (int i = 0; i < bounds.length; i++) {
+            if (bounds[i] != null && bounds[i].m_min != null) {
+                updateMin(i, m_mins, bounds[i].m_min, m_comparators[i]);
+                updateMax(i, m_maxs, bounds[i].m_max, m_comparators[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Updates the domain values with a single row like {@link #updateDomain(DataRow)}, but keeps track of the bounds of
+     * int, long and double cells in the given (non-<code>null</code>) bounds rather than in the min and max cells.
+     */
+    private void updateDomain(final DataRow row, final NumericBounds[] bounds) {
+        int i = 0;
+        for (DataCell c : row) {
+            if (bounds[i] != null && bounds[i].update(c)) {
+                updatePossibleValues(i, c);
+            } else {
+                updateMinMax(i, c, m_mins, m_maxs, m_comparators);
+            }
+            m_metaDataCalculators[i].update(c);
+            i++;
+        }
     }
 
     /**
@@ -514,4 +663,93 @@ public void merge(final DataTableDomainCreator dataTableDomainCreator) {
         }
     }
 
-}
\ No newline at end of file
+
+    /**
+     * The bounds of a column of int, long or double cells, compared as primitives. Equivalent to comparing the cells
+     * with the column's {@link IntValueComparator}, {@link LongValueComparator} or {@link DoubleValueComparator}.
+     */
+    private static final class NumericBounds {
+
+        private final boolean m_isDouble;
+
+        private final boolean m_acceptsLongCells;
+
+        private long m_minLong;
+
+        private long m_maxLong;
+
+        private double m_minDouble;
+
+        private double m_maxDouble;
+
+        /** The cell holding the minimum value or <code>null</code> if no value has been seen yet. */
+        private DataCell m_min;
+
+        private DataCell m_max;
+
+        private NumericBounds(final boolean isDouble, final boolean acceptsLongCells) {
+            m_isDouble = isDouble;
+            m_acceptsLongCells = acceptsLongCells;
+        }
+
+        /**
+         * @return bounds for columns using the given comparator or <code>null</code> if the comparator is not known
+         */
+        static NumericBounds create(final DataValueComparator comparator) {
+            if (comparator == null) {
+                return null;
+            } else if (comparator.getClass() == DoubleValueComparator.class) {
+                return new NumericBounds(true, false);
+            } else if (comparator.getClass() == IntValueComparator.class) {
+                return new NumericBounds(false, false);
+            } else if (comparator.getClass() == LongValueComparator.class) {
+                return new NumericBounds(false, true);
+            }
+            return null;
+        }
+
+        /**
+         * @return <code>false</code> if the cell is not an int, long or double cell (as applicable) and has to be
+         *         compared using the column's comparator
+         */
+        boolean update(final DataCell cell) {
+            final Class<? extends DataCell> cellClass = cell.getClass();
+            if (m_isDouble) {
+                if (cellClass != DoubleCell.class) {
+                    return false;
+                }
+                final double d = ((DoubleCell)cell).getDoubleValue();
+                if (Double.isNaN(d)) {
+                    // NaN is not considered in the domain, see #updateMinMax
+                    return true;
+                }
+                if (m_min == null || Double.compare(d, m_minDouble) < 0) {
+                    m_minDouble = d;
+                    m_min = cell;
+                }
+                if (m_max == null || Double.compare(d, m_maxDouble) > 0) {
+                    m_maxDouble = d;
+                    m_max = cell;
+                }
+                return true;
+            }
+            final long l;
+            if (cellClass == IntCell.class) {
+                l = ((IntCell)cell).getIntValue();
+            } else if (m_acceptsLongCells && cellClass == LongCell.class) {
+                l = ((LongCell)cell).getLongValue();
+            } else {
+                return false;
+            }
+            if (m_min == null || l < m_minLong) {
+                m_minLong = l;
+                m_min = cell;
+            }
+            if (m_max == null || l > m_maxLong) {
+                m_maxLong = l;
+                m_max = cell;
+            }
+            return true;
+        }
+    }
+}
@@ -46,6 +46,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
 
 /**
  * Input Stream that wraps a given input stream and searches for terminated end
@@ -64,6 +65,9 @@ final class BlockableInputStream
     /** Input stream to wrap. */
     private final InputStream m_inStream;
 
+    /** The stream to wrap if it is memory-mapped, null otherwise. */
+    private final MappedFileInputStream m_mappedStream;
+
     /**
      * If an block end has been encountered, it will return -1 on subsequent
      * {@link #read()} unless {@link #endBlock()} is called.
@@ -77,9 +81,35 @@ final class BlockableInputStream
      */
     BlockableInputStream(final InputStream inStream) {
         m_inStream = inStream;
+        m_mappedStream = inStream instanceof MappedFileInputStream ? (MappedFileInputStream)inStream : null;
         m_simulateTerminate = false;
     }
 
+    /**
+     * Consumes the next bytes of the current block without copying them if the wrapped stream is memory-mapped and
+     * none of the bytes is escaped. The bytes can then be decoded from {@link #getMappedWindow()} at the returned
+     * index.
+     *
+     * @param length the number of bytes to consume
+     * @return the index of the first consumed byte in {@link #getMappedWindow()} or -1 if no bytes have been consumed,
+     *         in which case they need to be {@link #read()} individually
+     * @see MappedFileInputStream#readUnescaped(int)
+     */
+    int readUnescaped(final int length) {
+        if (m_mappedStream == null || m_simulateTerminate) {
+            return -1;
+        }
+        return m_mappedStream.readUnescaped(length);
+    }
+
+    /**
+     * @return the current window of the wrapped memory-mapped stream, only to be called after a successful call to
+     *         {@link #readUnescaped(int)}
+     */
+    MappedByteBuffer getMappedWindow() {
+        return m_mappedStream.getWindow();
+    }
+
     /**
      * Reads next byte from stream and if it is an escape byte, it returns the
      * next following byte. If it is a terminate byte, it returns -1, i.e. eof.
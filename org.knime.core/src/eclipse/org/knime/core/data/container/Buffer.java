@@ -137,6 +137,7 @@
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.workflow.NodeContext;
+import org.knime.core.node.workflow.NodeTimer;
 import org.knime.core.node.workflow.WorkflowContext;
 import org.knime.core.node.workflow.WorkflowManager;
 import org.knime.core.util.FileUtil;
@@ -418,6 +419,13 @@ public Thread newThread(final Runnable r) {
      */
     private final BlobLRUCache m_blobLRUCache = new BlobLRUCache();
 
+    /**
+     * @return a snapshot of the statistics of the cache holding tables in memory
+     */
+    static TableCacheStatistics getCacheStatistics() {
+        return CACHE.getStatistics();
+    }
+
     static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         @SuppressWarnings("unchecked")
         Class<? extends BlobDataCell> cl = (Class<? extends BlobDataCell>)cellClassInfo.getCellClass();
@@ -637,6 +645,7 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         m_maxRowsInMem = maxRowsInMemory;
         m_lifecycle = m_bufferSettings.useLRU() ? new SoftRefLRULifecycle() : new MemorizeIfSmallLifecycle();
         CACHE.setLRUCacheSize(m_bufferSettings.getLRUCacheSize());
+        CACHE.setLRUCacheBytes(m_bufferSettings.getLRUCacheBytes());
         /**
          * independent of the lifecycle, if maxRowsInMemory is zero, the buffer is expected to flush to disk (e.g, see
          * {@link org.knime.core.data.sort.DataTableSorter#createDataContainer(DataTableSpec, boolean)}).
@@ -712,6 +721,7 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         m_maxRowsInMem = 0;
         m_lifecycle = m_bufferSettings.useLRU() ? new SoftRefLRULifecycle() : new MemorizeIfSmallLifecycle();
         CACHE.setLRUCacheSize(m_bufferSettings.getLRUCacheSize());
+        CACHE.setLRUCacheBytes(m_bufferSettings.getLRUCacheBytes());
         try {
             readMetaFromFile(metaIn, fileStoreDir);
         } catch (InvalidSettingsException ise) {
@@ -1215,7 +1225,7 @@ void closeInternal() {
         assert Thread.holdsLock(this);
         if (m_listWhileAddRow != null) {
             // buffer still held in memory; can be cached
-            CACHE.put(Buffer.this, m_listWhileAddRow);
+            CACHE.put(Buffer.this, ColumnarRowList.compact(m_listWhileAddRow));
             m_listWhileAddRow = null;
             m_lifecycle.onCloseIfCached();
         } else {
@@ -1249,9 +1259,11 @@ private void closeWriterAndWriteMeta() {
             m_outputWriter.writeMetaInfoAfterWrite(formatSettings);
             m_formatSettings = formatSettings;
             if (m_hasTempFile) {
-                double sizeInMB = m_binFile.length() / (double)(1 << 20);
+                final long fileLength = m_binFile.length();
+                double sizeInMB = fileLength / (double)(1 << 20);
                 String size = NumberFormat.getInstance().format(sizeInMB);
                 LOGGER.debug("Buffer file (" + m_binFile.getAbsolutePath() + ") is " + size + "MB in size");
+                NodeTimer.addSpilledBytesToCurrentNode(fileLength);
                 initOutputReader(formatSettings, IVERSION);
             }
         } catch (IOException ioe) {
@@ -1412,6 +1424,16 @@ boolean isHeldInMemory() {
         return m_listWhileAddRow != null || CACHE.contains(this);
     }
 
+    /**
+     * Retrieves the table of this buffer from the cache without counting the lookup or updating its position in the
+     * LRU cache.
+     *
+     * @return the table held in the cache, if any
+     */
+    Optional<List<BlobSupportDataRow>> getCachedTable() {
+        return CACHE.getSilent(this);
+    }
+
     /**
      * Get the table spec that was set in the constructor.
      *
@@ -1657,7 +1679,7 @@ final synchronized CloseableRowIterator iteratorWithFilter(final TableFilter fil
             // register the table store iterator with this buffer
             tableStoreIt.setBuffer(this);
             m_nrOpenInputStreams.incrementAndGet();
-            m_openResources.register(tableStoreIt, tableStoreIt);
+            m_openResources.register(getHandedOutResource(tableStoreIt), tableStoreIt);
             return tableStoreIt;
 
         } else {
@@ -1674,12 +1696,11 @@ final synchronized CloseableRowIterator iteratorWithFilter(final TableFilter fil
                         new FromListRangeIterator(list, fromIndex, toIndex, exec);
 
                     /**
-                     * In a future world (a world of predicates, see AP-11805), the filter might be configured to keep
-                     * only rows with an index between 1000 and 2000 and a value greater than 42 in column 13. The
-                     * rangeIterator will take care of only returning rows with an index between 1000 and 2000. In
-                     * fact, it will return the row with index 1000 as its first row. Therefore, the
-                     * FilterDelegateRowIterator that handles the column-13-greater-than-42-predicate, has to be
-                     * provided with a copied filter with adjusted from- and toRowIndices.
+                     * The filter might be configured to keep only rows with an index between 1000 and 2000 and a
+                     * value greater than 42 in column 13. The rangeIterator will take care of only returning rows with
+                     * an index between 1000 and 2000. In fact, it will return the row with index 1000 as its first
+                     * row. Therefore, the FilterDelegateRowIterator that handles the column-13-greater-than-42
+                     * predicate has to be provided with a copied filter with adjusted from- and toRowIndices.
                      */
                     final TableFilter offsetFilter = new TableFilter.Builder(filter)//
                         .withFromRowIndex(0)//
@@ -1970,7 +1991,9 @@ public synchronized void clearIteratorInstance(final TableStoreCloseableRowItera
                 m_nrOpenInputStreams.decrementAndGet();
                 logDebug(String.format("%s%s remaining", closeMes, m_nrOpenInputStreams), null);
                 if (removeFromHash) {
+                    // iterators read back into memory are registered themselves, handed out iterators maybe not
                     m_openResources.unregister(it);
+                    m_openResources.unregister(getHandedOutResource(it));
                 }
             }
         } catch (IOException ioe) {
@@ -1978,6 +2001,32 @@ public synchronized void clearIteratorInstance(final TableStoreCloseableRowItera
         }
     }
 
+    /**
+     * Closes the reader of a {@link ReadAheadRowIterator} handed out by this buffer, which has been garbage-collected
+     * without being closed or is open while this buffer is cleared.
+     *
+     * @param reader the reader to close
+     */
+    synchronized void clearReadAheadReader(final ReadAheadRowIterator.Reader reader) {
+        if (reader.close()) {
+            m_nrOpenInputStreams.decrementAndGet();
+            logDebug(String.format("Closed unreferenced iterator reading ahead, %s remaining", m_nrOpenInputStreams),
+                null);
+        }
+    }
+
+    /**
+     * Determines the resource to register for a table store iterator that is handed out to clients. The registry
+     * references its resources strongly, so an iterator reading ahead registers its reader instead of itself in order
+     * to stay collectable if it is not closed.
+     *
+     * @param it the iterator handed out
+     * @return the resource to register for the iterator
+     */
+    private static BufferResource getHandedOutResource(final TableStoreCloseableRowIterator it) {
+        return it instanceof ReadAheadRowIterator ? ((ReadAheadRowIterator)it).getReader() : it;
+    }
+
     /** Clears the temp file. Any subsequent iteration will fail! */
     synchronized void clear() {
         /** lock clear flag to prevent concurrent clearing or asynchronous writing to this buffer */
@@ -2157,9 +2206,10 @@ public boolean hasNext() {
         @Override
         public DataRow next() {
             DataRow next = m_iterator.next();
+            m_listWhileBackIntoMemory.add((BlobSupportDataRow)next);
             if (!hasNext()) {
                 // ... we put the table back into the cache
-                CACHE.put(Buffer.this, m_listWhileBackIntoMemory);
+                CACHE.put(Buffer.this, ColumnarRowList.compact(m_listWhileBackIntoMemory));
                 m_lifecycle.onAllRowsReadBackIntoMemory();
             }
             return next;
@@ -2352,7 +2402,6 @@ DataRow nextFromList(final List<BlobSupportDataRow> list) {
                 if (next == null) {
                     throw new InternalError("Unable to restore data row from disk");
                 }
-                list.add(next);
                 // once we've read all rows back into memory, ...
                 if (++m_nextIndex >= size()) {
                 	assert !backIntoMemoryIterator.hasNext() : "File iterator returns more rows than buffer contains";
@@ -52,18 +52,21 @@
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.knime.core.data.DataCell;
+import org.knime.core.data.StringValue;
 import org.knime.core.data.util.memory.MemoryAlert;
 import org.knime.core.data.util.memory.MemoryAlertListener;
 import org.knime.core.data.util.memory.MemoryAlertSystem;
-import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
-import org.knime.core.util.LRUCache;
 
 /**
  * A data structure that manages which tables (i.e., {@link List} of {@link BlobSupportDataRow}) to keep in memory. The
@@ -74,44 +77,65 @@
  * tables are cleared for garbage collection before they have been flushed to disk. How this cache is used by the
  * {@link Buffer} class is specified by means of a Lifecycle.
  *
+ * <p>
+ * The cache is safe for concurrent use without a global lock: all maps are concurrent and lookups only touch the entry
+ * they retrieve. The soft-references LRU cache is bounded both by the number of tables and by their estimated size in
+ * bytes. Only evicting tables from it requires a lock, which is never held while looking tables up.
+ *
  * @author Marc Bux, KNIME GmbH, Berlin, Germany
  */
 final class BufferCache {
 
-    /**
-     * The node logger for this class.
-     */
-    private static final NodeLogger LOGGER = NodeLogger.getLogger(BufferCache.class);
+    /** The maximum number of rows of a table inspected when estimating its size in bytes. */
+    private static final int SIZE_ESTIMATE_SAMPLE_ROWS = 64;
 
-    /**
-     * The time (in seconds) that has to pass at least in between the logging of statistics.
-     */
-    private static final int STATISTICS_OUTPUT_INTERVAL = 300;
+    /** The estimated overhead of a row, its key and its cell array in bytes. */
+    private static final long ROW_OVERHEAD_BYTES = 96;
+
+    /** The estimated size of a cell that is not a string in bytes. */
+    private static final long CELL_BYTES = 24;
+
+    /** The estimated overhead of a string cell (excluding its characters) in bytes. */
+    private static final long STRING_CELL_OVERHEAD_BYTES = 56;
 
     /**
      * A map of hard references to tables held in this cache. Caution: the garbage collector will not clear these
-     * automatically. We use the buffer itself as key, since multiple buffers can have the same id. The Map has to have
-     * weak keys such that unreferenced buffers can be garbage-collected if we forget to clear them.
+     * automatically.
      */
-    private final Map<Long, List<BlobSupportDataRow>> m_hardMap = new HashMap<>();
+    private final Map<Long, List<BlobSupportDataRow>> m_hardMap = new ConcurrentHashMap<>();
 
     /**
      * A number that determines how many tables are kept in the soft-references LRU cache before being weak-referenced.
      */
-    private int m_LRUCacheSize = BufferSettings.getDefault().getLRUCacheSize();
+    private volatile int m_LRUCacheSize = BufferSettings.getDefault().getLRUCacheSize();
+
+    /**
+     * The number of bytes that tables in the soft-references LRU cache may occupy (estimated) before the least
+     * recently used ones are weak-referenced.
+     */
+    private volatile long m_LRUCacheBytes = BufferSettings.getDefault().getLRUCacheBytes();
 
     /**
      * An LRU-cache of soft references to tables held in this cache. Note that soft references also keep track of when
      * they were last accessed. When memory becomes scarce, the garbage collector should clear weak-referenced tables
-     * first and then proceed with soft-referenced tables in the order in which they were least recently used.
+     * first and then proceed with soft-referenced tables in the order in which they were least recently used. Recency
+     * is tracked per entry, such that a cache hit does not need to restructure the map.
      */
-    private LRUCache<Long, SoftReference<List<BlobSupportDataRow>>> m_LRUCache =
-        new LRUCache<>(m_LRUCacheSize, m_LRUCacheSize);
+    private final Map<Long, LRUEntry> m_LRUCache = new ConcurrentHashMap<>();
+
+    /** The estimated number of bytes occupied by the tables in the LRU cache. */
+    private final AtomicLong m_LRUCacheBytesUsed = new AtomicLong();
+
+    /** A logical clock that determines the recency of accesses to entries in the LRU cache. */
+    private final AtomicLong m_clock = new AtomicLong();
+
+    /** The lock held while evicting entries from the LRU cache. Never held while looking up tables. */
+    private final ReentrantLock m_evictionLock = new ReentrantLock();
 
     /**
      * A map of weak references to tables evicted from the LRU cache.
      */
-    private final Map<Long, WeakReference<List<BlobSupportDataRow>>> m_weakCache = new HashMap<>();
+    private final Map<Long, WeakReference<List<BlobSupportDataRow>>> m_weakCache = new ConcurrentHashMap<>();
 
     /**
      * A reference queue that holds any weak references that were cleared by the garbage collector.
@@ -126,63 +150,56 @@ final class BufferCache {
     private final MemoryAlertListener m_memoryAlertListener = new MemoryAlertListener() {
         @Override
         protected boolean memoryAlert(final MemoryAlert alert) {
-            synchronized (BufferCache.this) {
-                m_LRUCache.clear();
+            m_evictionLock.lock();
+            try {
+                for (Long uniqueId : m_LRUCache.keySet()) {
+                    removeFromLRUCache(uniqueId);
+                }
+            } finally {
+                m_evictionLock.unlock();
             }
             return false;
         }
     };
 
     /** Some counters for instrumentation / statistics. */
-    private long m_nTables = 0;
-
-    private long m_nInvalidatedTables = 0;
+    private final LongAdder m_nTables = new LongAdder();
 
-    private long m_nGCedTables = 0;
+    private final LongAdder m_nInvalidatedTables = new LongAdder();
 
-    private long m_nAccesses = 0;
+    private final LongAdder m_nGCedTables = new LongAdder();
 
-    private long m_nHardHits = 0;
+    private final LongAdder m_nHardHits = new LongAdder();
 
-    private long m_nSoftHits = 0;
+    private final LongAdder m_nSoftHits = new LongAdder();
 
-    private long m_nWeakHits = 0;
+    private final LongAdder m_nWeakHits = new LongAdder();
 
-    private long m_nMisses = 0;
-
-    private long m_timeOfLastLog = System.currentTimeMillis();
+    private final LongAdder m_nMisses = new LongAdder();
 
     BufferCache() {
         MemoryAlertSystem.getInstanceUncollected().addListener(m_memoryAlertListener);
     }
 
-    private void logStatistics() {
-        while (m_weakCacheRefQueue.poll() != null) {
-            m_nGCedTables++;
-        }
-        final long time = System.currentTimeMillis();
-        if ((time - m_timeOfLastLog) / 1000 >= STATISTICS_OUTPUT_INTERVAL) {
-
-            long nActiveTables = 0;
-
-            for (WeakReference<List<BlobSupportDataRow>> ref : m_weakCache.values()) {
-                if (ref.get() != null) {
-                    nActiveTables++;
-                }
+    /**
+     * @return a snapshot of the counters of this cache
+     */
+    TableCacheStatistics getStatistics() {
+        pollGCedTables();
+        long nActiveTables = 0;
+        for (WeakReference<List<BlobSupportDataRow>> ref : m_weakCache.values()) {
+            if (ref.get() != null) {
+                nActiveTables++;
             }
+        }
+        return new TableCacheStatistics(m_nHardHits.sum(), m_nSoftHits.sum(), m_nWeakHits.sum(), m_nMisses.sum(),
+            m_nTables.sum(), m_nInvalidatedTables.sum(), m_nGCedTables.sum(), nActiveTables, m_LRUCache.size(),
+            m_LRUCacheBytesUsed.get());
+    }
 
-            LOGGER.debug("KNIME Buffer cache statistics:");
-            LOGGER.debugWithFormat("\t%d tables currently held in cache", nActiveTables);
-            LOGGER.debugWithFormat("\t%d distinct tables cached", m_nTables);
-            LOGGER.debugWithFormat("\t%d tables invalidated successfully", m_nInvalidatedTables);
-            LOGGER.debugWithFormat("\t%d tables dropped by garbage collector", m_nGCedTables);
-            LOGGER.debugWithFormat("\t%d cache hits (hard-referenced)", m_nHardHits);
-            LOGGER.debugWithFormat("\t%d cache hits (softly referenced)", m_nSoftHits);
-            LOGGER.debugWithFormat("\t%d cache hits (weakly referenced)", m_nWeakHits);
-            LOGGER.debugWithFormat("\t%d cache misses", m_nMisses);
-
-            m_timeOfLastLog = time;
-            assert m_nAccesses == m_nHardHits + m_nSoftHits + m_nWeakHits + m_nMisses;
+    private void pollGCedTables() {
+        while (m_weakCacheRefQueue.poll() != null) {
+            m_nGCedTables.increment();
         }
     }
 
@@ -192,7 +209,7 @@ private void logStatistics() {
      * @param buffer the buffer which the table is associated with
      * @param list a fully read table
      */
-    synchronized void put(final Buffer buffer, final List<BlobSupportDataRow> list) {
+    void put(final Buffer buffer, final List<BlobSupportDataRow> list) {
         CheckUtils.checkArgumentNotNull(buffer);
         CheckUtils.checkArgumentNotNull(list);
 
@@ -209,16 +226,94 @@ synchronized void put(final Buffer buffer, final List<BlobSupportDataRow> list)
         final WeakReference<List<BlobSupportDataRow>> previousValue = m_weakCache.put(uniqueId,
             new WeakReference<List<BlobSupportDataRow>>(unmodifiableList, m_weakCacheRefQueue));
         if (previousValue == null) {
-            m_nTables++;
+            m_nTables.increment();
         }
+        pollGCedTables();
     }
 
-    private void putIntoLRUCache(final long uniqueId, final List<BlobSupportDataRow> list) {
+    private void putIntoLRUCache(final Long uniqueId, final List<BlobSupportDataRow> list) {
         if (!MemoryAlertSystem.getInstanceUncollected().isMemoryLow()) {
-            m_LRUCache.put(uniqueId, new SoftReference<List<BlobSupportDataRow>>(list));
+            final LRUEntry entry = new LRUEntry(list, estimateBytes(list), m_clock.incrementAndGet());
+            m_LRUCacheBytesUsed.addAndGet(entry.m_bytes);
+            final LRUEntry previous = m_LRUCache.put(uniqueId, entry);
+            if (previous != null) {
+                m_LRUCacheBytesUsed.addAndGet(-previous.m_bytes);
+            }
+            evictFromLRUCache();
+        }
+    }
+
+    private void removeFromLRUCache(final Long uniqueId) {
+        final LRUEntry entry = m_LRUCache.remove(uniqueId);
+        if (entry != null) {
+            m_LRUCacheBytesUsed.addAndGet(-entry.m_bytes);
         }
     }
 
+    /**
+     * Removes the least recently used entries from the LRU cache until it respects both its size and its byte limit.
+     * The most recently used entry is always retained, even if it exceeds the byte limit on its own. The LRU cache is
+     * small (in the number of tables), so a linear scan for the eldest entry is cheaper than maintaining an order that
+     * would have to be updated on every cache hit.
+     */
+    private void evictFromLRUCache() {
+        m_evictionLock.lock();
+        try {
+            while (m_LRUCache.size() > m_LRUCacheSize
+                || (m_LRUCache.size() > 1 && m_LRUCacheBytesUsed.get() > m_LRUCacheBytes)) {
+                Entry<Long, LRUEntry> eldest = null;
+                for (Entry<Long, LRUEntry> entry : m_LRUCache.entrySet()) {
+                    if (eldest == null || entry.getValue().m_lastAccess < eldest.getValue().m_lastAccess) {
+                        eldest = entry;
+                    }
+                }
+                if (eldest == null) {
+                    break;
+                }
+                if (m_LRUCache.remove(eldest.getKey(), eldest.getValue())) {
+                    m_LRUCacheBytesUsed.addAndGet(-eldest.getValue().m_bytes);
+                }
+            }
+        } finally {
+            m_evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Estimates the number of bytes occupied by a table by extrapolating from a sample of its rows. Only string cells
+     * are considered to vary in size; blobs are not accounted for, since they are not held in memory by the table.
+     * Tables in a {@link ColumnarRowList} estimate their size themselves.
+     *
+     * @param list the table
+     * @return the estimated size of the table in bytes
+     */
+    static long estimateBytes(final List<BlobSupportDataRow> list) {
+        if (list instanceof ColumnarRowList) {
+            return ((ColumnarRowList)list).estimateBytes();
+        }
+        final int size = list.size();
+        if (size == 0) {
+            return 0;
+        }
+        final int step = Math.max(1, size / SIZE_ESTIMATE_SAMPLE_ROWS);
+        long sampleBytes = 0;
+        int sampleRows = 0;
+        for (int i = 0; i < size; i += step) {
+            final BlobSupportDataRow row = list.get(i);
+            sampleBytes += ROW_OVERHEAD_BYTES + 2L * row.getKey().getString().length();
+            for (int c = 0; c < row.getNumCells(); c++) {
+                final DataCell cell = row.getRawCell(c);
+                if (cell instanceof StringValue) {
+                    sampleBytes += STRING_CELL_OVERHEAD_BYTES + 2L * ((StringValue)cell).getStringValue().length();
+                } else {
+                    sampleBytes += CELL_BYTES;
+                }
+            }
+            sampleRows++;
+        }
+        return sampleBytes / sampleRows * size;
+    }
+
     /**
      * Clear the table associated with a buffer for garbage collection. From this point onward, the garbage collector
      * may at any time discard the in-memory representation of the table. Therefore, this method should only ever be
@@ -226,7 +321,7 @@ private void putIntoLRUCache(final long uniqueId, final List<BlobSupportDataRow>
      *
      * @param buffer the buffer which table that is to be cleared for garbage collection is associated with
      */
-    synchronized void clearForGarbageCollection(final Buffer buffer) {
+    void clearForGarbageCollection(final Buffer buffer) {
         CheckUtils.checkArgumentNotNull(buffer);
 
         if(!buffer.isFlushedToDisk()) {
@@ -243,7 +338,7 @@ synchronized void clearForGarbageCollection(final Buffer buffer) {
      * @param buffer the buffer which the to-be-checked table is associated with
      * @return <code>true</code> iff the associated table is held in the cache and not cleared for garbage collection
      */
-    synchronized boolean contains(final Buffer buffer) {
+    boolean contains(final Buffer buffer) {
         CheckUtils.checkArgumentNotNull(buffer);
 
         final WeakReference<List<BlobSupportDataRow>> weakRef = m_weakCache.get(buffer.getUniqueID());
@@ -259,7 +354,7 @@ synchronized boolean contains(final Buffer buffer) {
      * @param buffer the buffer which the to-be-retrieved table is associated with
      * @return a table represented as a list of datarows, if such a table is present in the cache
      */
-    synchronized Optional<List<BlobSupportDataRow>> get(final Buffer buffer) {
+    Optional<List<BlobSupportDataRow>> get(final Buffer buffer) {
         return getInternal(buffer, false);
     }
 
@@ -270,7 +365,7 @@ synchronized Optional<List<BlobSupportDataRow>> get(final Buffer buffer) {
      * @param buffer the buffer which the to-be-retrieved table is associated with
      * @return a table represented as a list of datarows, if such a table is present in the cache
      */
-    synchronized Optional<List<BlobSupportDataRow>> getSilent(final Buffer buffer) {
+    Optional<List<BlobSupportDataRow>> getSilent(final Buffer buffer) {
         return getInternal(buffer, true);
     }
 
@@ -288,19 +383,21 @@ private Optional<List<BlobSupportDataRow>> getInternal(final Buffer buffer, fina
             return Optional.ofNullable(weakRef.get());
         }
 
-        m_nAccesses++;
         boolean hit = false;
 
         if (m_hardMap.get(uniqueId) != null) {
-            m_nHardHits++;
+            m_nHardHits.increment();
             hit = true;
         }
 
         /** Update recent access in LRU cache and soft reference. */
-        final SoftReference<List<BlobSupportDataRow>> softRef = m_LRUCache.get(uniqueId);
-        if (softRef != null && softRef.get() != null && !hit) {
-            m_nSoftHits++;
-            hit = true;
+        final LRUEntry entry = m_LRUCache.get(uniqueId);
+        if (entry != null) {
+            entry.m_lastAccess = m_clock.incrementAndGet();
+            if (entry.m_softRef.get() != null && !hit) {
+                m_nSoftHits.increment();
+                hit = true;
+            }
         }
 
         Optional<List<BlobSupportDataRow>> result = Optional.empty();
@@ -312,25 +409,24 @@ private Optional<List<BlobSupportDataRow>> getInternal(final Buffer buffer, fina
         final List<BlobSupportDataRow> list = weakRef.get();
         if (list != null) {
             /** Make sure to put the accessed table back into the LRU cache. */
-        	if (!m_LRUCache.containsKey(uniqueId)) {
-        	    putIntoLRUCache(uniqueId, list);
-        	}
+            if (entry == null) {
+                putIntoLRUCache(uniqueId, list);
+            }
             if (!hit) {
-                m_nWeakHits++;
+                m_nWeakHits.increment();
                 hit = true;
             }
             result = Optional.of(list);
         } else {
             /** Table has been garbage collected; it should be removed from the LRU cache to make room for other
              * tables. */
-            m_LRUCache.remove(uniqueId);
+            removeFromLRUCache(uniqueId);
         }
 
         if (!hit) {
-            m_nMisses++;
+            m_nMisses.increment();
         }
 
-        logStatistics();
         return result;
     }
 
@@ -339,15 +435,15 @@ private Optional<List<BlobSupportDataRow>> getInternal(final Buffer buffer, fina
      *
      * @param buffer the buffer which the to-be-invalidated table is associated with
      */
-    synchronized void invalidate(final Buffer buffer) {
+    void invalidate(final Buffer buffer) {
         final Long uniqueId = buffer.getUniqueID();
 
         m_hardMap.remove(uniqueId);
-        m_LRUCache.remove(uniqueId);
+        removeFromLRUCache(uniqueId);
         final WeakReference<List<BlobSupportDataRow>> previousValue = m_weakCache.remove(uniqueId);
 
         if (previousValue != null && previousValue.get() != null) {
-            m_nInvalidatedTables++;
+            m_nInvalidatedTables.increment();
         }
     }
 
@@ -356,22 +452,43 @@ synchronized void invalidate(final Buffer buffer) {
      *
      * @param newSize the new size of the LRU cache
      */
-    synchronized void setLRUCacheSize(final int newSize) {
+    void setLRUCacheSize(final int newSize) {
         if (newSize == m_LRUCacheSize) {
             return;
         }
+        /** If the new cache is smaller than the old one, the least-recently-accessed entries are evicted. */
+        m_LRUCacheSize = newSize;
+        evictFromLRUCache();
+    }
 
-        /** Since there is no way of adjusting the cache size of an LRUCache, we have to create a new cache. */
-        final LRUCache<Long, SoftReference<List<BlobSupportDataRow>>> cache = new LRUCache<>(newSize, newSize);
-
-        /** If the new cache is smaller than the old one, the least-recently-accessed entries will be entered first
-         * and then also evicted first when the new cache size is reached. */
-        for (Entry<Long, SoftReference<List<BlobSupportDataRow>>> entry : m_LRUCache.entrySet()) {
-            cache.put(entry.getKey(), entry.getValue());
+    /**
+     * Can be used to adjust the number of bytes that tables in the LRU cache may occupy at runtime. Should only be used
+     * for benchmarking purposes.
+     *
+     * @param newBytes the new (estimated) number of bytes of the LRU cache
+     */
+    void setLRUCacheBytes(final long newBytes) {
+        if (newBytes == m_LRUCacheBytes) {
+            return;
         }
+        m_LRUCacheBytes = newBytes;
+        evictFromLRUCache();
+    }
 
-        m_LRUCacheSize = newSize;
-        m_LRUCache = cache;
+    /** An entry of the LRU cache, i.e., a soft reference to a table along with its size and recency. */
+    private static final class LRUEntry {
+
+        private final SoftReference<List<BlobSupportDataRow>> m_softRef;
+
+        private final long m_bytes;
+
+        private volatile long m_lastAccess;
+
+        LRUEntry(final List<BlobSupportDataRow> list, final long bytes, final long lastAccess) {
+            m_softRef = new SoftReference<>(list);
+            m_bytes = bytes;
+            m_lastAccess = lastAccess;
+        }
     }
 
 }
@@ -63,14 +63,21 @@
 import org.knime.core.data.container.BlobDataCell.BlobAddress;
 import org.knime.core.data.container.DCObjectInputVersion2.BlockableDCObjectInputVersion2;
 import org.knime.core.data.container.DefaultTableStoreReader.FromFileIterator;
+import org.knime.core.data.container.filter.RowPredicate;
+import org.knime.core.data.container.filter.TableFilter;
 import org.knime.core.data.container.storage.AbstractTableStoreReader;
 import org.knime.core.data.filestore.FileStoreCell;
 import org.knime.core.data.filestore.FileStoreKey;
 import org.knime.core.data.filestore.FileStoreUtil;
+import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.NodeLogger;
 
 /**
- * File iterator to read stream written by a {@link Buffer}.
+ * File iterator to read stream written by a {@link Buffer}. If constructed with a {@link TableFilter}, reading
+ * starts at the block containing the first row of the filter's row range (if the file has a block index) and any
+ * further rows outside the range are skipped without being deserialized. Rows are tested against the filter's
+ * {@link RowPredicate} as soon as the predicate's columns have been read; the remaining cells of rejected rows are
+ * skipped without being deserialized.
  * @author Bernd Wiswedel, University of Konstanz
  * @since 3.7
  */
@@ -83,7 +90,7 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
     private final DefaultTableStoreReader m_tableFormatReader;
 
     /** Row pointer. */
-    private int m_pointer;
+    private long m_pointer;
 
     /** Content of the rows that get returned in {@link #next()} when the
      * table is {@link #close()}'d. Will be instantiated lazy. */
@@ -101,13 +108,40 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
     /** Utility object with designated functionality to deserialize datacell. */
     private DataCellStreamReader m_dataCellStreamReader;
 
+    /** The filter to apply or null if all rows are returned. */
+    private final TableFilter m_filter;
+
+    /** The predicate of the filter or null if rows are not filtered by their content. */
+    private final RowPredicate m_predicate;
+
+    /** Progress monitor, only used in combination with a filter, may be null. */
+    private final ExecutionMonitor m_exec;
+
+    /** The next row satisfying the filter (prefetched as {@link #hasNext()} needs to read ahead). */
+    private BlobSupportDataRow m_nextFilteredRow;
+
+    /** Whether {@link #m_nextFilteredRow} has been initialized. */
+    private boolean m_isFilterInitialized;
+
     /** Inits iterator, opens input stream.
      * @param tableFormatReader The associated buffer.
      * @throws IOException If stream reading fails.
      */
     BufferFromFileIteratorVersion20(final DefaultTableStoreReader tableFormatReader) throws IOException {
-        // init the pointer
-        m_pointer = 0;
+        this(tableFormatReader, null, null);
+    }
+
+    /** Inits iterator, opens input stream.
+     * @param tableFormatReader The associated buffer.
+     * @param filter The filter to apply or null to return all rows.
+     * @param exec The monitor to report progress to (only if a filter is set) or null.
+     * @throws IOException If stream reading fails.
+     */
+    BufferFromFileIteratorVersion20(final DefaultTableStoreReader tableFormatReader, final TableFilter filter,
+        final ExecutionMonitor exec) throws IOException {
+        m_filter = filter;
+        m_predicate = filter == null ? null : filter.getPredicate().orElse(null);
+        m_exec = exec;
 
         // check for file existence
         if (tableFormatReader.getBinFile() == null) {
@@ -119,16 +153,29 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
         assert m_tableFormatReader.getReadVersion() >= 6 : "Iterator is not backward compatible, use instead "
             + BufferFromFileIteratorVersion1x.class.getSimpleName();
 
-        // open the input stream
+        // open the input stream, starting at the block containing the first row to read
+        final int blockIndex =
+            filter == null ? 0 : tableFormatReader.getBlockIndex(filter.getFromRowIndex().orElse(0L));
+        m_pointer = tableFormatReader.getFirstRowIndexOfBlock(blockIndex);
         m_dataCellStreamReader = new DataCellStreamReader(tableFormatReader);
-        m_inStream = new BlockableDCObjectInputVersion2(getInputStream(tableFormatReader), m_dataCellStreamReader);
+        m_inStream = new BlockableDCObjectInputVersion2(getInputStream(tableFormatReader, blockIndex),
+            m_dataCellStreamReader);
     }
 
 
     /** {@inheritDoc} */
     @Override
     public synchronized boolean hasNext() {
-        boolean hasNext = m_pointer < m_tableFormatReader.size();
+        final boolean hasNext;
+        if (m_filter == null) {
+            hasNext = m_pointer < m_tableFormatReader.size();
+        } else {
+            if (!m_isFilterInitialized) {
+                m_isFilterInitialized = true;
+                m_nextFilteredRow = readNextFilteredRow();
+            }
+            hasNext = m_nextFilteredRow != null;
+        }
         if (!hasNext && (m_inStream != null)) {
             close();
         }
@@ -141,6 +188,11 @@ public synchronized BlobSupportDataRow next() {
         if (!hasNext()) {
             throw new NoSuchElementException("Iterator at end");
         }
+        if (m_filter != null) {
+            final BlobSupportDataRow row = m_nextFilteredRow;
+            m_nextFilteredRow = readNextFilteredRow();
+            return row;
+        }
         final BlockableDCObjectInputVersion2 inStream = m_inStream;
         int colCount = m_tableFormatReader.getTableSpec().getNumColumns();
         if (inStream == null) { // iterator was closed
@@ -154,6 +206,46 @@ public synchronized BlobSupportDataRow next() {
             m_pointer++;
             return new BlobSupportDataRow(key, m_missingCellsForClosedTable);
         }
+        return readRow(inStream, null);
+    }
+
+    /**
+     * Reads rows until one is found that satisfies the filter or the end of the filter's row range is reached.
+     *
+     * @return the next row satisfying the filter or null if there is none (or the iterator has been closed)
+     */
+    private BlobSupportDataRow readNextFilteredRow() {
+        final long size = m_tableFormatReader.size();
+        final long fromIndex = m_filter.getFromRowIndex().orElse(0L);
+        final long toIndex = Math.min(m_filter.getToRowIndex().orElse(size - 1), size - 1);
+        while (m_inStream != null && m_pointer <= toIndex) {
+            final long index = m_pointer;
+            if (m_exec != null) {
+                final long progressSize = toIndex + 1;
+                m_exec.setProgress(((double)(index + 1)) / progressSize,
+                    () -> String.format("Row %,d/%,d", index + 1, progressSize));
+            }
+            if (index < fromIndex) {
+                skipRow(m_inStream);
+                continue;
+            }
+            final BlobSupportDataRow row = readRow(m_inStream, m_predicate);
+            if (row != null) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next row from the stream.
+     *
+     * @param inStream To read from.
+     * @param predicate The predicate to test the row against or null to accept any row.
+     * @return The row or null if it doesn't satisfy the predicate.
+     */
+    private BlobSupportDataRow readRow(final BlockableDCObjectInputVersion2 inStream, final RowPredicate predicate) {
+        final int colCount = m_tableFormatReader.getTableSpec().getNumColumns();
         RowKey key;
         try {
             key = readRowKeyAndEndBlock(inStream);
@@ -164,8 +256,16 @@ public synchronized BlobSupportDataRow next() {
             String keyS = "Read_failed__auto_generated_key_" + m_pointer;
             key = new RowKey(keyS);
         }
-        DataCell[] cells = new DataCell[colCount];
+        final DataCell[] cells = new DataCell[colCount];
+        // the row shares the cell array so that the predicate can be tested before all cells are read
+        final BlobSupportDataRow row = new BlobSupportDataRow(key, cells);
+        final int predicateColumn = predicate == null ? -1 : predicate.getMaxColumnIndex();
+        boolean isAccepted = true;
         for (int i = 0; i < colCount; i++) {
+            if (!isAccepted) {
+                skipBlock(inStream);
+                continue;
+            }
             DataCell nextCell;
             try {
                 try {
@@ -178,7 +278,41 @@ public synchronized BlobSupportDataRow next() {
                 nextCell = DataType.getMissingCell();
             }
             cells[i] = nextCell;
+            if (i == predicateColumn) {
+                isAccepted = predicate.test(row);
+            }
+        }
+        readEndOfRow(inStream);
+        return isAccepted ? row : null;
+    }
+
+    /**
+     * Skips the next row in the stream without deserializing its key or cells.
+     *
+     * @param inStream To read from.
+     */
+    private void skipRow(final BlockableDCObjectInputVersion2 inStream) {
+        if (m_tableFormatReader.isReadRowKey()) {
+            skipBlock(inStream);
+        }
+        final int colCount = m_tableFormatReader.getTableSpec().getNumColumns();
+        for (int i = 0; i < colCount; i++) {
+            skipBlock(inStream);
         }
+        readEndOfRow(inStream);
+    }
+
+    /** Skips the current block (row key or cell) in the stream without deserializing it. */
+    private void skipBlock(final BlockableDCObjectInputVersion2 inStream) {
+        try {
+            inStream.endBlock();
+        } catch (IOException ioe) {
+            handleReadThrowable(ioe);
+        }
+    }
+
+    /** Reads the end of row byte and increments the row pointer. */
+    private void readEndOfRow(final BlockableDCObjectInputVersion2 inStream) {
         try {
             byte eoRow = inStream.readControlByte();
             if (eoRow != BYTE_ROW_SEPARATOR) {
@@ -189,7 +323,6 @@ public synchronized BlobSupportDataRow next() {
         } finally {
             m_pointer++;
         }
-        return new BlobSupportDataRow(key, cells);
     }
 
     /** Reads a row key from the stream and ends the block. In case of buffers
@@ -238,6 +371,9 @@ private void handleReadThrowable(final Throwable throwable) {
     /** {@inheritDoc} */
     @Override
     public synchronized boolean performClose() throws IOException {
+        // a row that has been read ahead is not to be returned once the iterator is closed
+        m_nextFilteredRow = null;
+        m_isFilterInitialized = true;
         // already closed (clear has been called before)
         if (m_inStream == null) {
             return false;
@@ -360,10 +496,15 @@ public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOExce
                 result = inStream.readDataCellPerJavaSerialization();
             } else {
 
-                // deserialize using KNIME deserialization
-                DataCellSerializer<? extends DataCell> serializer = type.getSerializer();
-                assert serializer != null;
-                result = inStream.readDataCellPerKNIMESerializer(serializer);
+                // deserialize using KNIME deserialization, unless the cell can be decoded directly
+                final DataCell primitiveCell = isFileStore ? null : inStream.readPrimitiveCell(cellClass);
+                if (primitiveCell != null) {
+                    result = primitiveCell;
+                } else {
+                    DataCellSerializer<? extends DataCell> serializer = type.getSerializer();
+                    assert serializer != null;
+                    result = inStream.readDataCellPerKNIMESerializer(serializer);
+                }
             }
 
             if (fileStoreKeys != null) {
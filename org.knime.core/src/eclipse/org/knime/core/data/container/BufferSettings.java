@@ -51,10 +51,12 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.container.Buffer.MemorizeIfSmallLifecycle;
 import org.knime.core.data.container.Buffer.SoftRefLRULifecycle;
+import org.knime.core.data.container.storage.CompressionCodec;
 import org.knime.core.data.container.storage.TableStoreFormat;
 import org.knime.core.data.container.storage.TableStoreFormatRegistry;
 import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.WorkflowTableBackendSettings;
 
 /**
  * The buffer settings. Solely used for benchmarking.
@@ -77,22 +79,36 @@ public final class BufferSettings {
     /** The default number of tables that can be kept in the soft-references LRU cache before being weak-referenced. */
     static final int DEF_LRU_CACHE_SIZE = 32;
 
+    /**
+     * The default (estimated) number of bytes that tables in the soft-references LRU cache may occupy before being
+     * weak-referenced, which is a quarter of the maximum heap size.
+     */
+    static final long DEF_LRU_CACHE_BYTES = Runtime.getRuntime().maxMemory() / 4;
+
     /** The enable LRU caching flag. */
     private final boolean m_enableLRU;
 
     /** The LRU cache size. */
     private final int m_lruCacheSize;
 
+    /** The LRU cache size in bytes. */
+    private final long m_lruCacheBytes;
+
     /** The output table store format. */
     private final TableStoreFormat m_outputFormat;
 
+    /** The codec replacing the compression of the output format, null to use the format's compression. */
+    private final CompressionCodec m_compressionCodec;
+
     /**
-     * Default constructor.
+     * Default constructor, using the compression codec selected for the current workflow (if any).
      */
     BufferSettings() {
         m_enableLRU = initLRU();
         m_lruCacheSize = DEF_LRU_CACHE_SIZE;
+        m_lruCacheBytes = DEF_LRU_CACHE_BYTES;
         m_outputFormat = TableStoreFormatRegistry.getInstance().getInstanceTableStoreFormat();
+        m_compressionCodec = WorkflowTableBackendSettings.getCompressionCodecForCurrentContext().orElse(null);
     }
 
     /**
@@ -100,13 +116,18 @@ public final class BufferSettings {
      *
      * @param enableLRU the enable LRU flag
      * @param lruCacheSize the LRU cache size
+     * @param lruCacheBytes the LRU cache size in bytes
      * @param outputFormat the output format
+     * @param compressionCodec the codec replacing the compression of the output format, may be null
      * @noreference This constructor is not intended to be referenced by clients.
      */
-    private BufferSettings(final boolean enableLRU, final int lruCacheSize, final TableStoreFormat outputFormat) {
+    private BufferSettings(final boolean enableLRU, final int lruCacheSize, final long lruCacheBytes,
+        final TableStoreFormat outputFormat, final CompressionCodec compressionCodec) {
         m_enableLRU = enableLRU;
         m_lruCacheSize = lruCacheSize;
+        m_lruCacheBytes = lruCacheBytes;
         m_outputFormat = outputFormat;
+        m_compressionCodec = compressionCodec;
     }
 
     /**
@@ -148,6 +169,15 @@ int getLRUCacheSize() {
         return m_lruCacheSize;
     }
 
+    /**
+     * Returns the (estimated) number of bytes that tables in the LRU cache may occupy.
+     *
+     * @return the LRU cache size in bytes
+     */
+    long getLRUCacheBytes() {
+        return m_lruCacheBytes;
+    }
+
     /**
      * Returns the {@link TableStoreFormat} used to read and write the {@link Buffer Buffer's} content.
      *
@@ -155,15 +185,17 @@ int getLRUCacheSize() {
      * @return the {@link TableStoreFormat}
      */
     TableStoreFormat getOutputFormat(final DataTableSpec spec) {
+        final TableStoreFormat storeFormat;
         if (m_outputFormat.accepts(spec)) {
             LOGGER.debugWithFormat("Using table format %s", m_outputFormat.getClass().getName());
-            return m_outputFormat;
+            storeFormat = m_outputFormat;
+        } else {
+            storeFormat = TableStoreFormatRegistry.getInstance().getFormatFor(spec);
+            LOGGER.debugWithFormat(
+                "Cannot use table format '%s' as it does not support the table schema, " + "using '%s' instead",
+                m_outputFormat.getClass().getName(), storeFormat.getClass().getName());
         }
-        final TableStoreFormat storeFormat = TableStoreFormatRegistry.getInstance().getFormatFor(spec);
-        LOGGER.debugWithFormat(
-            "Cannot use table format '%s' as it does not support the table schema, " + "using '%s' instead",
-            m_outputFormat.getClass().getName(), storeFormat.getClass().getName());
-        return storeFormat;
+        return m_compressionCodec == null ? storeFormat : storeFormat.withCompression(m_compressionCodec);
     }
 
     /**
@@ -183,7 +215,7 @@ public static BufferSettings getDefault() {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withLRU(final boolean enableLRU) {
-        return new BufferSettings(enableLRU, m_lruCacheSize, m_outputFormat);
+        return new BufferSettings(enableLRU, m_lruCacheSize, m_lruCacheBytes, m_outputFormat, m_compressionCodec);
     }
 
     /**
@@ -194,18 +226,44 @@ public BufferSettings withLRU(final boolean enableLRU) {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withLRUCacheSize(final int lruCacheSize) {
-        return new BufferSettings(m_enableLRU, lruCacheSize, m_outputFormat);
+        return new BufferSettings(m_enableLRU, lruCacheSize, m_lruCacheBytes, m_outputFormat, m_compressionCodec);
+    }
+
+    /**
+     * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
+     * and solely changes the (estimated) number of bytes that tables in the LRU cache may occupy.
+     *
+     * @param lruCacheBytes the new LRU cache size in bytes
+     * @return a new instance of {@code BufferSettings}
+     * @since 4.4
+     */
+    public BufferSettings withLRUCacheBytes(final long lruCacheBytes) {
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, lruCacheBytes, m_outputFormat, m_compressionCodec);
     }
 
     /**
      * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
-     * and solely changes the table store format.
+     * and solely changes the table store format. The format is used as is, i.e., its compression is not replaced by
+     * the compression codec selected for the workflow or via {@link #withCompression(CompressionCodec)}.
      *
      * @param outputFormat the new table store format
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withOutputFormat(final TableStoreFormat outputFormat) {
-        return new BufferSettings(m_enableLRU, m_lruCacheSize, outputFormat);
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, m_lruCacheBytes, outputFormat, null);
+    }
+
+    /**
+     * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
+     * and solely changes the codec compressing the table files (if supported by the table store format, see
+     * {@link TableStoreFormat#withCompression(CompressionCodec)}).
+     *
+     * @param compressionCodec the new compression codec, null to use the compression of the table store format
+     * @return a new instance of {@code BufferSettings}
+     * @since 4.4
+     */
+    public BufferSettings withCompression(final CompressionCodec compressionCodec) {
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, m_lruCacheBytes, m_outputFormat, compressionCodec);
     }
 
 }
@@ -225,6 +225,37 @@ public void saveToFile(final File f, final NodeSettingsWO settings, final Execut
         }
     }
 
+    /**
+     * Saves this table by hard-linking (or copying) the file it was read from, provided the table hasn't been accessed
+     * since it was loaded. This is much cheaper than {@link #saveToFile(File, NodeSettingsWO, ExecutionMonitor)},
+     * which restores the data into the temp directory and compresses it again, and is used when an unchanged node is
+     * saved to a new location (save as, auto-save). The table remains unopened; once it is accessed, it reads from the
+     * file it was loaded from or, if that was deleted meanwhile, from the most recent link or copy created here.
+     *
+     * <p>
+     * Do not call this method! Internal use!
+     *
+     * @param f The file to write.
+     * @return true if the file was created, false if the table's content has been accessed already and it needs to be
+     *         saved using {@link #saveToFile(File, NodeSettingsWO, ExecutionMonitor)}.
+     * @throws IOException If the file can't be linked or copied.
+     * @since 4.4
+     */
+    public boolean saveToFileFromPersistedFile(final File f) throws IOException {
+        CopyOnAccessTask readTask = m_readTask;
+        if (readTask == null) {
+            return false;
+        }
+        synchronized (readTask) {
+            // the table may have been opened while waiting for the lock
+            if (m_readTask == null) {
+                return false;
+            }
+            readTask.linkOrCopyTo(f);
+            return true;
+        }
+    }
+
     /**
      * This methods exists to address possibly forward compatibility issues in KNIME 3.5 and before, see AP-8954.
      * Workflows created and saved in KNIME AP 3.6 were saved incompatibly to prior versions of KNIME (column store
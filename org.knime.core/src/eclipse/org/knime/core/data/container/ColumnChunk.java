@@ -0,0 +1,865 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.MissingCell;
+import org.knime.core.data.MissingValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.FileStoreCell;
+
+/**
+ * The values of a single column within a row group of the {@link ColumnarTableStoreFormat}. A {@link Writer} collects
+ * the cells of a row group, chooses the most compact encoding and computes the chunk's statistics; {@link #read(Type,
+ * DataInput, int, long)} decodes a chunk into primitive arrays from which cells are created on access.
+ *
+ * <p>
+ * The (uncompressed) layout of a chunk is
+ * <ol>
+ * <li>the encoding (byte), one of {@link #ENC_PLAIN}, {@link #ENC_RLE}, {@link #ENC_DICTIONARY}, {@link #ENC_BITS},
+ * {@link #ENC_GENERATED},</li>
+ * <li>the bit-packed mask of missing values (int word count followed by the words, no words if nothing is
+ * missing),</li>
+ * <li>the error messages of missing cells (int count followed by pairs of row index and message),</li>
+ * <li>the cells that are not of the column's cell class (e.g. an {@link IntCell} in a double column), int count
+ * followed by triples of row index, byte count and the cell as written by its {@link DataCellSerializer}. These rows
+ * are also marked in the mask of missing values,</li>
+ * <li>the encoded values. Missing values are stored as the preceding value of the chunk so that they don't break
+ * runs.</li>
+ * </ol>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ColumnChunk {
+
+    /** Values written one after another (strings: missing values are omitted). */
+    static final byte ENC_PLAIN = 0;
+
+    /** Runs of equal values written as pairs of value and run length. */
+    static final byte ENC_RLE = 1;
+
+    /** Distinct values written once followed by a 1 or 2 byte code per row. */
+    static final byte ENC_DICTIONARY = 2;
+
+    /** Boolean values packed into words of 64 bits. */
+    static final byte ENC_BITS = 3;
+
+    /** Row keys not written as they equal {@link RowKey#createRowKey(long)} of the row index. */
+    static final byte ENC_GENERATED = 4;
+
+    /** Dictionaries must not exceed the range of an unsigned short code. */
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    /** The type of a column (or of the row keys) that determines how its values are stored. */
+    enum Type {
+            /** {@link IntCell}, stored as 4 byte values. */
+            INT(4, IntCell.class),
+            /** {@link LongCell}, stored as 8 byte values. */
+            LONG(8, LongCell.class),
+            /** {@link DoubleCell}, stored as the 8 byte raw bits of the values. */
+            DOUBLE(8, DoubleCell.class),
+            /** {@link BooleanCell}, stored as bits. */
+            BOOLEAN(0, BooleanCell.class),
+            /** {@link StringCell}, stored as modified UTF-8. */
+            STRING(0, StringCell.class),
+            /** The row keys, stored as modified UTF-8 unless generated. */
+            ROW_KEY(0, null);
+
+        private final int m_width;
+
+        /** The class of the cells whose values are encoded, cells of other classes are serialized. */
+        private final Class<? extends DataCell> m_cellClass;
+
+        Type(final int width, final Class<? extends DataCell> cellClass) {
+            m_width = width;
+            m_cellClass = cellClass;
+        }
+
+        /**
+         * @param type a column type
+         * @return the corresponding chunk type or null if columns of the type cannot be stored
+         */
+        static Type of(final DataType type) {
+            if (IntCell.TYPE.equals(type)) {
+                return INT;
+            } else if (LongCell.TYPE.equals(type)) {
+                return LONG;
+            } else if (DoubleCell.TYPE.equals(type)) {
+                return DOUBLE;
+            } else if (BooleanCell.TYPE.equals(type)) {
+                return BOOLEAN;
+            } else if (StringCell.TYPE.equals(type)) {
+                return STRING;
+            }
+            return null;
+        }
+
+        /** @return whether the values are held as longs (ints, longs, the bits of doubles, booleans as 0/1) */
+        boolean isNumeric() {
+            return this != STRING && this != ROW_KEY;
+        }
+    }
+
+    private final Type m_type;
+
+    private final int m_size;
+
+    private final BitSet m_missing;
+
+    private final Map<Integer, String> m_errors;
+
+    /** The cells not of the column's cell class by row index, their rows are marked as missing. */
+    private final Map<Integer, DataCell> m_exceptions;
+
+    /** The values of numeric and boolean chunks. */
+    private final long[] m_longs;
+
+    /** The cells of string chunks (null for missing values). */
+    private final StringCell[] m_strings;
+
+    /** The row keys of row key chunks, null if the keys are generated. */
+    private final String[] m_keys;
+
+    private final long m_firstRowIndex;
+
+    private ColumnChunk(final Type type, final int size, final BitSet missing, final Map<Integer, String> errors,
+        final Map<Integer, DataCell> exceptions, final long[] longs, final StringCell[] strings, final String[] keys,
+        final long firstRowIndex) {
+        m_type = type;
+        m_size = size;
+        m_missing = missing;
+        m_errors = errors;
+        m_exceptions = exceptions;
+        m_longs = longs;
+        m_strings = strings;
+        m_keys = keys;
+        m_firstRowIndex = firstRowIndex;
+    }
+
+    /** @return the number of rows in this chunk */
+    int size() {
+        return m_size;
+    }
+
+    /**
+     * @param index the index of the row within the chunk
+     * @return the cell of the row
+     */
+    DataCell getCell(final int index) {
+        if (m_missing.get(index)) {
+            final DataCell exception = m_exceptions.get(index);
+            if (exception != null) {
+                return exception;
+            }
+            final String error = m_errors.get(index);
+            return error == null ? DataType.getMissingCell() : new MissingCell(error);
+        }
+        switch (m_type) {
+            case INT:
+                return new IntCell((int)m_longs[index]);
+            case LONG:
+                return new LongCell(m_longs[index]);
+            case DOUBLE:
+                return new DoubleCell(Double.longBitsToDouble(m_longs[index]));
+            case BOOLEAN:
+                return BooleanCell.get(m_longs[index] != 0L);
+            case STRING:
+                return m_strings[index];
+            default:
+                throw new IllegalStateException("Chunk of type " + m_type + " has no cells");
+        }
+    }
+
+    /**
+     * @param index the index of the row within the chunk
+     * @return the key of the row
+     */
+    RowKey getKey(final int index) {
+        return m_keys == null ? RowKey.createRowKey(m_firstRowIndex + index) : new RowKey(m_keys[index]);
+    }
+
+    /**
+     * Decodes a chunk.
+     *
+     * @param type the type of the chunk
+     * @param in the (uncompressed) chunk
+     * @param size the number of rows in the chunk
+     * @param firstRowIndex the index of the first row of the chunk in the table (used for generated row keys)
+     * @return the decoded chunk
+     * @throws IOException if the chunk cannot be read or is corrupt
+     */
+    static ColumnChunk read(final Type type, final DataInput in, final int size, final long firstRowIndex)
+        throws IOException {
+        final byte encoding = in.readByte();
+        final long[] missingWords = new long[in.readInt()];
+        for (int i = 0; i < missingWords.length; i++) {
+            missingWords[i] = in.readLong();
+        }
+        final BitSet missing = BitSet.valueOf(missingWords);
+        final int errorCount = in.readInt();
+        final Map<Integer, String> errors = new HashMap<>(errorCount);
+        for (int i = 0; i < errorCount; i++) {
+            errors.put(in.readInt(), readString(in));
+        }
+        final int exceptionCount = in.readInt();
+        final Map<Integer, DataCell> exceptions = new HashMap<>(exceptionCount);
+        for (int i = 0; i < exceptionCount; i++) {
+            final int index = in.readInt();
+            final byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            try (final CellInput cellIn = new CellInput(bytes)) {
+                exceptions.put(index, cellIn.readDataCell());
+            }
+        }
+        long[] longs = null;
+        StringCell[] strings = null;
+        String[] keys = null;
+        if (type.isNumeric()) {
+            longs = readLongs(type, encoding, in, size);
+        } else if (type == Type.STRING) {
+            strings = readStrings(encoding, in, size, missing);
+        } else if (encoding != ENC_GENERATED) {
+            final StringCell[] keyCells = readStrings(encoding, in, size, missing);
+            keys = new String[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = keyCells[i].getStringValue();
+            }
+        }
+        return new ColumnChunk(type, size, missing, errors, exceptions, longs, strings, keys, firstRowIndex);
+    }
+
+    private static long[] readLongs(final Type type, final byte encoding, final DataInput in, final int size)
+        throws IOException {
+        final long[] values = new long[size];
+        switch (encoding) {
+            case ENC_PLAIN:
+                for (int i = 0; i < size; i++) {
+                    values[i] = readValue(type, in);
+                }
+                break;
+            case ENC_RLE:
+                final int runCount = in.readInt();
+                for (int r = 0, i = 0; r < runCount; r++) {
+                    final long value = readValue(type, in);
+                    final int end = i + in.readInt();
+                    if (end > size) {
+                        throw new IOException("Run exceeds chunk of " + size + " rows");
+                    }
+                    Arrays.fill(values, i, end, value);
+                    i = end;
+                }
+                break;
+            case ENC_DICTIONARY:
+                final long[] dictionary = new long[in.readInt()];
+                for (int d = 0; d < dictionary.length; d++) {
+                    dictionary[d] = readValue(type, in);
+                }
+                final boolean isShortCode = in.readBoolean();
+                for (int i = 0; i < size; i++) {
+                    values[i] = dictionary[isShortCode ? in.readUnsignedShort() : in.readUnsignedByte()];
+                }
+                break;
+            case ENC_BITS:
+                final long[] words = new long[(size + 63) >>> 6];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = in.readLong();
+                }
+                for (int i = 0; i < size; i++) {
+                    values[i] = (words[i >>> 6] >>> i) & 1L;
+                }
+                break;
+            default:
+                throw new IOException("Unknown encoding " + encoding + " of " + type + " chunk");
+        }
+        return values;
+    }
+
+    private static StringCell[] readStrings(final byte encoding, final DataInput in, final int size,
+        final BitSet missing) throws IOException {
+        final StringCell[] cells = new StringCell[size];
+        switch (encoding) {
+            case ENC_PLAIN:
+                for (int i = 0; i < size; i++) {
+                    if (!missing.get(i)) {
+                        cells[i] = new StringCell(readString(in));
+                    }
+                }
+                break;
+            case ENC_DICTIONARY:
+                final StringCell[] dictionary = new StringCell[in.readInt()];
+                for (int d = 0; d < dictionary.length; d++) {
+                    dictionary[d] = new StringCell(readString(in));
+                }
+                final boolean isShortCode = in.readBoolean();
+                for (int i = 0; i < size; i++) {
+                    final int code = isShortCode ? in.readUnsignedShort() : in.readUnsignedByte();
+                    if (!missing.get(i)) {
+                        cells[i] = dictionary[code];
+                    }
+                }
+                break;
+            default:
+                throw new IOException("Unknown encoding " + encoding + " of string chunk");
+        }
+        return cells;
+    }
+
+    private static long readValue(final Type type, final DataInput in) throws IOException {
+        return type.m_width == 4 ? in.readInt() : in.readLong();
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.
+     *
+     * @param in to read from
+     * @return the string
+     * @throws IOException if reading fails or the bytes aren't valid modified UTF-8
+     */
+    private static String readString(final DataInput in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        final char[] chars = new char[bytes.length];
+        int length = 0;
+        for (int i = 0; i < bytes.length;) {
+            final int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                chars[length++] = (char)b;
+                i++;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[length++] = (char)(((b & 0x1F) << 6) | continuationBits(bytes, i + 1));
+                i += 2;
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[length++] =
+                    (char)(((b & 0x0F) << 12) | (continuationBits(bytes, i + 1) << 6) | continuationBits(bytes, i + 2));
+                i += 3;
+            } else {
+                throw new IOException("Malformed string, invalid byte " + b + " at position " + i);
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static int continuationBits(final byte[] bytes, final int index) throws IOException {
+        if (index >= bytes.length || (bytes[index] & 0xC0) != 0x80) {
+            throw new IOException("Malformed string, invalid or missing byte at position " + index);
+        }
+        return bytes[index] & 0x3F;
+    }
+
+    /**
+     * Writes a string as number of bytes followed by its modified UTF-8 encoding (as {@link StringCell} does, see
+     * {@link java.io.DataOutput#writeUTF(String)}), which, unlike standard UTF-8, preserves any sequence of chars,
+     * including unpaired surrogates, and isn't limited in length.
+     *
+     * @param out to write to
+     * @param value the string
+     * @throws IOException if writing fails
+     */
+    private static void writeString(final DataOutput out, final String value) throws IOException {
+        final int length = value.length();
+        int byteCount = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            byteCount += c >= 0x0001 && c < 0x0080 ? 1 : (c < 0x0800 ? 2 : 3);
+        }
+        final byte[] bytes = new byte[byteCount];
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x0001 && c < 0x0080) {
+                bytes[pos++] = (byte)c;
+            } else if (c < 0x0800) {
+                bytes[pos++] = (byte)(0xC0 | (c >> 6));
+                bytes[pos++] = (byte)(0x80 | (c & 0x3F));
+            } else {
+                bytes[pos++] = (byte)(0xE0 | (c >> 12));
+                bytes[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                bytes[pos++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+        out.writeInt(byteCount);
+        out.write(bytes);
+    }
+
+    /**
+     * Collects the cells of a column (or the row keys) of a row group, encodes them and computes the statistics. A
+     * writer is reused for all row groups: {@link #encode()} resets it.
+     */
+    static final class Writer {
+
+        private final Type m_type;
+
+        private final long[] m_longs;
+
+        private final String[] m_strings;
+
+        private final BitSet m_missing = new BitSet();
+
+        private final Map<Integer, String> m_errors = new HashMap<>();
+
+        /** The serialized cells not of the column's cell class, see {@link #addCell(DataCell)}. */
+        private final Map<Integer, byte[]> m_exceptions = new TreeMap<>();
+
+        private int m_size;
+
+        /** Whether all row keys added so far are generated ones. */
+        private boolean m_isGeneratedKeys = true;
+
+        // statistics of the last encoded chunk
+        private int m_missingCount;
+
+        private long m_minLong;
+
+        private long m_maxLong;
+
+        private String m_minString;
+
+        private String m_maxString;
+
+        /**
+         * @param type the type of the column
+         * @param capacity the maximum number of rows in a row group
+         */
+        Writer(final Type type, final int capacity) {
+            m_type = type;
+            m_longs = type.isNumeric() ? new long[capacity] : null;
+            m_strings = type.isNumeric() ? null : new String[capacity];
+        }
+
+        /** @return the number of values added since the last {@link #encode()} */
+        int size() {
+            return m_size;
+        }
+
+        /**
+         * Adds a cell. Cells that are not of the column's cell class (e.g. an {@link IntCell} in a double column, as
+         * permitted by {@link DataType#isASuperTypeOf(DataType)}) are serialized as they are and read back unchanged.
+         *
+         * @param cell the next cell of the column
+         * @throws IOException if the cell is not of the column's cell class and cannot be serialized (it has no
+         *             {@link DataCellSerializer} or is a blob or file store cell)
+         */
+        void addCell(final DataCell cell) throws IOException {
+            if (cell.isMissing()) {
+                addMissing();
+                final String error = ((MissingValue)cell).getError();
+                if (error != null) {
+                    m_errors.put(m_size, error);
+                }
+            } else if (cell.getClass() != m_type.m_cellClass) {
+                m_exceptions.put(m_size, serialize(cell));
+                addMissing();
+            } else {
+                switch (m_type) {
+                    case INT:
+                        m_longs[m_size] = ((IntCell)cell).getIntValue();
+                        break;
+                    case LONG:
+                        m_longs[m_size] = ((LongCell)cell).getLongValue();
+                        break;
+                    case DOUBLE:
+                        m_longs[m_size] = Double.doubleToRawLongBits(((DoubleCell)cell).getDoubleValue());
+                        break;
+                    case BOOLEAN:
+                        m_longs[m_size] = ((BooleanCell)cell).getBooleanValue() ? 1L : 0L;
+                        break;
+                    default:
+                        m_strings[m_size] = ((StringCell)cell).getStringValue();
+                }
+            }
+            m_size++;
+        }
+
+        /** Marks the current row as missing, storing the preceding value so that runs aren't broken. */
+        private void addMissing() {
+            m_missing.set(m_size);
+            if (m_longs != null) {
+                m_longs[m_size] = m_size == 0 ? 0L : m_longs[m_size - 1];
+            }
+        }
+
+        private byte[] serialize(final DataCell cell) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (final CellOutput out = new CellOutput(bytes)) {
+                out.writeDataCell(cell);
+            } catch (IOException e) {
+                throw new IOException("Cell of class " + cell.getClass().getName() + " cannot be stored in a "
+                    + m_type + " column: " + e.getMessage(), e);
+            }
+            return bytes.toByteArray();
+        }
+
+        /**
+         * @param key the next row key
+         * @param rowIndex the index of the row in the table
+         */
+        void addKey(final RowKey key, final long rowIndex) {
+            m_strings[m_size] = key.getString();
+            m_isGeneratedKeys = m_isGeneratedKeys && key.equals(RowKey.createRowKey(rowIndex));
+            m_size++;
+        }
+
+        /**
+         * Encodes the values added since the last call, computes the statistics and resets the writer.
+         *
+         * @return the (uncompressed) chunk
+         * @throws IOException if writing fails
+         */
+        byte[] encode() throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 4 * m_size);
+            try (final DataOutputStream out = new DataOutputStream(bytes)) {
+                if (m_type.isNumeric()) {
+                    computeNumericStatistics();
+                    encodeLongs(out);
+                } else if (m_type == Type.STRING) {
+                    computeStringStatistics();
+                    encodeStrings(out);
+                } else if (m_isGeneratedKeys) {
+                    writeHeader(out, ENC_GENERATED);
+                } else {
+                    encodeStrings(out);
+                }
+            }
+            m_missingCount = m_missing.cardinality() - m_exceptions.size();
+            m_missing.clear();
+            m_errors.clear();
+            m_exceptions.clear();
+            if (m_strings != null) {
+                Arrays.fill(m_strings, 0, m_size, null);
+            }
+            m_size = 0;
+            m_isGeneratedKeys = true;
+            return bytes.toByteArray();
+        }
+
+        private void writeHeader(final DataOutputStream out, final byte encoding) throws IOException {
+            out.writeByte(encoding);
+            final long[] missingWords = m_missing.toLongArray();
+            out.writeInt(missingWords.length);
+            for (final long word : missingWords) {
+                out.writeLong(word);
+            }
+            out.writeInt(m_errors.size());
+            for (final Map.Entry<Integer, String> e : m_errors.entrySet()) {
+                out.writeInt(e.getKey());
+                writeString(out, e.getValue());
+            }
+            out.writeInt(m_exceptions.size());
+            for (final Map.Entry<Integer, byte[]> e : m_exceptions.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeInt(e.getValue().length);
+                out.write(e.getValue());
+            }
+        }
+
+        private void encodeLongs(final DataOutputStream out) throws IOException {
+            final int size = m_size;
+            if (m_type == Type.BOOLEAN) {
+                writeHeader(out, ENC_BITS);
+                final long[] words = new long[(size + 63) >>> 6];
+                for (int i = 0; i < size; i++) {
+                    words[i >>> 6] |= m_longs[i] << i;
+                }
+                for (final long word : words) {
+                    out.writeLong(word);
+                }
+                return;
+            }
+            final int width = m_type.m_width;
+            int runCount = size == 0 ? 0 : 1;
+            for (int i = 1; i < size; i++) {
+                if (m_longs[i] != m_longs[i - 1]) {
+                    runCount++;
+                }
+            }
+            final long plainBytes = (long)size * width;
+            final long rleBytes = 4L + (long)runCount * (width + 4);
+            // the dictionary is only collected if it could beat the other encodings
+            Map<Long, Integer> dictionary = null;
+            if (runCount > size / 4) {
+                dictionary = collectDictionary(Math.min(MAX_DICTIONARY_SIZE, size / 2));
+            }
+            final long dictionaryBytes = dictionary == null || dictionary.isEmpty() ? Long.MAX_VALUE
+                : 5L + dictionary.size() * width + (long)size * (dictionary.size() > 256 ? 2 : 1);
+
+            if (rleBytes < plainBytes && rleBytes <= dictionaryBytes) {
+                writeHeader(out, ENC_RLE);
+                out.writeInt(runCount);
+                for (int i = 0; i < size;) {
+                    final long value = m_longs[i];
+                    int end = i + 1;
+                    while (end < size && m_longs[end] == value) {
+                        end++;
+                    }
+                    writeValue(out, value);
+                    out.writeInt(end - i);
+                    i = end;
+                }
+            } else if (dictionaryBytes < plainBytes) {
+                writeHeader(out, ENC_DICTIONARY);
+                out.writeInt(dictionary.size());
+                for (final Long value : dictionary.keySet()) {
+                    writeValue(out, value);
+                }
+                final boolean isShortCode = dictionary.size() > 256;
+                out.writeBoolean(isShortCode);
+                for (int i = 0; i < size; i++) {
+                    // leading missing values aren't necessarily part of the dictionary
+                    final int code = dictionary.getOrDefault(m_longs[i], 0);
+                    if (isShortCode) {
+                        out.writeShort(code);
+                    } else {
+                        out.writeByte(code);
+                    }
+                }
+            } else {
+                writeHeader(out, ENC_PLAIN);
+                for (int i = 0; i < size; i++) {
+                    writeValue(out, m_longs[i]);
+                }
+            }
+        }
+
+        /**
+         * @param maxSize the maximum number of distinct values
+         * @return the distinct non-missing values mapped to their codes, in order of the codes, or null if there are
+         *         more than the given number of distinct values
+         */
+        private Map<Long, Integer> collectDictionary(final int maxSize) {
+            final Map<Long, Integer> dictionary = new LinkedHashMap<>();
+            for (int i = 0; i < m_size; i++) {
+                if (!m_missing.get(i)) {
+                    dictionary.putIfAbsent(m_longs[i], dictionary.size());
+                    if (dictionary.size() > maxSize) {
+                        return null;
+                    }
+                }
+            }
+            return dictionary;
+        }
+
+        private void writeValue(final DataOutputStream out, final long value) throws IOException {
+            if (m_type.m_width == 4) {
+                out.writeInt((int)value);
+            } else {
+                out.writeLong(value);
+            }
+        }
+
+        private void encodeStrings(final DataOutputStream out) throws IOException {
+            final int size = m_size;
+            final Map<String, Integer> dictionary = new LinkedHashMap<>();
+            final int maxSize = Math.min(MAX_DICTIONARY_SIZE, size / 2);
+            for (int i = 0; i < size && dictionary.size() <= maxSize; i++) {
+                if (m_strings[i] != null && !m_missing.get(i)) {
+                    dictionary.putIfAbsent(m_strings[i], dictionary.size());
+                }
+            }
+            if (dictionary.isEmpty() || dictionary.size() > maxSize) {
+                writeHeader(out, ENC_PLAIN);
+                for (int i = 0; i < size; i++) {
+                    if (!m_missing.get(i)) {
+                        writeString(out, m_strings[i]);
+                    }
+                }
+                return;
+            }
+            writeHeader(out, ENC_DICTIONARY);
+            out.writeInt(dictionary.size());
+            for (final String value : dictionary.keySet()) {
+                writeString(out, value);
+            }
+            final boolean isShortCode = dictionary.size() > 256;
+            out.writeBoolean(isShortCode);
+            for (int i = 0; i < size; i++) {
+                final int code = m_missing.get(i) ? 0 : dictionary.get(m_strings[i]);
+                if (isShortCode) {
+                    out.writeShort(code);
+                } else {
+                    out.writeByte(code);
+                }
+            }
+        }
+
+        private void computeNumericStatistics() {
+            if (m_type == Type.DOUBLE) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < m_size; i++) {
+                    final double value = Double.longBitsToDouble(m_longs[i]);
+                    // NaN is ignored as it is neither smaller nor larger than anything
+                    if (!m_missing.get(i) && !Double.isNaN(value)) {
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                }
+                m_minLong = Double.doubleToLongBits(min);
+                m_maxLong = Double.doubleToLongBits(max);
+            } else {
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (int i = 0; i < m_size; i++) {
+                    if (!m_missing.get(i)) {
+                        min = Math.min(min, m_longs[i]);
+                        max = Math.max(max, m_longs[i]);
+                    }
+                }
+                m_minLong = min;
+                m_maxLong = max;
+            }
+        }
+
+        private void computeStringStatistics() {
+            String min = null;
+            String max = null;
+            for (int i = 0; i < m_size; i++) {
+                final String value = m_strings[i];
+                if (value != null && !m_missing.get(i)) {
+                    min = min == null || value.compareTo(min) < 0 ? value : min;
+                    max = max == null || value.compareTo(max) > 0 ? value : max;
+                }
+            }
+            m_minString = min;
+            m_maxString = max;
+        }
+
+        /** @return the number of missing values in the last encoded chunk */
+        int getMissingCount() {
+            return m_missingCount;
+        }
+
+        /**
+         * @return the minimum of the last encoded numeric chunk (the bits of a double for double chunks), larger than
+         *         the maximum if the chunk has no (non-missing, non-NaN) values
+         */
+        long getMinLong() {
+            return m_minLong;
+        }
+
+        /** @return the maximum of the last encoded numeric chunk, see {@link #getMinLong()} */
+        long getMaxLong() {
+            return m_maxLong;
+        }
+
+        /** @return the minimum of the last encoded string chunk or null if it has no non-missing values */
+        String getMinString() {
+            return m_minString;
+        }
+
+        /** @return the maximum of the last encoded string chunk or null if it has no non-missing values */
+        String getMaxString() {
+            return m_maxString;
+        }
+    }
+
+
+    /**
+     * Writes cells (also those nested in other cells) as class name followed by the output of their
+     * {@link DataCellSerializer}. Blob and file store cells are not supported as they are not stored in the table file.
+     */
+    private static final class CellOutput extends DataOutputStream implements DataCellDataOutput {
+
+        CellOutput(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            if (cell instanceof BlobDataCell || cell instanceof FileStoreCell) {
+                throw new IOException("Blob and file store cells are not supported");
+            }
+            final DataCellSerializer<DataCell> serializer = DataTypeRegistry.getInstance()
+                .getSerializer(cell.getClass())
+                .orElseThrow(() -> new IOException("No serializer for cell class " + cell.getClass().getName()));
+            writeString(this, cell.getClass().getName());
+            serializer.serialize(cell, this);
+        }
+    }
+
+    /** Reads cells written by a {@link CellOutput}. */
+    private static final class CellInput extends DataInputStream implements DataCellDataInput {
+
+        CellInput(final byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public DataCell readDataCell() throws IOException {
+            final String className = readString(this);
+            final Class<? extends DataCell> cellClass = DataTypeRegistry.getInstance().getCellClass(className)
+                .orElseThrow(() -> new IOException("Unknown cell class " + className));
+            final DataCellSerializer<DataCell> serializer = DataTypeRegistry.getInstance().getSerializer(cellClass)
+                .orElseThrow(() -> new IOException("No serializer for cell class " + className));
+            return serializer.deserialize(this);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * An unmodifiable, column-oriented in-memory representation of a table held in the {@link BufferCache}. Rather than
+ * one {@link BlobSupportDataRow} and one {@link DataCell} object per value, values are kept in primitive arrays (int,
+ * long, double and boolean columns) or dictionary-encoded (string columns), missing values in a {@link BitSet}. Rows
+ * are created on demand in {@link #get(int)}.
+ *
+ * <p>
+ * Only tables whose cells are all {@link IntCell IntCells}, {@link LongCell LongCells}, {@link DoubleCell
+ * DoubleCells}, {@link BooleanCell BooleanCells}, {@link StringCell StringCells} (of the exact class) or the plain
+ * {@link DataType#getMissingCell() missing cell} are converted, see {@link #compact(List)}. Since this covers neither
+ * blobs nor file stores, the created rows are equivalent to the original ones.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ColumnarRowList extends AbstractList<BlobSupportDataRow> implements RandomAccess {
+
+    /** Whether to keep tables in memory as a list of rows, i.e., not to convert them. */
+    private static final boolean DISABLE_COLUMNAR_CACHE = Boolean.getBoolean("knime.table.cache.columnar.disable");
+
+    /** The estimated overhead of an array or a bit set in bytes. */
+    private static final long ARRAY_OVERHEAD_BYTES = 16;
+
+    /** The estimated overhead of a string cell (excluding its characters) in bytes. */
+    private static final long STRING_CELL_OVERHEAD_BYTES = 56;
+
+    private final int m_size;
+
+    /** The row keys or <code>null</code> if all row keys are the default ones, see {@link RowKey#createRowKey(long)}. */
+    private final String[] m_keys;
+
+    private final Column[] m_columns;
+
+    private ColumnarRowList(final int size, final String[] keys, final Column[] columns) {
+        m_size = size;
+        m_keys = keys;
+        m_columns = columns;
+    }
+
+    /**
+     * Converts a fully read table into its columnar representation, if all its cells are supported.
+     *
+     * @param list a fully read table
+     * @return a columnar copy of the table or the argument if the table cannot (or should not) be converted
+     */
+    static List<BlobSupportDataRow> compact(final List<BlobSupportDataRow> list) {
+        if (DISABLE_COLUMNAR_CACHE || list.isEmpty() || list instanceof ColumnarRowList) {
+            return list;
+        }
+        final int size = list.size();
+        final int nrColumns = list.get(0).getNumCells();
+        final ColumnBuilder[] builders = new ColumnBuilder[nrColumns];
+        for (int c = 0; c < nrColumns; c++) {
+            builders[c] = new ColumnBuilder(size);
+        }
+        String[] keys = null;
+        for (int r = 0; r < size; r++) {
+            final BlobSupportDataRow row = list.get(r);
+            if (row.getNumCells() != nrColumns) {
+                return list;
+            }
+            final String key = row.getKey().getString();
+            if (keys == null && !key.equals(RowKey.createRowKey((long)r).getString())) {
+                keys = new String[size];
+                for (int i = 0; i < r; i++) {
+                    keys[i] = list.get(i).getKey().getString();
+                }
+            }
+            if (keys != null) {
+                keys[r] = key;
+            }
+            for (int c = 0; c < nrColumns; c++) {
+                if (!builders[c].add(r, row.getRawCell(c))) {
+                    return list;
+                }
+            }
+        }
+        final Column[] columns = new Column[nrColumns];
+        for (int c = 0; c < nrColumns; c++) {
+            columns[c] = builders[c].build();
+        }
+        return new ColumnarRowList(size, keys, columns);
+    }
+
+    @Override
+    public BlobSupportDataRow get(final int index) {
+        if (index < 0 || index >= m_size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + m_size);
+        }
+        final DataCell[] cells = new DataCell[m_columns.length];
+        for (int c = 0; c < cells.length; c++) {
+            cells[c] = m_columns[c].getCell(index);
+        }
+        final RowKey key = m_keys == null ? RowKey.createRowKey((long)index) : new RowKey(m_keys[index]);
+        return new BlobSupportDataRow(key, cells);
+    }
+
+    @Override
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * @return the estimated number of bytes occupied by this table
+     */
+    long estimateBytes() {
+        long bytes = ARRAY_OVERHEAD_BYTES;
+        if (m_keys != null) {
+            for (String key : m_keys) {
+                bytes += 8 + STRING_CELL_OVERHEAD_BYTES / 2 + 2L * key.length();
+            }
+        }
+        for (Column column : m_columns) {
+            bytes += column.estimateBytes();
+        }
+        return bytes;
+    }
+
+    /** A column of the table. */
+    private abstract static class Column {
+
+        private final BitSet m_missing;
+
+        Column(final BitSet missing) {
+            m_missing = missing;
+        }
+
+        final DataCell getCell(final int index) {
+            return m_missing.get(index) ? DataType.getMissingCell() : getNonMissingCell(index);
+        }
+
+        abstract DataCell getNonMissingCell(int index);
+
+        long estimateBytes() {
+            return ARRAY_OVERHEAD_BYTES + m_missing.size() / 8;
+        }
+    }
+
+    private static final class IntColumn extends Column {
+
+        private final int[] m_values;
+
+        IntColumn(final BitSet missing, final int[] values) {
+            super(missing);
+            m_values = values;
+        }
+
+        @Override
+        DataCell getNonMissingCell(final int index) {
+            return new IntCell(m_values[index]);
+        }
+
+        @Override
+        long estimateBytes() {
+            return super.estimateBytes() + ARRAY_OVERHEAD_BYTES + 4L * m_values.length;
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        private final long[] m_values;
+
+        LongColumn(final BitSet missing, final long[] values) {
+            super(missing);
+            m_values = values;
+        }
+
+        @Override
+        DataCell getNonMissingCell(final int index) {
+            return new LongCell(m_values[index]);
+        }
+
+        @Override
+        long estimateBytes() {
+            return super.estimateBytes() + ARRAY_OVERHEAD_BYTES + 8L * m_values.length;
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private final double[] m_values;
+
+        DoubleColumn(final BitSet missing, final double[] values) {
+            super(missing);
+            m_values = values;
+        }
+
+        @Override
+        DataCell getNonMissingCell(final int index) {
+            return new DoubleCell(m_values[index]);
+        }
+
+        @Override
+        long estimateBytes() {
+            return super.estimateBytes() + ARRAY_OVERHEAD_BYTES + 8L * m_values.length;
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        private final BitSet m_values;
+
+        BooleanColumn(final BitSet missing, final BitSet values) {
+            super(missing);
+            m_values = values;
+        }
+
+        @Override
+        DataCell getNonMissingCell(final int index) {
+            return m_values.get(index) ? BooleanCell.TRUE : BooleanCell.FALSE;
+        }
+
+        @Override
+        long estimateBytes() {
+            return super.estimateBytes() + ARRAY_OVERHEAD_BYTES + m_values.size() / 8;
+        }
+    }
+
+    /** A dictionary-encoded string column; the (immutable) cells in the dictionary are shared among rows. */
+    private static final class StringColumn extends Column {
+
+        private final int[] m_codes;
+
+        private final StringCell[] m_dictionary;
+
+        StringColumn(final BitSet missing, final int[] codes, final StringCell[] dictionary) {
+            super(missing);
+            m_codes = codes;
+            m_dictionary = dictionary;
+        }
+
+        @Override
+        DataCell getNonMissingCell(final int index) {
+            return m_dictionary[m_codes[index]];
+        }
+
+        @Override
+        long estimateBytes() {
+            long bytes = super.estimateBytes() + 2 * ARRAY_OVERHEAD_BYTES + 4L * m_codes.length;
+            for (StringCell cell : m_dictionary) {
+                bytes += 8 + STRING_CELL_OVERHEAD_BYTES + 2L * cell.getStringValue().length();
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Collects the values of a column. The type of the column is determined by the first non-missing cell, all other
+     * non-missing cells need to be of the same class.
+     */
+    private static final class ColumnBuilder {
+
+        private final int m_size;
+
+        private final BitSet m_missing = new BitSet();
+
+        private Class<? extends DataCell> m_cellClass;
+
+        private int[] m_ints;
+
+        private long[] m_longs;
+
+        private double[] m_doubles;
+
+        private BitSet m_booleans;
+
+        private int[] m_codes;
+
+        private Map<String, Integer> m_stringCodes;
+
+        private List<StringCell> m_dictionary;
+
+        ColumnBuilder(final int size) {
+            m_size = size;
+        }
+
+        /** @return <code>false</code> if the cell cannot be represented in this column */
+        boolean add(final int index, final DataCell cell) {
+            if (cell == DataType.getMissingCell()) {
+                m_missing.set(index);
+                return true;
+            }
+            if (m_cellClass == null) {
+                if (!init(cell.getClass())) {
+                    return false;
+                }
+            } else if (cell.getClass() != m_cellClass) {
+                return false;
+            }
+            if (m_ints != null) {
+                m_ints[index] = ((IntCell)cell).getIntValue();
+            } else if (m_longs != null) {
+                m_longs[index] = ((LongCell)cell).getLongValue();
+            } else if (m_doubles != null) {
+                m_doubles[index] = ((DoubleCell)cell).getDoubleValue();
+            } else if (m_booleans != null) {
+                m_booleans.set(index, ((BooleanCell)cell).getBooleanValue());
+            } else {
+                final StringCell stringCell = (StringCell)cell;
+                final Integer code = m_stringCodes.get(stringCell.getStringValue());
+                if (code != null) {
+                    m_codes[index] = code;
+                } else {
+                    m_stringCodes.put(stringCell.getStringValue(), m_dictionary.size());
+                    m_codes[index] = m_dictionary.size();
+                    m_dictionary.add(stringCell);
+                }
+            }
+            return true;
+        }
+
+        private boolean init(final Class<? extends DataCell> cellClass) {
+            if (cellClass == IntCell.class) {
+                m_ints = new int[m_size];
+            } else if (cellClass == LongCell.class) {
+                m_longs = new long[m_size];
+            } else if (cellClass == DoubleCell.class) {
+                m_doubles = new double[m_size];
+            } else if (cellClass == BooleanCell.class) {
+                m_booleans = new BitSet(m_size);
+            } else if (cellClass == StringCell.class) {
+                m_codes = new int[m_size];
+                m_stringCodes = new HashMap<>();
+                m_dictionary = new ArrayList<>();
+            } else {
+                return false;
+            }
+            m_cellClass = cellClass;
+            return true;
+        }
+
+        Column build() {
+            if (m_cellClass == IntCell.class) {
+                return new IntColumn(m_missing, m_ints);
+            } else if (m_cellClass == LongCell.class) {
+                return new LongColumn(m_missing, m_longs);
+            } else if (m_cellClass == DoubleCell.class) {
+                return new DoubleColumn(m_missing, m_doubles);
+            } else if (m_cellClass == StringCell.class) {
+                return new StringColumn(m_missing, m_codes, m_dictionary.toArray(new StringCell[0]));
+            } else {
+                // boolean column or a column of missing cells only
+                return new BooleanColumn(m_missing, m_booleans == null ? new BitSet(0) : m_booleans);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.IDataRepository;
+import org.knime.core.data.container.DefaultTableStoreFormat.DefaultTableStoreSettings;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.container.storage.AbstractTableStoreReader;
+import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.data.container.storage.TableStoreFormat;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * A column-oriented table store format for tables of {@link IntCell int}, {@link LongCell long}, {@link DoubleCell
+ * double}, {@link BooleanCell boolean} and {@link StringCell string} columns. Rows are split into row groups; the
+ * values of each column within a row group are stored as a separately compressed chunk, encoded as plain values,
+ * runs, or dictionary codes (whichever is most compact) with a bit-packed mask of missing values, see
+ * {@link ColumnChunk}. Chunk offsets as well as the minimum, maximum and number of missing values of each chunk are
+ * saved along with the meta information of the table.
+ *
+ * <p>
+ * Readers only read the chunks of the columns to be materialized (see {@link TableFilter#materializeCols(int...)})
+ * and skip row groups outside of a filter's row range. Tables with columns of other types are written in the
+ * {@link DefaultTableStoreFormat} (see {@link #accepts(DataTableSpec)}).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ * @noextend This class is not intended to be subclassed by clients.
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ColumnarTableStoreFormat implements TableStoreFormat {
+
+    /** The default number of rows per row group. */
+    public static final int DEF_ROWS_PER_GROUP = 1 << 16;
+
+    /** The version of the chunk layout; version 2 added the cells not of the column's cell class. */
+    static final String VERSION = "2";
+
+    /** The version of the format, see {@link #validateVersion(String)}. */
+    static final String CFG_VERSION = "columnar.version";
+
+    /** The number of rows per row group (the last group may have fewer). */
+    static final String CFG_ROWS_PER_GROUP = "columnar.group.rowcount";
+
+    /** The number of rows of the table. */
+    static final String CFG_ROW_COUNT = "columnar.rowcount";
+
+    /** Whether the row keys are stored, as the first chunk of each row group. */
+    static final String CFG_HAS_ROW_KEYS = "columnar.rowkeys";
+
+    /** Per chunk (ordered by row group, then column): the offset in the file. */
+    static final String CFG_CHUNK_OFFSETS = "columnar.chunk.offsets";
+
+    /** Per chunk: the number of (compressed) bytes. */
+    static final String CFG_CHUNK_LENGTHS = "columnar.chunk.lengths";
+
+    /** Per chunk: the number of missing values. */
+    static final String CFG_CHUNK_MISSING = "columnar.chunk.missing";
+
+    /** Per chunk: the minimum of numeric columns (raw bits for doubles). */
+    static final String CFG_CHUNK_MIN = "columnar.chunk.min";
+
+    /** Per chunk: the maximum of numeric columns (raw bits for doubles). */
+    static final String CFG_CHUNK_MAX = "columnar.chunk.max";
+
+    /** Per chunk: the minimum of string columns. */
+    static final String CFG_CHUNK_MIN_STRING = "columnar.chunk.min.string";
+
+    /** Per chunk: the maximum of string columns. */
+    static final String CFG_CHUNK_MAX_STRING = "columnar.chunk.max.string";
+
+    private final CompressionCodec m_compression;
+
+    private final int m_rowsPerGroup;
+
+    /**
+     * Constructor using the default compression (see {@link DefaultTableStoreSettings}) and number of rows per row
+     * group. Used by the extension point.
+     */
+    public ColumnarTableStoreFormat() {
+        this(DefaultTableStoreSettings.getDefault().getCompressionCodec(), DEF_ROWS_PER_GROUP);
+    }
+
+    /**
+     * @param compression the compression of the chunks
+     * @param rowsPerGroup the number of rows per row group
+     */
+    public ColumnarTableStoreFormat(final CompressionCodec compression, final int rowsPerGroup) {
+        CheckUtils.checkArgument(rowsPerGroup > 0, "Number of rows per group must be positive: %d", rowsPerGroup);
+        m_compression = CheckUtils.checkArgumentNotNull(compression);
+        m_rowsPerGroup = rowsPerGroup;
+    }
+
+    @Override
+    public String getName() {
+        return "Columnar (primitive and string columns only)";
+    }
+
+    @Override
+    public String getFilenameSuffix() {
+        return ".col" + m_compression.getFileExtension().replaceFirst("^\\.bin", "");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return whether all columns are int, long, double, boolean or string columns (their cells may also be of a
+     *         compatible type, e.g. {@link IntCell} in a double column, which are serialized as they are)
+     */
+    @Override
+    public boolean accepts(final DataTableSpec spec) {
+        for (final DataColumnSpec col : spec) {
+            if (ColumnChunk.Type.of(col.getType()) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public AbstractTableStoreWriter createWriter(final File binFile, final DataTableSpec spec,
+        final boolean writeRowKey) throws IOException {
+        final OutputStream output = new FileOutputStream(binFile);
+        try {
+            return createWriter(output, spec, writeRowKey);
+        } catch (IOException | RuntimeException e) { // NOSONAR the stream is handed to the writer if successful
+            try {
+                output.close();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public AbstractTableStoreWriter createWriter(final OutputStream output, final DataTableSpec spec,
+        final boolean writeRowKey) throws IOException {
+        return new ColumnarTableStoreWriter(spec, output, writeRowKey, m_compression, m_rowsPerGroup);
+    }
+
+    @Override
+    public AbstractTableStoreReader createReader(final File binFile, final DataTableSpec spec,
+        final IDataRepository dataRepository, final NodeSettingsRO settings, final int version,
+        final boolean isReadRowKey) throws IOException, InvalidSettingsException {
+        return new ColumnarTableStoreReader(binFile, spec, settings, version);
+    }
+
+    @Override
+    public String getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public ColumnarTableStoreFormat withCompression(final CompressionCodec codec) {
+        return new ColumnarTableStoreFormat(codec, m_rowsPerGroup);
+    }
+
+    @Override
+    public Optional<CompressionCodec> getCompressionCodec() {
+        return Optional.of(m_compression);
+    }
+
+    @Override
+    public boolean validateVersion(final String versionString) {
+        return VERSION.equals(versionString);
+    }
+
+}
@@ -0,0 +1,391 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.UnmaterializedCell;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.container.filter.RowPredicate;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.container.storage.AbstractTableStoreReader;
+import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+
+/**
+ * Reader of the {@link ColumnarTableStoreFormat}. Iterators decode one row group at a time, reading only the chunks
+ * of the materialized columns and only the row groups overlapping the row range of the filter.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ColumnarTableStoreReader extends AbstractTableStoreReader {
+
+    private final CompressionCodec m_compression;
+
+    private final ColumnChunk.Type[] m_types;
+
+    private final boolean m_hasRowKeys;
+
+    private final int m_rowsPerGroup;
+
+    private final long m_rowCount;
+
+    private final int m_chunksPerGroup;
+
+    private final long[] m_chunkOffsets;
+
+    private final int[] m_chunkLengths;
+
+    private final int[] m_chunkMissing;
+
+    private final long[] m_chunkMin;
+
+    private final long[] m_chunkMax;
+
+    private final String[] m_chunkMinString;
+
+    private final String[] m_chunkMaxString;
+
+    /**
+     * @param binFile the local file from which to read
+     * @param spec the specification of the data table
+     * @param settings The settings (written by
+     *            {@link AbstractTableStoreWriter#writeMetaInfoAfterWrite(org.knime.core.node.NodeSettingsWO)})
+     * @param version The version as defined in the {@link Buffer} class
+     * @throws IOException any type of I/O problem
+     * @throws InvalidSettingsException if the settings are invalid or of an unknown version
+     */
+    ColumnarTableStoreReader(final File binFile, final DataTableSpec spec, final NodeSettingsRO settings,
+        final int version) throws IOException, InvalidSettingsException {
+        super(binFile, spec, settings, version);
+        final String formatVersion = settings.getString(ColumnarTableStoreFormat.CFG_VERSION);
+        if (!ColumnarTableStoreFormat.VERSION.equals(formatVersion)) {
+            throw new InvalidSettingsException("Unsupported version of columnar table format: " + formatVersion);
+        }
+        m_compression = DefaultTableStoreFormat.loadCompressionCodec(settings, version);
+        m_types = new ColumnChunk.Type[spec.getNumColumns()];
+        for (int i = 0; i < m_types.length; i++) {
+            m_types[i] = ColumnChunk.Type.of(spec.getColumnSpec(i).getType());
+            if (m_types[i] == null) {
+                throw new InvalidSettingsException(
+                    "Column \"" + spec.getColumnSpec(i).getName() + "\" cannot be read from a columnar table");
+            }
+        }
+        m_hasRowKeys = settings.getBoolean(ColumnarTableStoreFormat.CFG_HAS_ROW_KEYS);
+        m_rowsPerGroup = settings.getInt(ColumnarTableStoreFormat.CFG_ROWS_PER_GROUP);
+        m_rowCount = settings.getLong(ColumnarTableStoreFormat.CFG_ROW_COUNT);
+        m_chunksPerGroup = m_types.length + (m_hasRowKeys ? 1 : 0);
+        m_chunkOffsets = settings.getLongArray(ColumnarTableStoreFormat.CFG_CHUNK_OFFSETS);
+        m_chunkLengths = settings.getIntArray(ColumnarTableStoreFormat.CFG_CHUNK_LENGTHS);
+        m_chunkMissing = settings.getIntArray(ColumnarTableStoreFormat.CFG_CHUNK_MISSING);
+        m_chunkMin = settings.getLongArray(ColumnarTableStoreFormat.CFG_CHUNK_MIN);
+        m_chunkMax = settings.getLongArray(ColumnarTableStoreFormat.CFG_CHUNK_MAX);
+        m_chunkMinString = settings.getStringArray(ColumnarTableStoreFormat.CFG_CHUNK_MIN_STRING);
+        m_chunkMaxString = settings.getStringArray(ColumnarTableStoreFormat.CFG_CHUNK_MAX_STRING);
+        if (m_rowsPerGroup <= 0) {
+            throw new InvalidSettingsException("Invalid number of rows per group: " + m_rowsPerGroup);
+        }
+        final long groupCount = (m_rowCount + m_rowsPerGroup - 1) / m_rowsPerGroup;
+        if (m_chunkOffsets.length != groupCount * m_chunksPerGroup || m_chunkLengths.length != m_chunkOffsets.length) {
+            throw new InvalidSettingsException("Invalid chunk index: " + m_chunkOffsets.length + " chunks for "
+                + m_rowCount + " rows in groups of " + m_rowsPerGroup);
+        }
+    }
+
+    @Override
+    public TableStoreCloseableRowIterator iterator() {
+        return iteratorWithFilter(null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Only the chunks of materialized columns (and columns accessed by the predicate) and of row groups in the row
+     * range are read; the other columns are {@link UnmaterializedCell unmaterialized}.
+     */
+    @Override
+    public TableStoreCloseableRowIterator iteratorWithFilter(final TableFilter filter, final ExecutionMonitor exec) {
+        try {
+            return new ColumnarIterator(filter, exec);
+        } catch (IOException ioe) {
+            throw createCannotReadException(ioe);
+        }
+    }
+
+    private RuntimeException createCannotReadException(final IOException ioe) {
+        checkAndReportOpenFiles(ioe);
+        return new RuntimeException("Cannot read file \"" + getFile().getName() + "\"", ioe);
+    }
+
+    /** @return the number of row groups */
+    int getGroupCount() {
+        return (int)((m_rowCount + m_rowsPerGroup - 1) / m_rowsPerGroup);
+    }
+
+    private int getChunkIndex(final int group, final int column) {
+        return group * m_chunksPerGroup + (m_hasRowKeys ? 1 : 0) + column;
+    }
+
+    /**
+     * @param group the index of the row group
+     * @param column the index of the column
+     * @return the number of missing values in the chunk
+     */
+    int getMissingCount(final int group, final int column) {
+        return m_chunkMissing[getChunkIndex(group, column)];
+    }
+
+    /**
+     * @param group the index of the row group
+     * @param column the index of a numeric or boolean column
+     * @return the minimum of the chunk (the raw bits for doubles), larger than the maximum if the chunk contains no
+     *         values (other than missing values and NaN)
+     */
+    long getMin(final int group, final int column) {
+        return m_chunkMin[getChunkIndex(group, column)];
+    }
+
+    /**
+     * @param group the index of the row group
+     * @param column the index of a numeric or boolean column
+     * @return the maximum of the chunk, see {@link #getMin(int, int)}
+     */
+    long getMax(final int group, final int column) {
+        return m_chunkMax[getChunkIndex(group, column)];
+    }
+
+    /**
+     * @param group the index of the row group
+     * @param column the index of a string column
+     * @return the minimum of the chunk or null if all values are missing
+     */
+    String getMinString(final int group, final int column) {
+        return m_chunkMinString[getChunkIndex(group, column)];
+    }
+
+    /**
+     * @param group the index of the row group
+     * @param column the index of a string column
+     * @return the maximum of the chunk or null if all values are missing
+     */
+    String getMaxString(final int group, final int column) {
+        return m_chunkMaxString[getChunkIndex(group, column)];
+    }
+
+    /** Iterator decoding one row group at a time. */
+    private final class ColumnarIterator extends TableStoreCloseableRowIterator {
+
+        /** The file to read from, null if closed. */
+        private FileChannel m_channel;
+
+        private final boolean[] m_isMaterialized;
+
+        private final long m_toIndex;
+
+        /** The predicate of the filter or null if rows are not filtered by their content. */
+        private final RowPredicate m_predicate;
+
+        /** Progress monitor, only used in combination with a filter, may be null. */
+        private final ExecutionMonitor m_exec;
+
+        /** The chunks of the current row group, null for columns that are not materialized. */
+        private final ColumnChunk[] m_chunks;
+
+        private ColumnChunk m_keyChunk;
+
+        private int m_group = -1;
+
+        /** The index of the next row to read. */
+        private long m_pointer;
+
+        /** The next row to return (prefetched as {@link #hasNext()} needs to read ahead). */
+        private BlobSupportDataRow m_next;
+
+        /** Whether {@link #m_next} has been initialized. */
+        private boolean m_isInitialized;
+
+        ColumnarIterator(final TableFilter filter, final ExecutionMonitor exec) throws IOException {
+            m_chunks = new ColumnChunk[m_types.length];
+            m_isMaterialized = new boolean[m_types.length];
+            if (filter == null || !filter.getMaterializeColumnIndices().isPresent()) {
+                Arrays.fill(m_isMaterialized, true);
+            } else {
+                filter.getMaterializeColumnIndices().get().stream().filter(i -> i >= 0 && i < m_types.length)
+                    .forEach(i -> m_isMaterialized[i] = true);
+            }
+            m_predicate = filter == null ? null : filter.getPredicate().orElse(null);
+            if (m_predicate != null) {
+                Arrays.stream(m_predicate.getColumnIndices()).filter(i -> i < m_types.length)
+                    .forEach(i -> m_isMaterialized[i] = true);
+            }
+            m_pointer = filter == null ? 0L : filter.getFromRowIndex().orElse(0L);
+            m_toIndex =
+                filter == null ? m_rowCount - 1 : Math.min(filter.getToRowIndex().orElse(m_rowCount - 1), m_rowCount - 1);
+            m_exec = exec;
+            m_channel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            if (!m_isInitialized) {
+                m_isInitialized = true;
+                m_next = readNext();
+            }
+            final boolean hasNext = m_next != null;
+            if (!hasNext && m_channel != null) {
+                close();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public synchronized BlobSupportDataRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator at end");
+            }
+            final BlobSupportDataRow row = m_next;
+            m_next = readNext();
+            return row;
+        }
+
+        /** @return the next row satisfying the filter or null if there is none (or the iterator has been closed) */
+        private BlobSupportDataRow readNext() {
+            while (m_channel != null && m_pointer <= m_toIndex) {
+                final long index = m_pointer++;
+                final int group = (int)(index / m_rowsPerGroup);
+                if (group != m_group) {
+                    try {
+                        loadGroup(group);
+                    } catch (IOException ioe) {
+                        throw createCannotReadException(ioe);
+                    }
+                }
+                if (m_exec != null) {
+                    final long progressSize = m_toIndex + 1;
+                    m_exec.setProgress(((double)(index + 1)) / progressSize,
+                        () -> String.format("Row %,d/%,d", index + 1, progressSize));
+                }
+                final int indexInGroup = (int)(index - (long)group * m_rowsPerGroup);
+                final DataCell[] cells = new DataCell[m_chunks.length];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] =
+                        m_isMaterialized[i] ? m_chunks[i].getCell(indexInGroup) : UnmaterializedCell.getInstance();
+                }
+                final RowKey key = m_keyChunk == null ? DUMMY_ROW_KEY : m_keyChunk.getKey(indexInGroup);
+                final BlobSupportDataRow row = new BlobSupportDataRow(key, cells);
+                if (m_predicate == null || m_predicate.test(row)) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        private void loadGroup(final int group) throws IOException {
+            final long firstRowIndex = (long)group * m_rowsPerGroup;
+            final int rowCount = (int)Math.min(m_rowsPerGroup, m_rowCount - firstRowIndex);
+            if (m_hasRowKeys) {
+                m_keyChunk = readChunk(group * m_chunksPerGroup, ColumnChunk.Type.ROW_KEY, rowCount, firstRowIndex);
+            }
+            for (int i = 0; i < m_chunks.length; i++) {
+                m_chunks[i] = m_isMaterialized[i]
+                    ? readChunk(getChunkIndex(group, i), m_types[i], rowCount, firstRowIndex) : null;
+            }
+            m_group = group;
+        }
+
+        @SuppressWarnings("resource")
+        private ColumnChunk readChunk(final int chunkIndex, final ColumnChunk.Type type, final int rowCount,
+            final long firstRowIndex) throws IOException {
+            final byte[] bytes = new byte[m_chunkLengths[chunkIndex]];
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            final long offset = m_chunkOffsets[chunkIndex];
+            while (buffer.hasRemaining()) {
+                if (m_channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of file at chunk " + chunkIndex);
+                }
+            }
+            final InputStream in = m_compression == CompressionFormat.NONE ? new ByteArrayInputStream(bytes)
+                : DefaultTableStoreFormat.getInputStream(m_compression, new ByteArrayInputStream(bytes));
+            try (final DataInputStream dataIn = new DataInputStream(in)) {
+                return ColumnChunk.read(type, dataIn, rowCount, firstRowIndex);
+            }
+        }
+
+        @Override
+        public synchronized boolean performClose() throws IOException {
+            // a row that has been read ahead is not to be returned once the iterator is closed
+            m_next = null;
+            m_isInitialized = true;
+            if (m_channel == null) {
+                return false;
+            }
+            final FileChannel channel = m_channel;
+            m_channel = null;
+            Arrays.fill(m_chunks, null);
+            m_keyChunk = null;
+            channel.close();
+            return true;
+        }
+    }
+
+}
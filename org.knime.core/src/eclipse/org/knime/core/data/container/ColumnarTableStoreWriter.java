@@ -0,0 +1,232 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.node.NodeSettingsWO;
+
+/**
+ * Writer of the {@link ColumnarTableStoreFormat}. Rows are collected column by column until a row group is complete;
+ * the chunks of the group are then encoded, compressed and appended to the file one after another, the row key chunk
+ * (if any) first. The chunk index and statistics are saved in {@link #writeMetaInfoAfterWrite(NodeSettingsWO)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ColumnarTableStoreWriter extends AbstractTableStoreWriter {
+
+    private final CountingOutputStream m_outStream;
+
+    private final CompressionCodec m_compression;
+
+    private final int m_rowsPerGroup;
+
+    /** The chunk of the row keys, null if row keys are not written. */
+    private final ColumnChunk.Writer m_keyChunk;
+
+    private final ColumnChunk.Writer[] m_chunks;
+
+    private final List<ChunkInfo> m_chunkInfos = new ArrayList<>();
+
+    private final ByteArrayOutputStream m_compressedChunk = new ByteArrayOutputStream();
+
+    private long m_rowCount;
+
+    private int m_rowsInGroup;
+
+    /**
+     * @param spec the spec of the table, all columns must be {@link ColumnarTableStoreFormat#accepts(DataTableSpec)
+     *            accepted}
+     * @param outputStream the stream to write to
+     * @param writeRowKey whether to write the row keys
+     * @param compression the compression of the chunks
+     * @param rowsPerGroup the number of rows per row group
+     */
+    ColumnarTableStoreWriter(final DataTableSpec spec, final OutputStream outputStream, final boolean writeRowKey,
+        final CompressionCodec compression, final int rowsPerGroup) {
+        super(spec, writeRowKey);
+        m_outStream = new CountingOutputStream(new BufferedOutputStream(outputStream));
+        m_compression = compression;
+        m_rowsPerGroup = rowsPerGroup;
+        m_keyChunk = writeRowKey ? new ColumnChunk.Writer(ColumnChunk.Type.ROW_KEY, rowsPerGroup) : null;
+        m_chunks = new ColumnChunk.Writer[spec.getNumColumns()];
+        for (int i = 0; i < m_chunks.length; i++) {
+            m_chunks[i] = new ColumnChunk.Writer(ColumnChunk.Type.of(spec.getColumnSpec(i).getType()), rowsPerGroup);
+        }
+    }
+
+    @Override
+    public void writeRow(final DataRow row) throws IOException {
+        if (m_keyChunk != null) {
+            m_keyChunk.addKey(row.getKey(), m_rowCount);
+        }
+        for (int i = 0; i < m_chunks.length; i++) {
+            m_chunks[i].addCell(row.getCell(i));
+        }
+        m_rowCount++;
+        if (++m_rowsInGroup == m_rowsPerGroup) {
+            writeGroup();
+        }
+    }
+
+    /** Writes the chunks of the current row group. */
+    private void writeGroup() throws IOException {
+        if (m_keyChunk != null) {
+            writeChunk(m_keyChunk);
+        }
+        for (final ColumnChunk.Writer chunk : m_chunks) {
+            writeChunk(chunk);
+        }
+        m_rowsInGroup = 0;
+    }
+
+    @SuppressWarnings("resource")
+    private void writeChunk(final ColumnChunk.Writer chunk) throws IOException {
+        final byte[] encoded = chunk.encode();
+        final long offset = m_outStream.getByteCount();
+        final int length;
+        if (m_compression == CompressionFormat.NONE) {
+            m_outStream.write(encoded);
+            length = encoded.length;
+        } else {
+            m_compressedChunk.reset();
+            try (final OutputStream compressed =
+                DefaultTableStoreFormat.getOutputStream(m_compression, m_compressedChunk)) {
+                compressed.write(encoded);
+            }
+            m_compressedChunk.writeTo(m_outStream);
+            length = m_compressedChunk.size();
+        }
+        m_chunkInfos.add(new ChunkInfo(offset, length, chunk));
+    }
+
+    @Override
+    public void writeMetaInfoAfterWrite(final NodeSettingsWO settings) {
+        DefaultTableStoreFormat.saveCompressionCodec(m_compression, settings);
+        settings.addString(ColumnarTableStoreFormat.CFG_VERSION, ColumnarTableStoreFormat.VERSION);
+        settings.addInt(ColumnarTableStoreFormat.CFG_ROWS_PER_GROUP, m_rowsPerGroup);
+        settings.addLong(ColumnarTableStoreFormat.CFG_ROW_COUNT, m_rowCount);
+        settings.addBoolean(ColumnarTableStoreFormat.CFG_HAS_ROW_KEYS, m_keyChunk != null);
+        final int chunkCount = m_chunkInfos.size();
+        final long[] offsets = new long[chunkCount];
+        final int[] lengths = new int[chunkCount];
+        final int[] missing = new int[chunkCount];
+        final long[] mins = new long[chunkCount];
+        final long[] maxs = new long[chunkCount];
+        final String[] minStrings = new String[chunkCount];
+        final String[] maxStrings = new String[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            final ChunkInfo info = m_chunkInfos.get(i);
+            offsets[i] = info.m_offset;
+            lengths[i] = info.m_length;
+            missing[i] = info.m_missingCount;
+            mins[i] = info.m_min;
+            maxs[i] = info.m_max;
+            minStrings[i] = info.m_minString;
+            maxStrings[i] = info.m_maxString;
+        }
+        settings.addLongArray(ColumnarTableStoreFormat.CFG_CHUNK_OFFSETS, offsets);
+        settings.addIntArray(ColumnarTableStoreFormat.CFG_CHUNK_LENGTHS, lengths);
+        settings.addIntArray(ColumnarTableStoreFormat.CFG_CHUNK_MISSING, missing);
+        settings.addLongArray(ColumnarTableStoreFormat.CFG_CHUNK_MIN, mins);
+        settings.addLongArray(ColumnarTableStoreFormat.CFG_CHUNK_MAX, maxs);
+        settings.addStringArray(ColumnarTableStoreFormat.CFG_CHUNK_MIN_STRING, minStrings);
+        settings.addStringArray(ColumnarTableStoreFormat.CFG_CHUNK_MAX_STRING, maxStrings);
+        super.writeMetaInfoAfterWrite(settings);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (m_rowsInGroup > 0) {
+                writeGroup();
+            }
+        } finally {
+            m_outStream.close();
+        }
+    }
+
+    /** Location and statistics of a written chunk. */
+    private static final class ChunkInfo {
+
+        private final long m_offset;
+
+        private final int m_length;
+
+        private final int m_missingCount;
+
+        private final long m_min;
+
+        private final long m_max;
+
+        private final String m_minString;
+
+        private final String m_maxString;
+
+        ChunkInfo(final long offset, final int length, final ColumnChunk.Writer chunk) {
+            m_offset = offset;
+            m_length = length;
+            m_missingCount = chunk.getMissingCount();
+            m_min = chunk.getMinLong();
+            m_max = chunk.getMaxLong();
+            m_minString = chunk.getMinString();
+            m_maxString = chunk.getMaxString();
+        }
+    }
+
+}
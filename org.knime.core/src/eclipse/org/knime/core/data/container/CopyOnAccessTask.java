@@ -57,6 +57,8 @@
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TimerTask;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -106,6 +108,9 @@ final class CopyOnAccessTask {
     /** Flag to indicate that the buffer needs to restore its content
      * into memory once it is created. */
     private boolean m_needsRestoreIntoMemory;
+    /** Links or copies of the file created by {@link #linkOrCopyTo(File)}, most recent last. Read from if the file
+     * itself was deleted, e.g. the workflow was saved to a new location and the old location was deleted. */
+    private final List<FileCopy> m_copies = new ArrayList<>();
 
     /**
      * Keeps reference, nothing else.
@@ -136,7 +141,7 @@ Buffer createBuffer() throws IOException {
         TimerTask timerTask = null;
         m_fileRef.lock();
         try {
-            final File file = m_fileRef.getFile();
+            final File file = getSourceFile();
             timerTask = new TimerTask() {
                 /** {@inheritDoc} */
                 @Override
@@ -259,6 +264,41 @@ Buffer createBuffer(final InputStream in) throws IOException {
         return buffer;
     }
 
+    /**
+     * Hard-links (or copies) the file to read from to a new location, used to save the table without extracting it.
+     * The new file is read from once the table is accessed if the original file no longer exists then.
+     * @param destination The file to create.
+     * @throws IOException If that fails.
+     * @see FileUtil#linkOrCopy(File, File)
+     */
+    void linkOrCopyTo(final File destination) throws IOException {
+        m_fileRef.lock();
+        try {
+            FileUtil.linkOrCopy(getSourceFile(), destination);
+            m_copies.add(new FileCopy(destination));
+        } finally {
+            m_fileRef.unlock();
+        }
+    }
+
+    /**
+     * @return the file to read from, that is the referenced file or, if that doesn't exist anymore, the most recent
+     *         unmodified link or copy of it (falling back to the referenced file if there is none)
+     */
+    private File getSourceFile() {
+        final File file = m_fileRef.getFile();
+        if (!file.isFile()) {
+            for (int i = m_copies.size() - 1; i >= 0; i--) {
+                if (m_copies.get(i).isUnmodified()) {
+                    LOGGER.debug("Data file \"" + file.getAbsolutePath() + "\" was deleted, reading from \""
+                        + m_copies.get(i).m_file.getAbsolutePath() + "\" instead");
+                    return m_copies.get(i).m_file;
+                }
+            }
+        }
+        return file;
+    }
+
     /** Get name of file to copy from. Used for better error messages.
      * @return source file
      */
@@ -284,6 +324,23 @@ IDataRepository getDataRepository() {
         return m_dataRepository;
     }
 
+    /** A link or copy of the data file, remembering size and time stamp to detect that it was replaced later on. */
+    private static final class FileCopy {
+        private final File m_file;
+        private final long m_length;
+        private final long m_lastModified;
+
+        FileCopy(final File file) {
+            m_file = file;
+            m_length = file.length();
+            m_lastModified = file.lastModified();
+        }
+
+        boolean isUnmodified() {
+            return m_file.isFile() && m_file.length() == m_length && m_file.lastModified() == m_lastModified;
+        }
+    }
+
     /**
      * Adds the current entry of the zip input stream to the destination
      * directory. Used to copy the blobs from the zip file to /temp/.
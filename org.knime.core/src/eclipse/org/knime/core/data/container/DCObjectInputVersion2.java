@@ -58,6 +58,9 @@
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.BlobDataCell.BlobAddress;
 import org.knime.core.data.container.BufferFromFileIteratorVersion20.DataCellStreamReader;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 import org.knime.core.data.filestore.FileStoreKey;
 import org.knime.core.data.util.NonClosableInputStream;
 
@@ -105,6 +108,17 @@ DataCell readDataCellPerKNIMESerializer(final DataCellSerializer<? extends DataC
     }
 
 
+    /**
+     * Reads a cell of a primitive type (such as {@link IntCell}) directly from the underlying storage, without going
+     * through its {@link DataCellSerializer}. Only supported by some streams and for some cell classes.
+     *
+     * @param cellClass the class of the cell to read
+     * @return the cell or null if it cannot be read directly, in which case no bytes have been consumed
+     */
+    DataCell readPrimitiveCell(final Class<? extends DataCell> cellClass) {
+        return null;
+    }
+
     /** Reads a data cell from the stream using java de-serialization.
      * @return A new data cell instance.
      * @throws IOException If reading fails (also e.g.
@@ -211,6 +225,28 @@ private BlockableDCObjectInputVersion2(final BlockableInputStream in, final Data
             this(in, null);
         }
 
+        /**
+         * {@inheritDoc}
+         *
+         * Supported for {@link IntCell}, {@link LongCell} and {@link DoubleCell} if the stream reads from a memory
+         * mapping, see {@link BlockableInputStream#readUnescaped(int)}.
+         */
+        @Override
+        DataCell readPrimitiveCell(final Class<? extends DataCell> cellClass) {
+            final int index;
+            if (cellClass == IntCell.class) {
+                index = m_in.readUnescaped(Integer.BYTES);
+                return index < 0 ? null : new IntCell(m_in.getMappedWindow().getInt(index));
+            } else if (cellClass == DoubleCell.class) {
+                index = m_in.readUnescaped(Double.BYTES);
+                return index < 0 ? null : new DoubleCell(m_in.getMappedWindow().getDouble(index));
+            } else if (cellClass == LongCell.class) {
+                index = m_in.readUnescaped(Long.BYTES);
+                return index < 0 ? null : new LongCell(m_in.getMappedWindow().getLong(index));
+            }
+            return null;
+        }
+
         /** Pushes the stream forth until a mark is encountered.
          * @throws IOException If IO problems occur. */
         void endBlock() throws IOException {
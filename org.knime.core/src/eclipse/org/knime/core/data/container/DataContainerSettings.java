@@ -55,6 +55,7 @@
 import org.knime.core.data.DataTableDomainCreator;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.container.storage.CompressionCodec;
 import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.workflow.ConfigurableWorkflowContext;
@@ -539,6 +540,20 @@ public DataContainerSettings withBufferSettings(final BufferSettings bufferSetti
         return b.build();
     }
 
+    /**
+     * Creates a new <code>DataContainerSetting</code> object by replicating the current
+     * <code>DataContainerSetting</code> instance and solely changes the compression codec of its
+     * {@link BufferSettings}.
+     *
+     * @param compressionCodec the codec compressing the table files, null to use the compression of the table format
+     * @return a new instance of {@code DataContainerSettings}
+     * @see BufferSettings#withCompression(CompressionCodec)
+     * @since 4.4
+     */
+    public DataContainerSettings withCompression(final CompressionCodec compressionCodec) {
+        return withBufferSettings(getBufferSettings().withCompression(compressionCodec));
+    }
+
     /**
      * Defaults to <source>false</source>.
      *
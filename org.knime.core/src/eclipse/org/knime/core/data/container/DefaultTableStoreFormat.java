@@ -57,6 +57,7 @@
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -65,12 +66,15 @@
 import org.knime.core.data.IDataRepository;
 import org.knime.core.data.container.storage.AbstractTableStoreReader;
 import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.data.container.storage.CompressionCodecRegistry;
 import org.knime.core.data.container.storage.TableStoreFormat;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.util.CheckUtils;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
@@ -94,6 +98,23 @@ public final class DefaultTableStoreFormat implements TableStoreFormat {
     /** Compression format. */
     private static final String CFG_COMPRESSION = "container.compression";
 
+    /** Compression level, only present for codecs other than the built-in {@link CompressionFormat formats}. */
+    private static final String CFG_COMPRESSION_LEVEL = "container.compression.level";
+
+    /**
+     * The default number of rows per independently compressed block, see
+     * {@link KNIMEConstants#PROPERTY_TABLE_ROWS_PER_BLOCK}.
+     *
+     * @since 4.4
+     */
+    public static final int DEF_ROWS_PER_BLOCK = 10000;
+
+    /** Number of rows per block, only present if the file consists of more than one block. */
+    static final String CFG_ROWS_PER_BLOCK = "container.block.rowcount";
+
+    /** File offsets of the blocks, only present if the file consists of more than one block. */
+    static final String CFG_BLOCK_OFFSETS = "container.block.offsets";
+
     /**
      * Checked function interface throwing an IOException.
      *
@@ -120,7 +141,7 @@ public final class DefaultTableStoreFormat implements TableStoreFormat {
      * @author Mark Ortmann, KNIME GmbH, Berlin, Germany
      * @since 4.0
      */
-    public static enum CompressionFormat {
+    public static enum CompressionFormat implements CompressionCodec {
 
             /** No compression. */
             NONE(".bin", //
@@ -159,15 +180,47 @@ private CompressionFormat(final String fileNameExtension,
             m_outFunc = outFunc;
         }
 
+        /**
+         * Returns the name of the constant, which is used to identify the format in the table meta information.
+         *
+         * @since 4.4
+         */
+        @Override
+        public String getName() {
+            return name();
+        }
+
         /**
          * Returns the file name extension.
          *
          * @return the file name extension
+         * @since 4.4
          */
-        String getFileExtension() {
+        @Override
+        public String getFileExtension() {
             return m_fileNameExtension;
         }
 
+        /**
+         * {@inheritDoc}
+         *
+         * @since 4.4
+         */
+        @Override
+        public OutputStream createOutputStream(final OutputStream out) throws IOException {
+            return m_outFunc.apply(out);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @since 4.4
+         */
+        @Override
+        public InputStream createInputStream(final InputStream in) throws IOException {
+            return m_inFunc.apply(in);
+        }
+
         void saveSettings(final NodeSettingsWO settings) {
             /* To ensure that GZIP-compressed and uncompressed workflows written with >= 3.8 can be loaded in earlier
              * versions, we have to camel-case the names of these compresssion formats (None, Gzip), since KNIME AP
@@ -187,12 +240,7 @@ void saveSettings(final NodeSettingsWO settings) {
          * @throws IOException - If GZip compression fails
          */
         OutputStream getOutputStream(final OutputStream out) throws IOException {
-            try {
-                return m_outFunc.apply(out);
-            } catch (final IOException e) {
-                out.close();
-                throw e;
-            }
+            return DefaultTableStoreFormat.getOutputStream(this, out);
         }
 
         /**
@@ -204,39 +252,31 @@ OutputStream getOutputStream(final OutputStream out) throws IOException {
          */
         @SuppressWarnings("resource")
         InputStream getInputStream(final File file) throws IOException {
-            final FileInputStream fis = new FileInputStream(file);
-            try {
-                return m_inFunc.apply(fis);
-            } catch (final IOException e) {
-                fis.close();
-                throw e;
-            }
+            return getInputStream(file, 0);
         }
 
         /**
-         * Retrieves the compression format from the {@link NodeSettingsRO}.
+         * Returns the uncompressed input stream, starting at a certain position in the file. The position needs to be
+         * the start of a compressed stream, i.e., the start of the file or of a row block.
          *
-         * @param settings the {@code NodeSettingsRO}
-         * @param version the version as defined in the {@code Buffer}
-         * @return the stored {@code CompressionFormat}
-         * @throws InvalidSettingsException
+         * @param file the file to be read from
+         * @param offset the position in the file to start reading from
+         * @return the uncompressed input stream
+         * @throws IOException - If the input file does not exist or decompression fails
          */
-        static CompressionFormat loadSettings(final NodeSettingsRO settings, final int version)
-            throws InvalidSettingsException {
-            final String defaultFormat;
-            if (version < 12) {
-                defaultFormat = PRE_V_12_DEF_COMPRESSION.name();
-            } else {
-                defaultFormat = DEF_COMPRESSION.name();
-            }
-            final String compFormat = settings.getString(DefaultTableStoreFormat.CFG_COMPRESSION, defaultFormat);
-            try {
-                // backwards compatible since #getCompressionFormat uses upper-case comparison
-                return CompressionFormat.getCompressionFormat(compFormat);
-            } catch (final IllegalArgumentException iea) {
-                throw new InvalidSettingsException(String.format("Unable to parse \"%s\" property (\"%s\"): %s",
-                    DefaultTableStoreFormat.CFG_COMPRESSION, compFormat, iea.getMessage()), iea);
-            }
+        InputStream getInputStream(final File file, final long offset) throws IOException {
+            return DefaultTableStoreFormat.getInputStream(this, file, offset);
+        }
+
+        /**
+         * Returns the uncompressed input stream reading from a compressed stream.
+         *
+         * @param in the compressed stream
+         * @return the uncompressed input stream
+         * @throws IOException - If decompression fails
+         */
+        InputStream getInputStream(final InputStream in) throws IOException {
+            return DefaultTableStoreFormat.getInputStream(this, in);
         }
 
         /**
@@ -259,6 +299,136 @@ static CompressionFormat getCompressionFormat(final String arg0) {
         }
     }
 
+    /**
+     * Returns the compressed output stream of a codec. The argument stream is closed if the compressed stream cannot
+     * be created.
+     *
+     * @param codec the compression codec
+     * @param out the output stream
+     * @return the compressed output stream
+     * @throws IOException - If the compressed stream cannot be created
+     */
+    static OutputStream getOutputStream(final CompressionCodec codec, final OutputStream out) throws IOException {
+        try {
+            return codec.createOutputStream(out);
+        } catch (final IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the uncompressed input stream of a codec reading from a compressed stream. The argument stream is closed
+     * if the uncompressed stream cannot be created.
+     *
+     * @param codec the compression codec
+     * @param in the compressed stream
+     * @return the uncompressed input stream
+     * @throws IOException - If decompression fails
+     */
+    static InputStream getInputStream(final CompressionCodec codec, final InputStream in) throws IOException {
+        try {
+            return codec.createInputStream(in);
+        } catch (final IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the uncompressed input stream of a codec, starting at a certain position in the file. The position
+     * needs to be the start of a compressed stream, i.e., the start of the file or of a row block.
+     *
+     * @param codec the compression codec
+     * @param file the file to be read from
+     * @param offset the position in the file to start reading from
+     * @return the uncompressed input stream
+     * @throws IOException - If the input file does not exist or decompression fails
+     */
+    @SuppressWarnings("resource")
+    static InputStream getInputStream(final CompressionCodec codec, final File file, final long offset)
+        throws IOException {
+        final FileInputStream fis = new FileInputStream(file);
+        try {
+            if (offset > 0) {
+                fis.getChannel().position(offset);
+            }
+        } catch (final IOException e) {
+            fis.close();
+            throw e;
+        }
+        return getInputStream(codec, fis);
+    }
+
+    /**
+     * Saves the compression codec to the {@link NodeSettingsWO}.
+     *
+     * @param codec the compression codec
+     * @param settings the {@code NodeSettingsWO}
+     */
+    static void saveCompressionCodec(final CompressionCodec codec, final NodeSettingsWO settings) {
+        if (codec instanceof CompressionFormat) {
+            ((CompressionFormat)codec).saveSettings(settings);
+        } else {
+            settings.addString(CFG_COMPRESSION, codec.getName());
+            settings.addInt(CFG_COMPRESSION_LEVEL, codec.getLevel());
+        }
+    }
+
+    /**
+     * Retrieves the compression codec from the {@link NodeSettingsRO}.
+     *
+     * @param settings the {@code NodeSettingsRO}
+     * @param version the version as defined in the {@code Buffer}
+     * @return the stored {@code CompressionCodec}
+     * @throws InvalidSettingsException if the codec is unknown or not available
+     */
+    static CompressionCodec loadCompressionCodec(final NodeSettingsRO settings, final int version)
+        throws InvalidSettingsException {
+        final String defaultFormat;
+        if (version < 12) {
+            defaultFormat = PRE_V_12_DEF_COMPRESSION.name();
+        } else {
+            defaultFormat = DEF_COMPRESSION.name();
+        }
+        final String compFormat = settings.getString(CFG_COMPRESSION, defaultFormat);
+        final CompressionCodec codec;
+        try {
+            // backwards compatible since #parseCompressionCodec uses upper-case comparison
+            codec = parseCompressionCodec(compFormat);
+        } catch (final IllegalArgumentException iea) {
+            throw new InvalidSettingsException(String.format("Unable to parse \"%s\" property (\"%s\"): %s",
+                CFG_COMPRESSION, compFormat, iea.getMessage()), iea);
+        }
+        if (settings.containsKey(CFG_COMPRESSION_LEVEL)) {
+            final int level = settings.getInt(CFG_COMPRESSION_LEVEL);
+            try {
+                return codec.withLevel(level);
+            } catch (final IllegalArgumentException iea) { // NOSONAR
+                // the level is only needed for compression
+                LOGGER.debug("Ignoring unsupported level " + level + " of compression codec " + codec.getName());
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * Returns the compression codec described by the argument, which is either the name of a
+     * {@link CompressionFormat} (or "true"/"false" for backwards compatibility) or of a codec registered at the
+     * {@link CompressionCodecRegistry}, optionally followed by a colon and the compression level.
+     *
+     * @param description the (case-insensitive) description of the codec
+     * @return the codec
+     * @throws IllegalArgumentException if there is no such codec or it doesn't support the level
+     */
+    static CompressionCodec parseCompressionCodec(final String description) {
+        try {
+            return CompressionFormat.getCompressionFormat(description.trim());
+        } catch (final IllegalArgumentException iae) { // NOSONAR
+            return CompressionCodecRegistry.getInstance().parseCompressionCodec(description);
+        }
+    }
+
     /** The table store settings. */
     private final DefaultTableStoreSettings m_tableStoreSettings;
 
@@ -285,7 +455,7 @@ public String getName() {
 
     @Override
     public String getFilenameSuffix() {
-        return m_tableStoreSettings.getCompressionFormat().getFileExtension();
+        return m_tableStoreSettings.getCompressionCodec().getFileExtension();
     }
 
     /** {@inheritDoc} */
@@ -305,7 +475,8 @@ public AbstractTableStoreWriter createWriter(final File binFile, final DataTable
     @Override
     public AbstractTableStoreWriter createWriter(final OutputStream output, final DataTableSpec spec,
         final boolean writeRowKey) throws IOException {
-        return new DefaultTableStoreWriter(spec, output, writeRowKey, m_tableStoreSettings.getCompressionFormat());
+        return new DefaultTableStoreWriter(spec, output, writeRowKey, m_tableStoreSettings.getCompressionCodec(),
+            m_tableStoreSettings.getRowsPerBlock());
     }
 
     @Override
@@ -324,13 +495,25 @@ public String getVersion() {
     }
 
     /**
-     * The (internal) compression format used to write the format. The value is {@link #validateVersion(String)
+     * {@inheritDoc}
+     *
+     * @since 4.4
+     */
+    @Override
+    public DefaultTableStoreFormat withCompression(final CompressionCodec codec) {
+        return new DefaultTableStoreFormat(m_tableStoreSettings.withCompression(codec));
+    }
+
+    /**
+     * The (internal) compression codec used to write the format. Its name is {@link #validateCompressionFormat(String)
      * validated} during reading.
      *
-     * @return the compression format string that is persisted
+     * @return the compression codec whose name is persisted, never empty
+     * @since 4.4
      */
-    public CompressionFormat getCompressionFormat() {
-        return m_tableStoreSettings.getCompressionFormat();
+    @Override
+    public Optional<CompressionCodec> getCompressionCodec() {
+        return Optional.of(m_tableStoreSettings.getCompressionCodec());
     }
 
     /**
@@ -345,10 +528,11 @@ public boolean validateVersion(final String versionString) {
      * Validates the compression format string that was saved along with the data.
      *
      * @param compressionFormatString the non-null compression format string
-     * @return true if the compression format is 'known' and readable, false otherwise
+     * @return true if the compression format (or codec) is 'known' and readable, false otherwise
      */
     public static boolean validateCompressionFormat(final String compressionFormatString) {
-        return Arrays.stream(CompressionFormat.values()).anyMatch((c) -> c.name().equals(compressionFormatString));
+        return Arrays.stream(CompressionFormat.values()).anyMatch((c) -> c.name().equals(compressionFormatString))
+            || CompressionCodecRegistry.getInstance().getCompressionCodec(compressionFormatString).isPresent();
     }
 
     /**
@@ -360,8 +544,11 @@ public static boolean validateCompressionFormat(final String compressionFormatSt
      */
     public static final class DefaultTableStoreSettings {
 
-        /** The compression format. */
-        private final CompressionFormat m_compType;
+        /** The compression codec. */
+        private final CompressionCodec m_compType;
+
+        /** The number of rows per independently compressed block, 0 if no blocks are written. */
+        private final int m_rowsPerBlock;
 
         /** The default instance. */
         private static final DefaultTableStoreSettings DEFAULT_INSTANCE = new DefaultTableStoreSettings();
@@ -372,9 +559,9 @@ private DefaultTableStoreSettings() {
             if (compName == null) {
                 m_compType = DefaultTableStoreFormat.DEF_COMPRESSION;
             } else {
-                CompressionFormat compFormat = DefaultTableStoreFormat.DEF_COMPRESSION;
+                CompressionCodec compFormat = DefaultTableStoreFormat.DEF_COMPRESSION;
                 try {
-                    compFormat = CompressionFormat.getCompressionFormat(compName);
+                    compFormat = DefaultTableStoreFormat.parseCompressionCodec(compName);
                     LOGGER.debug("Setting table stream compression to " + compFormat);
                 } catch (final IllegalArgumentException iae) {
                     LOGGER.warn("Unable to read property " + KNIMEConstants.PROPERTY_TABLE_COMPRESSION + " (\""
@@ -383,6 +570,22 @@ private DefaultTableStoreSettings() {
                 m_compType = compFormat;
             }
 
+            final String rowsPerBlock = System.getProperty(KNIMEConstants.PROPERTY_TABLE_ROWS_PER_BLOCK);
+            int rowsPerBlockInt = DefaultTableStoreFormat.DEF_ROWS_PER_BLOCK;
+            if (rowsPerBlock != null) {
+                try {
+                    rowsPerBlockInt = Integer.parseInt(rowsPerBlock.trim());
+                    if (rowsPerBlockInt < 0) {
+                        throw new NumberFormatException("Number of rows per block must not be negative");
+                    }
+                    LOGGER.debug("Setting number of rows per table block to " + rowsPerBlockInt);
+                } catch (final NumberFormatException nfe) {
+                    LOGGER.warn("Unable to read property " + KNIMEConstants.PROPERTY_TABLE_ROWS_PER_BLOCK + " (\""
+                        + rowsPerBlock + "\"); defaulting to " + DefaultTableStoreFormat.DEF_ROWS_PER_BLOCK);
+                    rowsPerBlockInt = DefaultTableStoreFormat.DEF_ROWS_PER_BLOCK;
+                }
+            }
+            m_rowsPerBlock = rowsPerBlockInt;
         }
 
         /**
@@ -397,30 +600,53 @@ public static DefaultTableStoreSettings getDefault() {
         /**
          * Constructor.
          *
-         * @param compFormat the compression format
+         * @param compFormat the compression codec
+         * @param rowsPerBlock the number of rows per block
          */
-        private DefaultTableStoreSettings(final CompressionFormat compFormat) {
+        private DefaultTableStoreSettings(final CompressionCodec compFormat, final int rowsPerBlock) {
             m_compType = compFormat;
+            m_rowsPerBlock = rowsPerBlock;
         }
 
         /**
-         * Returns the compression format.
+         * Returns the compression codec.
          *
-         * @return the compression format
+         * @return the compression codec
          */
-        CompressionFormat getCompressionFormat() {
+        CompressionCodec getCompressionCodec() {
             return m_compType;
         }
 
         /**
-         * Returns a copy using the new compression format.
+         * Returns the number of rows per independently compressed block.
+         *
+         * @return the number of rows per block, 0 if no blocks are written
+         */
+        int getRowsPerBlock() {
+            return m_rowsPerBlock;
+        }
+
+        /**
+         * Returns a copy using the new compression codec, e.g. one of the {@link CompressionFormat} constants.
+         *
+         * @param compFormat the compression codec to be used
+         * @return a copy using the new compression codec
+         */
+        public DefaultTableStoreSettings withCompression(final CompressionCodec compFormat) {
+            return new DefaultTableStoreSettings(CheckUtils.checkArgumentNotNull(compFormat), m_rowsPerBlock);
+        }
+
+        /**
+         * Returns a copy using the new number of rows per independently compressed block.
          *
-         * @param compFormat the compression format to be used
-         * @return a copy using the new compression format
+         * @param rowsPerBlock the number of rows per block, 0 to not write blocks
+         * @return a copy using the new number of rows per block
+         * @since 4.4
          */
-        @SuppressWarnings("static-method")
-        public DefaultTableStoreSettings withCompression(final CompressionFormat compFormat) {
-            return new DefaultTableStoreSettings(compFormat);
+        public DefaultTableStoreSettings withRowsPerBlock(final int rowsPerBlock) {
+            CheckUtils.checkArgument(rowsPerBlock >= 0, "Number of rows per block must not be negative: %d",
+                rowsPerBlock);
+            return new DefaultTableStoreSettings(m_compType, rowsPerBlock);
         }
     }
 
@@ -53,9 +53,13 @@
 
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.container.filter.TableFilter;
 import org.knime.core.data.container.storage.AbstractTableStoreReader;
+import org.knime.core.data.container.storage.CompressionCodec;
 import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeSettingsRO;
 
 /**
@@ -64,7 +68,7 @@
  */
 final class DefaultTableStoreReader extends AbstractTableStoreReader {
 
-    private CompressionFormat m_compressionFormat;
+    private CompressionCodec m_compressionFormat;
 
     private final File m_binFile;
 
@@ -72,6 +76,12 @@ final class DefaultTableStoreReader extends AbstractTableStoreReader {
 
     private final boolean m_isReadRowKey;
 
+    /** Number of rows per independently compressed block, 0 if the file has no block index. */
+    private final int m_rowsPerBlock;
+
+    /** File offsets of the independently compressed blocks, null if the file has no block index. */
+    private final long[] m_blockOffsets;
+
     /**
      * Constructs a reader for materializing serialized KNIME tables.
      *
@@ -98,37 +108,81 @@ final class DefaultTableStoreReader extends AbstractTableStoreReader {
         m_spec = spec;
         m_isReadRowKey = isReadRowKey;
 
-        final CompressionFormat cF;
+        final CompressionCodec cF;
         if (version < 3) { // stream was not zipped in KNIME 1.1.x
             cF = CompressionFormat.NONE;
         } else if (version >= 8) { // added sometime between format 8 and 9 - no increment of version number
-            cF = CompressionFormat.loadSettings(settings, version);
+            cF = DefaultTableStoreFormat.loadCompressionCodec(settings, version);
         } else {
             // use gzip compression
             cF = CompressionFormat.GZIP;
         }
         m_compressionFormat = cF;
+
+        // added in 4.4 - no increment of version number as files remain readable as a single stream
+        if (version >= 8 && settings.containsKey(DefaultTableStoreFormat.CFG_BLOCK_OFFSETS)) {
+            m_rowsPerBlock = settings.getInt(DefaultTableStoreFormat.CFG_ROWS_PER_BLOCK);
+            m_blockOffsets = settings.getLongArray(DefaultTableStoreFormat.CFG_BLOCK_OFFSETS);
+            if (m_rowsPerBlock <= 0 || m_blockOffsets.length == 0) {
+                throw new InvalidSettingsException("Invalid block index: " + m_blockOffsets.length
+                    + " blocks with " + m_rowsPerBlock + " rows each");
+            }
+        } else {
+            m_rowsPerBlock = 0;
+            m_blockOffsets = null;
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Rows are read ahead on a background thread unless the table is small, see
+     * {@link KNIMEConstants#PROPERTY_TABLE_READ_AHEAD}.
+     */
     @Override
     public TableStoreCloseableRowIterator iterator() {
         try {
             if (getReadVersion() <= 5) { // 2.0 tech preview and before
-                return new BufferFromFileIteratorVersion1x(this);
+                return ReadAheadRowIterator.readAhead(new BufferFromFileIteratorVersion1x(this), size());
             } else {
-                return new BufferFromFileIteratorVersion20(this);
+                return ReadAheadRowIterator.readAhead(new BufferFromFileIteratorVersion20(this), size());
             }
         } catch (IOException ioe) {
-            StringBuilder b = new StringBuilder("Cannot read file \"");
-            b.append(m_binFile != null ? m_binFile.getName() : "<unknown>");
-            b.append("\"");
-            checkAndReportOpenFiles(ioe);
-            throw new RuntimeException(b.toString(), ioe);
+            throw createCannotReadException(ioe);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Row ranges and predicates are applied while reading the stream, i.e., skipped and rejected rows are not (or not
+     * fully) deserialized. Rows are read ahead on a background thread unless the row range is small.
+     */
+    @Override
+    public TableStoreCloseableRowIterator iteratorWithFilter(final TableFilter filter, final ExecutionMonitor exec) {
+        if (getReadVersion() <= 5) { // 2.0 tech preview and before
+            return super.iteratorWithFilter(filter, exec);
+        }
+        try {
+            final long fromIndex = filter.getFromRowIndex().orElse(0L);
+            final long toIndex = filter.getToRowIndex().orElse(Long.MAX_VALUE - 1);
+            return ReadAheadRowIterator.readAhead(new BufferFromFileIteratorVersion20(this, filter, exec),
+                Math.min(toIndex, size() - 1) - fromIndex + 1);
+        } catch (IOException ioe) {
+            throw createCannotReadException(ioe);
+        }
+    }
+
+    private RuntimeException createCannotReadException(final IOException ioe) {
+        StringBuilder b = new StringBuilder("Cannot read file \"");
+        b.append(m_binFile != null ? m_binFile.getName() : "<unknown>");
+        b.append("\"");
+        checkAndReportOpenFiles(ioe);
+        return new RuntimeException(b.toString(), ioe);
+    }
+
     /** @return Whether stream is zipped. */
-    CompressionFormat getBinFileCompressionFormat() {
+    CompressionCodec getBinFileCompressionFormat() {
         return m_compressionFormat;
     }
 
@@ -146,6 +200,35 @@ boolean isReadRowKey() {
         return m_isReadRowKey;
     }
 
+    /**
+     * Determines the independently compressed block containing a row.
+     *
+     * @param rowIndex the index of the row
+     * @return the index of the block containing the row, 0 if the file has no block index
+     */
+    int getBlockIndex(final long rowIndex) {
+        if (m_blockOffsets == null) {
+            return 0;
+        }
+        return (int)Math.min(rowIndex / m_rowsPerBlock, m_blockOffsets.length - 1);
+    }
+
+    /**
+     * @param blockIndex the index of a block as returned by {@link #getBlockIndex(long)}
+     * @return the index of the first row in the block
+     */
+    long getFirstRowIndexOfBlock(final int blockIndex) {
+        return (long)blockIndex * m_rowsPerBlock;
+    }
+
+    /**
+     * @param blockIndex the index of a block as returned by {@link #getBlockIndex(long)}
+     * @return the offset of the block in the (compressed) file
+     */
+    long getFileOffsetOfBlock(final int blockIndex) {
+        return m_blockOffsets == null ? 0L : m_blockOffsets[blockIndex];
+    }
+
     /**
      * @return number of records
      * @see org.knime.core.data.container.Buffer#size()
@@ -180,10 +263,30 @@ abstract static class FromFileIterator extends TableStoreCloseableRowIterator im
          */
         static final InputStream getInputStream(final DefaultTableStoreReader tableFormatReader)
             throws IOException {
+            return getInputStream(tableFormatReader, 0);
+        }
+
+        /**
+         * Opens the (decompressed) input stream, starting at the first row of a block.
+         *
+         * @param tableFormatReader the table format reader
+         * @param blockIndex the index of the block to start reading from
+         * @return the (decompressed) input stream
+         * @throws IOException - If the file could not be opened or the an error occurred creating the (decompressed)
+         *             stream
+         */
+        static final InputStream getInputStream(final DefaultTableStoreReader tableFormatReader,
+            final int blockIndex) throws IOException {
             // get the decompression format
-            final CompressionFormat cType = tableFormatReader.getBinFileCompressionFormat();
+            final CompressionCodec cType = tableFormatReader.getBinFileCompressionFormat();
+            // uncompressed files are read straight from a memory mapping
+            if (cType == CompressionFormat.NONE && MappedFileInputStream.isEnabled()) {
+                return new MappedFileInputStream(tableFormatReader.getBinFile(),
+                    tableFormatReader.getFileOffsetOfBlock(blockIndex));
+            }
             // return the (decompressed) stream
-            return cType.getInputStream(tableFormatReader.getBinFile());
+            return DefaultTableStoreFormat.getInputStream(cType, tableFormatReader.getBinFile(),
+                tableFormatReader.getFileOffsetOfBlock(blockIndex));
         }
 
     }
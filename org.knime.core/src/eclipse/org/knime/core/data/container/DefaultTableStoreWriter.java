@@ -50,18 +50,24 @@
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.DCObjectOutputVersion2.BlockableDCObjectOutputVersion2;
-import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.container.storage.CompressionCodec;
 import org.knime.core.node.NodeSettingsWO;
 
 /**
- * The default table store writer used to write tables to disc.
+ * The default table store writer used to write tables to disc. Rows are written in blocks of a fixed number of rows,
+ * each of which is an independently compressed stream. The file offsets of the blocks are saved along with the meta
+ * information so that readers can start reading at any block. Readers not aware of blocks see a concatenation of
+ * compressed streams, which all supported compression formats decompress transparently.
  * @author wiswedel
  */
 final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements KNIMEStreamConstants {
@@ -73,7 +79,25 @@ final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements
     private final BlockableDCObjectOutputVersion2 m_outStream;
 
     /** The compression format. */
-    private final CompressionFormat m_compFormat;
+    private final CompressionCodec m_compFormat;
+
+    /** The (uncompressed) stream writing to the file, counts the bytes written to determine block offsets. */
+    private final CountingOutputStream m_fileOutStream;
+
+    /** The stream compressing each block independently. */
+    private final BlockCompressingOutputStream m_blockOutStream;
+
+    /** Number of rows per block, 0 if all rows are written in a single block. */
+    private final int m_rowsPerBlock;
+
+    /** Number of rows written so far. */
+    private long m_rowCount;
+
+    /** File offsets of the blocks written so far, the first {@link #m_blockCount} entries are valid. */
+    private long[] m_blockOffsets;
+
+    /** Number of blocks written so far. */
+    private int m_blockCount;
 
     /**
      * Constructs a writer for writing KNIME tables to disk using the given compression format.
@@ -81,14 +105,35 @@ final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements
      * @param spec the specification of the KNIME table to write to disk
      * @param outputStream
      * @param writeRowKey a flag that determines whether to store the row keys in the Parquet file
-     * @param compFormat the compression format
+     * @param compFormat the compression codec
      * @throws IOException any type of I/O problem
      */
     public DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outputStream, final boolean writeRowKey,
-        final CompressionFormat compFormat) throws IOException {
+        final CompressionCodec compFormat) throws IOException {
+        this(spec, outputStream, writeRowKey, compFormat, 0);
+    }
+
+    /**
+     * Constructs a writer for writing KNIME tables to disk using the given compression format and independently
+     * compressed blocks of rows.
+     *
+     * @param spec the specification of the KNIME table to write to disk
+     * @param outputStream the stream to write to
+     * @param writeRowKey a flag that determines whether to store the row keys
+     * @param compFormat the compression codec
+     * @param rowsPerBlock the number of rows per block, 0 to write all rows in a single block
+     * @throws IOException any type of I/O problem
+     */
+    DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outputStream, final boolean writeRowKey,
+        final CompressionCodec compFormat, final int rowsPerBlock) throws IOException {
         super(spec, writeRowKey);
         m_compFormat = compFormat;
-        m_outStream = initOutFile(new BufferedOutputStream(outputStream));
+        m_rowsPerBlock = rowsPerBlock;
+        m_blockOffsets = new long[16];
+        m_fileOutStream = new CountingOutputStream(new BufferedOutputStream(outputStream));
+        m_blockOutStream = new BlockCompressingOutputStream();
+        m_outStream = new BlockableDCObjectOutputVersion2(m_blockOutStream, this);
+        m_blockOffsets[m_blockCount++] = 0L;
     }
 
     /**
@@ -98,6 +143,10 @@ public DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outp
      */
     @Override
     public void writeRow(final DataRow row) throws IOException {
+        if (m_rowsPerBlock > 0 && m_rowCount > 0 && m_rowCount % m_rowsPerBlock == 0) {
+            startNewBlock();
+        }
+        m_rowCount++;
         RowKey id = row.getKey();
         writeRowKey(id, m_outStream);
         for (int i = 0; i < row.getNumCells(); i++) {
@@ -124,26 +173,82 @@ void writeRowKey(final RowKey key, final BlockableDCObjectOutputVersion2 outStre
         }
     }
 
-    /**
-     * Creates short cut array and wraps the argument stream in a {@link DCObjectOutputVersion2}.
-     */
-    @SuppressWarnings("resource")
-    private BlockableDCObjectOutputVersion2 initOutFile(final OutputStream outStream) throws IOException {
-        final OutputStream out = m_compFormat.getOutputStream(outStream);
-        return new BlockableDCObjectOutputVersion2(out, this);
+    /** Finishes the compressed stream of the current block and memorizes the file offset of the next block. */
+    private void startNewBlock() throws IOException {
+        m_outStream.flush();
+        m_blockOutStream.finishBlock();
+        if (m_blockCount == m_blockOffsets.length) {
+            m_blockOffsets = Arrays.copyOf(m_blockOffsets, 2 * m_blockCount);
+        }
+        m_blockOffsets[m_blockCount++] = m_fileOutStream.getByteCount();
     }
 
     /** {@inheritDoc} */
     @Override
     public void writeMetaInfoAfterWrite(final NodeSettingsWO settings) {
-        m_compFormat.saveSettings(settings);
+        DefaultTableStoreFormat.saveCompressionCodec(m_compFormat, settings);
+        // a single block doesn't allow for faster access, so we don't bother
+        if (m_blockCount > 1) {
+            settings.addInt(DefaultTableStoreFormat.CFG_ROWS_PER_BLOCK, m_rowsPerBlock);
+            settings.addLongArray(DefaultTableStoreFormat.CFG_BLOCK_OFFSETS,
+                Arrays.copyOf(m_blockOffsets, m_blockCount));
+        }
         super.writeMetaInfoAfterWrite(settings);
     }
 
     /** {@inheritDoc} */
     @Override
     public void close() throws IOException {
-        m_outStream.close();
+        try {
+            m_outStream.close();
+        } finally {
+            m_fileOutStream.close();
+        }
+    }
+
+    /**
+     * Stream writing to the compressed stream of the current block. The compressed stream of a block is finished
+     * without closing the underlying file stream.
+     */
+    private final class BlockCompressingOutputStream extends OutputStream {
+
+        private OutputStream m_compressedOutStream;
+
+        BlockCompressingOutputStream() throws IOException {
+            m_compressedOutStream = createCompressedOutStream();
+        }
+
+        @SuppressWarnings("resource")
+        private OutputStream createCompressedOutStream() throws IOException {
+            return DefaultTableStoreFormat.getOutputStream(m_compFormat,
+                new CloseShieldOutputStream(m_fileOutStream));
+        }
+
+        /** Finishes the compressed stream of the current block and starts the one of the next block. */
+        void finishBlock() throws IOException {
+            m_compressedOutStream.close();
+            m_compressedOutStream = createCompressedOutStream();
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            m_compressedOutStream.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            m_compressedOutStream.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            m_compressedOutStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_compressedOutStream.close();
+        }
     }
 
 }
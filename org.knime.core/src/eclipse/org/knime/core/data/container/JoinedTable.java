@@ -55,6 +55,7 @@
 
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.container.filter.FilterDelegateRowIterator;
 import org.knime.core.data.container.filter.TableFilter;
 import org.knime.core.data.v2.RowCursor;
 import org.knime.core.node.BufferedDataTable;
@@ -131,6 +132,13 @@ public CloseableRowIterator iterator() {
 
     @Override
     public CloseableRowIterator iteratorWithFilter(final TableFilter filter, final ExecutionMonitor exec) {
+        // the predicate refers to the columns of this table, so it can only be tested on the joined rows
+        if (filter.getPredicate().isPresent()) {
+            final TableFilter withoutPredicate = new TableFilter.Builder(filter).withoutPredicate().build();
+            return new FilterDelegateRowIterator(iteratorWithFilter(withoutPredicate, exec),
+                TableFilter.filterRows(filter.getPredicate().get()), size(), null);
+        }
+
         // apply row index filter to left and right tables
         final TableFilter.Builder leftFilterBuilder = new TableFilter.Builder(filter);
         final TableFilter.Builder rightFilterBuilder = new TableFilter.Builder(filter);
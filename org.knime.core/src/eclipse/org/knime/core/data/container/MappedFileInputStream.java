@@ -0,0 +1,229 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Input stream that reads an (uncompressed) file through a memory mapping rather than copying it through heap buffers.
+ * Files larger than the maximum size of a mapping are mapped in consecutive windows. In addition to the byte-wise
+ * {@link InputStream} methods, this stream allows {@link BlockableInputStream} to decode primitive values straight from
+ * the mapping, see {@link #readUnescaped(int)}.
+ *
+ * <p>
+ * Mapped files are unmapped by the garbage collector only. As Windows does not allow deleting files that are mapped,
+ * memory-mapped reading is disabled on Windows by default, see {@link KNIMEConstants#PROPERTY_TABLE_MMAP}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class MappedFileInputStream extends InputStream implements KNIMEStreamConstants {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(MappedFileInputStream.class);
+
+    /** The maximum number of bytes mapped at once. */
+    private static final int MAX_WINDOW_SIZE = 1 << 30;
+
+    /** Whether uncompressed table files are read through memory mappings, see {@link #isEnabled()}. */
+    private static final boolean IS_ENABLED = initEnabled();
+
+    private final FileChannel m_channel;
+
+    private final long m_fileSize;
+
+    /** The position of the current window in the file. */
+    private long m_windowOffset;
+
+    /** The current window, null once the stream is closed. */
+    private MappedByteBuffer m_window;
+
+    /**
+     * Opens a file and maps it starting at a certain position.
+     *
+     * @param file the file to read from
+     * @param offset the position in the file to start reading from
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    MappedFileInputStream(final File file, final long offset) throws IOException {
+        m_channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            m_fileSize = m_channel.size();
+            map(Math.min(offset, m_fileSize));
+        } catch (IOException e) {
+            m_channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean initEnabled() {
+        final String value = System.getProperty(KNIMEConstants.PROPERTY_TABLE_MMAP);
+        if (value != null) {
+            switch (value.trim().toLowerCase()) {
+                case "true":
+                    return true;
+                case "false":
+                    return false;
+                default:
+                    LOGGER.warn("Unknown setting for memory-mapped reading of tables: " + value + ". Using default.");
+            }
+        }
+        return !SystemUtils.IS_OS_WINDOWS;
+    }
+
+    /**
+     * @return whether uncompressed table files are to be read through memory mappings
+     */
+    static boolean isEnabled() {
+        return IS_ENABLED;
+    }
+
+    private void map(final long windowOffset) throws IOException {
+        m_windowOffset = windowOffset;
+        m_window = m_channel.map(MapMode.READ_ONLY, windowOffset, Math.min(MAX_WINDOW_SIZE, m_fileSize - windowOffset));
+    }
+
+    /**
+     * Ensures that the current window has remaining bytes, mapping the next window if necessary.
+     *
+     * @return false if the end of the file has been reached
+     */
+    private boolean ensureRemaining() throws IOException {
+        if (m_window == null) {
+            throw new IOException("Stream closed");
+        }
+        if (m_window.hasRemaining()) {
+            return true;
+        }
+        final long position = m_windowOffset + m_window.position();
+        if (position >= m_fileSize) {
+            return false;
+        }
+        map(position);
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return ensureRemaining() ? (m_window.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureRemaining()) {
+            return -1;
+        }
+        final int n = Math.min(len, m_window.remaining());
+        m_window.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0 || !ensureRemaining()) {
+            return 0;
+        }
+        final int skipped = (int)Math.min(n, m_window.remaining());
+        m_window.position(m_window.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return m_window == null ? 0 : m_window.remaining();
+    }
+
+    /**
+     * Consumes the next bytes if they are contained in the current window and none of them needs to be unescaped as
+     * specified by {@link BlockableOutputStream}. The bytes can then be decoded from {@link #getWindow()} at the
+     * returned index. Otherwise, no bytes are consumed and the caller needs to fall back to reading them individually.
+     *
+     * @param length the number of bytes to consume
+     * @return the index of the first consumed byte in the current window or -1 if the bytes have not been consumed
+     */
+    int readUnescaped(final int length) {
+        final MappedByteBuffer window = m_window;
+        if (window == null || window.remaining() < length) {
+            return -1;
+        }
+        final int index = window.position();
+        for (int i = index; i < index + length; i++) {
+            final byte b = window.get(i);
+            if (b == TC_ESCAPE || b == TC_TERMINATE) {
+                return -1;
+            }
+        }
+        window.position(index + length);
+        return index;
+    }
+
+    /**
+     * @return the current window (big-endian, as written by {@link java.io.DataOutput}), to be accessed with absolute
+     *         indices returned by {@link #readUnescaped(int)} only
+     */
+    MappedByteBuffer getWindow() {
+        return m_window;
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_window = null;
+        m_channel.close();
+    }
+
+}
@@ -0,0 +1,384 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.data.container.DefaultTableStoreReader.FromFileIterator;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadUtils;
+
+import com.google.common.base.Throwables;
+
+/**
+ * A file iterator that reads (i.e., decompresses and deserializes) the rows of another file iterator on a background
+ * thread, so that reading overlaps with the processing of rows on the calling thread. Rows are handed over in batches
+ * through a bounded queue holding at most {@link KNIMEConstants#PROPERTY_TABLE_READ_AHEAD} batches. Closing the
+ * iterator stops the background reader and closes the underlying iterator.
+ *
+ * <p>
+ * The underlying iterator is owned by the {@link Reader} of this iterator and must not be registered with a buffer.
+ * Without a buffer, it closes its stream directly once it is exhausted. The reader only weakly references this
+ * iterator: if the iterator is dropped without being closed, the reader stops, closes the underlying iterator and
+ * frees its thread. A buffer handing out this iterator registers the {@link #getReader() reader} as resource, see
+ * {@link BufferResource}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ReadAheadRowIterator extends FromFileIterator {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ReadAheadRowIterator.class);
+
+    /** The number of rows handed over from the reader thread at once. */
+    static final int BATCH_SIZE = 256;
+
+    /** The default number of batches read ahead. */
+    private static final int DEF_BATCH_COUNT = 4;
+
+    /** The number of batches read ahead, 0 if rows are not read ahead. */
+    private static final int BATCH_COUNT = initBatchCount();
+
+    /** The interval in which a blocked reader or consumer checks whether the iterator has been closed. */
+    private static final long POLL_INTERVAL_MS = 100;
+
+    /** Marks the end of the table in the queue. */
+    private static final List<BlobSupportDataRow> END_OF_TABLE = Collections.emptyList();
+
+    /**
+     * The executor running the background readers. Each reader occupies its thread until the table has been read or
+     * the iterator is closed or garbage-collected; if all threads are busy, tables are read on the calling thread, see
+     * {@link #readAhead(FromFileIterator, long)}.
+     */
+    private static final ThreadPoolExecutor READ_AHEAD_EXECUTOR = new ThreadPoolExecutor(0,
+        Math.max(1, DataContainerSettings.getDefault().getMaxContainerThreads()), 10L, TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger m_threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "KNIME-TableReadAhead-" + m_threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    /** The state shared with the background reader. */
+    private final Reader m_reader;
+
+    /** The batch currently handed out by {@link #next()}. */
+    private Iterator<BlobSupportDataRow> m_currentBatch = Collections.emptyIterator();
+
+    /** Whether {@link #END_OF_TABLE} has been taken from the queue. */
+    private boolean m_isEndOfTable;
+
+    private ReadAheadRowIterator(final FromFileIterator delegate) {
+        m_reader = new Reader(delegate, this);
+    }
+
+    private static int initBatchCount() {
+        if (DataContainerSettings.getDefault().isForceSequentialRowHandling()) {
+            return 0;
+        }
+        final String value = System.getProperty(KNIMEConstants.PROPERTY_TABLE_READ_AHEAD);
+        if (value != null) {
+            try {
+                final int batchCount = Integer.parseInt(value.trim());
+                if (batchCount < 0) {
+                    throw new NumberFormatException("Number of batches read ahead must not be negative");
+                }
+                LOGGER.debug("Setting number of row batches read ahead to " + batchCount);
+                return batchCount;
+            } catch (final NumberFormatException nfe) {
+                LOGGER.warn("Unable to read property " + KNIMEConstants.PROPERTY_TABLE_READ_AHEAD + " (\"" + value
+                    + "\"); defaulting to " + DEF_BATCH_COUNT, nfe);
+            }
+        }
+        return DEF_BATCH_COUNT;
+    }
+
+    /**
+     * Wraps a file iterator such that its rows are read on a background thread, unless reading ahead is disabled,
+     * the number of rows is too small to benefit from it, or all background threads are busy.
+     *
+     * @param delegate the iterator to read from, not registered with a buffer
+     * @param rowCount the (maximum) number of rows the iterator returns
+     * @return an iterator reading ahead or the argument iterator
+     */
+    static FromFileIterator readAhead(final FromFileIterator delegate, final long rowCount) {
+        if (BATCH_COUNT == 0 || rowCount <= BATCH_SIZE) {
+            return delegate;
+        }
+        final ReadAheadRowIterator it = new ReadAheadRowIterator(delegate);
+        final Reader reader = it.m_reader;
+        try {
+            // the task must only reference the reader, such that an unclosed iterator can be garbage-collected
+            reader.m_future = READ_AHEAD_EXECUTOR.submit(ThreadUtils.runnableWithContext(reader::readRows, false));
+        } catch (RejectedExecutionException ree) { // NOSONAR all threads are busy
+            LOGGER.debug("No thread available for reading table ahead, reading on calling thread");
+            return delegate;
+        }
+        return it;
+    }
+
+    /**
+     * @return the reader of this iterator, which is to be registered as resource instead of this iterator, such that
+     *         this iterator can be garbage-collected if it is not closed
+     */
+    Reader getReader() {
+        return m_reader;
+    }
+
+    @Override
+    public void setBuffer(final Buffer buffer) {
+        super.setBuffer(buffer);
+        m_reader.m_buffer = buffer;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!m_currentBatch.hasNext()) {
+            if (m_isEndOfTable || m_reader.m_isClosed) {
+                return false;
+            }
+            final List<BlobSupportDataRow> batch = m_reader.take();
+            if (batch == END_OF_TABLE) {
+                m_isEndOfTable = true;
+                close();
+                final Throwable readException = m_reader.m_readException;
+                if (readException != null) {
+                    Throwables.throwIfUnchecked(readException);
+                }
+                return false;
+            }
+            m_currentBatch = batch.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public BlobSupportDataRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Iterator at end");
+        }
+        return m_currentBatch.next();
+    }
+
+    @Override
+    public boolean performClose() throws IOException {
+        // rows read ahead are not to be returned once the iterator is closed
+        m_currentBatch = Collections.emptyIterator();
+        return m_reader.close();
+    }
+
+    /**
+     * The state of an iterator reading ahead that is shared with its background thread: the underlying iterator, the
+     * queue of batches, and whether the iterator has been closed. The reader only weakly references the iterator it
+     * reads for and stops once that iterator has been garbage-collected.
+     */
+    static final class Reader implements BufferResource {
+
+        /** The iterator reading the rows on the background thread, closed by that thread once it stops. */
+        private final FromFileIterator m_delegate;
+
+        /** Batches of rows read ahead, terminated by {@link #END_OF_TABLE}. */
+        private final BlockingQueue<List<BlobSupportDataRow>> m_queue = new ArrayBlockingQueue<>(BATCH_COUNT);
+
+        /** The iterator reading ahead, cleared once it is no longer referenced. */
+        private final WeakReference<ReadAheadRowIterator> m_owner;
+
+        /** Set when the iterator is closed, stops the background reader. */
+        private volatile boolean m_isClosed;
+
+        /** The exception or error thrown by the background reader, if any. */
+        private volatile Throwable m_readException;
+
+        /** The future of the background reader, set right after construction. */
+        private Future<?> m_future;
+
+        /** The buffer handing out the iterator, if any. */
+        private Buffer m_buffer;
+
+        private Reader(final FromFileIterator delegate, final ReadAheadRowIterator owner) {
+            m_delegate = delegate;
+            m_owner = new WeakReference<>(owner);
+        }
+
+        /**
+         * Reads the rows of the underlying iterator into the queue and closes that iterator once done, runs on the
+         * background thread.
+         */
+        private void readRows() {
+            try {
+                readRowsIntoQueue();
+            } finally {
+                try {
+                    m_delegate.performClose();
+                } catch (IOException ioe) {
+                    LOGGER.debug("Closing input stream failed: " + ioe.getMessage(), ioe);
+                }
+            }
+        }
+
+        private void readRowsIntoQueue() {
+            try {
+                List<BlobSupportDataRow> batch = new ArrayList<>(BATCH_SIZE);
+                while (!m_isClosed && m_delegate.hasNext()) {
+                    batch.add(m_delegate.next());
+                    if (batch.size() == BATCH_SIZE) {
+                        if (!offer(batch)) {
+                            return;
+                        }
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty() && !offer(batch)) {
+                    return;
+                }
+            } catch (RuntimeException | Error e) { // NOSONAR rethrown on the calling thread
+                m_readException = e;
+            }
+            offer(END_OF_TABLE);
+        }
+
+        /**
+         * Puts a batch into the queue, waiting for space to become available.
+         *
+         * @return true if the batch was queued, false if the iterator has been closed or garbage-collected
+         */
+        private boolean offer(final List<BlobSupportDataRow> batch) {
+            try {
+                while (!m_isClosed) {
+                    if (m_queue.offer(batch, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    if (m_owner.get() == null) {
+                        LOGGER.debug("Iterator reading table ahead has not been closed, stopping its reader");
+                        m_queue.clear();
+                        return false;
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        /** Takes the next batch from the queue, waiting for the reader if necessary. */
+        private List<BlobSupportDataRow> take() {
+            try {
+                while (!m_isClosed) {
+                    final List<BlobSupportDataRow> batch = m_queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (batch != null) {
+                        return batch;
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for rows to be read", ie);
+            }
+            return END_OF_TABLE;
+        }
+
+        /**
+         * Stops the background reader and waits for it to close the underlying iterator.
+         *
+         * @return true if the reader has been closed by this call, false if it had already been closed
+         */
+        synchronized boolean close() {
+            if (m_isClosed) {
+                return false;
+            }
+            m_isClosed = true;
+            m_queue.clear();
+            try {
+                // the reader stops after its current row and closes the underlying iterator
+                m_future.get();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException e) {
+                LOGGER.debug("Reading table ahead failed: " + e.getMessage(), e);
+            }
+            return true;
+        }
+
+        /** @return whether the background reader is still running, for testing purposes only */
+        boolean isReading() {
+            return !m_future.isDone();
+        }
+
+        /**
+         * Called if the iterator has been garbage-collected without being closed or if its buffer is cleared.
+         */
+        @Override
+        public void releaseResource() {
+            if (m_buffer != null) {
+                m_buffer.clearReadAheadReader(this);
+            } else {
+                close();
+            }
+        }
+    }
+
+}
@@ -71,6 +71,7 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.ColumnRearranger.SpecAndFactoryObject;
+import org.knime.core.data.container.filter.FilterDelegateRowIterator;
 import org.knime.core.data.container.filter.TableFilter;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.filestore.FileStoreFactory;
@@ -325,6 +326,13 @@ public CloseableRowIterator iterator() {
     @SuppressWarnings("resource")
     public CloseableRowIterator iteratorWithFilter(final TableFilter filter, final ExecutionMonitor exec) {
 
+        // the predicate refers to the columns of this table, so it can only be tested on the rearranged rows
+        if (filter.getPredicate().isPresent()) {
+            final TableFilter withoutPredicate = new TableFilter.Builder(filter).withoutPredicate().build();
+            return new FilterDelegateRowIterator(iteratorWithFilter(withoutPredicate, exec),
+                TableFilter.filterRows(filter.getPredicate().get()), size(), null);
+        }
+
         final Supplier<IntStream> indicesSup = () -> filter.getMaterializeColumnIndices()
             .map(o -> o.stream().mapToInt(i -> i)).orElse(IntStream.range(0, m_map.length));
 
@@ -0,0 +1,254 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.v2.RowCursor;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.BufferedDataTable.KnowsRowCountTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.workflow.WorkflowDataRepository;
+
+/**
+ * Special table implementation that exposes a contiguous range of rows of a given {@link BufferedDataTable} without
+ * copying any data. Iteration is delegated to the reference table using a row range {@link TableFilter}, so that
+ * tables that support filtering skip the rows outside the range. This class is used by the framework, e.g. to hand out
+ * the chunks of a parallel chunk loop, and should not be of public interest.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public final class RowRangeTable implements KnowsRowCountTable {
+
+    private static final CloseableRowIterator EMPTY_ITERATOR = new CloseableRowIterator() {
+        @Override
+        public boolean hasNext() {
+            return false;
+        }
+
+        @Override
+        public DataRow next() {
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void close() {
+            // no op
+        }
+    };
+
+    private final BufferedDataTable m_table;
+
+    private final long m_fromIndex;
+
+    private final long m_toIndex;
+
+    /**
+     * Creates a new table representing the rows <code>fromIndex</code> to <code>toIndex</code> (both inclusive) of
+     * the argument table. An empty range is specified by <code>toIndex == fromIndex - 1</code>.
+     *
+     * @param table the reference table
+     * @param fromIndex index of the first row in the range, at least 0
+     * @param toIndex index of the last row in the range, smaller than the size of the table
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public RowRangeTable(final BufferedDataTable table, final long fromIndex, final long toIndex) {
+        CheckUtils.checkArgumentNotNull(table, "Table must not be null.");
+        CheckUtils.checkArgument(fromIndex >= 0, "Row index must be at least 0: %d", fromIndex);
+        CheckUtils.checkArgument(toIndex >= fromIndex - 1,
+            "Row index to filter from (%d) cannot be higher than row index to filter to (%d).", fromIndex, toIndex);
+        CheckUtils.checkArgument(toIndex < table.size(), "Row index must be smaller than %d: %d", table.size(),
+            toIndex);
+        m_table = table;
+        m_fromIndex = fromIndex;
+        m_toIndex = toIndex;
+    }
+
+    /** @return index of the first row in the range (in the reference table) */
+    public long getFromIndex() {
+        return m_fromIndex;
+    }
+
+    /** @return index of the last row in the range (in the reference table), inclusive */
+    public long getToIndex() {
+        return m_toIndex;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void ensureOpen() {
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BufferedDataTable[] getReferenceTables() {
+        return new BufferedDataTable[]{m_table};
+    }
+
+    /**
+     * {@inheritDoc}
+     * @deprecated use {@link #size()} instead which supports more than {@link Integer#MAX_VALUE} rows
+     */
+    @Override
+    @Deprecated
+    public int getRowCount() {
+        return KnowsRowCountTable.checkRowCount(size());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long size() {
+        return m_toIndex - m_fromIndex + 1;
+    }
+
+    @SuppressWarnings("resource")
+    @Override
+    public RowCursor cursor() {
+        return new FallbackRowCursor(iterator(), getDataTableSpec());
+    }
+
+    @SuppressWarnings("resource")
+    @Override
+    public RowCursor cursor(final TableFilter filter) {
+        return new FallbackRowCursor(iteratorWithFilter(filter), getDataTableSpec());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CloseableRowIterator iterator() {
+        if (size() == 0) {
+            return EMPTY_ITERATOR;
+        }
+        return m_table.filter(TableFilter.filterRangeOfRows(m_fromIndex, m_toIndex)).iterator();
+    }
+
+    @Override
+    public CloseableRowIterator iteratorWithFilter(final TableFilter filter, final ExecutionMonitor exec) {
+        // the row indices of the filter are relative to this range, translate them to the reference table
+        final long from = m_fromIndex + filter.getFromRowIndex().orElse(0L);
+        final long to = Math.min(m_toIndex, m_fromIndex + filter.getToRowIndex().orElse(size() - 1));
+        if (from > to) {
+            return EMPTY_ITERATOR;
+        }
+        final TableFilter.Builder builder = new TableFilter.Builder().withFromRowIndex(from).withToRowIndex(to);
+        filter.getMaterializeColumnIndices()
+            .ifPresent(cols -> builder.withMaterializeColumnIndices(cols.stream().mapToInt(i -> i).toArray()));
+        filter.getPredicate().ifPresent(builder::withPredicate);
+        return m_table.filter(builder.build(), exec).iterator();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataTableSpec getDataTableSpec() {
+        return m_table.getDataTableSpec();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void putIntoTableRepository(final WorkflowDataRepository dataRepository) {
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean removeFromTableRepository(final WorkflowDataRepository dataRepository) {
+        return false;
+    }
+
+    private static final String CFG_INTERNAL_META = "meta_internal";
+    private static final String CFG_REFERENCE_ID = "table_reference_ID";
+    private static final String CFG_FROM_INDEX = "from_row_index";
+    private static final String CFG_TO_INDEX = "to_row_index";
+
+    /** {@inheritDoc} */
+    @Override
+    public void saveToFile(final File f, final NodeSettingsWO s, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        NodeSettingsWO subSettings = s.addNodeSettings(CFG_INTERNAL_META);
+        subSettings.addInt(CFG_REFERENCE_ID, m_table.getBufferedTableId());
+        subSettings.addLong(CFG_FROM_INDEX, m_fromIndex);
+        subSettings.addLong(CFG_TO_INDEX, m_toIndex);
+    }
+
+    /** Restore table, reverse operation to {@link #saveToFile(File, NodeSettingsWO, ExecutionMonitor) save}.
+     * @param s To load from
+     * @param tblRep Global table loader map.
+     * @param dataRepository The data repository (needed for blobs, file stores, and table ids).
+     * @return A freshly created row range table.
+     * @throws InvalidSettingsException If settings are invalid.
+     */
+    public static RowRangeTable load(final NodeSettingsRO s, final Map<Integer, BufferedDataTable> tblRep,
+        final WorkflowDataRepository dataRepository) throws InvalidSettingsException {
+        NodeSettingsRO subSettings = s.getNodeSettings(CFG_INTERNAL_META);
+        int refID = subSettings.getInt(CFG_REFERENCE_ID);
+        BufferedDataTable reference = BufferedDataTable.getDataTable(tblRep, refID, dataRepository);
+        long fromIndex = subSettings.getLong(CFG_FROM_INDEX);
+        long toIndex = subSettings.getLong(CFG_TO_INDEX);
+        try {
+            return new RowRangeTable(reference, fromIndex, toIndex);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSettingsException(e.getMessage(), e);
+        }
+    }
+
+}
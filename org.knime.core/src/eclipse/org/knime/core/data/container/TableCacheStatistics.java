@@ -0,0 +1,199 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+/**
+ * An immutable snapshot of the counters of the cache that holds the tables of {@link DataContainer DataContainers} in
+ * memory. All counters are cumulative since the start of the application, except for the ones that describe the
+ * current content of the cache. Obtain a snapshot via {@link #getCurrent()}.
+ *
+ * <p>
+ * A lookup of a table is counted exactly once, as a hit on the strongest layer of the cache that held the table, or
+ * as a miss if the table has been dropped by the garbage collector.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public final class TableCacheStatistics {
+
+    private final long m_hardHits;
+
+    private final long m_softHits;
+
+    private final long m_weakHits;
+
+    private final long m_misses;
+
+    private final long m_distinctTables;
+
+    private final long m_invalidatedTables;
+
+    private final long m_garbageCollectedTables;
+
+    private final long m_cachedTables;
+
+    private final long m_softlyCachedTables;
+
+    private final long m_softlyCachedBytes;
+
+    TableCacheStatistics(final long hardHits, final long softHits, final long weakHits, final long misses,
+        final long distinctTables, final long invalidatedTables, final long garbageCollectedTables,
+        final long cachedTables, final long softlyCachedTables, final long softlyCachedBytes) {
+        m_hardHits = hardHits;
+        m_softHits = softHits;
+        m_weakHits = weakHits;
+        m_misses = misses;
+        m_distinctTables = distinctTables;
+        m_invalidatedTables = invalidatedTables;
+        m_garbageCollectedTables = garbageCollectedTables;
+        m_cachedTables = cachedTables;
+        m_softlyCachedTables = softlyCachedTables;
+        m_softlyCachedBytes = softlyCachedBytes;
+    }
+
+    /**
+     * @return a snapshot of the current statistics of the table cache
+     */
+    public static TableCacheStatistics getCurrent() {
+        return Buffer.getCacheStatistics();
+    }
+
+    /**
+     * @return the number of lookups of tables that were held in memory because they had not been flushed to disk yet
+     */
+    public long getHardHits() {
+        return m_hardHits;
+    }
+
+    /**
+     * @return the number of lookups of tables that were held in memory because they had recently been used
+     */
+    public long getSoftHits() {
+        return m_softHits;
+    }
+
+    /**
+     * @return the number of lookups of tables that were still in memory although they had been evicted from the cache
+     */
+    public long getWeakHits() {
+        return m_weakHits;
+    }
+
+    /**
+     * @return the number of lookups of tables that were no longer in memory
+     */
+    public long getMisses() {
+        return m_misses;
+    }
+
+    /**
+     * @return the total number of lookups, i.e., the sum of all hits and misses
+     */
+    public long getLookups() {
+        return m_hardHits + m_softHits + m_weakHits + m_misses;
+    }
+
+    /**
+     * @return the ratio of hits to lookups, or {@link Double#NaN} if there have not been any lookups
+     */
+    public double getHitRatio() {
+        final long lookups = getLookups();
+        return lookups == 0 ? Double.NaN : (lookups - m_misses) / (double)lookups;
+    }
+
+    /**
+     * @return the number of distinct tables put into the cache
+     */
+    public long getDistinctTables() {
+        return m_distinctTables;
+    }
+
+    /**
+     * @return the number of tables removed from the cache because they were no longer needed
+     */
+    public long getInvalidatedTables() {
+        return m_invalidatedTables;
+    }
+
+    /**
+     * @return the number of tables dropped from the cache by the garbage collector
+     */
+    public long getGarbageCollectedTables() {
+        return m_garbageCollectedTables;
+    }
+
+    /**
+     * @return the number of tables currently held in memory by the cache
+     */
+    public long getCachedTables() {
+        return m_cachedTables;
+    }
+
+    /**
+     * @return the number of tables currently kept in memory because they have recently been used
+     */
+    public long getSoftlyCachedTables() {
+        return m_softlyCachedTables;
+    }
+
+    /**
+     * @return the estimated number of bytes occupied by the tables kept in memory because they have recently been used
+     */
+    public long getSoftlyCachedBytes() {
+        return m_softlyCachedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Table cache: %d tables held (%d recently used, ~%d bytes), %d distinct, %d invalidated, %d dropped by GC; "
+                + "hits: %d hard, %d soft, %d weak; misses: %d",
+            m_cachedTables, m_softlyCachedTables, m_softlyCachedBytes, m_distinctTables, m_invalidatedTables,
+            m_garbageCollectedTables, m_hardHits, m_softHits, m_weakHits, m_misses);
+    }
+
+}
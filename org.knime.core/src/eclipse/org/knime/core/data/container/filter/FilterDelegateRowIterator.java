@@ -72,6 +72,8 @@ public final class FilterDelegateRowIterator extends CloseableRowIterator {
 
     private final long m_toIndex;
 
+    private final RowPredicate m_predicate;
+
     private final Optional<ExecutionMonitor> m_exec;
 
     private long m_index;
@@ -94,6 +96,7 @@ public FilterDelegateRowIterator(final CloseableRowIterator iterator, final Tabl
         m_delegate = iterator;
         m_fromIndex = filter.getFromRowIndex().orElse(0l);
         m_toIndex = filter.getToRowIndex().orElse(size - 1);
+        m_predicate = filter.getPredicate().orElse(null);
         m_exec = Optional.ofNullable(exec);
         m_index = 0;
     }
@@ -139,9 +142,9 @@ private DataRow internalNext() {
                 m_exec.get().setProgress(prog, () -> String.format("Row %,d/%,d (%s)", index, size, row.getKey()));
             }
 
-            // return the row if we're at or above the minimum index of rows to keep
+            // return the row if we're at or above the minimum index of rows to keep and it satisfies the predicate
             // also, increase the index by one
-            if (m_index++ >= m_fromIndex) {
+            if (m_index++ >= m_fromIndex && (m_predicate == null || m_predicate.test(row))) {
                 return row;
             }
         }
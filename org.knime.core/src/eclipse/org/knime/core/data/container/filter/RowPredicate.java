@@ -0,0 +1,379 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValueComparator;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * A predicate over the {@link DataCell DataCells} of a {@link DataRow}, used by a {@link TableFilter} to retain only
+ * rows that satisfy it. Predicates are immutable and refer to columns by index. Readers that are aware of predicates
+ * (such as the default table store reader) evaluate a predicate as soon as all its columns have been read from disk
+ * and skip deserialization of the remaining cells of rows that are rejected.
+ *
+ * <p>
+ * Comparisons never match missing cells, i.e., a row with a missing cell in column <i>i</i> is rejected by
+ * {@link #lessThan(int, DataCell) lessThan(i, ...)} and friends, by {@link #equalTo(int, DataCell)} and by
+ * {@link #in(int, DataCell...)}. Use {@link #isMissing(int)} to retain such rows explicitly.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public abstract class RowPredicate {
+
+    private final int[] m_columnIndices;
+
+    private RowPredicate(final int... columnIndices) {
+        m_columnIndices = columnIndices;
+    }
+
+    /**
+     * Tests the predicate on a row. Only the cells in the columns returned by {@link #getColumnIndices()} are
+     * accessed, the remaining cells of the row may be unmaterialized (or even {@code null}).
+     *
+     * @param row the row to test
+     * @return whether the row satisfies this predicate
+     */
+    public abstract boolean test(DataRow row);
+
+    /**
+     * @return the sorted, distinct indices of all columns accessed by this predicate, never empty
+     */
+    public final int[] getColumnIndices() {
+        return m_columnIndices.clone();
+    }
+
+    /**
+     * @return the highest index of all columns accessed by this predicate
+     */
+    public final int getMaxColumnIndex() {
+        return m_columnIndices[m_columnIndices.length - 1];
+    }
+
+    /**
+     * @param other another predicate
+     * @return a predicate that is satisfied if and only if both this and the other predicate are satisfied
+     */
+    public final RowPredicate and(final RowPredicate other) {
+        CheckUtils.checkArgumentNotNull(other);
+        return new RowPredicate(union(this, other)) {
+            @Override
+            public boolean test(final DataRow row) {
+                return RowPredicate.this.test(row) && other.test(row);
+            }
+
+            @Override
+            public String toString() {
+                return "(" + RowPredicate.this + " AND " + other + ")";
+            }
+        };
+    }
+
+    /**
+     * @param other another predicate
+     * @return a predicate that is satisfied if and only if this or the other predicate (or both) are satisfied
+     */
+    public final RowPredicate or(final RowPredicate other) {
+        CheckUtils.checkArgumentNotNull(other);
+        return new RowPredicate(union(this, other)) {
+            @Override
+            public boolean test(final DataRow row) {
+                return RowPredicate.this.test(row) || other.test(row);
+            }
+
+            @Override
+            public String toString() {
+                return "(" + RowPredicate.this + " OR " + other + ")";
+            }
+        };
+    }
+
+    /**
+     * @return a predicate that is satisfied if and only if this predicate is not satisfied
+     */
+    public final RowPredicate negate() {
+        return new RowPredicate(m_columnIndices) {
+            @Override
+            public boolean test(final DataRow row) {
+                return !RowPredicate.this.test(row);
+            }
+
+            @Override
+            public String toString() {
+                return "NOT " + RowPredicate.this;
+            }
+        };
+    }
+
+    private static int[] union(final RowPredicate p1, final RowPredicate p2) {
+        final Set<Integer> indices = new TreeSet<>();
+        Arrays.stream(p1.m_columnIndices).forEach(indices::add);
+        Arrays.stream(p2.m_columnIndices).forEach(indices::add);
+        return indices.stream().mapToInt(i -> i).toArray();
+    }
+
+    private static int checkColumnIndex(final int columnIndex) {
+        if (columnIndex < 0) {
+            throw new IndexOutOfBoundsException("Column index must be at least 0.");
+        }
+        return columnIndex;
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @return a predicate that is satisfied by rows with a missing cell in the given column
+     */
+    public static RowPredicate isMissing(final int columnIndex) {
+        return new RowPredicate(checkColumnIndex(columnIndex)) {
+            @Override
+            public boolean test(final DataRow row) {
+                return row.getCell(columnIndex).isMissing();
+            }
+
+            @Override
+            public String toString() {
+                return "$" + columnIndex + " IS MISSING";
+            }
+        };
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @return a predicate that is satisfied by rows with a non-missing cell in the given column
+     */
+    public static RowPredicate isNotMissing(final int columnIndex) {
+        return isMissing(columnIndex).negate();
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param value the non-missing value to compare against
+     * @return a predicate that is satisfied by rows whose cell in the given column is equal to the given value
+     */
+    public static RowPredicate equalTo(final int columnIndex, final DataCell value) {
+        return new ComparisonPredicate(columnIndex, value, Operator.EQ);
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param value the non-missing value to compare against
+     * @return a predicate that is satisfied by rows whose cell in the given column is not missing and not equal to the
+     *         given value
+     */
+    public static RowPredicate notEqualTo(final int columnIndex, final DataCell value) {
+        return new ComparisonPredicate(columnIndex, value, Operator.NE);
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param value the non-missing value to compare against
+     * @return a predicate that is satisfied by rows whose cell in the given column is less than the given value
+     */
+    public static RowPredicate lessThan(final int columnIndex, final DataCell value) {
+        return new ComparisonPredicate(columnIndex, value, Operator.LT);
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param value the non-missing value to compare against
+     * @return a predicate that is satisfied by rows whose cell in the given column is less than or equal to the given
+     *         value
+     */
+    public static RowPredicate lessThanOrEqualTo(final int columnIndex, final DataCell value) {
+        return new ComparisonPredicate(columnIndex, value, Operator.LE);
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param value the non-missing value to compare against
+     * @return a predicate that is satisfied by rows whose cell in the given column is greater than the given value
+     */
+    public static RowPredicate greaterThan(final int columnIndex, final DataCell value) {
+        return new ComparisonPredicate(columnIndex, value, Operator.GT);
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param value the non-missing value to compare against
+     * @return a predicate that is satisfied by rows whose cell in the given column is greater than or equal to the
+     *         given value
+     */
+    public static RowPredicate greaterThanOrEqualTo(final int columnIndex, final DataCell value) {
+        return new ComparisonPredicate(columnIndex, value, Operator.GE);
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param values the values to look up, as determined by {@link DataCell#equals(Object)}
+     * @return a predicate that is satisfied by rows whose cell in the given column is contained in the given values
+     */
+    public static RowPredicate in(final int columnIndex, final DataCell... values) {
+        CheckUtils.checkArgumentNotNull(values);
+        return in(columnIndex, Arrays.asList(values));
+    }
+
+    /**
+     * @param columnIndex the index of the column to test
+     * @param values the values to look up, as determined by {@link DataCell#equals(Object)}
+     * @return a predicate that is satisfied by rows whose cell in the given column is contained in the given values
+     */
+    public static RowPredicate in(final int columnIndex, final Collection<? extends DataCell> values) {
+        CheckUtils.checkArgumentNotNull(values);
+        // missing cells never match, see class comment
+        final Set<DataCell> set = Collections.unmodifiableSet(
+            values.stream().filter(c -> !CheckUtils.checkArgumentNotNull(c).isMissing()).collect(Collectors.toSet()));
+        return new RowPredicate(checkColumnIndex(columnIndex)) {
+            @Override
+            public boolean test(final DataRow row) {
+                return set.contains(row.getCell(columnIndex));
+            }
+
+            @Override
+            public String toString() {
+                return "$" + columnIndex + " IN " + set;
+            }
+        };
+    }
+
+    private enum Operator {
+            EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        private final String m_symbol;
+
+        Operator(final String symbol) {
+            m_symbol = symbol;
+        }
+
+        boolean matches(final int comparison) {
+            switch (this) {
+                case EQ:
+                    return comparison == 0;
+                case NE:
+                    return comparison != 0;
+                case LT:
+                    return comparison < 0;
+                case LE:
+                    return comparison <= 0;
+                case GT:
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+    }
+
+    /**
+     * Compares a column against a constant. The comparator is derived from the common super type of the constant and
+     * the cells in the column; since cells in a column usually share their type, the last comparator is memorized.
+     */
+    private static final class ComparisonPredicate extends RowPredicate {
+
+        private final int m_columnIndex;
+
+        private final DataCell m_value;
+
+        private final Operator m_operator;
+
+        private volatile CachedComparator m_cachedComparator;
+
+        ComparisonPredicate(final int columnIndex, final DataCell value, final Operator operator) {
+            super(checkColumnIndex(columnIndex));
+            CheckUtils.checkArgumentNotNull(value);
+            CheckUtils.checkArgument(!value.isMissing(), "Cannot compare against a missing value.");
+            m_columnIndex = columnIndex;
+            m_value = value;
+            m_operator = operator;
+        }
+
+        @Override
+        public boolean test(final DataRow row) {
+            final DataCell cell = row.getCell(m_columnIndex);
+            if (cell.isMissing()) {
+                return false;
+            }
+            return m_operator.matches(getComparator(cell.getType()).compare(cell, m_value));
+        }
+
+        private DataValueComparator getComparator(final DataType type) {
+            CachedComparator cached = m_cachedComparator;
+            if (cached == null || (cached.m_type != type && !cached.m_type.equals(type))) {
+                cached = new CachedComparator(type,
+                    DataType.getCommonSuperType(type, m_value.getType()).getComparator());
+                m_cachedComparator = cached;
+            }
+            return cached.m_comparator;
+        }
+
+        @Override
+        public String toString() {
+            return "$" + m_columnIndex + " " + m_operator.m_symbol + " " + m_value;
+        }
+    }
+
+    private static final class CachedComparator {
+
+        private final DataType m_type;
+
+        private final DataValueComparator m_comparator;
+
+        CachedComparator(final DataType type, final DataValueComparator comparator) {
+            m_type = type;
+            m_comparator = comparator;
+        }
+    }
+
+}
@@ -46,6 +46,7 @@
  */
 package org.knime.core.data.container.filter;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -64,17 +65,23 @@
  * and order of rows of the table unchanged, but might reduce the amount of {@link DataRow DataRows} retrieved by a
  * filtered iterator obtained via {@link BufferedDataTable#filter(TableFilter)}.
  *
+ * <p>
+ * Rows can be restricted by index range and by a {@link RowPredicate}. The index range always refers to the indices of
+ * rows in the unfiltered table, i.e., a filter with a predicate and a range from 100 to 199 retains those rows among
+ * the rows with index 100 to 199 that satisfy the predicate. Columns accessed by the predicate are always
+ * materialized.
+ *
  * @author Marc Bux, KNIME GmbH, Berlin, Germany
  * @since 4.0
  */
 public final class TableFilter {
 
-    // Additional filter options are planned for the future, see AP-11805
     private TableFilter(final Optional<Set<Integer>> columnIndices, final Optional<Long> fromRowIndex,
-        final Optional<Long> toRowIndex) {
+        final Optional<Long> toRowIndex, final Optional<RowPredicate> predicate) {
         m_columnIndices = columnIndices;
         m_fromRowIndex = fromRowIndex;
         m_toRowIndex = toRowIndex;
+        m_predicate = predicate;
     }
 
     private final Optional<Set<Integer>> m_columnIndices;
@@ -83,6 +90,8 @@ private TableFilter(final Optional<Set<Integer>> columnIndices, final Optional<L
 
     private final Optional<Long> m_toRowIndex;
 
+    private final Optional<RowPredicate> m_predicate;
+
     /**
      * A method that can be used to obtain the indices of columns that should be materialized. The returned
      * {@link Optional} will be empty if all indices are to be materialized.
@@ -113,6 +122,17 @@ public Optional<Long> getToRowIndex() {
         return m_toRowIndex;
     }
 
+    /**
+     * A method that can be used to obtain the predicate that rows have to satisfy in order to be kept. The returned
+     * {@link Optional} will be empty if rows are not filtered by their content.
+     *
+     * @return an optional predicate on to-be-kept rows
+     * @since 4.4
+     */
+    public Optional<RowPredicate> getPredicate() {
+        return m_predicate;
+    }
+
     /**
      * Validates this {@link TableFilter} against a {@link DataTableSpec}.
      *
@@ -130,6 +150,10 @@ public void validate(final DataTableSpec spec, final long size) {
         if (m_columnIndices.isPresent()) {
             spec.verifyIndices(m_columnIndices.get().stream().mapToInt(i -> i).toArray());
         }
+
+        if (m_predicate.isPresent()) {
+            spec.verifyIndices(m_predicate.get().getColumnIndices());
+        }
     }
 
     /**
@@ -191,6 +215,17 @@ public static TableFilter filterRangeOfRows(final long fromIndex, final long toI
         return (new Builder()).withFromRowIndex(fromIndex).withToRowIndex(toIndex).build();
     }
 
+    /**
+     * Static factory method for creating a {@link TableFilter} that retains only rows satisfying a certain predicate.
+     *
+     * @param predicate the predicate that rows have to satisfy
+     * @return a new table filter
+     * @since 4.4
+     */
+    public static TableFilter filterRows(final RowPredicate predicate) {
+        return (new Builder()).withPredicate(predicate).build();
+    }
+
     /**
      * Implementation of the builder design pattern for the {@link TableFilter} class.
      */
@@ -202,6 +237,8 @@ public final static class Builder {
 
         private Optional<Long> m_toRowIndex;
 
+        private Optional<RowPredicate> m_predicate;
+
         /**
          * Constructs a new builder.
          */
@@ -209,6 +246,7 @@ public Builder() {
             m_columnIndices = Optional.empty();
             m_fromRowIndex = Optional.empty();
             m_toRowIndex = Optional.empty();
+            m_predicate = Optional.empty();
         }
 
         /**
@@ -220,6 +258,7 @@ public Builder(final TableFilter filter) {
             m_columnIndices = filter.getMaterializeColumnIndices();
             m_fromRowIndex = filter.getFromRowIndex();
             m_toRowIndex = filter.getToRowIndex();
+            m_predicate = filter.getPredicate();
         }
 
         /**
@@ -283,13 +322,43 @@ public Builder withToRowIndex(final long index) {
             return this;
         }
 
+        /**
+         * Configure the builder to provide {@link TableFilter TableFilters} that retain only rows satisfying a certain
+         * predicate. The columns accessed by the predicate will be materialized.
+         *
+         * @param predicate the predicate that rows have to satisfy
+         * @return the same builder with updated parameters
+         * @since 4.4
+         */
+        public Builder withPredicate(final RowPredicate predicate) {
+            m_predicate = Optional.of(CheckUtils.checkArgumentNotNull(predicate));
+            return this;
+        }
+
+        /**
+         * Configure the builder to provide {@link TableFilter TableFilters} that do not filter rows by their content.
+         *
+         * @return the same builder with updated parameters
+         * @since 4.4
+         */
+        public Builder withoutPredicate() {
+            m_predicate = Optional.empty();
+            return this;
+        }
+
         /**
          * Builds a new table filter with the paramaters configured in this builder.
          *
          * @return a new table filter
          */
         public TableFilter build() {
-            return new TableFilter(m_columnIndices, m_fromRowIndex, m_toRowIndex);
+            Optional<Set<Integer>> columnIndices = m_columnIndices;
+            if (columnIndices.isPresent() && m_predicate.isPresent()) {
+                final Set<Integer> indicesSet = new HashSet<>(columnIndices.get());
+                Arrays.stream(m_predicate.get().getColumnIndices()).forEach(indicesSet::add);
+                columnIndices = Optional.of(indicesSet);
+            }
+            return new TableFilter(columnIndices, m_fromRowIndex, m_toRowIndex, m_predicate);
         }
 
     }
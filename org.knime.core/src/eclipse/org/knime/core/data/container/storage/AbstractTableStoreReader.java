@@ -396,10 +396,21 @@ public void setBuffer(final Buffer buffer) {
             m_buffer = buffer;
         }
 
-        /** {@inheritDoc} */
+        /**
+         * Closes the iterator via its buffer (see {@link Buffer#clearIteratorInstance(TableStoreCloseableRowIterator,
+         * boolean)}) or, if it is not registered with a buffer, by closing the underlying stream directly.
+         */
         @Override
         public final void close() {
-            m_buffer.clearIteratorInstance(this, true);
+            if (m_buffer != null) {
+                m_buffer.clearIteratorInstance(this, true);
+            } else {
+                try {
+                    performClose();
+                } catch (IOException ioe) {
+                    LOGGER.debug("Closing input stream failed: " + ioe.getMessage(), ioe);
+                }
+            }
         }
 
         /**
@@ -48,8 +48,7 @@
 package org.knime.core.data.container.storage;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellSerializer;
@@ -80,12 +79,12 @@
 public abstract class AbstractTableStoreWriter implements AutoCloseable, KNIMEStreamConstants {
 
     /**
-     * Map for all DataCells' type, which have been added to this buffer, they will be separately written to to the
-     * meta.xml in a zip file.
+     * All DataCells' types, which have been added to this buffer, they will be separately written to to the meta.xml in
+     * a zip file. The shortcut of a type is its index plus {@link #BYTE_TYPE_START}. The array is never modified but
+     * replaced by a copy when a type is added (see {@link #addTypeShortCut(CellClassInfo)}), so that the shortcut of a
+     * type that has been added before is looked up without locking.
      */
-    private HashMap<CellClassInfo, Byte> m_typeShortCuts;
-
-    private CellClassInfo[] m_shortCutsLookup;
+    private volatile CellClassInfo[] m_typeShortCuts = new CellClassInfo[0];
 
     /** {@link #getFileStoreHandler()}. */
     private IWriteFileStoreHandler m_fileStoreHandler;
@@ -136,17 +135,7 @@ protected final DataTableSpec getSpec() {
      *            {@link AbstractTableStoreReader#readMetaFromFile(org.knime.core.node.NodeSettingsRO, int)})
      */
     public void writeMetaInfoAfterWrite(final NodeSettingsWO settings) {
-        // unreported bug fix: NPE when the table only contains missing values.
-        if (m_typeShortCuts == null) {
-            m_typeShortCuts = new HashMap<CellClassInfo, Byte>();
-        }
-        CellClassInfo[] shortCutsLookup = new CellClassInfo[m_typeShortCuts.size()];
-        for (Map.Entry<CellClassInfo, Byte> e : m_typeShortCuts.entrySet()) {
-            byte shortCut = e.getValue();
-            CellClassInfo type = e.getKey();
-            shortCutsLookup[shortCut - BYTE_TYPE_START] = type;
-        }
-        m_shortCutsLookup = shortCutsLookup;
+        final CellClassInfo[] shortCutsLookup = m_typeShortCuts;
         NodeSettingsWO typeSubSettings = settings.addNodeSettings(TableStoreFormat.CFG_CELL_CLASSES);
         for (int i = 0; i < shortCutsLookup.length; i++) {
             CellClassInfo info = shortCutsLookup[i];
@@ -166,7 +155,8 @@ public void writeMetaInfoAfterWrite(final NodeSettingsWO settings) {
      * @return the identifier / shortcut of the passed type
      */
     public Byte getTypeShortCut(final CellClassInfo cellClass) {
-        return m_typeShortCuts.get(cellClass);
+        final int index = indexOf(m_typeShortCuts, cellClass);
+        return index < 0 ? null : Byte.valueOf((byte)(index + BYTE_TYPE_START));
     }
 
     /**
@@ -178,21 +168,58 @@ public Byte getTypeShortCut(final CellClassInfo cellClass) {
      * @throws IOException If there are too many different cell implementations (currently 253 are theoretically
      *             supported)
      */
-    synchronized public DataCellSerializer<DataCell> getSerializerForDataCell(final CellClassInfo cellClass) throws IOException {
-        if (m_typeShortCuts == null) {
-            m_typeShortCuts = new HashMap<CellClassInfo, Byte>();
-        }
+    public DataCellSerializer<DataCell> getSerializerForDataCell(final CellClassInfo cellClass) throws IOException {
+        getOrAddTypeShortCut(cellClass);
         @SuppressWarnings("unchecked")
-        DataCellSerializer<DataCell> serializer = (DataCellSerializer<DataCell>)cellClass.getSerializer();
-        if (!m_typeShortCuts.containsKey(cellClass)) {
-            int size = m_typeShortCuts.size();
-            if (size + BYTE_TYPE_START > Byte.MAX_VALUE) {
-                throw new IOException("Too many different cell implementations");
+        final DataCellSerializer<DataCell> serializer = (DataCellSerializer<DataCell>)cellClass.getSerializer();
+        return serializer;
+    }
+
+    /**
+     * Returns the shortcut of a type, assigning the next free shortcut if the type has not been written before. Only
+     * the latter case requires locking.
+     *
+     * @param cellClass the type of a cell to be written
+     * @return the shortcut of the type
+     * @throws IOException If there are too many different cell implementations
+     */
+    private byte getOrAddTypeShortCut(final CellClassInfo cellClass) throws IOException {
+        int index = indexOf(m_typeShortCuts, cellClass);
+        if (index < 0) {
+            index = addTypeShortCut(cellClass);
+        }
+        return (byte)(index + BYTE_TYPE_START);
+    }
+
+    /**
+     * Adds a type to {@link #m_typeShortCuts} unless another thread has added it in the meantime.
+     *
+     * @return the index of the type in {@link #m_typeShortCuts}
+     */
+    private synchronized int addTypeShortCut(final CellClassInfo cellClass) throws IOException {
+        final CellClassInfo[] typeShortCuts = m_typeShortCuts;
+        final int index = indexOf(typeShortCuts, cellClass);
+        if (index >= 0) {
+            return index;
+        }
+        if (typeShortCuts.length + BYTE_TYPE_START > Byte.MAX_VALUE) {
+            throw new IOException("Too many different cell implementations");
+        }
+        final CellClassInfo[] newTypeShortCuts = Arrays.copyOf(typeShortCuts, typeShortCuts.length + 1);
+        newTypeShortCuts[typeShortCuts.length] = cellClass;
+        m_typeShortCuts = newTypeShortCuts;
+        return typeShortCuts.length;
+    }
+
+    private static int indexOf(final CellClassInfo[] typeShortCuts, final CellClassInfo cellClass) {
+        for (int i = 0; i < typeShortCuts.length; i++) {
+            // instances are usually identical as CellClassInfo#get caches them
+            final CellClassInfo type = typeShortCuts[i];
+            if (type == cellClass || type.equals(cellClass)) {
+                return i;
             }
-            Byte identifier = (byte)(size + BYTE_TYPE_START);
-            m_typeShortCuts.put(cellClass, identifier);
         }
-        return serializer;
+        return -1;
     }
 
     /** {@inheritDoc} */
@@ -251,8 +278,9 @@ public void writeDataCell(final DataCell cell, final DCObjectOutputVersion2 outS
         final boolean isBlob = cell instanceof BlobWrapperDataCell;
         final CellClassInfo cellClass =
             isBlob ? ((BlobWrapperDataCell)cell).getBlobClassInfo() : CellClassInfo.get(cell);
-        final DataCellSerializer<DataCell> ser = getSerializerForDataCell(cellClass);
-        final Byte identifier = getTypeShortCut(cellClass);
+        final byte identifier = getOrAddTypeShortCut(cellClass);
+        @SuppressWarnings("unchecked")
+        final DataCellSerializer<DataCell> ser = (DataCellSerializer<DataCell>)cellClass.getSerializer();
         final FileStoreKey[] fileStoreKeys = getFileStoreKeysAndFlush(cell);
 
         if (ser == null && !isBlob) {
@@ -0,0 +1,135 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * A compression codec used by table store formats to compress their files. Besides the built-in formats
+ * ({@link org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat}), codecs are collected via the
+ * <code>org.knime.core.CompressionCodec</code> extension point. A codec instance has a fixed compression level;
+ * instances with other levels are derived via {@link #withLevel(int)}.
+ *
+ * <p>
+ * The name of the codec is persisted along with each table that it compressed, hence it must not change once a codec
+ * is released. Decompression must not depend on the level used for compression.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ * @noreference This interface is not intended to be referenced by clients.
+ */
+public interface CompressionCodec {
+
+    /** @return the unique (case-insensitive) name of the codec, persisted with the tables compressed by it */
+    String getName();
+
+    /** @return the file name extension of files compressed by this codec, e.g. ".bin.snappy" */
+    String getFileExtension();
+
+    /**
+     * Whether the codec can be used in the current installation, e.g., false if a native library cannot be loaded on
+     * the current platform. Unavailable codecs are not offered by the {@link CompressionCodecRegistry}.
+     *
+     * @return true if the codec can be used
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /** @return the compression level of this instance */
+    default int getLevel() {
+        return 0;
+    }
+
+    /** @return the smallest supported compression level, equal to {@link #getMaxLevel()} if levels are not supported */
+    default int getMinLevel() {
+        return getLevel();
+    }
+
+    /** @return the largest supported compression level */
+    default int getMaxLevel() {
+        return getLevel();
+    }
+
+    /**
+     * Returns an instance of this codec compressing with the given level.
+     *
+     * @param level the compression level, between {@link #getMinLevel()} and {@link #getMaxLevel()}
+     * @return an instance using the given level (possibly this)
+     * @throws IllegalArgumentException if the level is not supported
+     */
+    default CompressionCodec withLevel(final int level) {
+        CheckUtils.checkArgument(level == getLevel(), "Compression codec \"%s\" does not support level %d",
+            getName(), level);
+        return this;
+    }
+
+    /**
+     * Creates a stream compressing its input into the argument stream. Closing the returned stream finishes the
+     * compressed stream and closes the argument stream. The returned stream is expected to be buffered.
+     *
+     * @param out the stream to write the compressed data to
+     * @return the compressing stream
+     * @throws IOException if the compressed stream cannot be created
+     */
+    OutputStream createOutputStream(OutputStream out) throws IOException;
+
+    /**
+     * Creates a stream decompressing the data read from the argument stream. The returned stream is expected to be
+     * buffered.
+     *
+     * @param in the stream to read the compressed data from
+     * @return the decompressing stream
+     * @throws IOException if the compressed stream cannot be read
+     */
+    InputStream createInputStream(InputStream in) throws IOException;
+
+}
@@ -0,0 +1,176 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.Platform;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Collects the available {@link CompressionCodec compression codecs}, i.e., the built-in
+ * {@link CompressionFormat compression formats} and the codecs registered at the extension point.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ * @noextend This class is not intended to be subclassed by clients.
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class CompressionCodecRegistry {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(CompressionCodecRegistry.class);
+
+    private static final String EXT_POINT_ID = "org.knime.core.CompressionCodec";
+
+    private static final CompressionCodecRegistry INSTANCE = createInstance();
+
+    private static CompressionCodecRegistry createInstance() {
+        final List<CompressionCodec> codecs = new ArrayList<>(Arrays.asList(CompressionFormat.values()));
+        final IExtensionRegistry registry = Platform.getExtensionRegistry();
+        final IExtensionPoint point = registry == null ? null : registry.getExtensionPoint(EXT_POINT_ID);
+        if (point != null) {
+            Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
+                .map(CompressionCodecRegistry::readCodec).filter(c -> c != null).forEach(codec -> {
+                    if (codecs.stream().anyMatch(c -> c.getName().equalsIgnoreCase(codec.getName()))) {
+                        LOGGER.errorWithFormat("Ignoring compression codec '%s' (%s), its name is already in use",
+                            codec.getName(), codec.getClass().getName());
+                    } else {
+                        codecs.add(codec);
+                    }
+                });
+        }
+        return new CompressionCodecRegistry(codecs);
+    }
+
+    private static CompressionCodec readCodec(final IConfigurationElement cfe) {
+        try {
+            final CompressionCodec codec = (CompressionCodec)cfe.createExecutableExtension("codecDefinition");
+            if (!codec.isAvailable()) {
+                LOGGER.debugWithFormat("Compression codec '%s' from '%s' is not available on this system",
+                    codec.getName(), cfe.getContributor().getName());
+                return null;
+            }
+            LOGGER.debugWithFormat("Added compression codec '%s' from '%s'", codec.getName(),
+                cfe.getContributor().getName());
+            return codec;
+        } catch (CoreException | LinkageError ex) {
+            // linkage errors are caused by codecs with missing (optional) dependencies
+            LOGGER.debug(String.format("Could not create '%s' from extension '%s': %s",
+                CompressionCodec.class.getName(), cfe.getContributor().getName(), ex.getMessage()), ex);
+        }
+        return null;
+    }
+
+    /** @return the instance to use. */
+    public static CompressionCodecRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private final List<CompressionCodec> m_codecs;
+
+    private CompressionCodecRegistry(final List<CompressionCodec> codecs) {
+        m_codecs = Collections.unmodifiableList(codecs);
+    }
+
+    /** @return the available codecs (at their default level), the built-in formats first, in an unmodifiable list */
+    public List<CompressionCodec> getCompressionCodecs() {
+        return m_codecs;
+    }
+
+    /**
+     * @param name the (case-insensitive) name of the codec
+     * @return the codec (at its default level) with the given name, empty if there is no such codec available
+     */
+    public Optional<CompressionCodec> getCompressionCodec(final String name) {
+        // Setting Locale.US prevents conversion problems, see AP-13152.
+        final String upperCase = name.toUpperCase(Locale.US);
+        return m_codecs.stream().filter(c -> c.getName().toUpperCase(Locale.US).equals(upperCase)).findFirst();
+    }
+
+    /**
+     * Parses a codec description of the form <code>name</code> or <code>name:level</code>, as used in system
+     * properties.
+     *
+     * @param description the codec description
+     * @return the codec with the given name and level
+     * @throws IllegalArgumentException if there is no such codec or it does not support the level
+     */
+    public CompressionCodec parseCompressionCodec(final String description) {
+        final int separator = description.indexOf(':');
+        final String name = (separator < 0 ? description : description.substring(0, separator)).trim();
+        final CompressionCodec codec = getCompressionCodec(name)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown compression codec \"" + name + "\""));
+        if (separator < 0) {
+            return codec;
+        }
+        final String level = description.substring(separator + 1).trim();
+        try {
+            return codec.withLevel(Integer.parseInt(level));
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid compression level \"" + level + "\"", nfe);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Compression Codecs: ["
+            + m_codecs.stream().map(CompressionCodec::getName).collect(Collectors.joining(", ")) + "]";
+    }
+
+}
@@ -50,6 +50,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Optional;
 
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.IDataRepository;
@@ -145,4 +146,26 @@ public AbstractTableStoreReader createReader(final File binFile, final DataTable
      */
     public boolean validateVersion(final String versionString);
 
+    /**
+     * Returns a format that compresses its files with the given codec, as selected for a workflow or a data container.
+     * Formats that don't support (custom) compression return themselves.
+     *
+     * @param codec the non-null compression codec
+     * @return a format using the codec or this format if compression codecs are not supported
+     * @since 4.4
+     */
+    public default TableStoreFormat withCompression(final CompressionCodec codec) {
+        return this;
+    }
+
+    /**
+     * The codec used to compress the files written by this format, recorded in the meta information of tables.
+     *
+     * @return the compression codec, empty if the format doesn't use (exchangeable) compression codecs
+     * @since 4.4
+     */
+    public default Optional<CompressionCodec> getCompressionCodec() {
+        return Optional.empty();
+    }
+
 }
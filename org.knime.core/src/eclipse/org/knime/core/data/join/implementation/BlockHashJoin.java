@@ -48,12 +48,17 @@
  */
 package org.knime.core.data.join.implementation;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.filter.TableFilter;
 import org.knime.core.data.join.JoinSpecification;
 import org.knime.core.data.join.JoinSpecification.InputTable;
 import org.knime.core.data.join.JoinTableSettings;
@@ -65,6 +70,8 @@
 import org.knime.core.node.CanceledExecutionException.CancelChecker;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadPool;
 
 /**
  * Implements a nested loop join that can have extremely small memory footprint, at the cost of additional iterations
@@ -89,6 +96,11 @@
  * continues to index hash input rows and does more passes over the probe input every time memory is running low. <br/>
  * <br/>
  *
+ * A pass over a large probe input is split into row ranges that are probed concurrently, see
+ * {@link JoinImplementation#setProbeParallelism(int)}. The index is read-only while probing; the join results of each
+ * range are handed to the {@link JoinResult} in blocks, see {@link HashIndex.ProbeBatch}. <br/>
+ * <br/>
+ *
  * Note that when joining two {@link DiskBucket}s P and H originally from the probe table and hash table, P can become
  * the hash input if fewer rows from the original probe input have been mapped to P than rows from the original hash
  * input to H.
@@ -98,6 +110,12 @@
 @SuppressWarnings("javadoc")
 class BlockHashJoin extends JoinImplementation {
 
+    /**
+     * The minimum number of probe rows processed by a single task in a parallel pass over the probe input. Probe inputs
+     * with fewer than twice as many rows are processed on the calling thread. Package scope for testing.
+     */
+    long m_minRowsPerProbeRange = 50_000;
+
     /**
      * @param joinSpecification
      * @param exec
@@ -211,50 +229,108 @@ public <T extends Output> JoinResult<T> join(final JoinResult<T> results)
 
     }
 
-    private void singlePass(final BufferedDataTable probe, final HashIndex partialIndex, final RowHandlerCancelable unmatchedHashRows)
-        throws CanceledExecutionException {
+    private void singlePass(final BufferedDataTable probe, final HashIndex partialIndex,
+        final RowHandlerCancelable unmatchedHashRows) throws CanceledExecutionException {
 
         getProgress().setMessage("Single pass over larger table.");
 
-        CancelChecker checkCanceled = CancelChecker.checkCanceledPeriodicallyWithProgress(m_exec, 100, probe.size());
-        JoinResult.enumerateWithResources(probe, partialIndex::joinSingleRow, checkCanceled);
+        if (m_probeParallelism > 1 && probe.size() >= 2 * m_minRowsPerProbeRange) {
+            parallelPass(probe, partialIndex);
+        } else {
+            CancelChecker checkCanceled =
+                CancelChecker.checkCanceledPeriodicallyWithProgress(m_exec, 100, probe.size());
+            JoinResult.enumerateWithResources(probe, partialIndex::joinSingleRow, checkCanceled);
+        }
 
         partialIndex.forUnmatchedHashRows(unmatchedHashRows);
     }
 
     /**
-     * Check that both input tables are present. If only one table is present, output the rows of the other table as
-     * unmatched rows.
+     * Splits the probe input into row ranges and looks up their join partners concurrently. The calling thread
+     * processes ranges as well, such that the pass completes even if no thread of the pool becomes available.
      *
-     * @param joinSpecification contains the two input tables
-     * @param container where to put unmatched rows
-     * @param m_extractRowOffsets whether to
-     * @return true if the input is incomplete
-     * @throws CanceledExecutionException
+     * @param probe the probe input
+     * @param partialIndex the index to look up join partners in, not modified while probing
+     * @throws CanceledExecutionException if the user cancels the join
      */
-    private <T extends Output> boolean incompleteInput(final JoinSpecification joinSpecification, final JoinResult<T> container)
+    private void parallelPass(final BufferedDataTable probe, final HashIndex partialIndex)
         throws CanceledExecutionException {
 
-        if (!joinSpecification.getSettings(InputTable.LEFT).hasTable()
-            && !joinSpecification.getSettings(InputTable.RIGHT).hasTable()) {
-            return true;
+        final long size = probe.size();
+        // a few ranges per thread to balance the load, as the number of join partners may vary between ranges
+        final long rangesPerThread = 4;
+        final long rangeSize = Math.max(m_minRowsPerProbeRange,
+            (size + rangesPerThread * m_probeParallelism - 1) / (rangesPerThread * m_probeParallelism));
+        final long numRanges = (size + rangeSize - 1) / rangeSize;
+        final AtomicLong nextRange = new AtomicLong();
+        final AtomicLong probedRows = new AtomicLong();
+
+        final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(m_probeParallelism - 1);
+        final List<Future<Void>> helpers = new ArrayList<>();
+        for (int i = 1; i < Math.min(m_probeParallelism, numRanges); i++) {
+            helpers.add(pool.enqueue(() -> {
+                probeRanges(probe, partialIndex, rangeSize, numRanges, nextRange, probedRows);
+                return null;
+            }));
+        }
+
+        Throwable failure = null;
+        try {
+            probeRanges(probe, partialIndex, rangeSize, numRanges, nextRange, probedRows);
+        } catch (CanceledExecutionException | RuntimeException e) {
+            failure = e;
         }
 
-        for (InputTable presentSide : InputTable.both()) {
-            JoinTableSettings present = joinSpecification.getSettings(presentSide);
-            JoinTableSettings absent = joinSpecification.getSettings(presentSide.other());
-            Optional<BufferedDataTable> presentTable = present.getTable();
-            if (presentTable.isPresent() && !absent.getTable().isPresent()) {
-                // collect rows from present table as unmatched
-                if (present.isRetainUnmatched()) {
-                    JoinResult.enumerateWithResources(presentTable.get(), container.unmatched(presentSide),
-                        CancelChecker.checkCanceledPeriodically(m_exec));
+        // stop handing out ranges in case of failure, helpers that start late will find no more ranges to process
+        nextRange.set(numRanges);
+        for (Future<Void> helper : helpers) {
+            try {
+                helper.get();
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? new CanceledExecutionException("Interrupted while joining.") : failure;
+            }
+        }
+
+        if (failure instanceof CanceledExecutionException) {
+            throw (CanceledExecutionException)failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        } else if (failure instanceof Error) {
+            throw (Error)failure;
+        } else if (failure != null) {
+            throw new IllegalStateException(failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Probes row ranges of the probe input until there are no more ranges left.
+     *
+     * @param nextRange the index of the next range to process, shared by all threads
+     * @param probedRows the number of rows processed by all threads, for progress reporting
+     */
+    private void probeRanges(final BufferedDataTable probe, final HashIndex partialIndex, final long rangeSize,
+        final long numRanges, final AtomicLong nextRange, final AtomicLong probedRows)
+        throws CanceledExecutionException {
+
+        for (long range = nextRange.getAndIncrement(); range < numRanges; range = nextRange.getAndIncrement()) {
+            final long from = range * rangeSize;
+            final long to = Math.min(probe.size(), from + rangeSize) - 1;
+
+            final HashIndex.ProbeBatch batch = partialIndex.newProbeBatch();
+            try (CloseableRowIterator rows = probe.filter(TableFilter.filterRangeOfRows(from, to)).iterator()) {
+                for (long offset = from; rows.hasNext(); offset++) {
+                    batch.joinSingleRow(rows.next(), offset);
                 }
-                // only one table is present.
-                return true;
+            } finally {
+                batch.close();
             }
+
+            m_exec.checkCanceled();
+            m_exec.setProgress(1.0 * probedRows.addAndGet(to - from + 1) / probe.size());
         }
-        return false;
     }
 
 }
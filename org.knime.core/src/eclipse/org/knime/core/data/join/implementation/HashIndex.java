@@ -58,6 +58,7 @@
 import org.knime.core.data.DataRow;
 import org.knime.core.data.LongValue;
 import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinSpecification.DataCellComparisonMode;
 import org.knime.core.data.join.JoinSpecification.InputTable;
 import org.knime.core.data.join.JoinSpecification.OutputRowOrder;
 import org.knime.core.data.join.JoinTableSettings;
@@ -66,25 +67,31 @@
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.CanceledExecutionException.CancelChecker;
 
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.list.array.TLongArrayList;
-import gnu.trove.map.custom_hash.TObjectIntCustomHashMap;
 import gnu.trove.map.hash.TCustomHashMap;
 import gnu.trove.strategy.HashingStrategy;
 
 /**
  * Index for rows in a table. Provides fast lookup of join partners of a row by accessing the values in its join
- * columns.
+ * columns.<br/>
+ * <br/>
+ *
+ * Rows are addressed by their internal offset, i.e., their position in the order in which they were added to the
+ * index. For joins on a single int, long, double, or string column, the join column values are indexed in a
+ * {@link PrimitiveKeyIndex}, which does not allocate objects per row. This allows {@link BlockHashJoin} to index
+ * considerably more rows before running low on memory.
  *
  * @author Carl Witt, KNIME AG, Zurich, Switzerland
  */
 class HashIndex {
 
     /**
-     * Creates a new list of rows in case there's none already associated to a certain combination of join column values
-     * in {@link #addHashRow(JoinTuple, DataRow, long)}. Must produce a new instance of the type the {@link #m_index}
-     * map to (=hold as values).
+     * Creates a new list of internal row offsets in case there's none already associated to a certain combination of
+     * join column values in {@link #addHashRow(DataCell[], DataRow, long)}. Must produce a new instance of the type the
+     * {@link #m_index} map to (=hold as values).
      */
-    private static final Function<DataCell[], List<DataRow>> newRowList = k -> new ArrayList<DataRow>();
+    private static final Function<DataCell[], TIntArrayList> newRowList = k -> new TIntArrayList(1);
 
     /** Puts the join results here. */
     final JoinResult<?> m_joinContainer;
@@ -102,9 +109,17 @@ class HashIndex {
     private final TLongArrayList m_rowOffsets = new TLongArrayList();
 
     /**
-     * Makes hash input rows accessible via join column value combinations.
+     * Makes hash input rows accessible via join column value combinations, by mapping them to the internal offsets of
+     * the rows, in the order they were added. Holds only rows whose join column values are not handled by
+     * {@link #m_keyIndex}.
+     */
+    private final TCustomHashMap<DataCell[], TIntArrayList> m_index;
+
+    /**
+     * Specialized index for joins on a single column, null if not applicable. Takes precedence over {@link #m_index}
+     * for the join column values it accepts.
      */
-    private final TCustomHashMap<DataCell[], List<DataRow>> m_index;
+    private final PrimitiveKeyIndex m_keyIndex;
 
     /**
      * Whether to remember which hash rows have had join partners in the probe table to be able to output unmatched hash
@@ -120,15 +135,6 @@ class HashIndex {
      */
     private final BitSet m_matched;
 
-    /**
-     * Maps a hash row to its offset in {@link #m_rows}. This internal offset is in turn used to mark the rows that have
-     * been matched to a probe row, by setting the corresponding bit in {@link #m_matched}. This avoids wrapping
-     * DataRows in another object that holds the data row's offset in its source table. Alternatively, one could also
-     * introduce another map from DataRow to long but these internal offsets are also convenient for addressing in
-     * {@link #m_matched} as they are more compact.
-     */
-    private final TObjectIntCustomHashMap<DataRow> m_hashrowInternalOffsets;
-
     private final JoinTableSettings m_probeSettings;
 
     private final JoinSpecification m_joinSpecification;
@@ -141,6 +147,31 @@ class HashIndex {
 
     private InputTable m_hashSide;
 
+    /**
+     * Passes the join partners of probe rows directly to the join container, used by
+     * {@link #joinSingleRow(DataRow, long)}.
+     */
+    private final ProbeHandler m_directHandler = new ProbeHandler() {
+
+        @Override
+        public void match(final DataRow probeRow, final long probeRowOffset, final int internalOffset)
+            throws CanceledExecutionException {
+            // could be quite a few rows that match
+            m_checkCanceled.checkCanceled();
+
+            // mark hash row as matched if keeping track
+            if (m_trackMatchedHashRows) {
+                m_matched.set(internalOffset);
+            }
+            offerMatch(probeRow, probeRowOffset, internalOffset);
+        }
+
+        @Override
+        public void unmatched(final DataRow probeRow, final long probeRowOffset) {
+            m_joinContainer.unmatched(m_probeSettings.getSide()).accept(probeRow, probeRowOffset);
+        }
+    };
+
     /**
      *
      * @param joinSpecification
@@ -163,7 +194,6 @@ class HashIndex {
      *            {@link #forUnmatchedHashRows(RowHandlerCancelable)} and (in extreme cases)
      *            {@link #joinSingleRow(DataRow, long)}
      */
-    @SuppressWarnings("serial")
     HashIndex(final JoinSpecification joinSpecification, final JoinResult<?> joinContainer,
         final JoinSpecification.InputTable hashSide, final CancelChecker checkCanceled) {
 
@@ -173,40 +203,15 @@ class HashIndex {
         m_checkCanceled = checkCanceled;
 
         // whether to compare data cells based on value and type, on their string representations, etc.
-        HashingStrategy<DataCell[]> comparisonMode;
-        switch(joinSpecification.getDataCellComparisonMode()) {
-            case STRICT:
-                comparisonMode = hashStrict();
-                break;
-            case AS_STRING:
-                comparisonMode = hashString();
-                break;
-            case NUMERIC_AS_LONG:
-                comparisonMode = hashNumericAsLong();
-                break;
-            default:
-                throw new IllegalStateException("No implementation for the data cell comparison mode "
-                    + joinSpecification.getDataCellComparisonMode());
-        }
-        m_index = new TCustomHashMap<>(comparisonMode);
+        m_index = new TCustomHashMap<>(hashingStrategy(joinSpecification.getDataCellComparisonMode()));
+        m_keyIndex = PrimitiveKeyIndex.create(joinSpecification, hashSide).orElse(null);
 
         // probe/hash row settings
         InputTable probeSide = hashSide.other();
         m_trackMatchedHashRows = m_joinSpecification.getSettings(hashSide).isRetainUnmatched();
         m_probeSettings = m_joinSpecification.getSettings(probeSide);
 
-        // row offsets and unmatched rows
-        m_hashrowInternalOffsets = new TObjectIntCustomHashMap<>(new HashingStrategy<DataRow>() {
-            @Override
-            public int computeHashCode(final DataRow object) {
-                return object.getKey().hashCode();
-            }
-
-            @Override
-            public boolean equals(final DataRow o1, final DataRow o2) {
-                return o1 == o2;
-            }
-        });
+        // unmatched rows
         m_matched = m_trackMatchedHashRows ? new BitSet() : null;
 
     }
@@ -225,10 +230,13 @@ public void addHashRow(final DataCell[] joinTuple, final DataRow row, final long
             // do not add to index structure. can't be matched by anything
             m_joinContainer.unmatched(m_hashSide).accept(row, offset);
         } else {
-            List<DataRow> rowList = m_index.computeIfAbsent(joinTuple, newRowList);
-            rowList.add(row);
             // add to index structure
-            m_hashrowInternalOffsets.put(row, m_rows.size());
+            final int internalOffset = m_rows.size();
+            if (m_keyIndex != null && m_keyIndex.accepts(joinTuple[0])) {
+                m_keyIndex.add(joinTuple[0], internalOffset);
+            } else {
+                m_index.computeIfAbsent(joinTuple, newRowList).add(internalOffset);
+            }
             m_rows.add(row);
             m_rowOffsets.add(offset);
         }
@@ -241,42 +249,187 @@ public void addHashRow(final DataCell[] joinTuple, final DataRow row, final long
      * @throws CanceledExecutionException if the user cancels the join, this exception is propagated
      */
     public void joinSingleRow(final DataRow probeRow, final long probeRowOffset) throws CanceledExecutionException {
+        probe(probeRow, probeRowOffset, m_directHandler);
+    }
+
+    /**
+     * Looks up the join partners of a probe row and passes them to the handler. Only reads the index and can thus be
+     * called concurrently.
+     */
+    private void probe(final DataRow probeRow, final long probeRowOffset, final ProbeHandler handler)
+        throws CanceledExecutionException {
 
         DataCell[] key = m_probeSettings.get(probeRow);
 
-        // null if no matches exist. Otherwise, a list of matching rows in the order they were inserted
-        // using #addHashRow(JoinTuple, DataRow, long)
-        List<DataRow> matching = m_index.get(key);
+        boolean matched = false;
+        if (key != null && m_keyIndex != null && m_keyIndex.accepts(key[0])) {
+            // rows with the same value in the join column, in the order they were inserted
+            int hashRow = m_keyIndex.first(key[0]);
+            matched = hashRow != PrimitiveKeyIndex.NONE;
+            while (hashRow != PrimitiveKeyIndex.NONE) {
+                handler.match(probeRow, probeRowOffset, hashRow);
+                hashRow = m_keyIndex.next(hashRow);
+            }
+        } else {
+            // null if no matches exist. Otherwise, a list of matching rows in the order they were inserted
+            // using #addHashRow(JoinTuple, DataRow, long)
+            TIntArrayList matching = key == null ? null : m_index.get(key);
+            if (matching != null) {
+                for (int i = 0; i < matching.size(); i++) {
+                    handler.match(probeRow, probeRowOffset, matching.get(i));
+                }
+                matched = true;
+            }
+        }
 
         // no indexed row has the same values in the join columns as the probe row
-        if (matching == null) {
+        if (!matched) {
             // the probe row is potentially unmatched (depends on whether the index is comprehensive)
-            m_joinContainer.unmatched(m_probeSettings.getSide()).accept(probeRow, probeRowOffset);
-        } else {
-            // these rows have the same values in the join columns as the probe row
-            for (DataRow hashRow : matching) {
+            handler.unmatched(probeRow, probeRowOffset);
+        }
+    }
 
-                // could be quite a few rows that match
-                m_checkCanceled.checkCanceled();
+    /**
+     * @param probeRow a row from the probe table
+     * @param probeRowOffset the offset of the probe row in its source table
+     * @param internalOffset the internal offset of a hash row that has the same join column values as the probe row
+     */
+    private void offerMatch(final DataRow probeRow, final long probeRowOffset, final int internalOffset) {
 
-                // mark hash row as matched if keeping track
-                int internalOffset = m_hashrowInternalOffsets.get(hashRow);
-                if (m_trackMatchedHashRows) {
-                    m_matched.set(internalOffset);
-                }
+        DataRow hashRow = m_rows.get(internalOffset);
+
+        // retrieve the offset of the hash row in the hash input table
+        long hashRowOrder = m_rowOffsets.get(internalOffset);
+
+        // even if we don't retain matches, we can't skip this since the join container may needs to cancel
+        // the unmatched status of a probe row
+        DataRow left = m_probeSettings.getSide().isLeft() ? probeRow : hashRow;
+        DataRow right = m_probeSettings.getSide().isLeft() ? hashRow : probeRow;
+
+        long leftOrder = m_probeSettings.getSide().isLeft() ? probeRowOffset : hashRowOrder;
+        long rightOrder = m_probeSettings.getSide().isLeft() ? hashRowOrder : probeRowOffset;
+
+        m_joinContainer.offerMatch(left, leftOrder, right, rightOrder);
+    }
+
+    /**
+     * Receives the join partners of a probe row, as found in {@link HashIndex#probe(DataRow, long, ProbeHandler)}.
+     */
+    private interface ProbeHandler {
+
+        /**
+         * @param probeRow a row from the probe table
+         * @param probeRowOffset the offset of the probe row in its source table
+         * @param internalOffset the internal offset of a hash row that has the same join column values
+         * @throws CanceledExecutionException if the user cancels the join
+         */
+        void match(DataRow probeRow, long probeRowOffset, int internalOffset) throws CanceledExecutionException;
+
+        /**
+         * @param probeRow a row from the probe table that has no join partners in this index
+         * @param probeRowOffset the offset of the probe row in its source table
+         */
+        void unmatched(DataRow probeRow, long probeRowOffset);
+    }
+
+    /**
+     * @return a new batch for probing rows concurrently to other batches
+     */
+    ProbeBatch newProbeBatch() {
+        return new ProbeBatch();
+    }
+
+    /**
+     * Looks up join partners for probe rows while other threads are doing the same, e.g., for different row ranges of
+     * the probe table. The join results are buffered and added to the join container in blocks, holding the lock of
+     * the join container, which is not thread-safe. Matched hash rows are tracked per batch and merged when the batch
+     * is {@link #close() closed}. The order in which the join results of different batches arrive in the join
+     * container is arbitrary, which is fine for join containers that sort their results by row offsets.<br/>
+     * <br/>
+     *
+     * A batch itself must be used by a single thread only.
+     */
+    final class ProbeBatch implements ProbeHandler {
+
+        /** The number of join results to buffer before adding them to the join container. */
+        private static final int CAPACITY = 1024;
+
+        private final DataRow[] m_probeRows = new DataRow[CAPACITY];
 
-                // retrieve the offset of the hash row in the hash input table
-                long hashRowOrder = m_rowOffsets.get(internalOffset);
+        private final long[] m_probeRowOffsets = new long[CAPACITY];
+
+        /** The internal offsets of the matching hash rows, {@link PrimitiveKeyIndex#NONE} for unmatched probe rows. */
+        private final int[] m_hashRows = new int[CAPACITY];
+
+        private int m_size;
+
+        /** The hash rows matched by the probe rows of this batch, null if not tracking matched hash rows. */
+        private final BitSet m_batchMatched = m_trackMatchedHashRows ? new BitSet() : null;
+
+        private ProbeBatch() {
+        }
+
+        /**
+         * Same as {@link HashIndex#joinSingleRow(DataRow, long)} but may be called concurrently for different batches.
+         *
+         * @param probeRow the row that provides the join column values for which we search join partners
+         * @param probeRowOffset the offset of the probe row in its source table (for sorting)
+         * @throws CanceledExecutionException if the user cancels the join, this exception is propagated
+         */
+        void joinSingleRow(final DataRow probeRow, final long probeRowOffset) throws CanceledExecutionException {
+            probe(probeRow, probeRowOffset, this);
+        }
+
+        @Override
+        public void match(final DataRow probeRow, final long probeRowOffset, final int internalOffset)
+            throws CanceledExecutionException {
+            m_checkCanceled.checkCanceled();
+            if (m_batchMatched != null) {
+                m_batchMatched.set(internalOffset);
+            }
+            add(probeRow, probeRowOffset, internalOffset);
+        }
+
+        @Override
+        public void unmatched(final DataRow probeRow, final long probeRowOffset) {
+            add(probeRow, probeRowOffset, PrimitiveKeyIndex.NONE);
+        }
 
-                // even if we don't retain matches, we can't skip this since the join container may needs to cancel
-                // the unmatched status of a probe row
-                DataRow left = m_probeSettings.getSide().isLeft() ? probeRow : hashRow;
-                DataRow right = m_probeSettings.getSide().isLeft() ? hashRow : probeRow;
+        private void add(final DataRow probeRow, final long probeRowOffset, final int internalOffset) {
+            m_probeRows[m_size] = probeRow;
+            m_probeRowOffsets[m_size] = probeRowOffset;
+            m_hashRows[m_size] = internalOffset;
+            m_size++;
+            if (m_size == CAPACITY) {
+                flush();
+            }
+        }
 
-                long leftOrder = m_probeSettings.getSide().isLeft() ? probeRowOffset : hashRowOrder;
-                long rightOrder = m_probeSettings.getSide().isLeft() ? hashRowOrder : probeRowOffset;
+        /** Adds the buffered join results to the join container. */
+        private void flush() {
+            synchronized (m_joinContainer) {
+                for (int i = 0; i < m_size; i++) {
+                    if (m_hashRows[i] == PrimitiveKeyIndex.NONE) {
+                        m_directHandler.unmatched(m_probeRows[i], m_probeRowOffsets[i]);
+                    } else {
+                        offerMatch(m_probeRows[i], m_probeRowOffsets[i], m_hashRows[i]);
+                    }
+                }
+            }
+            Arrays.fill(m_probeRows, 0, m_size, null);
+            m_size = 0;
+        }
 
-                m_joinContainer.offerMatch(left, leftOrder, right, rightOrder);
+        /**
+         * Adds the remaining join results to the join container and marks the hash rows matched in this batch as
+         * matched in the index.
+         */
+        void close() {
+            flush();
+            if (m_batchMatched != null) {
+                synchronized (m_matched) {
+                    m_matched.or(m_batchMatched);
+                }
             }
         }
     }
@@ -305,10 +458,40 @@ public void forUnmatchedHashRows(final RowHandlerCancelable handler) throws Canc
 
     }
 
+    /**
+     * Process all hash rows in this index in the order they were added, e.g., to move them to disk.
+     *
+     * @param handler processes the hash row and its row offset
+     * @throws CanceledExecutionException
+     */
+    void forAllHashRows(final RowHandlerCancelable handler) throws CanceledExecutionException {
+        for (int i = 0; i < m_rows.size(); i++) {
+            m_checkCanceled.checkCanceled();
+            handler.accept(m_rows.get(i), m_rowOffsets.get(i));
+        }
+    }
+
     public int numAddedRows() {
         return m_rows.size();
     }
 
+    /**
+     * @param mode how to compare the values in the join columns
+     * @return a strategy that hashes and compares join column values according to the given comparison mode
+     */
+    static HashingStrategy<DataCell[]> hashingStrategy(final DataCellComparisonMode mode) {
+        switch (mode) {
+            case STRICT:
+                return hashStrict();
+            case AS_STRING:
+                return hashString();
+            case NUMERIC_AS_LONG:
+                return hashNumericAsLong();
+            default:
+                throw new IllegalStateException("No implementation for the data cell comparison mode " + mode);
+        }
+    }
+
     /**
      * @return strategy that tests whether two rows match by comparing the content AND data types of the values in the
      *         join columns, e.g., a value in an integer column will never match a value in a long column.
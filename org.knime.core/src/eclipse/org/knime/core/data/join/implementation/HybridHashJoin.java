@@ -0,0 +1,349 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.join.implementation;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinSpecification.InputTable;
+import org.knime.core.data.join.JoinTableSettings;
+import org.knime.core.data.join.results.JoinResult;
+import org.knime.core.data.join.results.JoinResult.Output;
+import org.knime.core.data.join.results.RowHandlerCancelable;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+
+import gnu.trove.strategy.HashingStrategy;
+
+/**
+ * Implements a hybrid hash join that reads every input row at most twice, regardless of the size of the smaller input
+ * table.
+ *
+ * <h1>Usage</h1>
+ *
+ * Create via {@link JoinerFactory.JoinAlgorithm#HYBRID_HASH} or directly and call {@link #join(JoinResult)}, e.g.,
+ * through {@link #joinOutputCombined()}. In contrast to the {@link BlockHashJoin}, which does another pass over the
+ * complete larger table every time heap space runs out while indexing the smaller table, this implementation moves
+ * parts of the input tables to disk.
+ *
+ * <h1>Internals</h1>
+ *
+ * The smaller table is the hash input, the other table the probe input. The rows of both tables are assigned to a fixed
+ * number of partitions by hashing the values in their join columns, such that rows can only match rows in the
+ * partition with the same number.
+ * <ol>
+ * <li>The hash input is read once. Each partition indexes its hash rows in a {@link HashIndex}. When memory runs low,
+ * the partition with the most rows is moved to disk, i.e., its rows are written to a {@link BufferedDataContainer}
+ * and its index is discarded. Subsequent hash rows of that partition are directly written to disk.</li>
+ * <li>The probe input is read once. Probe rows of partitions in memory are joined immediately; probe rows of
+ * partitions on disk are written to a {@link BufferedDataContainer} of the partition.</li>
+ * <li>Each partition on disk is joined by indexing its hash rows and doing a pass over its probe rows. If a partition
+ * does not fit into memory, it is joined like in the {@link BlockHashJoin}, i.e., with one pass over the probe rows of
+ * the partition for each block of hash rows that fits into memory.</li>
+ * </ol>
+ *
+ * Rows on disk are stored in the {@link SpillFormat}, such that they can be passed to the {@link JoinResult} as if they
+ * were read from the input table.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+class HybridHashJoin extends JoinImplementation {
+
+    /** The maximum number of partitions, each can use up to two files once moved to disk. */
+    static final int MAX_PARTITIONS = 64;
+
+    /**
+     * @param joinSpecification
+     * @param exec
+     */
+    HybridHashJoin(final JoinSpecification joinSpecification, final ExecutionContext exec) {
+        super(joinSpecification, exec);
+    }
+
+    @Override
+    public <T extends Output> JoinResult<T> join(final JoinResult<T> results)
+        throws CanceledExecutionException, InvalidSettingsException {
+
+        // matchAny will use multiple calls to this method to perform the disjunctive join
+        if (!m_joinSpecification.isConjunctive() && m_joinSpecification.getNumJoinClauses() > 1) {
+            return matchAny(HybridHashJoin::new, results);
+        }
+
+        // if only one of the input tables is present, add its rows to the unmatched results
+        if (incompleteInput(m_joinSpecification, results)) {
+            return results;
+        }
+
+        final InputTable hashSide = HashIndex.smallerTable(m_joinSpecification);
+        final InputTable probeSide = hashSide.other();
+
+        final JoinTableSettings hashSettings = m_joinSpecification.getSettings(hashSide);
+        final JoinTableSettings probeSettings = m_joinSpecification.getSettings(probeSide);
+
+        final BufferedDataTable probe = probeSettings.getTable().orElseThrow(IllegalStateException::new);
+        final BufferedDataTable hash = hashSettings.getTable().orElseThrow(IllegalStateException::new);
+
+        final RowHandlerCancelable unmatchedHashRows = results.unmatched(hashSide);
+        final RowHandlerCancelable unmatchedProbeRows = results.unmatched(probeSide);
+
+        final Supplier<HashIndex> newHashIndex =
+            () -> new HashIndex(m_joinSpecification, results, hashSide, m_progress::isCanceled);
+
+        final HashingStrategy<DataCell[]> hashing =
+            HashIndex.hashingStrategy(m_joinSpecification.getDataCellComparisonMode());
+        final Partition[] partitions = new Partition[Math.max(1, Math.min(MAX_PARTITIONS, getMaxOpenFiles() / 2))];
+        final SpillFormat hashFormat = new SpillFormat(hashSettings, hash.getDataTableSpec(), m_exec);
+        final SpillFormat probeFormat = new SpillFormat(probeSettings, probe.getDataTableSpec(), m_exec);
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(newHashIndex.get(), hashFormat, probeFormat);
+        }
+        m_progress.m_numBuckets = partitions.length;
+
+        // 1. partition and index the hash input, moving partitions to disk when memory runs low
+        getProgress().setMessage("Partitioning smaller table.");
+        int partitionsOnDisk = 0;
+        try (CloseableRowIterator hashRows = hash.iterator()) {
+            for (long rowOffset = 0; hashRows.hasNext(); rowOffset++) {
+                final DataRow hashRow = hashRows.next();
+                final DataCell[] joinAttributeValues = hashSettings.get(hashRow);
+
+                if (joinAttributeValues == null) {
+                    // can't be matched by anything
+                    unmatchedHashRows.accept(hashRow, rowOffset);
+                } else {
+                    partitions[partition(hashing, joinAttributeValues, partitions.length)]
+                        .addHashRow(joinAttributeValues, hashRow, rowOffset);
+                }
+
+                if (partitionsOnDisk < partitions.length && m_progress.isMemoryLow(100)) {
+                    largestInMemory(partitions).moveToDisk();
+                    partitionsOnDisk++;
+                    m_progress.setNumPartitionsOnDisk(partitionsOnDisk);
+                }
+
+                m_progress.setProgressAndCheckCanceled(0.4 * rowOffset / hash.size());
+            }
+        }
+
+        // 2. join the probe rows of partitions in memory, move the other probe rows to disk
+        getProgress().setMessage("Joining partitions in memory.");
+        try (CloseableRowIterator probeRows = probe.iterator()) {
+            for (long rowOffset = 0; probeRows.hasNext(); rowOffset++) {
+                final DataRow probeRow = probeRows.next();
+                final DataCell[] joinAttributeValues = probeSettings.get(probeRow);
+
+                if (joinAttributeValues == null) {
+                    unmatchedProbeRows.accept(probeRow, rowOffset);
+                } else {
+                    partitions[partition(hashing, joinAttributeValues, partitions.length)].addProbeRow(probeRow,
+                        rowOffset);
+                }
+
+                m_progress.setProgressAndCheckCanceled(0.4 + 0.4 * rowOffset / probe.size());
+            }
+        }
+        for (Partition partition : partitions) {
+            if (partition.isInMemory()) {
+                partition.m_index.forUnmatchedHashRows(unmatchedHashRows);
+                partition.m_index = null;
+            }
+        }
+
+        // 3. join the partitions on disk
+        getProgress().setMessage("Joining partitions on disk.");
+        int joined = 0;
+        for (Partition partition : partitions) {
+            if (!partition.isInMemory()) {
+                partition.joinFromDisk(results, newHashIndex, unmatchedHashRows, probeSide);
+                joined++;
+                m_progress.setProgressAndCheckCanceled(0.8 + 0.2 * joined / partitionsOnDisk);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * @return the number of the partition that the rows with the given join column values belong to
+     */
+    private static int partition(final HashingStrategy<DataCell[]> hashing, final DataCell[] joinAttributeValues,
+        final int numPartitions) {
+        // use different bits than the hash index of the partition, which uses the same hash code
+        final int hash = hashing.computeHashCode(joinAttributeValues) * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), numPartitions);
+    }
+
+    /**
+     * @return the partition in memory with the most hash rows, or null if all partitions are on disk
+     */
+    private static Partition largestInMemory(final Partition[] partitions) {
+        return Arrays.stream(partitions).filter(Partition::isInMemory)
+            .max((p1, p2) -> Integer.compare(p1.m_index.numAddedRows(), p2.m_index.numAddedRows())).orElse(null);
+    }
+
+    /**
+     * The rows of one input table with a certain range of hash codes of their join column values.
+     */
+    private final class Partition {
+
+        /** The index of the hash rows while the partition is in memory, null once the partition is on disk. */
+        HashIndex m_index;
+
+        private final SpillFormat m_hashFormat;
+
+        private final SpillFormat m_probeFormat;
+
+        /** The hash rows, once the partition has been moved to disk. */
+        private BufferedDataContainer m_hashRows;
+
+        /** The probe rows of the partition, if the partition has been moved to disk. */
+        private BufferedDataContainer m_probeRows;
+
+        Partition(final HashIndex index, final SpillFormat hashFormat, final SpillFormat probeFormat) {
+            m_index = index;
+            m_hashFormat = hashFormat;
+            m_probeFormat = probeFormat;
+        }
+
+        boolean isInMemory() {
+            return m_index != null;
+        }
+
+        void addHashRow(final DataCell[] joinAttributeValues, final DataRow hashRow, final long rowOffset) {
+            if (isInMemory()) {
+                m_index.addHashRow(joinAttributeValues, hashRow, rowOffset);
+            } else {
+                m_hashRows.addRowToTable(m_hashFormat.toDisk(hashRow, rowOffset));
+            }
+        }
+
+        void addProbeRow(final DataRow probeRow, final long rowOffset) throws CanceledExecutionException {
+            if (isInMemory()) {
+                m_index.joinSingleRow(probeRow, rowOffset);
+                m_progress.incProbeRowsProcessedInMemory();
+            } else {
+                if (m_probeRows == null) {
+                    m_probeRows = m_probeFormat.createContainer();
+                }
+                m_probeRows.addRowToTable(m_probeFormat.toDisk(probeRow, rowOffset));
+                m_progress.incProbeRowsProcessedFromDisk();
+            }
+        }
+
+        /** Writes the indexed hash rows to disk and discards the index. */
+        void moveToDisk() throws CanceledExecutionException {
+            m_hashRows = m_hashFormat.createContainer();
+            m_index.forAllHashRows((row, offset) -> m_hashRows.addRowToTable(m_hashFormat.toDisk(row, offset)));
+            m_index = null;
+        }
+
+        /**
+         * Joins the hash and probe rows on disk. Falls back to several passes over the probe rows of this partition if
+         * the hash rows of this partition do not fit into memory.
+         */
+        void joinFromDisk(final JoinResult<?> results, final Supplier<HashIndex> newHashIndex,
+            final RowHandlerCancelable unmatchedHashRows, final InputTable probeSide)
+            throws CanceledExecutionException {
+
+            m_hashRows.close();
+            final BufferedDataTable hashRows = m_hashRows.getTable();
+            final BufferedDataTable probeRows;
+            if (m_probeRows != null) {
+                m_probeRows.close();
+                probeRows = m_probeRows.getTable();
+            } else {
+                probeRows = null;
+            }
+            m_hashRows = null;
+            m_probeRows = null;
+
+            final JoinTableSettings hashSettings = m_hashFormat.getSettings();
+            HashIndex index = newHashIndex.get();
+            try (CloseableRowIterator rows = hashRows.iterator()) {
+                while (rows.hasNext()) {
+                    final DataRow hashRow = rows.next();
+                    index.addHashRow(hashSettings.get(hashRow), hashRow, SpillFormat.getOffset(hashRow));
+
+                    if (m_progress.isMemoryLow(100)) {
+                        // some probe rows of this partition may be matched by hash rows that are not yet indexed
+                        results.deferUnmatchedRows(probeSide);
+                        results.lowMemory();
+                        probePass(probeRows, index, unmatchedHashRows);
+                        index = newHashIndex.get();
+                    }
+                }
+            }
+            probePass(probeRows, index, unmatchedHashRows);
+
+            m_exec.clearTable(hashRows);
+            if (probeRows != null) {
+                m_exec.clearTable(probeRows);
+            }
+        }
+
+        private void probePass(final BufferedDataTable probeRows, final HashIndex index,
+            final RowHandlerCancelable unmatchedHashRows) throws CanceledExecutionException {
+            if (probeRows != null) {
+                try (CloseableRowIterator rows = probeRows.iterator()) {
+                    while (rows.hasNext()) {
+                        final DataRow probeRow = rows.next();
+                        index.joinSingleRow(probeRow, SpillFormat.getOffset(probeRow));
+                    }
+                }
+            }
+            index.forUnmatchedHashRows(unmatchedHashRows);
+        }
+    }
+
+}
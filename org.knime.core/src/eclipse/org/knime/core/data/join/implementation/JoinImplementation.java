@@ -50,6 +50,7 @@
 import java.lang.management.ManagementFactory;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanServer;
@@ -58,6 +59,7 @@
 import org.knime.core.data.join.JoinSpecification;
 import org.knime.core.data.join.JoinSpecification.InputTable;
 import org.knime.core.data.join.JoinSpecification.OutputRowOrder;
+import org.knime.core.data.join.JoinTableSettings;
 import org.knime.core.data.join.results.JoinResult;
 import org.knime.core.data.join.results.JoinResult.Output;
 import org.knime.core.data.join.results.JoinResult.OutputCombined;
@@ -72,6 +74,7 @@
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeProgressMonitor;
+import org.knime.core.node.util.CheckUtils;
 
 /**
  * Base class for algorithms that join two tables. Provides convenience methods such as {@link #joinOutputSplit()}, a
@@ -98,6 +101,9 @@ public abstract class JoinImplementation {
 
     double m_memoryLimitFraction = 0.9;
 
+    /** The maximum number of threads used to look up join partners for the rows of the probe table. */
+    int m_probeParallelism = Runtime.getRuntime().availableProcessors();
+
     BufferedDataTable m_left;
 
     BufferedDataTable m_right;
@@ -208,6 +214,40 @@ <T extends Output> JoinResult<T> matchAny(final JoinerFactory constructor, final
         return results;
     }
 
+    /**
+     * Check that both input tables are present. If only one table is present, output the rows of the other table as
+     * unmatched rows.
+     *
+     * @param joinSpecification contains the two input tables
+     * @param container where to put unmatched rows
+     * @return true if the input is incomplete
+     * @throws CanceledExecutionException
+     */
+    <T extends Output> boolean incompleteInput(final JoinSpecification joinSpecification, final JoinResult<T> container)
+        throws CanceledExecutionException {
+
+        if (!joinSpecification.getSettings(InputTable.LEFT).hasTable()
+            && !joinSpecification.getSettings(InputTable.RIGHT).hasTable()) {
+            return true;
+        }
+
+        for (InputTable presentSide : InputTable.both()) {
+            JoinTableSettings present = joinSpecification.getSettings(presentSide);
+            JoinTableSettings absent = joinSpecification.getSettings(presentSide.other());
+            Optional<BufferedDataTable> presentTable = present.getTable();
+            if (presentTable.isPresent() && !absent.getTable().isPresent()) {
+                // collect rows from present table as unmatched
+                if (present.isRetainUnmatched()) {
+                    JoinResult.enumerateWithResources(presentTable.get(), container.unmatched(presentSide),
+                        CancelChecker.checkCanceledPeriodically(m_exec));
+                }
+                // only one table is present.
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @return the logical aspects of the join, such as whether to output unmatched rows, etc.
      * @see JoinSpecification
@@ -244,6 +284,25 @@ public void setMaxOpenFiles(final int maxOpenFiles) {
         m_maxOpenFiles = maxOpenFiles;
     }
 
+    /**
+     * @return the maximum number of threads used to look up join partners for the rows of the probe table
+     */
+    int getProbeParallelism() {
+        return m_probeParallelism;
+    }
+
+    /**
+     * @param probeParallelism the maximum number of threads used to look up join partners for the rows of the probe
+     *            table, 1 to process the probe table on the calling thread only. Defaults to the number of available
+     *            processors.
+     * @since 4.4
+     */
+    public void setProbeParallelism(final int probeParallelism) {
+        CheckUtils.checkArgument(probeParallelism > 0, "The probe parallelism must be positive, but was %d.",
+            probeParallelism);
+        m_probeParallelism = probeParallelism;
+    }
+
     /**
      * @param memoryLimitFraction the memoryLimitFraction to set
      */
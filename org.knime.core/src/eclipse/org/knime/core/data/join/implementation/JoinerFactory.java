@@ -65,11 +65,15 @@ public interface JoinerFactory {
 
     /**
      * Registry for join implementations, can be used to let the user select an implementation.
+     *
+     * The selection may be persisted by name or by ordinal, hence constants must not be renamed or reordered; new
+     * implementations are appended.
      */
     enum JoinAlgorithm {
-//        HYBRID_HASH("Hybrid Hash Join", HybridHashJoin::new),
         AUTO("Automatic", BlockHashJoin::new),
-        NESTED_LOOP("Block hash join", BlockHashJoin::new);
+        NESTED_LOOP("Block hash join", BlockHashJoin::new),
+        HYBRID_HASH("Hybrid Hash Join", HybridHashJoin::new),
+        SORT_MERGE("Sort merge join", SortMergeJoin::new);
 
         private final String m_text;
         private final JoinerFactory m_factory;
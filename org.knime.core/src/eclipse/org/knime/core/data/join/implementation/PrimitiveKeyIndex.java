@@ -0,0 +1,341 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.join.implementation;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinSpecification.DataCellComparisonMode;
+import org.knime.core.data.join.JoinSpecification.InputTable;
+import org.knime.core.data.join.JoinTableSettings;
+import org.knime.core.data.join.JoinTableSettings.SpecialJoinColumn;
+import org.knime.core.node.BufferedDataTable;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Compact index for joins on a single column with int, long, double, or string values. Maps join column values to
+ * the internal offsets of the rows in a {@link HashIndex} using open addressing on primitive arrays, i.e., without
+ * allocating any objects per indexed row. Rows with the same join column value are chained via their internal
+ * offsets in insertion order.<br/>
+ * <br/>
+ *
+ * An index is responsible only for the join column values it {@link #accepts(DataCell) accepts}. The
+ * {@link HashIndex} handles all other values (e.g., cells of an unexpected class) in its generic index. Because two
+ * values that match according to the {@link DataCellComparisonMode} are either both accepted or both not accepted,
+ * the two indexes never need to be consulted for the same lookup.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+abstract class PrimitiveKeyIndex {
+
+    /** Marks an empty slot in {@link #m_heads} and the end of a chain in {@link #m_next}. */
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    /** Checks whether this index can hold a join column value. */
+    private final Predicate<DataCell> m_accepts;
+
+    /** The internal offset of the first row with the key in a slot, or {@link #NONE} if the slot is empty. */
+    int[] m_heads;
+
+    /** The internal offset of the last row with the key in a slot, undefined if the slot is empty. */
+    int[] m_tails;
+
+    /** The i-th entry is the internal offset of the next row with the same key as row i or {@link #NONE}. */
+    private final TIntArrayList m_next = new TIntArrayList();
+
+    /** The number of occupied slots. */
+    private int m_numKeys;
+
+    private PrimitiveKeyIndex(final Predicate<DataCell> accepts) {
+        m_accepts = accepts;
+        m_heads = new int[INITIAL_CAPACITY];
+        m_tails = new int[INITIAL_CAPACITY];
+        Arrays.fill(m_heads, NONE);
+    }
+
+    /**
+     * Creates a specialized index if the join is on a single column whose values can be represented as primitive
+     * values or strings under the join's {@link DataCellComparisonMode}.
+     *
+     * @param joinSpecification provides the join clauses and the comparison mode
+     * @param hashSide the table to index
+     * @return a new index or an empty optional if the join is not supported
+     */
+    static Optional<PrimitiveKeyIndex> create(final JoinSpecification joinSpecification, final InputTable hashSide) {
+
+        if (joinSpecification.getNumJoinClauses() != 1) {
+            return Optional.empty();
+        }
+
+        final JoinTableSettings hashSettings = joinSpecification.getSettings(hashSide);
+        final int column = hashSettings.getJoinClauseColumns()[0];
+        final DataType type;
+        if (column == SpecialJoinColumn.ROW_KEY.getColumnIndexIndicator()) {
+            type = StringCell.TYPE;
+        } else {
+            Optional<BufferedDataTable> table = hashSettings.getTable();
+            if (!table.isPresent()) {
+                return Optional.empty();
+            }
+            type = table.get().getDataTableSpec().getColumnSpec(column).getType();
+        }
+
+        final DataCellComparisonMode mode = joinSpecification.getDataCellComparisonMode();
+        if (mode == DataCellComparisonMode.NUMERIC_AS_LONG && type.isCompatible(LongValue.class)) {
+            // all long values match by value, regardless of their cell class
+            return Optional.of(new LongKeys(c -> c instanceof LongValue, c -> ((LongValue)c).getLongValue()));
+        }
+        if (mode != DataCellComparisonMode.STRICT && mode != DataCellComparisonMode.NUMERIC_AS_LONG) {
+            return Optional.empty();
+        }
+
+        // values match only if they are of the same class, see DataCell#equals
+        if (type.equals(IntCell.TYPE)) {
+            return Optional.of(new LongKeys(c -> c.getClass() == IntCell.class, c -> ((IntCell)c).getIntValue()));
+        } else if (type.equals(LongCell.TYPE)) {
+            return Optional.of(new LongKeys(c -> c.getClass() == LongCell.class, c -> ((LongCell)c).getLongValue()));
+        } else if (type.equals(DoubleCell.TYPE)) {
+            // same semantics as DoubleCell#equalsDataCell
+            return Optional.of(new LongKeys(c -> c.getClass() == DoubleCell.class,
+                c -> Double.doubleToLongBits(((DoubleCell)c).getDoubleValue())));
+        } else if (type.equals(StringCell.TYPE)) {
+            return Optional.of(new StringKeys());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param key a non-missing join column value
+     * @return whether this index is responsible for the given value
+     */
+    final boolean accepts(final DataCell key) {
+        return m_accepts.test(key);
+    }
+
+    /**
+     * @param key a join column value that is {@link #accepts(DataCell) accepted} by this index
+     * @param row the internal offset of the row, larger than the internal offsets of all previously added rows
+     */
+    final void add(final DataCell key, final int row) {
+        if (2 * (m_numKeys + 1) > m_heads.length) {
+            grow();
+        }
+        final int slot = slot(key);
+        if (m_heads[slot] == NONE) {
+            setKey(slot, key);
+            m_heads[slot] = row;
+            m_numKeys++;
+        } else {
+            m_next.set(m_tails[slot], row);
+        }
+        m_tails[slot] = row;
+        while (m_next.size() <= row) {
+            m_next.add(NONE);
+        }
+    }
+
+    /**
+     * @param key a join column value that is {@link #accepts(DataCell) accepted} by this index
+     * @return the internal offset of the first row with the given join column value or {@link #NONE}
+     */
+    final int first(final DataCell key) {
+        return m_heads[slot(key)];
+    }
+
+    /**
+     * @param row the internal offset of a row returned by {@link #first(DataCell)} or {@link #next(int)}
+     * @return the internal offset of the next row with the same join column value or {@link #NONE}
+     */
+    final int next(final int row) {
+        return m_next.get(row);
+    }
+
+    /** @return the number of distinct join column values in this index */
+    final int numKeys() {
+        return m_numKeys;
+    }
+
+    /**
+     * @param key a join column value that is {@link #accepts(DataCell) accepted} by this index
+     * @return the slot that holds the given key or the empty slot where it would be inserted
+     */
+    abstract int slot(DataCell key);
+
+    /** Stores the key in the given (previously empty) slot. */
+    abstract void setKey(int slot, DataCell key);
+
+    /** Doubles the number of slots and reinserts the keys. */
+    abstract void grow();
+
+    /**
+     * Moves the chain from an old slot to a new one during {@link #grow()}.
+     */
+    final void moveChain(final int[] oldHeads, final int[] oldTails, final int oldSlot, final int newSlot) {
+        m_heads[newSlot] = oldHeads[oldSlot];
+        m_tails[newSlot] = oldTails[oldSlot];
+    }
+
+    /** Allocates slot arrays of the given size, all slots empty. */
+    final void allocate(final int capacity) {
+        m_heads = new int[capacity];
+        m_tails = new int[capacity];
+        Arrays.fill(m_heads, NONE);
+    }
+
+    /** Spreads the bits of a hash code, since consecutive ids would otherwise cluster in adjacent slots. */
+    static int mix(final long hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /** Index for join column values that map to 64 bit keys without loss of information. */
+    private static final class LongKeys extends PrimitiveKeyIndex {
+
+        private final ToLongFunction<DataCell> m_toKey;
+
+        private long[] m_keys = new long[INITIAL_CAPACITY];
+
+        LongKeys(final Predicate<DataCell> accepts, final ToLongFunction<DataCell> toKey) {
+            super(accepts);
+            m_toKey = toKey;
+        }
+
+        @Override
+        int slot(final DataCell key) {
+            return slot(m_toKey.applyAsLong(key));
+        }
+
+        private int slot(final long key) {
+            final int mask = m_keys.length - 1;
+            int slot = mix(key) & mask;
+            while (m_heads[slot] != NONE && m_keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        @Override
+        void setKey(final int slot, final DataCell key) {
+            m_keys[slot] = m_toKey.applyAsLong(key);
+        }
+
+        @Override
+        void grow() {
+            final long[] oldKeys = m_keys;
+            final int[] oldHeads = m_heads;
+            final int[] oldTails = m_tails;
+            m_keys = new long[2 * oldKeys.length];
+            allocate(m_keys.length);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldHeads[i] != NONE) {
+                    final int slot = slot(oldKeys[i]);
+                    m_keys[slot] = oldKeys[i];
+                    moveChain(oldHeads, oldTails, i, slot);
+                }
+            }
+        }
+    }
+
+    /** Index for string join column values, as they appear in string columns and row keys. */
+    private static final class StringKeys extends PrimitiveKeyIndex {
+
+        private String[] m_keys = new String[INITIAL_CAPACITY];
+
+        StringKeys() {
+            super(c -> c.getClass() == StringCell.class);
+        }
+
+        @Override
+        int slot(final DataCell key) {
+            return slot(((StringCell)key).getStringValue());
+        }
+
+        private int slot(final String key) {
+            final int mask = m_keys.length - 1;
+            int slot = mix(key.hashCode()) & mask;
+            while (m_heads[slot] != NONE && !m_keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        @Override
+        void setKey(final int slot, final DataCell key) {
+            m_keys[slot] = ((StringCell)key).getStringValue();
+        }
+
+        @Override
+        void grow() {
+            final String[] oldKeys = m_keys;
+            final int[] oldHeads = m_heads;
+            final int[] oldTails = m_tails;
+            m_keys = new String[2 * oldKeys.length];
+            allocate(m_keys.length);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldHeads[i] != NONE) {
+                    final int slot = slot(oldKeys[i]);
+                    m_keys[slot] = oldKeys[i];
+                    moveChain(oldHeads, oldTails, i, slot);
+                }
+            }
+        }
+    }
+
+}
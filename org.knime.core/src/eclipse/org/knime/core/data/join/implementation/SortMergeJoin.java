@@ -0,0 +1,436 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.join.implementation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValueComparator;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinSpecification.DataCellComparisonMode;
+import org.knime.core.data.join.JoinSpecification.InputTable;
+import org.knime.core.data.join.JoinTableSettings;
+import org.knime.core.data.join.JoinTableSettings.SpecialJoinColumn;
+import org.knime.core.data.join.results.JoinResult;
+import org.knime.core.data.join.results.JoinResult.Output;
+import org.knime.core.data.join.results.RowHandlerCancelable;
+import org.knime.core.data.sort.BufferedDataTableSorter;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.strategy.HashingStrategy;
+
+/**
+ * Implements a sort-merge join, which needs only one pass over both input tables once they are sorted on their join
+ * columns. Input tables that are already sorted are not sorted again.
+ *
+ * <h1>Usage</h1>
+ *
+ * Create via {@link JoinerFactory.JoinAlgorithm#SORT_MERGE} or directly and call {@link #join(JoinResult)}, e.g.,
+ * through {@link #joinOutputCombined()}. Preferable to the hash joins if both input tables are sorted on their join
+ * columns or both are much larger than the available heap space.
+ *
+ * <h1>Internals</h1>
+ *
+ * Both input tables are brought into the order defined by their join column values, rows with missing values in the
+ * join columns last. The order on the join column values is the same for both tables and coarser than the
+ * {@link DataCellComparisonMode} of the join, i.e., values that are equal with respect to the comparison mode are never
+ * ordered differently, but values that are not ordered differently might not be equal (e.g., an integer and a long
+ * value in {@link DataCellComparisonMode#STRICT} mode). Hence, rows are joined in groups of rows that are not ordered
+ * differently and the join column values of two rows in the same group are compared before producing a match.
+ * <ol>
+ * <li>An input table is checked for being sorted with one pass over its rows. If it is not sorted, its rows are copied
+ * to a table in the {@link SpillFormat}, which retains the offsets of the rows in the input table, and that table is
+ * sorted with the {@link BufferedDataTableSorter}.</li>
+ * <li>Both sorted tables are merged. The rows of the smaller table that belong to the current group are held in
+ * memory, the rows of the other table are compared to them one by one.</li>
+ * </ol>
+ *
+ * The rows of a single group of the smaller table need to fit into memory.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+class SortMergeJoin extends JoinImplementation {
+
+    /**
+     * @param joinSpecification
+     * @param exec
+     */
+    SortMergeJoin(final JoinSpecification joinSpecification, final ExecutionContext exec) {
+        super(joinSpecification, exec);
+    }
+
+    @Override
+    public <T extends Output> JoinResult<T> join(final JoinResult<T> results)
+        throws CanceledExecutionException, InvalidSettingsException {
+
+        // matchAny will use multiple calls to this method to perform the disjunctive join
+        if (!m_joinSpecification.isConjunctive() && m_joinSpecification.getNumJoinClauses() > 1) {
+            return matchAny(SortMergeJoin::new, results);
+        }
+
+        // if only one of the input tables is present, add its rows to the unmatched results
+        if (incompleteInput(m_joinSpecification, results)) {
+            return results;
+        }
+
+        // the rows of the smaller table are buffered in groups of rows with the same join column values
+        final InputTable groupSide = HashIndex.smallerTable(m_joinSpecification);
+        final InputTable streamSide = groupSide.other();
+
+        final Comparator<DataCell[]> keyOrder = keyOrder();
+
+        getProgress().setMessage("Sorting " + streamSide.toString().toLowerCase() + " table.");
+        try (SortedInput stream = new SortedInput(streamSide, keyOrder, m_exec.createSubExecutionContext(0.25))) {
+            getProgress().setMessage("Sorting " + groupSide.toString().toLowerCase() + " table.");
+            try (SortedInput group = new SortedInput(groupSide, keyOrder, m_exec.createSubExecutionContext(0.25))) {
+                getProgress().setMessage("Merging sorted tables.");
+                merge(stream, group, keyOrder, results);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Joins rows with the same join column values from both sorted inputs, passing all other rows to the unmatched
+     * rows handlers of the results.
+     */
+    private void merge(final SortedInput stream, final SortedInput group, final Comparator<DataCell[]> keyOrder,
+        final JoinResult<?> results) throws CanceledExecutionException {
+
+        final HashingStrategy<DataCell[]> matching =
+            HashIndex.hashingStrategy(m_joinSpecification.getDataCellComparisonMode());
+        final RowHandlerCancelable unmatchedStreamRows = results.unmatched(stream.m_side);
+        final RowHandlerCancelable unmatchedGroupRows = results.unmatched(group.m_side);
+
+        // the rows of the group side with the same join column values
+        final List<DataRow> groupRows = new ArrayList<>();
+        final List<DataCell[]> groupKeys = new ArrayList<>();
+        final TLongArrayList groupOffsets = new TLongArrayList();
+        final BitSet groupMatched = new BitSet();
+
+        final double numRows = stream.m_table.size() + group.m_table.size();
+
+        while (stream.hasKey() && group.hasKey()) {
+            final int comparison = keyOrder.compare(stream.m_key, group.m_key);
+            if (comparison < 0) {
+                unmatchedStreamRows.accept(stream.m_row, stream.m_offset);
+                stream.advance();
+            } else if (comparison > 0) {
+                unmatchedGroupRows.accept(group.m_row, group.m_offset);
+                group.advance();
+            } else {
+                final DataCell[] key = group.m_key;
+                groupRows.clear();
+                groupKeys.clear();
+                groupOffsets.resetQuick();
+                groupMatched.clear();
+                do {
+                    groupRows.add(group.m_row);
+                    groupKeys.add(group.m_key);
+                    groupOffsets.add(group.m_offset);
+                    group.advance();
+                } while (group.hasKey() && keyOrder.compare(key, group.m_key) == 0);
+
+                do {
+                    boolean matched = false;
+                    for (int i = 0; i < groupRows.size(); i++) {
+                        if (matching.equals(stream.m_key, groupKeys.get(i))) {
+                            offerMatch(results, stream, groupRows.get(i), groupOffsets.get(i));
+                            groupMatched.set(i);
+                            matched = true;
+                        }
+                    }
+                    if (!matched) {
+                        unmatchedStreamRows.accept(stream.m_row, stream.m_offset);
+                    }
+                    stream.advance();
+                } while (stream.hasKey() && keyOrder.compare(key, stream.m_key) == 0);
+
+                for (int i = groupMatched.nextClearBit(0); i < groupRows.size(); i = groupMatched.nextClearBit(i + 1)) {
+                    unmatchedGroupRows.accept(groupRows.get(i), groupOffsets.get(i));
+                }
+            }
+            m_progress.setProgressAndCheckCanceled(0.5 + 0.5 * (stream.m_rowIndex + group.m_rowIndex) / numRows);
+        }
+
+        // the remaining rows, including the rows with missing join column values, which are sorted to the end
+        for (; stream.hasRow(); stream.advance()) {
+            unmatchedStreamRows.accept(stream.m_row, stream.m_offset);
+        }
+        for (; group.hasRow(); group.advance()) {
+            unmatchedGroupRows.accept(group.m_row, group.m_offset);
+        }
+    }
+
+    private static void offerMatch(final JoinResult<?> results, final SortedInput stream, final DataRow groupRow,
+        final long groupOffset) {
+        if (stream.m_side.isLeft()) {
+            results.offerMatch(stream.m_row, stream.m_offset, groupRow, groupOffset);
+        } else {
+            results.offerMatch(groupRow, groupOffset, stream.m_row, stream.m_offset);
+        }
+    }
+
+    /**
+     * @return an order on the join column values of both input tables that puts values that are equal with respect to
+     *         the {@link DataCellComparisonMode} of the join next to each other
+     */
+    private Comparator<DataCell[]> keyOrder() {
+        final DataCellComparisonMode mode = m_joinSpecification.getDataCellComparisonMode();
+        final int numClauses = m_joinSpecification.getSettings(InputTable.LEFT).getJoinClauseColumns().length;
+
+        @SuppressWarnings("unchecked")
+        final Comparator<DataCell>[] comparators = new Comparator[numClauses];
+        for (int i = 0; i < numClauses; i++) {
+            final DataValueComparator common =
+                DataType.getCommonSuperType(joinColumnType(InputTable.LEFT, i), joinColumnType(InputTable.RIGHT, i))
+                    .getComparator();
+            switch (mode) {
+                case AS_STRING:
+                    comparators[i] = Comparator.comparing(DataCell::toString);
+                    break;
+                case NUMERIC_AS_LONG:
+                    comparators[i] = numericAsLong(common);
+                    break;
+                default:
+                    comparators[i] = common;
+            }
+        }
+
+        return (k1, k2) -> {
+            for (int i = 0; i < comparators.length; i++) {
+                final int comparison = comparators[i].compare(k1[i], k2[i]);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * @return an order that compares long values (e.g., integer and long cells) by value and puts them before all
+     *         other cells, which are compared by the given comparator
+     */
+    private static Comparator<DataCell> numericAsLong(final Comparator<DataCell> others) {
+        return (c1, c2) -> {
+            final boolean long1 = c1 instanceof LongValue;
+            final boolean long2 = c2 instanceof LongValue;
+            if (long1 && long2) {
+                return Long.compare(((LongValue)c1).getLongValue(), ((LongValue)c2).getLongValue());
+            } else if (long1 || long2) {
+                return long1 ? -1 : 1;
+            }
+            return others.compare(c1, c2);
+        };
+    }
+
+    /**
+     * @return the type of the values in the i-th join column of the given input table
+     */
+    private DataType joinColumnType(final InputTable side, final int i) {
+        final JoinTableSettings settings = m_joinSpecification.getSettings(side);
+        final int column = settings.getJoinClauseColumns()[i];
+        if (column == SpecialJoinColumn.ROW_KEY.getColumnIndexIndicator()) {
+            return StringCell.TYPE;
+        }
+        final DataTableSpec spec =
+            settings.getTable().orElseThrow(IllegalStateException::new).getDataTableSpec();
+        return spec.getColumnSpec(column).getType();
+    }
+
+    /**
+     * An input table sorted on its join column values, read row by row.
+     */
+    private final class SortedInput implements AutoCloseable {
+
+        private final InputTable m_side;
+
+        private final JoinTableSettings m_settings;
+
+        /** Either the input table or a sorted copy of it in the {@link SpillFormat}. */
+        private final BufferedDataTable m_table;
+
+        /** Whether {@link #m_table} is a sorted copy of the input table. */
+        private final boolean m_isCopy;
+
+        private final CloseableRowIterator m_iterator;
+
+        /** The current row or null if all rows have been read. */
+        private DataRow m_row;
+
+        /** The join column values of the current row, null if one of them is missing. */
+        private DataCell[] m_key;
+
+        /** The offset of the current row in the input table. */
+        private long m_offset;
+
+        /** The number of rows read so far. */
+        private long m_rowIndex;
+
+        SortedInput(final InputTable side, final Comparator<DataCell[]> keyOrder, final ExecutionContext sortExec)
+            throws CanceledExecutionException {
+            m_side = side;
+            m_settings = m_joinSpecification.getSettings(side);
+            final BufferedDataTable table = m_settings.getTable().orElseThrow(IllegalStateException::new);
+
+            final Comparator<DataRow> rowOrder = (r1, r2) -> {
+                final DataCell[] k1 = m_settings.get(r1);
+                final DataCell[] k2 = m_settings.get(r2);
+                // rows with missing join column values can't match anything, put them last
+                if (k1 == null || k2 == null) {
+                    return k1 == null ? (k2 == null ? 0 : 1) : -1;
+                }
+                return keyOrder.compare(k1, k2);
+            };
+
+            m_isCopy = !isSorted(table, rowOrder);
+            m_table = m_isCopy ? sortedCopy(table, rowOrder, sortExec) : table;
+            sortExec.setProgress(1);
+
+            // the caller can't close this input if the constructor fails, release the sorted copy here
+            boolean initialized = false;
+            try {
+                m_iterator = m_table.iterator();
+                advance();
+                initialized = true;
+            } finally {
+                if (!initialized) {
+                    close();
+                }
+            }
+        }
+
+        /**
+         * @return a sorted copy of the table in the {@link SpillFormat}; the intermediate unsorted copy is cleared
+         *         also if sorting is canceled or fails
+         */
+        private BufferedDataTable sortedCopy(final BufferedDataTable table, final Comparator<DataRow> rowOrder,
+            final ExecutionContext sortExec) throws CanceledExecutionException {
+            final SpillFormat format = new SpillFormat(m_settings, table.getDataTableSpec(), m_exec);
+            final BufferedDataContainer copy = format.createContainer();
+            try {
+                try (CloseableRowIterator rows = table.iterator()) {
+                    for (long rowOffset = 0; rows.hasNext(); rowOffset++) {
+                        copy.addRowToTable(format.toDisk(rows.next(), rowOffset));
+                        m_progress.getCancelChecker().checkCanceled();
+                    }
+                }
+                copy.close();
+                return new BufferedDataTableSorter(copy.getTable(), rowOrder).sort(sortExec);
+            } finally {
+                if (!copy.isClosed()) {
+                    copy.close();
+                }
+                m_exec.clearTable(copy.getTable());
+            }
+        }
+
+        private boolean isSorted(final BufferedDataTable table, final Comparator<DataRow> rowOrder)
+            throws CanceledExecutionException {
+            try (CloseableRowIterator rows = table.iterator()) {
+                DataRow previous = rows.hasNext() ? rows.next() : null;
+                while (rows.hasNext()) {
+                    final DataRow row = rows.next();
+                    if (rowOrder.compare(previous, row) > 0) {
+                        return false;
+                    }
+                    previous = row;
+                    m_progress.getCancelChecker().checkCanceled();
+                }
+            }
+            return true;
+        }
+
+        void advance() {
+            if (m_iterator.hasNext()) {
+                m_row = m_iterator.next();
+                m_key = m_settings.get(m_row);
+                m_offset = m_isCopy ? SpillFormat.getOffset(m_row) : m_rowIndex;
+                m_rowIndex++;
+            } else {
+                m_row = null;
+                m_key = null;
+            }
+        }
+
+        boolean hasRow() {
+            return m_row != null;
+        }
+
+        /** @return whether there is a current row and it has no missing join column values */
+        boolean hasKey() {
+            return m_key != null;
+        }
+
+        @Override
+        public void close() {
+            if (m_iterator != null) {
+                m_iterator.close();
+            }
+            if (m_isCopy) {
+                m_exec.clearTable(m_table);
+            }
+        }
+    }
+
+}
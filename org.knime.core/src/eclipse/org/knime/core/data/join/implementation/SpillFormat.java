@@ -0,0 +1,142 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.join.implementation;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.join.JoinSpecification;
+import org.knime.core.data.join.JoinTableSettings;
+import org.knime.core.data.join.results.JoinResult;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.ExecutionContext;
+
+/**
+ * Converts the rows of an input table to the format in which join implementations write them to intermediate tables,
+ * e.g., when moving partitions to disk or sorting the input.
+ *
+ * Rows in this format have the columns of the original input table, with the cells of the columns that are neither
+ * join nor include columns replaced by missing values, and an additional column at the end that holds the offset of
+ * the row in the input table. The rows can thus be passed to a {@link JoinResult} or {@link HashIndex} as if they were
+ * read from the input table, together with the offset returned by {@link #getOffset(DataRow)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class SpillFormat {
+
+    private final JoinTableSettings m_settings;
+
+    private final ExecutionContext m_exec;
+
+    /** The original spec with an additional long column at the end. */
+    private final DataTableSpec m_spec;
+
+    /** The i-th entry is true if the i-th column is a join or include column. */
+    private final boolean[] m_materialize;
+
+    /**
+     * @param settings the settings of the input table
+     * @param spec the spec of the input table
+     * @param exec to create intermediate tables
+     */
+    SpillFormat(final JoinTableSettings settings, final DataTableSpec spec, final ExecutionContext exec) {
+        m_settings = settings;
+        m_exec = exec;
+        final DataColumnSpec offsetColumn = JoinSpecification.columnDisambiguate(
+            new DataColumnSpecCreator("__row_offset__", LongCell.TYPE).createSpec(), spec::containsName,
+            s -> s.concat("_"));
+        m_spec = new DataTableSpecCreator(spec).addColumns(offsetColumn).createSpec();
+        m_materialize = new boolean[spec.getNumColumns()];
+        for (int column : settings.getMaterializeColumnIndices()) {
+            m_materialize[column] = true;
+        }
+    }
+
+    /** @return the settings of the input table */
+    JoinTableSettings getSettings() {
+        return m_settings;
+    }
+
+    /** @return the spec of rows in this format */
+    DataTableSpec getSpec() {
+        return m_spec;
+    }
+
+    /** @return a container that writes its rows directly to disk */
+    BufferedDataContainer createContainer() {
+        return m_exec.createDataContainer(m_spec, false, 0);
+    }
+
+    /**
+     * @param row a row of the input table
+     * @param rowOffset the offset of the row in the input table
+     * @return the row in this format
+     */
+    DataRow toDisk(final DataRow row, final long rowOffset) {
+        final DataCell[] cells = new DataCell[m_materialize.length + 1];
+        for (int i = 0; i < m_materialize.length; i++) {
+            cells[i] = m_materialize[i] ? row.getCell(i) : DataType.getMissingCell();
+        }
+        cells[m_materialize.length] = new LongCell(rowOffset);
+        return new DefaultRow(row.getKey(), cells);
+    }
+
+    /**
+     * @param row a row in this format
+     * @return the offset of the row in its input table
+     */
+    static long getOffset(final DataRow row) {
+        return ((LongCell)row.getCell(row.getNumCells() - 1)).getLongValue();
+    }
+
+}
@@ -6,8 +6,16 @@
  * <li>{@link org.knime.core.data.join.implementation.BlockHashJoin} is a simple join implementation that uses a nested
  * loop join that falls back to multiple passes over the larger table if heap space does not suffice to completely index
  * the smaller table.</li>
+ * <li>{@link org.knime.core.data.join.implementation.HybridHashJoin} partitions both tables and moves partitions to
+ * disk if heap space does not suffice to completely index the smaller table, such that each row is read at most
+ * twice.</li>
+ * <li>{@link org.knime.core.data.join.implementation.SortMergeJoin} sorts both tables on their join columns (unless
+ * they are sorted already) and merges them.</li>
  * <li>{@link org.knime.core.data.join.implementation.HashIndex} is a utility class to index a table for fast lookup of
  * rows according to the values in their join columns.</li>
+ * <li>{@link org.knime.core.data.join.implementation.PrimitiveKeyIndex} is a compact index used by the
+ * {@link org.knime.core.data.join.implementation.HashIndex} for joins on a single int, long, double, or string
+ * column.</li>
  * <li>{@link org.knime.core.data.join.implementation.OrderedRow} is a utility class for relating rows to ordering
  * information, usually their offset in the table they came from.</li>
  * <li>{@link org.knime.core.data.join.implementation.JoinerFactory} a functional interface that defines the constructor
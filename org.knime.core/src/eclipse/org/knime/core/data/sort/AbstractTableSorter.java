@@ -49,8 +49,8 @@
 package org.knime.core.data.sort;
 
 import java.text.NumberFormat;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -59,9 +59,11 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.knime.core.data.DataColumnSpec;
 import org.knime.core.data.DataColumnSpecCreator;
@@ -76,7 +78,9 @@
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadPool;
 
 /**
  * Class to sort a table. See <a href="package.html">package description</a> for details.
@@ -96,6 +100,9 @@ abstract class AbstractTableSorter {
      */
     public static final int DEF_MAX_OPENCONTAINER = 40;
 
+    /** The number of rows a chunk reads ahead of the merge, see {@link MergeEntry}. */
+    private static final int PREFETCH_ROWS = 256;
+
     private MemoryAlertSystem m_memService = MemoryAlertSystem.getInstance();
 
     private final DataTable m_inputTable;
@@ -114,8 +121,29 @@ abstract class AbstractTableSorter {
      */
     private int m_maxRowsPerChunk = Integer.MAX_VALUE;
 
+    /**
+     * The maximum number of threads used by default when sorting according to sort columns, see
+     * {@link #getMaxThreads()}.
+     */
+    private static final int DEF_MAX_THREADS = Math.max(1,
+        Math.min(Runtime.getRuntime().availableProcessors(), KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
+
+    /**
+     * The maximum number of threads used to sort chunks and to read chunks during the merge, 0 to use the default
+     * determined by the row comparator.
+     */
+    private int m_maxThreads = 0;
+
+    /** Minimum number of rows sorted by a single thread. Only changed in unit test. */
+    private int m_minRowsPerThread = 10_000;
+
     private boolean m_sortInMemory = false;
 
+    private boolean m_useNormalizedKeys = true;
+
+    /** Encodes the sort columns during sorting, null if rows are compared with the row comparator. */
+    private KeyNormalizer m_keyNormalizer;
+
     /** The RowComparator to compare two DataRows (inner class). */
     private Comparator<DataRow> m_rowComparator;
 
@@ -370,6 +398,52 @@ void setMaxRows(final int maxRows) {
         m_maxRowsPerChunk = maxRows;
     }
 
+    /**
+     * Get the maximum number of threads used for sorting. See {@link #setMaxThreads(int)} for details.
+     *
+     * @return the maximum number of threads
+     * @since 4.4
+     */
+    public int getMaxThreads() {
+        if (m_maxThreads > 0) {
+            return m_maxThreads;
+        }
+        // the comparators created for sort columns are thread-safe, client comparators may not be
+        return m_rowComparator instanceof RowComparator ? DEF_MAX_THREADS : 1;
+    }
+
+    /**
+     * Changes the maximum number of threads used for sorting. Chunks of the input table are split into slices that are
+     * sorted concurrently and merged into one chunk again, and the chunks to merge are read ahead concurrently. A value
+     * of 1 sorts and merges on the calling thread only. The row comparator must be safe for use by multiple threads if
+     * the value is larger than 1 (the comparators created by the sorter for sort columns are).
+     *
+     * <p>
+     * By default, tables sorted according to sort columns use as many threads as there are processors (but not more
+     * than the global thread pool provides), whereas tables sorted with a comparator set by the client are sorted on
+     * the calling thread, as client comparators may not be thread-safe.
+     *
+     * @param value the maximum number of threads
+     * @throws IllegalArgumentException If argument is smaller than 1.
+     * @since 4.4
+     */
+    public void setMaxThreads(final int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + value);
+        }
+        m_maxThreads = value;
+    }
+
+    /**
+     * Set the minimum number of rows sorted by a single thread, defaults to 10000. This field is modified from the
+     * testing framework.
+     *
+     * @param minRows the minRows to set
+     */
+    void setMinRowsPerThread(final int minRows) {
+        m_minRowsPerThread = minRows;
+    }
+
     /**
      * Set memory service. Used in unit test.
      *
@@ -407,6 +481,30 @@ public void setSortInMemory(final boolean sortInMemory) {
         m_sortInMemory = sortInMemory;
     }
 
+    /**
+     * @return whether rows are compared via normalized keys, see {@link #setUseNormalizedKeys(boolean)} for details.
+     * @since 4.4
+     */
+    public boolean getUseNormalizedKeys() {
+        return m_useNormalizedKeys;
+    }
+
+    /**
+     * Whether to encode the sort columns of each row into a byte array once and compare these instead of comparing the
+     * cells of the rows. Only applies if the table is sorted according to {@link #setSortColumns(Collection, boolean[],
+     * boolean)} and all sort columns are int, long, double, string, or boolean columns (or the row key); otherwise the
+     * rows are compared with the row comparator. Both ways produce the same order.
+     *
+     * <p>
+     * The default value for this option is <b>true</b>.
+     *
+     * @param useNormalizedKeys whether to compare normalized keys where possible
+     * @since 4.4
+     */
+    public void setUseNormalizedKeys(final boolean useNormalizedKeys) {
+        m_useNormalizedKeys = useNormalizedKeys;
+    }
+
     /**
      * Sorts the table passed in the constructor according to the settings and returns the sorted output table.
      *
@@ -415,6 +513,8 @@ public void setSortInMemory(final boolean sortInMemory) {
      * @throws CanceledExecutionException If canceled.
      */
     DataTable sortInternal(final ExecutionMonitor exec) throws CanceledExecutionException {
+        m_keyNormalizer = m_useNormalizedKeys && m_rowComparator instanceof RowComparator
+            ? ((RowComparator)m_rowComparator).getKeyNormalizer() : null;
         DataTable result;
         if (m_sortInMemory && (m_rowsInInputTable <= Integer.MAX_VALUE)) {
             result = sortInMemory(exec);
@@ -453,14 +553,16 @@ private DataTable sortInMemory(final ExecutionMonitor exec) throws CanceledExecu
         }
 
         exec.setMessage("Sorting");
-        Collections.sort(rowList, m_rowComparator);
+        final DataRow[] rows = rowList.toArray(new DataRow[0]);
+        rowList.clear();
+        sortRows(rows);
 
         exec.setMessage("Creating sorted table");
 
         final DataContainer dc = createDataContainer(dataTable.getDataTableSpec(), false);
         ExecutionMonitor writeExec = exec.createSubProgress(0.5);
         progress = 0;
-        for (DataRow r : rowList) {
+        for (DataRow r : rows) {
             exec.checkCanceled();
             if (rowCount > 0) {
                 writeExec.setProgress(progress / (double)rowCount, r.getKey().getString());
@@ -549,10 +651,9 @@ Iterator<DataRow> mergeChunks(final ExecutionMonitor exec, final boolean mergeCo
                 }
             }
 
-            Queue<MergeEntry> containersToMerge = new ArrayDeque<>();
-
-            for (int i = 0; !m_chunksContainer.isEmpty() && i < m_maxOpenContainers; i++) {
-                containersToMerge.add(new MergeEntry(m_chunksContainer.poll(), i, m_rowComparator));
+            List<Iterable<DataRow>> containersToMerge = new ArrayList<>();
+            while (!m_chunksContainer.isEmpty() && containersToMerge.size() < m_maxOpenContainers) {
+                containersToMerge.add(m_chunksContainer.poll());
             }
 
             MergingIterator mergingIterator = new MergingIterator(containersToMerge);
@@ -612,25 +713,7 @@ private long createInitialChunks(final ExecutionMonitor exec, final DataTable da
                     m_incProgress = (0.5 - m_progress) / estimatedIncrements;
                 }
                 exec.setMessage("Sorting temporary buffer");
-                // sort buffer
-                Collections.sort(buffer, m_rowComparator);
-                // write buffer to disk
-                openChunk();
-                final int totalBufferSize = buffer.size();
-                for (int i = 0; i < totalBufferSize; i++) {
-                    exec.setMessage("Writing temporary table -- " + i + "/" + totalBufferSize);
-                    // must not use Iterator#remove as it causes
-                    // array copies
-                    DataRow next = buffer.set(i, null);
-                    addRowToChunk(next);
-                    exec.checkCanceled();
-                    if (m_rowsInInputTable > 0) {
-                        m_progress += m_incProgress;
-                        exec.setProgress(m_progress);
-                    }
-                }
-                buffer.clear();
-                closeChunk();
+                sortChunks(exec, buffer, true);
 
                 LOGGER.debug("Wrote chunk [" + chunkStartRow + ":" + counter + "] - mem usage: " + getMemUsage());
                 chunkStartRow = counter + 1;
@@ -639,14 +722,144 @@ private long createInitialChunks(final ExecutionMonitor exec, final DataTable da
         }
         // Add buffer to the chunks
         if (!buffer.isEmpty()) {
-            // sort buffer
-            Collections.sort(buffer, m_rowComparator);
-            m_chunksContainer.add(buffer);
+            sortChunks(exec, buffer, false);
         }
         outerCounter = counter;
         return outerCounter;
     }
 
+    /**
+     * Sorts the rows in the buffer and adds them to the chunks as a single chunk. The buffer is split into consecutive
+     * slices that are sorted concurrently and then merged in memory, so that the number of chunks to merge does not
+     * grow with the number of threads.
+     *
+     * @param exec to check for cancellation and report progress
+     * @param buffer the rows to sort, cleared once the rows have been split into slices
+     * @param toDisk whether to write the chunk to disk or to keep it in memory
+     * @throws CanceledExecutionException if the user has canceled execution
+     */
+    private void sortChunks(final ExecutionMonitor exec, final List<DataRow> buffer, final boolean toDisk)
+        throws CanceledExecutionException {
+        final int numSlices =
+            (int)Math.max(1, Math.min(getMaxThreads(), buffer.size() / (long)Math.max(1, m_minRowsPerThread)));
+        final int sliceSize = (buffer.size() + numSlices - 1) / numSlices;
+
+        final List<Iterable<DataRow>> slices = new ArrayList<>();
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < buffer.size(); from += sliceSize) {
+            final DataRow[] slice = buffer.subList(from, Math.min(buffer.size(), from + sliceSize))
+                .toArray(new DataRow[0]);
+            slices.add(Arrays.asList(slice));
+            tasks.add(() -> {
+                sortRows(slice);
+                return null;
+            });
+        }
+        final int numRows = buffer.size();
+        buffer.clear();
+
+        invokeAll(tasks);
+
+        final Iterator<DataRow> sorted = slices.size() == 1 ? slices.get(0).iterator() : new MergingIterator(slices);
+        if (toDisk) {
+            openChunk();
+            try {
+                while (sorted.hasNext()) {
+                    addRowToChunk(sorted.next());
+                    exec.checkCanceled();
+                }
+            } finally {
+                closeChunk();
+            }
+            if (m_rowsInInputTable > 0) {
+                m_progress += m_incProgress * numRows;
+                exec.setProgress(m_progress);
+            }
+        } else if (slices.size() == 1) {
+            m_chunksContainer.offer(slices.get(0));
+        } else {
+            final DataRow[] merged = new DataRow[numRows];
+            for (int i = 0; sorted.hasNext(); i++) {
+                merged[i] = sorted.next();
+            }
+            m_chunksContainer.offer(Arrays.asList(merged));
+        }
+    }
+
+    /**
+     * Sorts the rows in place, comparing their normalized keys if possible.
+     *
+     * @param rows the rows to sort
+     */
+    private void sortRows(final DataRow[] rows) {
+        if (m_keyNormalizer == null) {
+            Arrays.sort(rows, m_rowComparator);
+            return;
+        }
+        final NormalizedRow[] normalized = new NormalizedRow[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            normalized[i] = new NormalizedRow(m_keyNormalizer.normalize(rows[i]), rows[i]);
+        }
+        // stable, like sorting the rows directly
+        Arrays.sort(normalized);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = normalized[i].m_row;
+        }
+    }
+
+    /**
+     * Runs the tasks on the thread pool, the first one on the calling thread, and waits for all of them to finish.
+     *
+     * @throws CanceledExecutionException if one of the tasks has been canceled
+     */
+    private void invokeAll(final List<Callable<Void>> tasks) throws CanceledExecutionException {
+        final List<Future<Void>> futures = new ArrayList<>();
+        if (tasks.size() > 1) {
+            final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(tasks.size() - 1);
+            for (Callable<Void> task : tasks.subList(1, tasks.size())) {
+                futures.add(pool.enqueue(task));
+            }
+        }
+
+        Throwable failure = null;
+        try {
+            tasks.get(0).call();
+        } catch (Exception e) { // NOSONAR rethrown below
+            failure = e;
+        }
+
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? new CanceledExecutionException("Interrupted while sorting.") : failure;
+            }
+        }
+
+        if (failure instanceof CanceledExecutionException) {
+            throw (CanceledExecutionException)failure;
+        } else if (failure != null) {
+            throw rethrow(failure);
+        }
+    }
+
+    /**
+     * @param failure an exception thrown by a concurrent task
+     * @return the argument if it's a runtime exception, otherwise a runtime exception wrapping it
+     * @throws Error if the argument is an error
+     */
+    private static RuntimeException rethrow(final Throwable failure) {
+        if (failure instanceof Error) {
+            throw (Error)failure;
+        } else if (failure instanceof RuntimeException) {
+            return (RuntimeException)failure;
+        }
+        return new IllegalStateException(failure.getMessage(), failure);
+    }
+
     /**
      * Opens a chunk data container to accept rows using {@link #addRowToChunk(DataRow)}, {@link #closeChunk()} closes
      * the current container and adds it to the chunk list.
@@ -695,134 +908,207 @@ private String getMemUsage() {
         return "avail: " + availS + "MB, total: " + totalS + "MB, free: " + freeS + "MB";
     }
 
-    private final class MergeEntry implements Comparable<MergeEntry>, Iterator<DataRow> {
-        private DataRow m_row;
+    /** A row with its normalized key, ordered by the unsigned byte order of the key. */
+    private static final class NormalizedRow implements Comparable<NormalizedRow> {
+
+        private final byte[] m_key;
 
-        private Iterable<DataRow> m_iterable;
+        private final DataRow m_row;
+
+        NormalizedRow(final byte[] key, final DataRow row) {
+            m_key = key;
+            m_row = row;
+        }
+
+        @Override
+        public int compareTo(final NormalizedRow that) {
+            return Arrays.compareUnsigned(m_key, that.m_key);
+        }
+    }
+
+    /**
+     * A chunk during the merge, which reads the rows of chunks on disk ahead in blocks of {@value #PREFETCH_ROWS} rows
+     * on a thread pool while the merge consumes the previous block.
+     */
+    private final class MergeEntry {
+
+        private final Iterable<DataRow> m_iterable;
+
+        /** Reads ahead the next block of rows, null to read rows on the merging thread. */
+        private final ThreadPool m_prefetchPool;
 
         private Iterator<DataRow> m_iterator;
 
-        private int m_index;
+        /** The rows read ahead, consumed by the merge. */
+        private List<DataRow> m_block = Collections.emptyList();
+
+        private int m_blockIndex;
 
-        private Comparator<DataRow> m_comparator;
+        /** The next block of rows being read, null if there are no more rows to read. */
+        private Future<List<DataRow>> m_nextBlock;
+
+        /** The current row, null if all rows have been consumed. */
+        private DataRow m_row;
+
+        /** The normalized key of the current row, null if rows are compared with the row comparator. */
+        private byte[] m_key;
 
         /**
-         * @param iterator
-         * @param index
-         * @param comparator
+         * @param iterable the sorted rows of the chunk
+         * @param prefetchPool to read ahead chunks on disk, null to read on the merging thread
          */
-        MergeEntry(final Iterable<DataRow> iterable, final int index, final Comparator<DataRow> comparator) {
+        MergeEntry(final Iterable<DataRow> iterable, final ThreadPool prefetchPool) {
             m_iterable = iterable;
-            m_index = index;
-            m_comparator = comparator;
+            m_prefetchPool = iterable instanceof DataTable ? prefetchPool : null;
         }
 
         private void open() {
             if (m_iterator == null) {
                 m_iterator = m_iterable.iterator();
-                if (m_iterator.hasNext()) {
-                    m_row = m_iterator.next();
+                if (m_prefetchPool != null) {
+                    m_nextBlock = m_prefetchPool.enqueue(this::readBlock);
                 }
+                advance();
             }
         }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public boolean hasNext() {
-            // open the file lazily
-            if (m_row == null) {
-                if (m_iterable instanceof DataTable) {
-                    clearTable((DataTable)m_iterable);
+        private List<DataRow> readBlock() {
+            final List<DataRow> block = new ArrayList<>(PREFETCH_ROWS);
+            while (block.size() < PREFETCH_ROWS && m_iterator.hasNext()) {
+                block.add(m_iterator.next());
+            }
+            return block;
+        }
+
+        private void advance() {
+            if (m_blockIndex == m_block.size()) {
+                m_block = m_prefetchPool == null ? readBlock() : nextBlock();
+                m_blockIndex = 0;
+                if (m_block.isEmpty()) {
+                    m_row = null;
+                    if (m_iterable instanceof DataTable) {
+                        clearTable((DataTable)m_iterable);
+                    }
+                    return;
                 }
-                return false;
             }
-            return true;
+            // release rows as soon as they are consumed
+            m_row = m_block.set(m_blockIndex++, null);
+            if (m_keyNormalizer != null) {
+                m_key = m_keyNormalizer.normalize(m_row);
+            }
         }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public DataRow next() {
-            // open the file lazily
+        private List<DataRow> nextBlock() {
+            if (m_nextBlock == null) {
+                return Collections.emptyList();
+            }
+            final List<DataRow> block;
+            try {
+                block = m_nextBlock.get();
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading temporary table.", e);
+            }
+            // a short block means the chunk has no more rows
+            m_nextBlock = block.size() == PREFETCH_ROWS ? m_prefetchPool.enqueue(this::readBlock) : null;
+            return block;
+        }
+
+        boolean hasRow() {
+            return m_row != null;
+        }
+
+        DataRow next() {
             if (m_row == null) {
                 throw new NoSuchElementException();
             }
-            DataRow toReturn = m_row;
-            m_row = m_iterator.hasNext() ? m_iterator.next() : null;
+            final DataRow toReturn = m_row;
+            advance();
             return toReturn;
         }
+    }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void remove() {
-            throw new UnsupportedOperationException();
-        }
+    /**
+     * Lazily opens the chunks of a merging step and returns their rows in sorted order. Uses a tree of losers, which
+     * needs one comparison per level of the tree to replace the row returned last. Rows that compare equal are returned
+     * in the order of their chunks.
+     */
+    private final class MergingIterator implements Iterator<DataRow> {
+
+        private final MergeEntry[] m_entries;
 
         /**
-         * {@inheritDoc}
+         * Node 0 holds the index of the chunk with the smallest current row, nodes 1 to k-1 the index of the chunk that
+         * lost the comparison at that inner node. The leaf of chunk i is node k+i.
          */
-        @Override
-        public int compareTo(final MergeEntry that) {
-            int value = m_comparator.compare(this.m_row, that.m_row);
-            if (value == 0) {
-                return this.m_index - that.m_index;
-            } else {
-                return value;
-            }
-        }
+        private final int[] m_tree;
+
+        private final ThreadPool m_prefetchPool;
+
+        private boolean m_opened = false;
 
         /**
-         * {@inheritDoc}
+         * @param containerToMerge the sorted chunks
          */
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + m_index;
-            result = prime * result + ((m_row == null) ? 0 : m_row.hashCode());
-            return result;
+        private MergingIterator(final List<Iterable<DataRow>> containerToMerge) {
+            final int maxThreads = getMaxThreads();
+            // chunks in memory are not read ahead
+            m_prefetchPool = maxThreads > 1 && containerToMerge.stream().anyMatch(DataTable.class::isInstance)
+                ? KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(Math.min(maxThreads, containerToMerge.size()))
+                : null;
+            m_entries = containerToMerge.stream().map(c -> new MergeEntry(c, m_prefetchPool))
+                .toArray(MergeEntry[]::new);
+            m_tree = new int[Math.max(1, m_entries.length)];
         }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public boolean equals(final Object obj) {
-            if (this == obj) {
-                return true;
+        private void open() {
+            final int k = m_entries.length;
+            for (MergeEntry entry : m_entries) {
+                entry.open();
             }
-            if (obj == null) {
-                return false;
+            // play the tournament bottom up, winners[n] is the winner of the subtree at node n
+            final int[] winners = new int[2 * k];
+            for (int i = 0; i < k; i++) {
+                winners[k + i] = i;
             }
-            if (getClass() != obj.getClass()) {
-                return false;
+            for (int n = k - 1; n >= 1; n--) {
+                final int a = winners[2 * n];
+                final int b = winners[2 * n + 1];
+                final boolean aWins = beats(a, b);
+                winners[n] = aWins ? a : b;
+                m_tree[n] = aWins ? b : a;
             }
-            MergeEntry other = (MergeEntry)obj;
-            return (this.compareTo(other) == 0);
+            m_tree[0] = k > 0 ? winners[1] : 0;
+            m_opened = true;
         }
-    }
-
-    /**
-     * Lazily opens the given MergeEntry's (The runs of this merging step) and returns the rows.
-     *
-     * @author Marcel Hanser
-     */
-    private static final class MergingIterator implements Iterator<DataRow> {
-        private Queue<MergeEntry> m_containerToMerge;
 
-        private boolean m_opened = false;
+        /** @return whether the current row of chunk a is returned before the current row of chunk b */
+        private boolean beats(final int a, final int b) {
+            if (!m_entries[a].hasRow()) {
+                return false;
+            } else if (!m_entries[b].hasRow()) {
+                return true;
+            }
+            final int value = m_keyNormalizer != null
+                ? Arrays.compareUnsigned(m_entries[a].m_key, m_entries[b].m_key)
+                : m_rowComparator.compare(m_entries[a].m_row, m_entries[b].m_row);
+            return value < 0 || (value == 0 && a < b);
+        }
 
-        /**
-         * @param containerToMerge
-         */
-        private MergingIterator(final Queue<MergeEntry> containerToMerge) {
-            super();
-            m_containerToMerge = containerToMerge;
+        /** Replays the matches on the path from the leaf of the given chunk to the root. */
+        private void replay(final int chunk) {
+            int winner = chunk;
+            for (int n = (m_entries.length + chunk) >>> 1; n >= 1; n >>>= 1) {
+                if (beats(m_tree[n], winner)) {
+                    final int loser = winner;
+                    winner = m_tree[n];
+                    m_tree[n] = loser;
+                }
+            }
+            m_tree[0] = winner;
         }
 
         /**
@@ -831,15 +1117,9 @@ private MergingIterator(final Queue<MergeEntry> containerToMerge) {
         @Override
         public boolean hasNext() {
             if (!m_opened) {
-                Queue<MergeEntry> sortedEntries = new PriorityQueue<>();
-                for (MergeEntry entry : m_containerToMerge) {
-                    entry.open();
-                    sortedEntries.add(entry);
-                }
-                m_containerToMerge = sortedEntries;
-                m_opened = true;
+                open();
             }
-            return !m_containerToMerge.isEmpty();
+            return m_entries.length > 0 && m_entries[m_tree[0]].hasRow();
         }
 
         /**
@@ -848,12 +1128,10 @@ public boolean hasNext() {
         @Override
         public DataRow next() {
             if (hasNext()) {
-                MergeEntry first = m_containerToMerge.poll();
-                DataRow currentCell = first.next();
-                if (first.hasNext()) {
-                    m_containerToMerge.offer(first);
-                }
-                return currentCell;
+                final int winner = m_tree[0];
+                final DataRow currentRow = m_entries[winner].next();
+                replay(winner);
+                return currentRow;
             } else {
                 throw new NoSuchElementException();
             }
@@ -0,0 +1,242 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.sort;
+
+import java.util.Arrays;
+
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Encodes the sort columns of a row into a byte array, such that comparing the byte arrays of two rows with
+ * {@link Arrays#compareUnsigned(byte[], byte[])} yields the same order as the {@link RowComparator} it was created
+ * for. Only supports sort columns of type int, long, double, string, and boolean as well as the row key.
+ *
+ * <p>
+ * Each sort column is encoded as a flag byte, which orders missing values according to the sort settings, followed by
+ * the value (if not missing). Numbers are encoded big-endian with flipped sign bits, strings as a sequence of one to
+ * three bytes per character, terminated by a zero byte. The bytes of columns sorted in descending order are inverted.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class KeyNormalizer {
+
+    private enum Encoding {
+            INT(Integer.BYTES), LONG(Long.BYTES), DOUBLE(Long.BYTES), BOOLEAN(1), STRING(-1);
+
+        /** The number of bytes for a value, -1 for variable length encodings. */
+        private final int m_length;
+
+        Encoding(final int length) {
+            m_length = length;
+        }
+
+        static Encoding of(final DataType type) {
+            if (type.equals(IntCell.TYPE)) {
+                return INT;
+            } else if (type.equals(LongCell.TYPE)) {
+                return LONG;
+            } else if (type.equals(DoubleCell.TYPE)) {
+                return DOUBLE;
+            } else if (type.equals(BooleanCell.TYPE)) {
+                return BOOLEAN;
+            } else if (type.equals(StringCell.TYPE)) {
+                return STRING;
+            }
+            return null;
+        }
+    }
+
+    /** Flag byte of non-missing values. */
+    private static final byte PRESENT = 1;
+
+    private final int[] m_indices;
+
+    private final Encoding[] m_encodings;
+
+    private final boolean[] m_sortAscending;
+
+    /** The flag byte of missing values in each sort column (before inverting descending columns). */
+    private final byte[] m_missing;
+
+    private KeyNormalizer(final int[] indices, final Encoding[] encodings, final boolean[] sortAscending,
+        final boolean sortMissingsToEnd) {
+        m_indices = indices;
+        m_encodings = encodings;
+        m_sortAscending = sortAscending;
+        m_missing = new byte[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            // missing values are smaller than any value, unless they go to the end in ascending order (in descending
+            // order, the inverted zero byte puts them to the end anyway)
+            m_missing[i] = (byte)(sortMissingsToEnd && sortAscending[i] ? PRESENT + 1 : 0);
+        }
+    }
+
+    /**
+     * @param indices the sort column indices, -1 for the row key
+     * @param sortAscending sort order of each sort column
+     * @param sortMissingsToEnd whether missing values are sorted to the end independent of the sort order
+     * @param spec the spec of the sorted table
+     * @return a normalizer for the given sort settings, or null if a sort column has an unsupported type
+     */
+    static KeyNormalizer create(final int[] indices, final boolean[] sortAscending, final boolean sortMissingsToEnd,
+        final DataTableSpec spec) {
+        final Encoding[] encodings = new Encoding[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            encodings[i] = indices[i] == -1 ? Encoding.STRING : Encoding.of(spec.getColumnSpec(indices[i]).getType());
+            if (encodings[i] == null) {
+                return null;
+            }
+        }
+        return new KeyNormalizer(indices, encodings, sortAscending, sortMissingsToEnd);
+    }
+
+    /**
+     * @param row a row of the sorted table
+     * @return the normalized key of the row
+     */
+    byte[] normalize(final DataRow row) {
+        final DataCell[] cells = new DataCell[m_indices.length];
+        final String[] strings = new String[m_indices.length];
+        int capacity = 0;
+        for (int i = 0; i < m_indices.length; i++) {
+            if (m_indices[i] == -1) {
+                strings[i] = row.getKey().getString();
+            } else {
+                cells[i] = row.getCell(m_indices[i]);
+                if (!cells[i].isMissing() && m_encodings[i] == Encoding.STRING) {
+                    strings[i] = ((StringValue)cells[i]).getStringValue();
+                }
+            }
+            capacity += 1 + (strings[i] != null ? 3 * strings[i].length() + 1 : Math.max(0, m_encodings[i].m_length));
+        }
+
+        final byte[] key = new byte[capacity];
+        int pos = 0;
+        for (int i = 0; i < m_indices.length; i++) {
+            final int start = pos;
+            if (cells[i] != null && cells[i].isMissing()) {
+                key[pos++] = m_missing[i];
+            } else {
+                key[pos++] = PRESENT;
+                pos = encode(key, pos, cells[i], strings[i], m_encodings[i]);
+            }
+            if (!m_sortAscending[i]) {
+                for (int j = start; j < pos; j++) {
+                    key[j] = (byte)~key[j];
+                }
+            }
+        }
+        return pos == capacity ? key : Arrays.copyOf(key, pos);
+    }
+
+    private static int encode(final byte[] key, final int pos, final DataCell cell, final String string,
+        final Encoding encoding) {
+        switch (encoding) {
+            case INT:
+                return putLong(key, pos, ((IntValue)cell).getIntValue() ^ Integer.MIN_VALUE, Integer.BYTES);
+            case LONG:
+                return putLong(key, pos, ((LongValue)cell).getLongValue() ^ Long.MIN_VALUE, Long.BYTES);
+            case DOUBLE:
+                // same order as Double#compare: negative values have all bits flipped, positive values the sign bit
+                final long bits = Double.doubleToLongBits(((DoubleValue)cell).getDoubleValue());
+                return putLong(key, pos, bits ^ ((bits >> 63) | Long.MIN_VALUE), Long.BYTES);
+            case BOOLEAN:
+                key[pos] = (byte)(((BooleanValue)cell).getBooleanValue() ? 1 : 0);
+                return pos + 1;
+            default:
+                return putString(key, pos, string);
+        }
+    }
+
+    private static int putLong(final byte[] key, final int pos, final long value, final int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            key[pos + i] = (byte)(value >>> (8 * (bytes - 1 - i)));
+        }
+        return pos + bytes;
+    }
+
+    /**
+     * Encodes the characters such that the unsigned byte order equals the order of {@link String#compareTo(String)}.
+     * Characters below 0x7F take one byte (0x01 to 0x7F), characters below 0x407F two bytes (starting with 0x80 to
+     * 0xBF), all others three bytes (starting with 0xC0). The terminating zero byte is smaller than the first byte of
+     * any character, such that a string sorts before all strings it is a prefix of.
+     */
+    private static int putString(final byte[] key, final int start, final String string) {
+        int pos = start;
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (c < 0x7F) {
+                key[pos++] = (byte)(c + 1);
+            } else if (c < 0x407F) {
+                final int v = c - 0x7F;
+                key[pos++] = (byte)(0x80 | (v >>> 8));
+                key[pos++] = (byte)v;
+            } else {
+                final int v = c - 0x407F;
+                key[pos++] = (byte)0xC0;
+                key[pos++] = (byte)(v >>> 8);
+                key[pos++] = (byte)v;
+            }
+        }
+        key[pos++] = 0;
+        return pos;
+    }
+
+}
@@ -84,6 +84,9 @@ public final class RowComparator implements Comparator<DataRow> {
      */
     private final boolean m_sortMissingsToEnd;
 
+    /** Encodes the sort columns into byte comparable keys, null if a sort column has an unsupported type. */
+    private final KeyNormalizer m_keyNormalizer;
+
     /**
      * @param indices Array of sort column indices (-1 indicates the RowKey).
      * @param sortAscending Sort order.
@@ -105,6 +108,15 @@ public RowComparator(final int[] indices, final boolean[] sortAscending, final b
         }
         m_sortAscending = sortAscending;
         m_sortMissingsToEnd = sortMissingsToEnd;
+        m_keyNormalizer = KeyNormalizer.create(indices, sortAscending, sortMissingsToEnd, spec);
+    }
+
+    /**
+     * @return an encoder for keys whose unsigned byte order equals the order of this comparator, or null if a sort
+     *         column has a type that is not supported by the {@link KeyNormalizer}
+     */
+    KeyNormalizer getKeyNormalizer() {
+        return m_keyNormalizer;
     }
 
     /** {@inheritDoc} */
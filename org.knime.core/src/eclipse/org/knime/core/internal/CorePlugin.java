@@ -114,6 +114,7 @@ public void start(final org.osgi.framework.BundleContext context)
         }
 
         readMimeTypes();
+        WorkflowExecutionMetrics.registerIfEnabled();
     }
 
 
@@ -131,6 +132,7 @@ private void readMimeTypes() throws IOException {
     /** {@inheritDoc} */
     @Override
     public void stop(final BundleContext context) throws Exception {
+        WorkflowExecutionMetrics.unregister();
         instance = null;
     }
 
@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.internal;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.WorkflowExecutionMetricsMXBean;
+import org.knime.core.node.workflow.WorkflowExecutionReport;
+import org.knime.core.node.workflow.WorkflowManager;
+
+/**
+ * Implementation of {@link WorkflowExecutionMetricsMXBean}, registered by the {@link CorePlugin} if enabled.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class WorkflowExecutionMetrics implements WorkflowExecutionMetricsMXBean {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(WorkflowExecutionMetrics.class);
+
+    @Override
+    public String[] getWorkflowNames() {
+        return WorkflowManager.ROOT.getNodeContainers().stream() //
+            .filter(WorkflowManager.class::isInstance) //
+            .map(nc -> ((WorkflowManager)nc).getName()) //
+            .toArray(String[]::new);
+    }
+
+    @Override
+    public String getReport(final String workflowName) {
+        return WorkflowManager.ROOT.getNodeContainers().stream() //
+            .filter(WorkflowManager.class::isInstance) //
+            .map(WorkflowManager.class::cast) //
+            .filter(wfm -> wfm.getName().equals(workflowName)) //
+            .findFirst() //
+            .map(wfm -> WorkflowExecutionReport.create(wfm).toString()) //
+            .orElse(null);
+    }
+
+    /** Registers an instance with the platform MBean server if enabled by the system property. */
+    static void registerIfEnabled() {
+        if (!Boolean.getBoolean(PROPERTY_ENABLE_JMX)) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new WorkflowExecutionMetrics(),
+                new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            LOGGER.error("Unable to register workflow execution metrics MBean: " + e.getMessage(), e);
+        }
+    }
+
+    /** Removes the instance from the platform MBean server, if registered. */
+    static void unregister() {
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.debug("Unable to unregister workflow execution metrics MBean: " + e.getMessage(), e);
+        }
+    }
+}
@@ -58,6 +58,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -84,11 +85,13 @@
 import org.knime.core.data.container.DefaultTableStoreFormat;
 import org.knime.core.data.container.JoinedTable;
 import org.knime.core.data.container.RearrangeColumnsTable;
+import org.knime.core.data.container.RowRangeTable;
 import org.knime.core.data.container.TableSpecReplacerTable;
 import org.knime.core.data.container.VoidTable;
 import org.knime.core.data.container.WrappedTable;
 import org.knime.core.data.container.filter.CloseableDataRowIterable;
 import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.container.storage.CompressionCodec;
 import org.knime.core.data.container.storage.TableStoreFormat;
 import org.knime.core.data.container.storage.TableStoreFormatRegistry;
 import org.knime.core.data.v2.RowCursor;
@@ -185,6 +188,9 @@ static PortObjectSerializer<BufferedDataTable> getPortObjectSerializer() {
     private final KnowsRowCountTable m_delegate;
     private int m_tableID;
     private Node m_owner;
+    /** The table description (data.xml) of a container table that was read lazily from a workflow, used to describe
+     * the table file when it is saved again unchanged. Null for all other tables. */
+    private NodeSettingsRO m_persistedTableMeta;
 
     /**
      * Creates a new buffered data table based on a container table (caching everything).
@@ -228,6 +234,16 @@ static PortObjectSerializer<BufferedDataTable> getPortObjectSerializer() {
         this(table, dataRepository.generateNewID(), dataRepository);
     }
 
+    /**
+     * Creates a new buffered data table based on a row range of another table.
+     *
+     * @param table The reference.
+     * @param dataRepository the data repository (needed for blobs, file stores, and table ids)
+     */
+    BufferedDataTable(final RowRangeTable table, final IDataRepository dataRepository) {
+        this(table, dataRepository.generateNewID(), dataRepository);
+    }
+
     /**
      * Creates a new buffered data table based on a concatenation of BufferedDataTables.
      *
@@ -557,6 +573,8 @@ public void close() {
     private static final String TABLE_TYPE_REARRANGE_COLUMN_COMPRESS = "rearrange_columns_table_compressed";
     private static final String TABLE_TYPE_NEW_SPEC = "new_spec_table";
     private static final String TABLE_TYPE_WRAPPED = "wrapped_table";
+    /** @since 4.4 */
+    private static final String TABLE_TYPE_ROW_RANGE = "row_range_table";
     private static final String TABLE_TYPE_CONCATENATE = "concatenate_table";
     private static final String TABLE_TYPE_JOINED = "joined_table";
     private static final String TABLE_TYPE_VOID = "void_table";
@@ -588,8 +606,19 @@ void save(final File dir, final Set<Integer> savedTableIDs, final ExecutionMonit
         Integer bufferedTableID = getBufferedTableId();
         s.addInt(CFG_TABLE_ID, bufferedTableID);
         File outFile = new File(dir, TABLE_FILE);
+        // an existing file may be a hard link to a table file in another location (see below), never write it in place
+        Files.deleteIfExists(outFile.toPath());
         if (!savedTableIDs.add(bufferedTableID)) {
             s.addString(CFG_TABLE_TYPE, TABLE_TYPE_REFERENCE_IN_SAME_NODE);
+        } else if (m_persistedTableMeta != null
+            && ((BufferedContainerTable)m_delegate).saveToFileFromPersistedFile(outFile)) {
+            // table wasn't accessed since it was loaded: its file was reused, so is the description of its format
+            for (String key : new String[]{CFG_TABLE_TYPE, CFG_TABLE_CONTAINER_FORMAT,
+                CFG_TABLE_CONTAINER_FORMAT_VERSION, CFG_TABLE_COMPRESSION_FORMAT}) {
+                if (m_persistedTableMeta.containsKey(key)) {
+                    s.addString(key, m_persistedTableMeta.getString(key, null));
+                }
+            }
         } else if (m_delegate instanceof BufferedContainerTable) {
             final TableStoreFormat format = ((BufferedContainerTable)m_delegate).getTableStoreFormat();
             if (!DefaultTableStoreFormat.class.equals(format.getClass())) {
@@ -597,11 +626,12 @@ void save(final File dir, final Set<Integer> savedTableIDs, final ExecutionMonit
                 s.addString(CFG_TABLE_TYPE, TABLE_TYPE_CONTAINER_CUSTOM);
                 s.addString(CFG_TABLE_CONTAINER_FORMAT, format.getClass().getName());
                 s.addString(CFG_TABLE_CONTAINER_FORMAT_VERSION, format.getVersion());
+                format.getCompressionCodec().ifPresent(c -> s.addString(CFG_TABLE_COMPRESSION_FORMAT, c.getName()));
             } else {
-                final DefaultTableStoreFormat defaultFormat = (DefaultTableStoreFormat)format;
-                if (!Arrays.asList(NONE, GZIP).contains(defaultFormat.getCompressionFormat())) {
+                final CompressionCodec codec = format.getCompressionCodec().orElse(NONE);
+                if (!Arrays.asList(NONE, GZIP).contains(codec)) {
                     s.addString(CFG_TABLE_TYPE, TABLE_TYPE_CONTAINER_COMPRESS);
-                    s.addString(CFG_TABLE_COMPRESSION_FORMAT, defaultFormat.getCompressionFormat().toString());
+                    s.addString(CFG_TABLE_COMPRESSION_FORMAT, codec.getName());
                 } else {
                     s.addString(CFG_TABLE_TYPE, TABLE_TYPE_CONTAINER);
                 }
@@ -618,11 +648,13 @@ void save(final File dir, final Set<Integer> savedTableIDs, final ExecutionMonit
                         s.addString(CFG_TABLE_TYPE, TABLE_TYPE_REARRANGE_COLUMN_CUSTOM);
                         s.addString(CFG_TABLE_CONTAINER_FORMAT, appendTable.getTableStoreFormat().getClass().getName());
                         s.addString(CFG_TABLE_CONTAINER_FORMAT_VERSION, appendTable.getTableStoreFormat().getVersion());
+                        format.getCompressionCodec()
+                            .ifPresent(c -> s.addString(CFG_TABLE_COMPRESSION_FORMAT, c.getName()));
                     } else {
-                        final DefaultTableStoreFormat defaultFormat = (DefaultTableStoreFormat)format;
-                        if (!Arrays.asList(NONE, GZIP).contains(defaultFormat.getCompressionFormat())) {
+                        final CompressionCodec codec = format.getCompressionCodec().orElse(NONE);
+                        if (!Arrays.asList(NONE, GZIP).contains(codec)) {
                             s.addString(CFG_TABLE_TYPE, TABLE_TYPE_REARRANGE_COLUMN_COMPRESS);
-                            s.addString(CFG_TABLE_COMPRESSION_FORMAT, defaultFormat.getCompressionFormat().toString());
+                            s.addString(CFG_TABLE_COMPRESSION_FORMAT, codec.getName());
                         } else {
                             s.addString(CFG_TABLE_TYPE, TABLE_TYPE_REARRANGE_COLUMN);
                         }
@@ -634,6 +666,8 @@ void save(final File dir, final Set<Integer> savedTableIDs, final ExecutionMonit
                 s.addString(CFG_TABLE_TYPE, TABLE_TYPE_NEW_SPEC);
             } else if (m_delegate instanceof WrappedTable) {
                 s.addString(CFG_TABLE_TYPE, TABLE_TYPE_WRAPPED);
+            } else if (m_delegate instanceof RowRangeTable) {
+                s.addString(CFG_TABLE_TYPE, TABLE_TYPE_ROW_RANGE);
             } else if (m_delegate instanceof JoinedTable) {
                 s.addString(CFG_TABLE_TYPE, TABLE_TYPE_JOINED);
             } else if (m_delegate instanceof VoidTable) {
@@ -793,6 +827,10 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
 
         if (Arrays.asList(TABLE_TYPE_CONTAINER_CUSTOM, TABLE_TYPE_REARRANGE_COLUMN_CUSTOM).contains(tableType)) {
             checkFormat(s);
+            // the compression of custom formats is recorded since 4.4
+            if (s.containsKey(CFG_TABLE_COMPRESSION_FORMAT)) {
+                checkCompression(s);
+            }
         }
         if (Arrays.asList(TABLE_TYPE_CONTAINER_COMPRESS, TABLE_TYPE_REARRANGE_COLUMN_COMPRESS).contains(tableType)) {
             checkCompression(s);
@@ -815,6 +853,7 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
             case TABLE_TYPE_CONTAINER_COMPRESS: // added in 4.0
                 final ContainerTable cont = BufferedDataContainer.readFromZipDelayed(fileRef, spec, id, dataRepository);
                 t = new BufferedDataTable(cont, id);
+                t.m_persistedTableMeta = s;
                 break;
             case TABLE_TYPE_REARRANGE_COLUMN_CUSTOM:
             case TABLE_TYPE_REARRANGE_COLUMN_COMPRESS:
@@ -823,6 +862,7 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
             case TABLE_TYPE_VOID:
             case TABLE_TYPE_CONCATENATE:
             case TABLE_TYPE_WRAPPED:
+            case TABLE_TYPE_ROW_RANGE: // added in 4.4
             case TABLE_TYPE_NEW_SPEC:
             case TABLE_TYPE_EXTENSION:
                 String[] referenceDirs;
@@ -855,6 +895,9 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
                 } else if (tableType.equals(TABLE_TYPE_WRAPPED)) {
                     WrappedTable wt = WrappedTable.load(s, tblRep, dataRepository);
                     t = new BufferedDataTable(wt, dataRepository);
+                } else if (tableType.equals(TABLE_TYPE_ROW_RANGE)) {
+                    RowRangeTable rt = RowRangeTable.load(s, tblRep, dataRepository);
+                    t = new BufferedDataTable(rt, dataRepository);
                 } else if (tableType.equals(TABLE_TYPE_NEW_SPEC)) {
                     TableSpecReplacerTable replTable;
                     if (isVersion11x) {
@@ -68,6 +68,7 @@
 import org.knime.core.data.container.ILocalDataRepository;
 import org.knime.core.data.container.JoinedTable;
 import org.knime.core.data.container.RearrangeColumnsTable;
+import org.knime.core.data.container.RowRangeTable;
 import org.knime.core.data.container.TableSpecReplacerTable;
 import org.knime.core.data.container.VoidTable;
 import org.knime.core.data.container.WrappedTable;
@@ -468,6 +469,27 @@ public BufferedDataTable createWrappedTable(final BufferedDataTable in) {
         return out;
     }
 
+    /**
+     * Creates a new <code>BufferedDataTable</code> that represents a contiguous range of rows of the argument table.
+     * No data is copied; reading the returned table skips the rows before the range and stops after it. This is
+     * useful to split a table into chunks, for instance in a parallel chunk loop start node.
+     *
+     * @param in The table to take the rows from.
+     * @param fromIndex The index of the first row to include, at least 0.
+     * @param toIndex The index of the last row to include (inclusive), smaller than the size of the input table.
+     *            Use <code>fromIndex - 1</code> to create an empty table.
+     * @return A new table which can be returned in the execute method.
+     * @throws IllegalArgumentException If the table is null or the range is invalid.
+     * @since 4.4
+     */
+    public BufferedDataTable createRowRangeTable(final BufferedDataTable in, final long fromIndex,
+        final long toIndex) {
+        RowRangeTable t = new RowRangeTable(in, fromIndex, toIndex);
+        BufferedDataTable out = new BufferedDataTable(t, getDataRepository());
+        out.setOwnerRecursively(m_node);
+        return out;
+    }
+
     /** Create new "void" table. It's a framework method that is used by the streaming executor to populate the output
      * of a node. It has a table specification but no data (which is also indicated in the view).
      *
@@ -74,6 +74,7 @@
 import org.knime.core.internal.ConfigurationAreaChecker;
 import org.knime.core.internal.KNIMEPath;
 import org.knime.core.util.ThreadPool;
+import org.knime.core.util.VirtualThreadPool;
 import org.osgi.framework.Bundle;
 
 /**
@@ -110,6 +111,15 @@ public final class KNIMEConstants {
      */
     public static final String PROPERTY_MAX_THREAD_COUNT = "org.knime.core.maxThreads";
 
+    /**
+     * Java property name to run the {@link #GLOBAL_THREAD_POOL} as a {@link VirtualThreadPool},
+     * i.e. with virtual threads if the Java runtime supports them. The max thread count is then a limit on the number
+     * of concurrently running jobs rather than on the number of threads.
+     *
+     * @since 4.4
+     */
+    public static final String PROPERTY_VIRTUAL_THREAD_POOL = "org.knime.core.virtualThreads";
+
     /**
      * Java property name to specify the default temp directory for KNIME temp files (such as data files). This can be
      * changed in the preference pages and is by default the same as the java.io.tmpdir
@@ -207,7 +217,11 @@ public final class KNIMEConstants {
 
     /**
      * Java property to enable/disable table stream compression. Compression results in smaller temp-file sizes but also
-     * (sometimes significant) longer runtime. By default {@code Gzip} is used.
+     * (sometimes significant) longer runtime. By default {@code Gzip} is used. Besides the built-in {@code None},
+     * {@code Gzip} and {@code Snappy}, the value can name any codec registered at the
+     * {@link org.knime.core.data.container.storage.CompressionCodecRegistry} (such as {@code LZ4} or {@code Zstd},
+     * which are contributed by the optional {@code org.knime.core.data.compression} fragment), optionally followed by a
+     * colon and the compression level, e.g. {@code Zstd:9}.
      * <p>
      * <strong>Warning:</strong> Changing this property will result in KNIME not being able to read workflows written
      * previously (with a different compression property).
@@ -215,6 +229,36 @@ public final class KNIMEConstants {
      */
     public static final String PROPERTY_TABLE_COMPRESSION = "knime.compress.io";
 
+    /**
+     * Java property to set the number of rows per independently compressed block in table files. Reading a range of
+     * rows from a table file starts at the block containing the first row of the range, rather than at the beginning
+     * of the file. Smaller blocks allow for faster random access, larger blocks for (slightly) better compression.
+     * A value of 0 disables blocks. Default is
+     * {@value org.knime.core.data.container.DefaultTableStoreFormat#DEF_ROWS_PER_BLOCK}.
+     *
+     * @since 4.4
+     */
+    public static final String PROPERTY_TABLE_ROWS_PER_BLOCK = "knime.table.rowsperblock";
+
+    /**
+     * Java property to enable/disable reading uncompressed table files (see {@link #PROPERTY_TABLE_COMPRESSION})
+     * through memory mappings rather than streams, which avoids copying the file content through heap buffers and
+     * allows decoding primitive cells straight from the mapping. Mapped files are only unmapped by the garbage
+     * collector and can't be deleted while mapped on Windows. Default is {@code true}, except on Windows.
+     *
+     * @since 4.4
+     */
+    public static final String PROPERTY_TABLE_MMAP = "knime.table.mmap";
+
+    /**
+     * Java property to set the number of row batches that iterators over tables stored on disk read (i.e., decompress
+     * and deserialize) ahead on a background thread, so that reading overlaps with the processing of rows. A value of 0
+     * disables reading ahead, as does {@link #PROPERTY_SYNCHRONOUS_IO}. Default is 4.
+     *
+     * @since 4.4
+     */
+    public static final String PROPERTY_TABLE_READ_AHEAD = "knime.table.readahead";
+
     /**
      * @see #PROPERTY_TABLE_COMPRESSION
      * @deprecated replaced by {@link #PROPERTY_TABLE_COMPRESSION}
@@ -519,7 +563,8 @@ public static Optional<ImageIcon> getKNIMEIcon16X16() {
                     + "\"org.knime.core.maxThreads\" (\"" + maxThreadsString
                     + "\") as number: " + nfe.getMessage());
         }
-        GLOBAL_THREAD_POOL = new ThreadPool(maxThreads);
+        GLOBAL_THREAD_POOL = Boolean.getBoolean(PROPERTY_VIRTUAL_THREAD_POOL) ? new VirtualThreadPool(maxThreads)
+            : new ThreadPool(maxThreads);
         boolean flag;
         try {
             assert false;
@@ -0,0 +1,160 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.exec;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.knime.core.util.ThreadPool;
+import org.knime.core.util.ThreadUtils;
+
+/**
+ * Runs tasks in a {@link ThreadPool} ordered by a rank rather than in submission order. For each submitted task a
+ * placeholder is enqueued in the pool; whenever the pool starts one of these placeholders, it runs the task with the
+ * highest rank that is pending at that time (ties are broken in submission order). As long as the pool has idle
+ * threads this behaves exactly like {@link ThreadPool#enqueue(Runnable)}, the ranking only matters if tasks have to
+ * wait for a thread.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RankedJobQueue {
+
+    /** Higher rank first, then first come first served. */
+    private static final Comparator<RankedTask> ORDER =
+        Comparator.comparingLong((final RankedTask t) -> -t.m_rank).thenComparingLong(t -> t.m_sequence);
+
+    private final ThreadPool m_pool;
+
+    /** Tasks not yet started, guarded by itself. */
+    private final PriorityQueue<RankedTask> m_pending = new PriorityQueue<>(ORDER);
+
+    private long m_sequence;
+
+    /**
+     * @param pool the pool to run the tasks in
+     */
+    RankedJobQueue(final ThreadPool pool) {
+        m_pool = pool;
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param task the task to run
+     * @param rank its rank, tasks with higher ranks are run first
+     * @return a future representing the task; canceling it before it started removes it from the queue
+     */
+    Future<?> enqueue(final Runnable task, final long rank) {
+        RankedTask rankedTask;
+        synchronized (m_pending) {
+            rankedTask = new RankedTask(ThreadUtils.runnableWithContext(task, false), rank, m_sequence++);
+            m_pending.add(rankedTask);
+        }
+        m_pool.enqueue(this::runNext);
+        return rankedTask;
+    }
+
+    /** @return the number of tasks that haven't been started yet */
+    int getPendingCount() {
+        synchronized (m_pending) {
+            return m_pending.size();
+        }
+    }
+
+    private void runNext() {
+        RankedTask next;
+        synchronized (m_pending) {
+            next = m_pending.poll();
+        }
+        // may be null if the task was canceled in the meantime
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private final class RankedTask extends FutureTask<Void> {
+
+        private final long m_rank;
+
+        private final long m_sequence;
+
+        private final ClassLoader m_contextClassloader = Thread.currentThread().getContextClassLoader();
+
+        RankedTask(final Runnable task, final long rank, final long sequence) {
+            super(task, null);
+            m_rank = rank;
+            m_sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            // set context classloader of thread that submitted this task (same as ThreadPool does)
+            final Thread thread = Thread.currentThread();
+            final ClassLoader previousContextClassloader = thread.getContextClassLoader();
+            thread.setContextClassLoader(m_contextClassloader);
+            try {
+                super.run();
+            } finally {
+                thread.setContextClassLoader(previousContextClassloader);
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            boolean canceled = super.cancel(mayInterruptIfRunning);
+            if (canceled) {
+                synchronized (m_pending) {
+                    m_pending.remove(this);
+                }
+            }
+            return canceled;
+        }
+    }
+
+}
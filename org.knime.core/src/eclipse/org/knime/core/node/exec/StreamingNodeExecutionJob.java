@@ -0,0 +1,693 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.exec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObjectSpec;
+import org.knime.core.node.port.inactive.InactiveBranchConsumer;
+import org.knime.core.node.port.inactive.InactiveBranchPortObject;
+import org.knime.core.node.streamable.DataTableRowInput;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortObjectOutput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.StreamableOperator;
+import org.knime.core.node.workflow.ConnectionContainer;
+import org.knime.core.node.workflow.ExecutionEnvironment;
+import org.knime.core.node.workflow.FlowObjectStack;
+import org.knime.core.node.workflow.LoopEndNode;
+import org.knime.core.node.workflow.LoopStartNode;
+import org.knime.core.node.workflow.NativeNodeContainer;
+import org.knime.core.node.workflow.NodeContainer;
+import org.knime.core.node.workflow.NodeContext;
+import org.knime.core.node.workflow.NodeExecutionJob;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.NodeMessage;
+import org.knime.core.node.workflow.ScopeEndNode;
+import org.knime.core.node.workflow.ScopeStartNode;
+import org.knime.core.node.workflow.SubNodeContainer;
+import org.knime.core.node.workflow.WorkflowLock;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.WorkflowPersistor.LoadResult;
+import org.knime.core.node.workflow.WorkflowPersistor.LoadResultEntry.LoadResultEntryType;
+import org.knime.core.node.workflow.execresult.NativeNodeContainerExecutionResult;
+import org.knime.core.node.workflow.execresult.NodeContainerExecutionStatus;
+import org.knime.core.node.workflow.execresult.NodeExecutionResult;
+import org.knime.core.node.workflow.execresult.SubnodeContainerExecutionResult;
+import org.knime.core.node.workflow.execresult.WorkflowExecutionResult;
+import org.knime.core.node.workflow.virtual.subnode.VirtualSubNodeOutputNodeModel;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Executes the content of a component in one go, see {@link StreamingNodeExecutionJobManager}.
+ *
+ * <p>
+ * The inner nodes are planned in topological order. A node is <i>streamed</i> if all its table inputs are declared
+ * streamable (see {@link NodeModel#getInputPortRoles()}), it doesn't require iterations or merging of its streamable
+ * operator and at most one of its inputs comes from another streamed node (all other inputs must not depend on any
+ * streamed node). The latter guarantees that the bounded queues between the nodes can't deadlock. All other nodes
+ * are executed as usual, once all their inputs are available. Outputs of streamed nodes are only materialized if
+ * needed by a node that isn't streamed (or if the output isn't consumed at all), otherwise they are represented by
+ * an empty placeholder table.
+ *
+ * <p>
+ * The nodes are run on a sub pool of the {@link KNIMEConstants#GLOBAL_THREAD_POOL global thread pool}. Streamed
+ * nodes, which block each other via their row channels, as well as nodes waiting for their inputs don't count against
+ * the maximum number of threads of the pool (see {@link ThreadPool#runInvisible(Callable)}), so the number of nodes
+ * doing actual work at the same time is bounded while all streamed nodes run concurrently. Flow variables that are
+ * pushed during the execution of a node are only seen by downstream nodes that aren't streamed.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class StreamingNodeExecutionJob extends NodeExecutionJob {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(StreamingNodeExecutionJob.class);
+
+    private final int m_chunkSize;
+
+    private final int m_queueCapacity;
+
+    private Future<?> m_future;
+
+    /**
+     * @param snc the component to execute
+     * @param data its input data
+     * @param chunkSize the number of rows handed from one streamed node to the next at once
+     * @param queueCapacity the maximum number of chunks queued per connection
+     */
+    StreamingNodeExecutionJob(final SubNodeContainer snc, final PortObject[] data, final int chunkSize,
+        final int queueCapacity) {
+        super(snc, data);
+        m_chunkSize = chunkSize;
+        m_queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Set the future that represents the pending execution.
+     * @param future the future to set
+     */
+    void setFuture(final Future<?> future) {
+        m_future = future;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean cancel() {
+        if (m_future == null) {
+            throw new IllegalStateException("Future that represents the execution has not been set.");
+        }
+        return m_future.cancel(true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isReConnecting() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected String getCustomThreadName(final String originalThreadName) {
+        return originalThreadName + "-" + getNodeContainer().getNameWithID();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NodeContainerExecutionStatus mainExecute() {
+        SubNodeContainer snc = (SubNodeContainer)getNodeContainer();
+        WorkflowManager wfm = snc.getWorkflowManager();
+        List<NodeTask> tasks = new ArrayList<>();
+        String error = plan(wfm, tasks);
+        boolean success;
+        if (error != null) {
+            success = false;
+        } else {
+            try {
+                success = run(tasks);
+                error = success ? null : "Execution of inner nodes failed";
+            } catch (InterruptedException e) {
+                success = false;
+                error = "Execution canceled";
+            }
+        }
+        WorkflowExecutionResult wfmResult = new WorkflowExecutionResult(wfm.getID());
+        for (NodeTask task : tasks) {
+            NativeNodeContainerExecutionResult result = new NativeNodeContainerExecutionResult();
+            result.setSuccess(task.m_success);
+            result.setMessage(task.m_nnc.getNodeMessage());
+            wfmResult.addNodeExecutionResult(task.m_nnc.getID(), result);
+        }
+        wfmResult.setSuccess(success);
+        SubnodeContainerExecutionResult result = new SubnodeContainerExecutionResult(snc.getID());
+        result.setWorkflowExecutionResult(wfmResult);
+        result.setSuccess(success);
+        NodeMessage message = success ? NodeMessage.NONE : NodeMessage.newError(error);
+        result.setMessage(message);
+        snc.setNodeMessage(message);
+        return result;
+    }
+
+    /**
+     * Creates a task for each inner node and decides which nodes are streamed.
+     *
+     * @return an error message if the workflow can't be executed by this job, otherwise null
+     */
+    private String plan(final WorkflowManager wfm, final List<NodeTask> tasks) {
+        // topological sort
+        Map<NodeID, Integer> inDegrees = new LinkedHashMap<>();
+        for (NodeContainer nc : wfm.getNodeContainers()) {
+            if (!(nc instanceof NativeNodeContainer)) {
+                return "Nested components and metanodes are not supported by the streaming executor: "
+                    + nc.getNameWithID();
+            }
+            NativeNodeContainer nnc = (NativeNodeContainer)nc;
+            if (nnc.isModelCompatibleTo(LoopStartNode.class) || nnc.isModelCompatibleTo(LoopEndNode.class)) {
+                return "Loops are not supported by the streaming executor: " + nc.getNameWithID();
+            }
+            inDegrees.put(nc.getID(), wfm.getIncomingConnectionsFor(nc.getID()).size());
+        }
+        Deque<NodeID> ready = new ArrayDeque<>();
+        inDegrees.forEach((id, degree) -> {
+            if (degree == 0) {
+                ready.add(id);
+            }
+        });
+        Map<NodeID, NodeTask> taskMap = new HashMap<>();
+        while (!ready.isEmpty()) {
+            NodeID id = ready.poll();
+            NativeNodeContainer nnc = (NativeNodeContainer)wfm.getNodeContainer(id);
+            NodeTask task = new NodeTask(wfm, nnc);
+            for (ConnectionContainer cc : wfm.getIncomingConnectionsFor(id)) {
+                NodeTask source = taskMap.get(cc.getSource());
+                if (source == null) {
+                    return "Unsupported connection into " + nnc.getNameWithID();
+                }
+                task.m_sources[cc.getDestPort()] = source;
+                task.m_sourcePorts[cc.getDestPort()] = cc.getSourcePort();
+            }
+            for (ConnectionContainer cc : wfm.getOutgoingConnectionsFor(id)) {
+                if (inDegrees.merge(cc.getDest(), -1, Integer::sum) == 0) {
+                    ready.add(cc.getDest());
+                }
+            }
+            taskMap.put(id, task);
+            tasks.add(task);
+        }
+        if (tasks.size() != inDegrees.size()) {
+            return "Workflow contains a cycle";
+        }
+
+        for (NodeTask task : tasks) {
+            task.planStreaming(m_chunkSize, m_queueCapacity);
+        }
+        // connect streaming consumers and decide which outputs need to be materialized
+        for (NodeTask task : tasks) {
+            for (int p = 1; p < task.m_sources.length; p++) {
+                NodeTask source = task.m_sources[p];
+                if (source == null || source.m_channels == null) {
+                    continue;
+                }
+                StreamingRowChannel channel = source.m_channels[task.m_sourcePorts[p]];
+                if (p == task.m_streamedPort) {
+                    task.m_streamInput = channel.createConsumer();
+                } else {
+                    channel.setMaterialized();
+                }
+            }
+        }
+        for (NodeTask task : tasks) {
+            if (task.m_channels != null) {
+                for (StreamingRowChannel channel : task.m_channels) {
+                    if (channel != null && !channel.hasConsumers()) {
+                        // output not consumed within the component, keep it for inspection
+                        channel.setMaterialized();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs all tasks concurrently and waits for their completion. If any of the tasks fails, all others are
+     * interrupted.
+     */
+    private static boolean run(final List<NodeTask> tasks) throws InterruptedException {
+        List<NodeTask> pending = new ArrayList<>();
+        for (NodeTask task : tasks) {
+            if (task.m_nnc.getNodeContainerState().isExecuted()) {
+                task.m_success = true;
+                task.m_done.complete(null);
+            } else {
+                pending.add(task);
+            }
+        }
+        if (pending.isEmpty()) {
+            return true;
+        }
+        // tasks are queued in topological order, sources thus start before the nodes waiting for them
+        ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool();
+        BlockingQueue<NodeTask> finished = new LinkedBlockingQueue<>();
+        for (NodeTask task : pending) {
+            pool.enqueue(() -> {
+                try {
+                    task.execute();
+                } finally {
+                    finished.add(task);
+                }
+            });
+        }
+        boolean success = true;
+        try {
+            ThreadPool currentPool = ThreadPool.currentPool();
+            for (int i = 0; i < pending.size(); i++) {
+                NodeTask task = currentPool != null ? runInvisible(currentPool, finished) : finished.take();
+                if (!task.m_success && success) {
+                    success = false;
+                    pool.interruptAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            pool.interruptAll();
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+        return success;
+    }
+
+    /** Waits for the next finished task without occupying a slot in the (global) pool of the calling thread. */
+    private static NodeTask runInvisible(final ThreadPool pool, final BlockingQueue<NodeTask> finished)
+        throws InterruptedException {
+        try {
+            return pool.runInvisible(finished::take);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InterruptedException) {
+                throw (InterruptedException)e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs a callable that blocks on other tasks in the calling thread (a worker of the sub pool created in
+     * {@link #run(List)}) without counting it against the maximum number of threads of the sub pool and the global
+     * pool, so that the tasks it waits for can be started.
+     */
+    private static <T> T runInvisible(final Callable<T> callable) throws InterruptedException, ExecutionException {
+        ThreadPool pool = ThreadPool.currentPool();
+        if (pool == null) {
+            try {
+                return callable.call();
+            } catch (InterruptedException | ExecutionException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+        }
+        try {
+            return pool.runInvisible(() -> KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(callable));
+        } catch (ExecutionException e) {
+            // unwrap the exceptions added by both pools
+            Throwable cause = e.getCause() instanceof ExecutionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException)cause;
+            }
+            throw new ExecutionException(cause);
+        }
+    }
+
+    /** The execution of a single inner node. */
+    private static final class NodeTask {
+
+        private final WorkflowManager m_wfm;
+
+        private final NativeNodeContainer m_nnc;
+
+        private final Node m_node;
+
+        /** Source nodes, indexed by input port (including the flow variable port). */
+        private final NodeTask[] m_sources;
+
+        private final int[] m_sourcePorts;
+
+        /** Completes once the outputs of the node have been set. */
+        private final CompletableFuture<Void> m_done = new CompletableFuture<>();
+
+        private boolean m_isStreamed;
+
+        /** Whether this node (transitively) depends on a streamed node. */
+        private boolean m_dependsOnStreamed;
+
+        /** The port that is read from the channel of a streamed source or -1. */
+        private int m_streamedPort = -1;
+
+        private RowInput m_streamInput;
+
+        /** The table outputs of a streamed node, indexed by output port, null if not streamed. */
+        private StreamingRowChannel[] m_channels;
+
+        private volatile boolean m_success;
+
+        NodeTask(final WorkflowManager wfm, final NativeNodeContainer nnc) {
+            m_wfm = wfm;
+            m_nnc = nnc;
+            m_node = nnc.getNode();
+            m_sources = new NodeTask[nnc.getNrInPorts()];
+            m_sourcePorts = new int[nnc.getNrInPorts()];
+        }
+
+        /** Called in topological order, i.e. after all sources have been planned. */
+        void planStreaming(final int chunkSize, final int queueCapacity) {
+            for (NodeTask source : m_sources) {
+                if (source != null && (source.m_isStreamed || source.m_dependsOnStreamed)) {
+                    m_dependsOnStreamed = true;
+                }
+            }
+            if (m_nnc.getNodeContainerState().isExecuted() || !isStreamable()) {
+                return;
+            }
+            for (int p = 0; p < m_sources.length; p++) {
+                NodeTask source = m_sources[p];
+                if (source == null) {
+                    continue;
+                }
+                if (source.m_isStreamed && p > 0 && isTablePort(m_node.getInputType(p).getPortObjectClass())
+                        && source.m_channels[m_sourcePorts[p]] != null && m_streamedPort < 0) {
+                    m_streamedPort = p;
+                } else if (source.m_isStreamed || source.m_dependsOnStreamed) {
+                    // waiting for the full output of such a node could block the streamed source
+                    m_streamedPort = -1;
+                    return;
+                }
+            }
+            m_channels = new StreamingRowChannel[m_node.getNrOutPorts()];
+            for (int i = 1; i < m_channels.length; i++) {
+                if (isTablePort(m_node.getOutputType(i).getPortObjectClass())) {
+                    m_channels[i] = new StreamingRowChannel(
+                        (DataTableSpec)m_node.getOutputSpec(i), chunkSize, queueCapacity);
+                }
+            }
+            m_isStreamed = true;
+        }
+
+        private boolean isStreamable() {
+            if (m_nnc.isModelCompatibleTo(ScopeStartNode.class) || m_nnc.isModelCompatibleTo(ScopeEndNode.class)
+                || m_nnc.isModelCompatibleTo(InactiveBranchConsumer.class)
+                || m_nnc.isModelCompatibleTo(VirtualSubNodeOutputNodeModel.class)) {
+                return false;
+            }
+            NodeModel model = m_node.getNodeModel();
+            InputPortRole[] inRoles = model.getInputPortRoles();
+            boolean hasTableInput = false;
+            for (int p = 1; p < m_node.getNrInPorts(); p++) {
+                if (isTablePort(m_node.getInputType(p).getPortObjectClass())) {
+                    if (!inRoles[p - 1].isStreamable()) {
+                        return false;
+                    }
+                    hasTableInput = true;
+                }
+            }
+            for (int i = 1; i < m_node.getNrOutPorts(); i++) {
+                if (isTablePort(m_node.getOutputType(i).getPortObjectClass())
+                    && !(m_node.getOutputSpec(i) instanceof DataTableSpec)) {
+                    return false;
+                }
+            }
+            return hasTableInput && model.createMergeOperator() == null
+                && !model.iterate(model.createInitialStreamableOperatorInternals());
+        }
+
+        private static boolean isTablePort(final Class<? extends PortObject> portObjectClass) {
+            return BufferedDataTable.class.isAssignableFrom(portObjectClass);
+        }
+
+        /**
+         * Runs the node, sets {@link #m_success} and completes {@link #m_done}. Streamed nodes run invisibly to the
+         * pool (they block on their row channels), all others while waiting for their sources.
+         */
+        void execute() {
+            if (!m_isStreamed) {
+                executeInternal();
+                return;
+            }
+            try {
+                runInvisible(() -> {
+                    executeInternal();
+                    return null;
+                });
+            } catch (InterruptedException | ExecutionException e) { // NOSONAR executeInternal handles all exceptions
+                m_success = false;
+                complete();
+            }
+        }
+
+        /** Waits for the outputs of a source node to be set. */
+        private void awaitSource(final NodeTask source) throws InterruptedException, ExecutionException {
+            if (m_isStreamed) {
+                // already invisible to the pool
+                source.m_done.get();
+            } else {
+                runInvisible(source.m_done::get);
+            }
+        }
+
+        private void executeInternal() {
+            ExecutionContext exec = m_nnc.createExecutionContext();
+            m_node.openFileStoreHandler(exec);
+            NodeContext.pushContext(m_nnc);
+            try {
+                PortObject[] inData = new PortObject[m_sources.length];
+                for (int p = 0; p < m_sources.length; p++) {
+                    NodeTask source = m_sources[p];
+                    if (source != null && p != m_streamedPort) {
+                        awaitSource(source);
+                        inData[p] = source.m_node.getOutputObject(m_sourcePorts[p]);
+                    }
+                }
+                if (inData[0] == null) {
+                    inData[0] = FlowVariablePortObject.INSTANCE;
+                }
+                boolean isInactive = Node.containsInactiveObjects(inData);
+                if (m_streamedPort >= 0
+                    && m_sources[m_streamedPort].m_channels[m_sourcePorts[m_streamedPort]].isProducerInactive()) {
+                    inData[m_streamedPort] = InactiveBranchPortObject.INSTANCE;
+                    isInactive = true;
+                }
+                boolean success;
+                if (m_isStreamed && !isInactive) {
+                    success = executeStreamed(inData, exec);
+                } else {
+                    if (m_streamInput != null) {
+                        m_streamInput.close();
+                    }
+                    if (m_isStreamed) {
+                        for (StreamingRowChannel channel : m_channels) {
+                            if (channel != null) {
+                                channel.openInactive();
+                            }
+                        }
+                        success = true;
+                    } else {
+                        success = configureWithCurrentFlowObjectStack();
+                    }
+                    success = success && m_node.execute(inData, new ExecutionEnvironment(), exec);
+                }
+                if (success) {
+                    m_nnc.putOutputTablesIntoGlobalRepository(exec);
+                }
+                m_success = success;
+            } catch (InterruptedException | ExecutionException | CanceledExecutionException e) {
+                // canceled or a source failed, the error is reported on the failing node
+                m_success = false;
+            } catch (Throwable t) {
+                LOGGER.error("Streamed execution of " + m_nnc.getNameWithID() + " failed: " + t.getMessage(), t);
+                m_nnc.setNodeMessage(NodeMessage.newError("Execute failed: " + t.getMessage()));
+                m_success = false;
+            } finally {
+                NodeContext.removeLastContext();
+                if (m_streamInput != null) {
+                    // unblocks the source in case this node didn't read its input completely
+                    m_streamInput.close();
+                }
+                complete();
+            }
+        }
+
+        /** Completes {@link #m_done} according to {@link #m_success}, aborting the row channels on failure. */
+        private void complete() {
+            if (m_success) {
+                m_done.complete(null);
+            } else {
+                if (m_channels != null) {
+                    for (StreamingRowChannel channel : m_channels) {
+                        if (channel != null) {
+                            channel.abort();
+                        }
+                    }
+                }
+                m_done.completeExceptionally(new IllegalStateException(m_nnc.getNameWithID() + " failed"));
+            }
+        }
+
+        /**
+         * Updates the node's flow variables with the variables pushed by its (now executed) sources and configures
+         * it, as done by the framework prior execution.
+         */
+        private boolean configureWithCurrentFlowObjectStack() {
+            FlowObjectStack[] stacks = new FlowObjectStack[m_sources.length];
+            PortObjectSpec[] inSpecs = new PortObjectSpec[m_sources.length];
+            for (int p = 0; p < m_sources.length; p++) {
+                if (m_sources[p] != null) {
+                    stacks[p] = m_sources[p].m_nnc.getOutPort(m_sourcePorts[p]).getFlowObjectStack();
+                    inSpecs[p] = m_sources[p].m_node.getOutputSpec(m_sourcePorts[p]);
+                }
+            }
+            try (WorkflowLock lock = m_wfm.lock()) {
+                m_wfm.createAndSetFlowObjectStackFor(m_nnc, stacks);
+            }
+            return m_nnc.callNodeConfigure(inSpecs, true);
+        }
+
+        private boolean executeStreamed(final PortObject[] inData, final ExecutionContext exec) throws Exception {
+            PortObjectSpec[] inSpecs = new PortObjectSpec[m_sources.length - 1];
+            PortInput[] inputs = new PortInput[m_sources.length - 1];
+            for (int p = 1; p < m_sources.length; p++) {
+                if (m_sources[p] != null) {
+                    inSpecs[p - 1] = m_sources[p].m_node.getOutputSpec(m_sourcePorts[p]);
+                }
+                if (p == m_streamedPort) {
+                    inputs[p - 1] = m_streamInput;
+                } else if (inData[p] instanceof BufferedDataTable) {
+                    inputs[p - 1] = new DataTableRowInput((BufferedDataTable)inData[p]);
+                } else if (inData[p] != null) {
+                    inputs[p - 1] = new PortObjectInput(inData[p]);
+                }
+            }
+            PortOutput[] outputs = new PortOutput[m_channels.length - 1];
+            for (int i = 1; i < m_channels.length; i++) {
+                if (m_channels[i] != null) {
+                    m_channels[i].open(exec);
+                    outputs[i - 1] = m_channels[i];
+                } else {
+                    outputs[i - 1] = new PortObjectOutput();
+                }
+            }
+
+            StreamableOperator operator =
+                m_node.getNodeModel().createStreamableOperator(new PartitionInfo(0, 1), inSpecs);
+            operator.runFinal(inputs, outputs, exec);
+
+            PortObject[] outObjects = new PortObject[m_channels.length];
+            PortObjectSpec[] outSpecs = new PortObjectSpec[m_channels.length];
+            outObjects[0] = FlowVariablePortObject.INSTANCE;
+            outSpecs[0] = FlowVariablePortObjectSpec.INSTANCE;
+            for (int i = 1; i < m_channels.length; i++) {
+                StreamingRowChannel channel = m_channels[i];
+                if (channel != null) {
+                    // tolerate operators that don't close their outputs
+                    channel.close();
+                    outObjects[i] = channel.isMaterialized() ? channel.getTable()
+                        : exec.createVoidTable((DataTableSpec)m_node.getOutputSpec(i));
+                } else {
+                    outObjects[i] = ((PortObjectOutput)outputs[i - 1]).getPortObject();
+                    if (outObjects[i] == null) {
+                        throw new IllegalStateException("No output set at port " + i);
+                    }
+                }
+                outSpecs[i] = outObjects[i].getSpec();
+            }
+
+            NodeExecutionResult nodeResult = new NodeExecutionResult();
+            nodeResult.setPortObjects(outObjects);
+            nodeResult.setPortObjectSpecs(outSpecs);
+            NodeMessage message = m_nnc.getNodeMessage();
+            if (message.getMessageType() == NodeMessage.Type.WARNING) {
+                nodeResult.setWarningMessage(message.getMessage());
+            }
+            NativeNodeContainerExecutionResult result = new NativeNodeContainerExecutionResult();
+            result.setNodeExecutionResult(nodeResult);
+            result.setMessage(message);
+            result.setSuccess(true);
+            LoadResult loadResult = new LoadResult("Streamed execution of " + m_nnc.getNameWithID());
+            m_nnc.loadExecutionResult(result, new ExecutionMonitor(), loadResult);
+            if (loadResult.hasErrors() || result.needsResetAfterLoad()) {
+                throw new IllegalStateException(loadResult.getFilteredError("", LoadResultEntryType.Error));
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.exec;
+
+import java.net.URL;
+import java.util.concurrent.Future;
+
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.workflow.AbstractNodeExecutionJobManager;
+import org.knime.core.node.workflow.NodeContainer;
+import org.knime.core.node.workflow.NodeExecutionJob;
+import org.knime.core.node.workflow.SubNodeContainer;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Job manager for components that executes all inner nodes concurrently. Nodes whose inputs are streamable are
+ * connected through bounded row queues and process their input while it is being generated; only the outputs
+ * consumed by nodes that can't stream are materialized as tables. See {@link StreamingNodeExecutionJob} for the
+ * exact rules.
+ *
+ * <p>
+ * Components containing loops, metanodes or other components can't be executed with this job manager.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public class StreamingNodeExecutionJobManager extends AbstractNodeExecutionJobManager {
+
+    /** Default for {@link #getChunkSize()}. */
+    public static final int DEF_CHUNK_SIZE = 256;
+
+    /** Default for {@link #getQueueCapacity()}. */
+    public static final int DEF_QUEUE_CAPACITY = 8;
+
+    private static final String CFG_CHUNK_SIZE = "rows.per.chunk";
+
+    private static final String CFG_QUEUE_CAPACITY = "max.queued.chunks";
+
+    private final ThreadPool m_pool;
+
+    private int m_chunkSize = DEF_CHUNK_SIZE;
+
+    private int m_queueCapacity = DEF_QUEUE_CAPACITY;
+
+    /** Creates a new job manager running its jobs on the global thread pool. */
+    public StreamingNodeExecutionJobManager() {
+        this(KNIMEConstants.GLOBAL_THREAD_POOL);
+    }
+
+    /**
+     * @param pool the pool to run the jobs on; the inner nodes of a component are run on a sub pool of the global
+     *            thread pool
+     */
+    public StreamingNodeExecutionJobManager(final ThreadPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("arg must not be null");
+        }
+        m_pool = pool;
+    }
+
+    /** @return the number of rows handed from one streamed node to the next at once */
+    public int getChunkSize() {
+        return m_chunkSize;
+    }
+
+    /**
+     * @param chunkSize the number of rows handed from one streamed node to the next at once, must be positive
+     */
+    public void setChunkSize(final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        m_chunkSize = chunkSize;
+    }
+
+    /** @return the maximum number of chunks queued between two streamed nodes */
+    public int getQueueCapacity() {
+        return m_queueCapacity;
+    }
+
+    /**
+     * @param queueCapacity the maximum number of chunks queued between two streamed nodes, must be positive
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        m_queueCapacity = queueCapacity;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean canExecute(final NodeContainer nc) {
+        return nc instanceof SubNodeContainer;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NodeExecutionJob submitJob(final NodeContainer nc, final PortObject[] data) {
+        if (!(nc instanceof SubNodeContainer)) {
+            throw new IllegalStateException(getClass().getSimpleName()
+                    + " is only able to execute components: " + nc.getNameWithID());
+        }
+        StreamingNodeExecutionJob job =
+            new StreamingNodeExecutionJob((SubNodeContainer)nc, data, m_chunkSize, m_queueCapacity);
+        Future<?> future = m_pool.enqueue(job);
+        job.setFuture(future);
+        return job;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void save(final NodeSettingsWO settings) {
+        settings.addInt(CFG_CHUNK_SIZE, m_chunkSize);
+        settings.addInt(CFG_QUEUE_CAPACITY, m_queueCapacity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void load(final NodeSettingsRO settings) throws InvalidSettingsException {
+        int chunkSize = settings.getInt(CFG_CHUNK_SIZE, DEF_CHUNK_SIZE);
+        int queueCapacity = settings.getInt(CFG_QUEUE_CAPACITY, DEF_QUEUE_CAPACITY);
+        if (chunkSize <= 0 || queueCapacity <= 0) {
+            throw new InvalidSettingsException(
+                "Chunk size and queue capacity must be positive: " + chunkSize + ", " + queueCapacity);
+        }
+        m_chunkSize = chunkSize;
+        m_queueCapacity = queueCapacity;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getID() {
+        return StreamingNodeExecutionJobManagerFactory.INSTANCE.getID();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Streaming Job Manager";
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public URL getIcon() {
+        return null;
+    }
+
+}
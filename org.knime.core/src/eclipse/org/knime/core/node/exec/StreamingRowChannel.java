@@ -0,0 +1,332 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.exec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+
+/**
+ * The output of a streamed node in a {@link StreamingNodeExecutionJob}. Rows pushed by the producing node are grouped
+ * into chunks and handed to each consuming node through a bounded queue, i.e. a producer blocks while any of its
+ * streaming consumers lags behind. If the output is also needed as a whole (by a node that can't stream or as output
+ * of the node itself) the rows are additionally written into a table.
+ *
+ * <p>
+ * Consumers are registered before any of the nodes is run; the channel is written by a single producer thread.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class StreamingRowChannel extends RowOutput {
+
+    /** Marks the end of a stream, compared by identity. */
+    private static final List<DataRow> END_OF_STREAM = Collections.unmodifiableList(new ArrayList<>(0));
+
+    private final DataTableSpec m_spec;
+
+    private final int m_chunkSize;
+
+    private final int m_queueCapacity;
+
+    private final List<ChannelRowInput> m_consumers = new ArrayList<>();
+
+    /** Completed by the producer before it pushes the first row; true if the output is part of an inactive branch. */
+    private final CompletableFuture<Boolean> m_inactiveFuture = new CompletableFuture<>();
+
+    private boolean m_isMaterialized;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataContainer m_container;
+
+    private BufferedDataTable m_table;
+
+    private List<DataRow> m_chunk;
+
+    private boolean m_isClosed;
+
+    /**
+     * @param spec the spec of the rows in this channel
+     * @param chunkSize the number of rows handed to consumers at once
+     * @param queueCapacity the maximum number of chunks queued per consumer
+     */
+    StreamingRowChannel(final DataTableSpec spec, final int chunkSize, final int queueCapacity) {
+        m_spec = spec;
+        m_chunkSize = chunkSize;
+        m_queueCapacity = queueCapacity;
+        m_chunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Registers a new streaming consumer. Only to be called before the producer is started.
+     *
+     * @return the input to be read by the consumer
+     */
+    RowInput createConsumer() {
+        ChannelRowInput input = new ChannelRowInput(this);
+        m_consumers.add(input);
+        return input;
+    }
+
+    /** Requests the rows to be collected in a table, see {@link #getTable()}. Only to be called during planning. */
+    void setMaterialized() {
+        m_isMaterialized = true;
+    }
+
+    /** @return whether the rows are collected in a table */
+    boolean isMaterialized() {
+        return m_isMaterialized;
+    }
+
+    /** @return whether this channel has streaming consumers */
+    boolean hasConsumers() {
+        return !m_consumers.isEmpty();
+    }
+
+    /**
+     * Called by the producer before it writes any row.
+     *
+     * @param exec the context of the producing node, used to create the table if the channel is materialized
+     */
+    void open(final ExecutionContext exec) {
+        m_exec = exec;
+        m_inactiveFuture.complete(Boolean.FALSE);
+    }
+
+    /**
+     * Called by the producer instead of {@link #open(ExecutionContext)} if it is part of an inactive branch. Ends the
+     * stream for all consumers.
+     *
+     * @throws InterruptedException if interrupted while waiting for a consumer
+     */
+    void openInactive() throws InterruptedException {
+        m_inactiveFuture.complete(Boolean.TRUE);
+        for (ChannelRowInput consumer : m_consumers) {
+            consumer.offer(END_OF_STREAM);
+        }
+        m_isClosed = true;
+    }
+
+    /** Called when the producer failed or was canceled, consumers will fail when asking for the branch status. */
+    void abort() {
+        m_inactiveFuture.completeExceptionally(new IllegalStateException("Producing node did not execute"));
+    }
+
+    /**
+     * Blocks until the producer has started.
+     *
+     * @return whether the producer is part of an inactive branch
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if the producer failed before it started
+     */
+    boolean isProducerInactive() throws InterruptedException, ExecutionException {
+        return m_inactiveFuture.get();
+    }
+
+    /** @return whether {@link #close()} has been called */
+    boolean isClosed() {
+        return m_isClosed;
+    }
+
+    /**
+     * @return the collected table, only available if the channel is {@linkplain #isMaterialized() materialized} and
+     *         closed
+     */
+    BufferedDataTable getTable() {
+        if (m_table == null) {
+            if (m_container == null) {
+                m_container = m_exec.createDataContainer(m_spec);
+            }
+            m_container.close();
+            m_table = m_container.getTable();
+        }
+        return m_table;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void push(final DataRow row) throws InterruptedException {
+        if (m_isClosed) {
+            throw new IllegalStateException("Output has already been closed");
+        }
+        if (m_isMaterialized) {
+            if (m_container == null) {
+                m_container = m_exec.createDataContainer(m_spec);
+            }
+            m_container.addRowToTable(row);
+        }
+        if (!m_consumers.isEmpty()) {
+            m_chunk.add(row);
+            if (m_chunk.size() >= m_chunkSize) {
+                flush();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setFully(final BufferedDataTable table) throws InterruptedException {
+        if (m_isClosed || m_container != null || !m_chunk.isEmpty()) {
+            throw new IllegalStateException("Rows have already been added to the output");
+        }
+        if (m_isMaterialized) {
+            // no need to copy, the table becomes the node's output
+            m_table = table;
+        }
+        if (!m_consumers.isEmpty()) {
+            for (DataRow row : table) {
+                m_chunk.add(row);
+                if (m_chunk.size() >= m_chunkSize) {
+                    flush();
+                }
+            }
+        }
+        close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws InterruptedException {
+        if (m_isClosed) {
+            return;
+        }
+        flush();
+        for (ChannelRowInput consumer : m_consumers) {
+            consumer.offer(END_OF_STREAM);
+        }
+        m_isClosed = true;
+    }
+
+    private void flush() throws InterruptedException {
+        if (m_chunk.isEmpty()) {
+            return;
+        }
+        List<DataRow> chunk = m_chunk;
+        m_chunk = new ArrayList<>(m_chunkSize);
+        for (ChannelRowInput consumer : m_consumers) {
+            consumer.offer(chunk);
+        }
+    }
+
+    /** The input of a single streaming consumer, reading from its own bounded queue. */
+    private static final class ChannelRowInput extends RowInput {
+
+        private final StreamingRowChannel m_channel;
+
+        private final BlockingQueue<List<DataRow>> m_queue;
+
+        private Iterator<DataRow> m_currentChunk = Collections.emptyIterator();
+
+        private boolean m_isEndReached;
+
+        private volatile boolean m_isClosed;
+
+        ChannelRowInput(final StreamingRowChannel channel) {
+            m_channel = channel;
+            m_queue = new ArrayBlockingQueue<>(channel.m_queueCapacity);
+        }
+
+        /** Called by the producer; chunks are dropped once the consumer has closed its input. */
+        void offer(final List<DataRow> chunk) throws InterruptedException {
+            if (!m_isClosed) {
+                m_queue.put(chunk);
+            }
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return m_channel.m_spec;
+        }
+
+        @Override
+        public DataRow poll() throws InterruptedException {
+            while (!m_currentChunk.hasNext()) {
+                if (m_isEndReached || m_isClosed) {
+                    return null;
+                }
+                List<DataRow> chunk = m_queue.take();
+                if (chunk == END_OF_STREAM) {
+                    m_isEndReached = true;
+                    return null;
+                }
+                m_currentChunk = chunk.iterator();
+            }
+            return m_currentChunk.next();
+        }
+
+        @Override
+        public boolean isInactive() throws InterruptedException {
+            try {
+                return m_channel.isProducerInactive();
+            } catch (ExecutionException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            m_isClosed = true;
+            m_currentChunk = Collections.emptyIterator();
+            // unblock the producer in case it is waiting for space in the queue
+            m_queue.clear();
+        }
+    }
+
+}
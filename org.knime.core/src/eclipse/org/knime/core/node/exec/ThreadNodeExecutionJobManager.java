@@ -67,8 +67,15 @@ public class ThreadNodeExecutionJobManager extends AbstractNodeExecutionJobManag
     public static final ThreadNodeExecutionJobManager INSTANCE =
             new ThreadNodeExecutionJobManager();
 
+    /** Set this property to submit node jobs in the order they become executable (the behavior prior 4.4). */
+    private static final boolean DISABLE_CRITICAL_PATH_SCHEDULING =
+        Boolean.getBoolean("knime.jobmanager.criticalpath.disable");
+
     private final ThreadPool m_pool;
 
+    /** Orders jobs waiting for a thread so that nodes on the most expensive remaining path run first. */
+    private final RankedJobQueue m_jobQueue;
+
     public ThreadNodeExecutionJobManager() {
         this(KNIMEConstants.GLOBAL_THREAD_POOL);
     }
@@ -78,6 +85,7 @@ public ThreadNodeExecutionJobManager(final ThreadPool pool) {
             throw new NullPointerException("arg must not be null");
         }
         m_pool = pool;
+        m_jobQueue = new RankedJobQueue(pool);
     }
 
     /** {@inheritDoc} */
@@ -88,7 +96,12 @@ public NodeExecutionJob submitJob(final NodeContainer nc, final PortObject[] dat
                     + " is not able to execute a metanode: " + nc.getNameWithID());
         }
         LocalNodeExecutionJob job = new LocalNodeExecutionJob((SingleNodeContainer)nc, data);
-        Future<?> future = m_pool.enqueue(job);
+        Future<?> future;
+        if (DISABLE_CRITICAL_PATH_SCHEDULING || nc.getParent() == null) {
+            future = m_pool.enqueue(job);
+        } else {
+            future = m_jobQueue.enqueue(job, nc.getParent().getCriticalPathCost(nc.getID()));
+        }
         job.setFuture(future);
         return job;
     }
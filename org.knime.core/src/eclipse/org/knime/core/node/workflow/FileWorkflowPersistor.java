@@ -62,11 +62,15 @@
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.knime.core.data.TableBackend;
 import org.knime.core.internal.ReferencedFile;
@@ -89,6 +93,7 @@
 import org.knime.core.util.FileUtil;
 import org.knime.core.util.LoadVersion;
 import org.knime.core.util.LockFailedException;
+import org.knime.core.util.ThreadPool;
 import org.knime.core.util.workflowalizer.AuthorInformation;
 
 /**
@@ -166,6 +171,23 @@ public String toString() {
 
     private static final NodeSettingsRO EMPTY_SETTINGS = new NodeSettings("<<empty>>");
 
+    /**
+     * Set this property to parse the settings of the nodes in a workflow one after another (the behavior prior 4.4).
+     * The property is read whenever a workflow is loaded.
+     */
+    static final String PROPERTY_SEQUENTIAL_PRELOAD = "knime.workflow.load.sequential";
+
+    /** Set this property to save the nodes in a workflow one after another (the behavior prior 4.4). */
+    private static final boolean DISABLE_CONCURRENT_SAVE = Boolean.getBoolean("knime.workflow.save.sequential");
+
+    /**
+     * The maximum number of nodes of a workflow saved at the same time (set via "knime.workflow.save.maxthreads"). The
+     * nodes are saved while the workflow lock is held, so they are bounded to not occupy the global thread pool (and
+     * the disk) beyond what pays off.
+     */
+    private static final int MAX_CONCURRENT_SAVES = Math.max(1,
+        Integer.getInteger("knime.workflow.save.maxthreads", Math.min(4, Runtime.getRuntime().availableProcessors())));
+
     /** The node logger for this class. */
     private final NodeLogger m_logger = NodeLogger.getLogger(getClass());
 
@@ -875,6 +897,7 @@ public void loadNodeContainer(final Map<Integer, BufferedDataTable> tblRep, fina
             new HashMap<Integer, NodeFactoryUnknownException>();
         exec.setMessage("node information");
         final ReferencedFile workflowDirRef = workflowKNIMEFile.getParent();
+        final List<NodeToPreLoad> nodesToPreLoad = new ArrayList<>(nodes.keySet().size());
         /* Load nodes */
         for (String nodeKey : nodes.keySet()) {
             exec.checkCanceled();
@@ -965,11 +988,18 @@ public void loadNodeContainer(final Map<Integer, BufferedDataTable> tblRep, fina
                 default:
                     throw new IllegalStateException("Unknown node type: " + nodeType);
             }
-            try {
-                LoadResult childResult = new LoadResult(nodeType.toString() + " with ID suffix " + nodeIDSuffix);
-                persistor.preLoadNodeContainer(this, nodeSetting, childResult);
-                loadResult.addChildError(childResult);
-            } catch (Throwable e) {
+            nodesToPreLoad.add(new NodeToPreLoad(nodeIDSuffix, nodeType, nodeUIInfo, nodeFile, nodeSetting, persistor));
+        }
+        /* parse the settings of all nodes (possibly concurrently), then add them to the workflow in the original order */
+        preLoadNodes(nodesToPreLoad, exec);
+        for (NodeToPreLoad nodeToPreLoad : nodesToPreLoad) {
+            int nodeIDSuffix = nodeToPreLoad.m_nodeIDSuffix;
+            final ReferencedFile nodeFile = nodeToPreLoad.m_nodeFile;
+            final FromFileNodeContainerPersistor persistor = nodeToPreLoad.m_persistor;
+            final Throwable e = nodeToPreLoad.m_failure;
+            if (e == null) {
+                loadResult.addChildError(nodeToPreLoad.m_result);
+            } else {
                 String error =
                     "Unable to load node with ID suffix " + nodeIDSuffix + " into workflow, skipping it: "
                         + e.getMessage();
@@ -1006,7 +1036,7 @@ public void loadNodeContainer(final Map<Integer, BufferedDataTable> tblRep, fina
                 nodeIDSuffix = randomID;
             }
             meta.setNodeIDSuffix(nodeIDSuffix);
-            meta.setUIInfo(nodeUIInfo);
+            meta.setUIInfo(nodeToPreLoad.m_nodeUIInfo);
             if (persistor.isDirtyAfterLoad()) {
                 setDirtyAfterLoad();
             }
@@ -1116,6 +1146,49 @@ public void loadNodeContainer(final Map<Integer, BufferedDataTable> tblRep, fina
         exec.setProgress(1.0);
     }
 
+    /**
+     * Calls {@link FromFileNodeContainerPersistor#preLoadNodeContainer(WorkflowPersistor, NodeSettingsRO, LoadResult)}
+     * on all argument nodes, which parses their settings and instantiates their node models. Native nodes are
+     * pre-loaded concurrently in the global thread pool; metanodes and components are pre-loaded in the calling thread
+     * as they load their contained workflow, which calls back the {@link WorkflowLoadHelper} (e.g. to ask for
+     * credentials) and these callbacks aren't required to be thread-safe. Errors are recorded in the individual {@link NodeToPreLoad}
+     * objects, the caller processes them in the original order, so that the load result and the assignment of node
+     * IDs don't depend on the order in which the nodes complete.
+     */
+    private void preLoadNodes(final List<NodeToPreLoad> nodesToPreLoad, final ExecutionMonitor exec)
+        throws CanceledExecutionException {
+        final List<Future<?>> futures = new ArrayList<>();
+        final boolean isConcurrent = !Boolean.getBoolean(PROPERTY_SEQUENTIAL_PRELOAD) && nodesToPreLoad.size() > 1;
+        try {
+            if (isConcurrent) {
+                final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool();
+                for (NodeToPreLoad nodeToPreLoad : nodesToPreLoad) {
+                    if (nodeToPreLoad.m_nodeType == NodeType.NativeNode) {
+                        futures.add(pool.enqueue(() -> nodeToPreLoad.preLoad(this)));
+                    }
+                }
+            }
+            for (NodeToPreLoad nodeToPreLoad : nodesToPreLoad) {
+                if (!isConcurrent || nodeToPreLoad.m_nodeType != NodeType.NativeNode) {
+                    exec.checkCanceled();
+                    nodeToPreLoad.preLoad(this);
+                }
+            }
+            for (Future<?> future : futures) {
+                exec.checkCanceled();
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Interrupted while loading nodes");
+        } catch (ExecutionException e) {
+            // preLoad catches all throwables
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
     private NodeUIInformation loadNodeUIInformation(final NodeSettingsRO nodeSetting) throws InvalidSettingsException {
         // in previous releases, the settings were directly written to the
         // top-most node settings object; since 2.0 they are put into a
@@ -1958,19 +2031,25 @@ private static void saveContent(final WorkflowManager wm, final NodeSettings pre
             Collection<NodeContainer> nodes = wm.getNodeContainers();
             double progRatio = 1.0 / (nodes.size() + 1);
 
+            final ReferencedFile nodesParentDirRef = workflowDirRef;
+            final Map<NodeContainer, Callable<Void>> nodeSaveTasks = new LinkedHashMap<>();
             for (NodeContainer nextNode : nodes) {
                 int id = nextNode.getID().getIndex();
                 ExecutionMonitor subExec = execMon.createSubProgress(progRatio);
-                execMon.setMessage(nextNode.getNameWithID());
                 NodeSettingsWO sub = nodesSettings.addNodeSettings("node_" + id);
-                NodeContext.pushContext(nextNode);
-                try {
-                    saveNodeContainer(sub, workflowDirRef, nextNode, subExec, saveHelper);
-                } finally {
-                    NodeContext.removeLastContext();
-                }
-                subExec.setProgress(1.0);
+                nodeSaveTasks.put(nextNode, () -> {
+                    execMon.setMessage(nextNode.getNameWithID());
+                    NodeContext.pushContext(nextNode);
+                    try {
+                        saveNodeContainer(sub, nodesParentDirRef, nextNode, subExec, saveHelper);
+                    } finally {
+                        NodeContext.removeLastContext();
+                    }
+                    subExec.setProgress(1.0);
+                    return null;
+                });
             }
+            saveNodeContainers(nodeSaveTasks);
 
             execMon.setMessage("connection information");
             NodeSettingsWO connSettings = saveSettingsForConnections(preFilledSettings);
@@ -2048,6 +2127,68 @@ private static void saveContent(final WorkflowManager wm, final NodeSettings pre
         }
     }
 
+    /**
+     * Runs the save tasks of the nodes in a workflow. Native nodes are saved concurrently in the global thread pool
+     * (at most {@link #MAX_CONCURRENT_SAVES} at a time), which mostly means writing their output tables (nodes that
+     * aren't dirty return immediately); metanodes and components are saved in the calling thread, their content is in
+     * turn saved concurrently. All tasks have completed when this method returns, also in case one of them failed.
+     *
+     * <p>
+     * The caller holds the workflow lock for the entire save, i.e. other threads that need to lock the workflow (e.g.
+     * to update node states) block until all tasks have completed. The tasks themselves must therefore not acquire the
+     * workflow lock -- they would wait for the calling thread, which in turn waits for them.
+     */
+    private static void saveNodeContainers(final Map<NodeContainer, Callable<Void>> nodeSaveTasks)
+        throws IOException, CanceledExecutionException, LockFailedException {
+        final List<Future<Void>> futures = new ArrayList<>();
+        final boolean isConcurrent = !DISABLE_CONCURRENT_SAVE
+            && nodeSaveTasks.keySet().stream().filter(NativeNodeContainer.class::isInstance).count() > 1;
+        if (isConcurrent) {
+            final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(MAX_CONCURRENT_SAVES);
+            nodeSaveTasks.forEach((nc, task) -> {
+                if (nc instanceof NativeNodeContainer) {
+                    futures.add(pool.enqueue(task));
+                }
+            });
+        }
+        Throwable failure = null;
+        for (Map.Entry<NodeContainer, Callable<Void>> e : nodeSaveTasks.entrySet()) {
+            if (!isConcurrent || !(e.getKey() instanceof NativeNodeContainer)) {
+                try {
+                    e.getValue().call();
+                } catch (Exception ex) { // NOSONAR rethrown below
+                    failure = ex;
+                    break;
+                }
+            }
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                failure = new CanceledExecutionException("Interrupted while saving nodes");
+                break;
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException)failure;
+        } else if (failure instanceof CanceledExecutionException) {
+            throw (CanceledExecutionException)failure;
+        } else if (failure instanceof LockFailedException) {
+            throw (LockFailedException)failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        } else if (failure instanceof Error) {
+            throw (Error)failure;
+        } else if (failure != null) {
+            throw new IOException(failure.getMessage(), failure);
+        }
+    }
+
     /** Add version field. */
     static void saveHeader(final NodeSettings settings) {
         settings.addString(WorkflowLoadHelper.CFG_CREATED_BY, KNIMEConstants.VERSION);
@@ -2375,5 +2516,45 @@ protected static void saveConnection(final NodeSettingsWO settings, final Connec
         }
     }
 
+    /** A node listed in workflow.knime, along with the persistor that parses its settings and the outcome of it. */
+    private static final class NodeToPreLoad {
+
+        private final int m_nodeIDSuffix;
+
+        private final NodeType m_nodeType;
+
+        private final NodeUIInformation m_nodeUIInfo;
+
+        private final ReferencedFile m_nodeFile;
+
+        private final NodeSettingsRO m_nodeSetting;
+
+        private final FromFileNodeContainerPersistor m_persistor;
+
+        private final LoadResult m_result;
+
+        /** The exception thrown by the pre-load or null if it succeeded (or didn't run yet). */
+        private Throwable m_failure;
+
+        NodeToPreLoad(final int nodeIDSuffix, final NodeType nodeType, final NodeUIInformation nodeUIInfo,
+            final ReferencedFile nodeFile, final NodeSettingsRO nodeSetting,
+            final FromFileNodeContainerPersistor persistor) {
+            m_nodeIDSuffix = nodeIDSuffix;
+            m_nodeType = nodeType;
+            m_nodeUIInfo = nodeUIInfo;
+            m_nodeFile = nodeFile;
+            m_nodeSetting = nodeSetting;
+            m_persistor = persistor;
+            m_result = new LoadResult(nodeType.toString() + " with ID suffix " + nodeIDSuffix);
+        }
+
+        void preLoad(final FileWorkflowPersistor parentPersistor) {
+            try {
+                m_persistor.preLoadNodeContainer(parentPersistor, m_nodeSetting, m_result);
+            } catch (Throwable e) { // NOSONAR all errors are reported as load errors of the node
+                m_failure = e;
+            }
+        }
+    }
 
 }
@@ -64,9 +64,13 @@
 import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 
 import org.knime.core.data.TableBackend;
 import org.knime.core.data.TableBackendRegistry;
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.data.container.storage.CompressionCodecRegistry;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeDialogPane;
 import org.knime.core.node.NodeLogger;
@@ -336,6 +340,9 @@ private static final class TableBackendSelectorPanel extends JPanel {
 
         private final JComboBox<TableBackend> m_tableBackendCombo;
         private final JPanel m_descriptionPanel;
+        /** The available codecs and null for the default compression of the table format. */
+        private final JComboBox<CompressionCodec> m_compressionCombo;
+        private final JSpinner m_compressionLevelSpinner;
 
         /**
          *
@@ -364,6 +371,46 @@ public Component getListCellRendererComponent(final JList<?> list, final Object
             add(northPanel, BorderLayout.NORTH);
             m_descriptionPanel.setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, Color.BLACK));
             add(m_descriptionPanel, BorderLayout.CENTER);
+
+            List<CompressionCodec> codecs = new ArrayList<>();
+            codecs.add(null);
+            codecs.addAll(CompressionCodecRegistry.getInstance().getCompressionCodecs());
+            m_compressionCombo = new JComboBox<>(codecs.toArray(new CompressionCodec[0]));
+            m_compressionCombo.setRenderer(new DefaultListCellRenderer() { // NOSONAR
+                @Override
+                public Component getListCellRendererComponent(final JList<?> list, final Object value, final int index,
+                    final boolean isSelected, final boolean cellHasFocus) {
+                    Object newValue =
+                        value instanceof CompressionCodec ? ((CompressionCodec)value).getName() : "Default";
+                    return super.getListCellRendererComponent(list, newValue, index, isSelected, cellHasFocus);
+                }
+            });
+            m_compressionLevelSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 0, 1));
+            m_compressionCombo.addItemListener(e -> {
+                if (e.getStateChange() == ItemEvent.SELECTED) {
+                    onNewCompressionSelected(null);
+                }
+            });
+            onNewCompressionSelected(null);
+            JPanel southPanel = ViewUtils.getInFlowLayout(FlowLayout.CENTER, m_compressionCombo,
+                new JLabel("Level: "), m_compressionLevelSpinner);
+            southPanel.setBorder(BorderFactory.createTitledBorder(" Table Compression "));
+            add(southPanel, BorderLayout.SOUTH);
+        }
+
+        /** Updates the level spinner to the range of the selected codec, using the level of the loaded codec (if
+         * not null) or the default level. */
+        private void onNewCompressionSelected(final CompressionCodec loadedCodec) {
+            CompressionCodec codec = (CompressionCodec)m_compressionCombo.getSelectedItem();
+            if (codec == null) {
+                m_compressionLevelSpinner.setModel(new SpinnerNumberModel(0, 0, 0, 1));
+                m_compressionLevelSpinner.setEnabled(false);
+            } else {
+                int level = loadedCodec != null ? loadedCodec.getLevel() : codec.getLevel();
+                m_compressionLevelSpinner
+                    .setModel(new SpinnerNumberModel(level, codec.getMinLevel(), codec.getMaxLevel(), 1));
+                m_compressionLevelSpinner.setEnabled(codec.getMinLevel() < codec.getMaxLevel());
+            }
         }
 
         private void onNewBackendSelected() {
@@ -378,10 +425,19 @@ private void onNewBackendSelected() {
 
         void load(final WorkflowTableBackendSettings settings) {
             m_tableBackendCombo.setSelectedItem(settings.getTableBackend());
+            CompressionCodec codec = settings.getCompressionCodec().orElse(null);
+            // the combo box contains the codecs at their default level
+            m_compressionCombo.setSelectedItem(codec == null ? null
+                : CompressionCodecRegistry.getInstance().getCompressionCodec(codec.getName()).orElse(null));
+            onNewCompressionSelected(codec);
         }
 
         WorkflowTableBackendSettings toBackendSettings() {
-            return new WorkflowTableBackendSettings((TableBackend)m_tableBackendCombo.getSelectedItem());
+            CompressionCodec codec = (CompressionCodec)m_compressionCombo.getSelectedItem();
+            if (codec != null) {
+                codec = codec.withLevel((Integer)m_compressionLevelSpinner.getValue());
+            }
+            return new WorkflowTableBackendSettings((TableBackend)m_tableBackendCombo.getSelectedItem(), codec);
         }
     }
 
@@ -132,7 +132,8 @@ public boolean executionInProgress() {
         }
     };
 
-    private InternalNodeContainerState m_state;
+    /** Written under the node mutex, volatile as it's read without lock by status queries. */
+    private volatile InternalNodeContainerState m_state;
 
     private final NodeID m_id;
 
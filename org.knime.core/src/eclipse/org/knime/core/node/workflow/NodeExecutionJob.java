@@ -77,6 +77,8 @@ public abstract class NodeExecutionJob implements Runnable {
 
     private final NodeContainer m_nc;
     private final PortObject[] m_data;
+    /** Creation time (System#nanoTime), used to determine how long the job was queued. */
+    private final long m_creationNanos = System.nanoTime();
 
 
     /** Creates a new execution job for a given node. The array argument
@@ -112,6 +114,7 @@ public final void run() {
             Thread.currentThread().setName(customThreadName);
         }
 
+        m_nc.getNodeTimer().jobStarted(System.nanoTime() - m_creationNanos, m_data);
         NodeContext.pushContext(m_nc);
         try {
            internalRun();
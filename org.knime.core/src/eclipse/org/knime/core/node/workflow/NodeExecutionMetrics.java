@@ -0,0 +1,162 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+/**
+ * Metrics of the most recent execution of a node, as recorded by its {@link NodeTimer}. Besides the wall time they
+ * allow to tell whether a node is CPU-bound (CPU time close to wall time), I/O-bound (data spilled to disk, CPU time
+ * well below wall time) or slowed down by the framework (waiting for the workflow lock or for a thread to run on).
+ *
+ * <p>
+ * CPU time and allocated bytes are measured for the thread executing the node only, work that a node delegates to
+ * other threads isn't accounted for. They are -1 if the JVM doesn't support the measurement. Row counts are -1 for
+ * ports that don't carry a table (or whose data isn't available).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public final class NodeExecutionMetrics {
+
+    private final long m_wallTimeMillis;
+
+    private final long m_cpuTimeNanos;
+
+    private final long m_allocatedBytes;
+
+    private final long[] m_inputRowCounts;
+
+    private final long[] m_outputRowCounts;
+
+    private final long m_spilledBytes;
+
+    private final long m_lockWaitTimeNanos;
+
+    private final long m_queueTimeNanos;
+
+    NodeExecutionMetrics(final long wallTimeMillis, final long cpuTimeNanos, final long allocatedBytes,
+        final long[] inputRowCounts, final long[] outputRowCounts, final long spilledBytes,
+        final long lockWaitTimeNanos, final long queueTimeNanos) {
+        m_wallTimeMillis = wallTimeMillis;
+        m_cpuTimeNanos = cpuTimeNanos;
+        m_allocatedBytes = allocatedBytes;
+        m_inputRowCounts = inputRowCounts;
+        m_outputRowCounts = outputRowCounts;
+        m_spilledBytes = spilledBytes;
+        m_lockWaitTimeNanos = lockWaitTimeNanos;
+        m_queueTimeNanos = queueTimeNanos;
+    }
+
+    /**
+     * @return the elapsed time of the execution in milliseconds
+     */
+    public long getWallTimeMillis() {
+        return m_wallTimeMillis;
+    }
+
+    /**
+     * @return the CPU time consumed by the executing thread in nanoseconds, or -1 if not available
+     */
+    public long getCpuTimeNanos() {
+        return m_cpuTimeNanos;
+    }
+
+    /**
+     * @return the number of bytes allocated on the heap by the executing thread, or -1 if not available
+     */
+    public long getAllocatedBytes() {
+        return m_allocatedBytes;
+    }
+
+    /**
+     * @return the number of rows of the input tables, one element per input port (including the flow variable port of
+     *         native nodes), -1 for ports that don't carry a table
+     */
+    public long[] getInputRowCounts() {
+        return m_inputRowCounts.clone();
+    }
+
+    /**
+     * @return the number of rows of the output tables, one element per output port (including the flow variable port
+     *         of native nodes), -1 for ports that don't carry a table
+     */
+    public long[] getOutputRowCounts() {
+        return m_outputRowCounts.clone();
+    }
+
+    /**
+     * @return the number of bytes written to temporary files by tables that were created during the execution and that
+     *         didn't fit into memory
+     */
+    public long getSpilledBytes() {
+        return m_spilledBytes;
+    }
+
+    /**
+     * @return the time in nanoseconds the execution waited for the lock of a workflow that was held by another thread
+     */
+    public long getLockWaitTimeNanos() {
+        return m_lockWaitTimeNanos;
+    }
+
+    /**
+     * @return the time in nanoseconds the execution job was queued before a thread picked it up
+     */
+    public long getQueueTimeNanos() {
+        return m_queueTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("wall=%dms, cpu=%dms, allocated=%dB, spilled=%dB, lock wait=%dms, queued=%dms",
+            m_wallTimeMillis, toMillis(m_cpuTimeNanos), m_allocatedBytes, m_spilledBytes,
+            toMillis(m_lockWaitTimeNanos), toMillis(m_queueTimeNanos));
+    }
+
+    static long toMillis(final long nanos) {
+        return nanos < 0 ? nanos : nanos / 1_000_000L;
+    }
+}
@@ -53,13 +53,18 @@
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.net.URLEncoder;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.json.Json;
 import javax.json.JsonArray;
@@ -70,6 +75,9 @@
 import javax.json.JsonReader;
 import javax.json.JsonWriter;
 import javax.json.stream.JsonGenerator;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
@@ -97,6 +105,7 @@
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.node.port.PortObject;
 import org.knime.core.util.EclipseUtil;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -134,6 +143,16 @@ public final class NodeTimer {
     private int m_numberOfExecutionsSinceReset;
     private int m_numberOfExecutionsOverall;
 
+    /* execution metrics, see NodeExecutionMetrics */
+    private long m_executingThreadID = -1;
+    private long m_cpuTimeAtStart;
+    private long m_allocatedBytesAtStart;
+    private volatile long m_queueTimeNanos;
+    private volatile long[] m_inputRowCounts = new long[0];
+    private final LongAdder m_spilledBytes = new LongAdder();
+    private final LongAdder m_lockWaitTimeNanos = new LongAdder();
+    private volatile NodeExecutionMetrics m_lastExecutionMetrics;
+
     /**
      * Container holding stats for the entire instance and all nodes that have been used/timed.
      */
@@ -759,6 +778,16 @@ public int getNrExecsSinceStart() {
         return m_numberOfExecutionsOverall;
     }
 
+    /**
+     * @return the average duration (in ms) of all executions since the node was created or loaded, or -1 if the node
+     *         hasn't been executed yet
+     * @since 4.4
+     */
+    public long getAverageExecutionDuration() {
+        int nrExecs = m_numberOfExecutionsOverall;
+        return nrExecs == 0 ? -1 : m_executionDurationOverall / nrExecs;
+    }
+
     /**
      * @return time when node has been started the last time (format is the same as returned by
      *         {@link System#currentTimeMillis()}), -1 if node hasn't been started, yet
@@ -791,6 +820,78 @@ public void resetNode() {
 
     public void startExec() {
         m_startTime = System.currentTimeMillis();
+        m_executingThreadID = Thread.currentThread().getId();
+        m_cpuTimeAtStart = ThreadMetrics.getCurrentThreadCpuTime();
+        m_allocatedBytesAtStart = ThreadMetrics.getCurrentThreadAllocatedBytes();
+        m_spilledBytes.reset();
+        m_lockWaitTimeNanos.reset();
+    }
+
+    /**
+     * Called by the execution job when it starts running, i.e. before {@link #startExec()}.
+     *
+     * @param queueTimeNanos the time the job waited for a thread
+     * @param inputs the input data of the node (elements may be null)
+     */
+    void jobStarted(final long queueTimeNanos, final PortObject[] inputs) {
+        m_queueTimeNanos = queueTimeNanos;
+        m_inputRowCounts = getRowCounts(inputs);
+    }
+
+    /**
+     * @return the metrics of the most recent execution, or null if the node hasn't been executed since it was created
+     *         or loaded
+     * @since 4.4
+     */
+    public NodeExecutionMetrics getLastExecutionMetrics() {
+        return m_lastExecutionMetrics;
+    }
+
+    /**
+     * Adds to the number of bytes that the node executing in the current thread (according to the {@link NodeContext})
+     * wrote to temporary files. Called when a table is closed that didn't fit into memory.
+     *
+     * @param bytes the number of bytes written
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.4
+     */
+    public static void addSpilledBytesToCurrentNode(final long bytes) {
+        getCurrentNodeTimer().ifPresent(t -> t.m_spilledBytes.add(bytes));
+    }
+
+    /** Adds to the time the node executing in the current thread waited for a workflow lock. */
+    static void addLockWaitTimeToCurrentNode(final long nanos) {
+        getCurrentNodeTimer().ifPresent(t -> t.m_lockWaitTimeNanos.add(nanos));
+    }
+
+    private static Optional<NodeTimer> getCurrentNodeTimer() {
+        final NodeContext context = NodeContext.getContext();
+        final NodeContainer nc = context == null ? null : context.getNodeContainer();
+        return nc == null ? Optional.empty() : Optional.of(nc.getNodeTimer());
+    }
+
+    private static long[] getRowCounts(final PortObject[] portObjects) {
+        return Arrays.stream(portObjects)
+            .mapToLong(p -> p instanceof BufferedDataTable ? ((BufferedDataTable)p).size() : -1L).toArray();
+    }
+
+    private NodeExecutionMetrics createExecutionMetrics() {
+        long cpuTime = -1;
+        long allocatedBytes = -1;
+        // only meaningful if started and ended in the same thread (not the case for remote executions)
+        if (m_executingThreadID == Thread.currentThread().getId()) {
+            final long cpuTimeAtEnd = ThreadMetrics.getCurrentThreadCpuTime();
+            cpuTime = cpuTimeAtEnd < 0 || m_cpuTimeAtStart < 0 ? -1 : cpuTimeAtEnd - m_cpuTimeAtStart;
+            final long allocatedBytesAtEnd = ThreadMetrics.getCurrentThreadAllocatedBytes();
+            allocatedBytes = allocatedBytesAtEnd < 0 || m_allocatedBytesAtStart < 0 ? -1
+                : allocatedBytesAtEnd - m_allocatedBytesAtStart;
+        }
+        final PortObject[] outputs = new PortObject[m_parent.getNrOutPorts()];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = m_parent.getOutPort(i).getPortObject();
+        }
+        return new NodeExecutionMetrics(m_lastExecutionDuration, cpuTime, allocatedBytes, m_inputRowCounts,
+            getRowCounts(outputs), m_spilledBytes.sum(), m_lockWaitTimeNanos.sum(), m_queueTimeNanos);
     }
 
     public void endExec(final boolean success) {
@@ -804,9 +905,64 @@ public void endExec(final boolean success) {
             m_numberOfExecutionsSinceReset++;
             String cname = getCanonicalName(m_parent);
             GLOBAL_TIMER.addExecutionTime(cname, success, m_lastExecutionDuration);
+            try {
+                m_lastExecutionMetrics = createExecutionMetrics();
+            } catch (RuntimeException e) { // NOSONAR metrics must not interfere with the execution
+                NodeLogger.getLogger(NodeTimer.class).debug("Unable to collect execution metrics", e);
+            }
         }
         m_lastStartTime = m_startTime;
         m_startTime = -1;
+        m_executingThreadID = -1;
+    }
+
+    /**
+     * Access to the CPU time and allocated bytes of the current thread. The latter is queried through the platform
+     * MBean server as the extended thread MXBean interface (com.sun.management) isn't necessarily visible to this
+     * bundle.
+     */
+    private static final class ThreadMetrics {
+
+        private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+        private static final boolean IS_CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+
+        private static final ObjectName THREADING_NAME;
+
+        private static final boolean IS_ALLOCATED_BYTES_SUPPORTED;
+
+        static {
+            ObjectName name = null;
+            boolean isSupported = false;
+            try {
+                name = new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME);
+                final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                isSupported = Boolean.TRUE.equals(server.getAttribute(name, "ThreadAllocatedMemorySupported"))
+                    && Boolean.TRUE.equals(server.getAttribute(name, "ThreadAllocatedMemoryEnabled"));
+            } catch (JMException | RuntimeException e) { // NOSONAR not supported by the JVM
+                NodeLogger.getLogger(NodeTimer.class).debug("Allocated bytes of threads can't be measured", e);
+            }
+            THREADING_NAME = name;
+            IS_ALLOCATED_BYTES_SUPPORTED = isSupported;
+        }
+
+        static long getCurrentThreadCpuTime() {
+            return IS_CPU_TIME_SUPPORTED && THREAD_MX_BEAN.isThreadCpuTimeEnabled()
+                ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+        }
+
+        static long getCurrentThreadAllocatedBytes() {
+            if (!IS_ALLOCATED_BYTES_SUPPORTED) {
+                return -1;
+            }
+            try {
+                return (Long)ManagementFactory.getPlatformMBeanServer().invoke(THREADING_NAME,
+                    "getThreadAllocatedBytes", new Object[]{Thread.currentThread().getId()},
+                    new String[]{long.class.getName()});
+            } catch (JMException | RuntimeException e) { // NOSONAR
+                return -1;
+            }
+        }
     }
 
 }
@@ -61,6 +61,10 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -81,19 +85,21 @@ class Workflow {
     /** my logger. */
     private static final NodeLogger LOGGER = NodeLogger.getLogger(Workflow.class);
 
+    // Nodes and connections are only modified while holding the workflow lock but the maps and sets are
+    // thread-safe so that status queries (e.g. which connections end at a node) don't need to acquire the lock.
+    // Iterating them is weakly consistent; the per-node connection sets are small and rarely modified.
+
     /** mapping from NodeID to Nodes. */
-    private final TreeMap<NodeID, NodeContainer> m_nodes = new TreeMap<NodeID, NodeContainer>();
+    private final ConcurrentSkipListMap<NodeID, NodeContainer> m_nodes = new ConcurrentSkipListMap<>();
 
     // Connections (by node, source and destination). Note that meta
     // connections (in- and outgoing of this workflow) are also part
     // of these maps. They will have our own ID as source/dest ID.
 
     /** mapping from source NodeID to set of outgoing connections. */
-    private final Map<NodeID, Set<ConnectionContainer>> m_connectionsBySource
-                                  = new TreeMap<NodeID, Set<ConnectionContainer>>();
+    private final Map<NodeID, Set<ConnectionContainer>> m_connectionsBySource = new ConcurrentSkipListMap<>();
     /** mapping from destination NodeID to set of incoming connections. */
-    private final Map<NodeID, Set<ConnectionContainer>> m_connectionsByDest
-                                  = new TreeMap<NodeID, Set<ConnectionContainer>>();
+    private final Map<NodeID, Set<ConnectionContainer>> m_connectionsByDest = new ConcurrentSkipListMap<>();
 
     private WorkflowManager m_wfm;
     private NodeID m_id;
@@ -109,8 +115,8 @@ class Workflow {
         m_wfm = wfm;
         m_id = id;
         // add sets for this (meta-) node's in- and output connections
-        m_connectionsByDest.put(id, new LinkedHashSet<ConnectionContainer>());
-        m_connectionsBySource.put(id, new LinkedHashSet<ConnectionContainer>());
+        m_connectionsByDest.put(id, new CopyOnWriteArraySet<ConnectionContainer>());
+        m_connectionsBySource.put(id, new CopyOnWriteArraySet<ConnectionContainer>());
         clearGraphAnnotationCache();
     }
 
@@ -156,8 +162,8 @@ NodeContainer getNode(final NodeID id) {
      */
     void putNode(final NodeID id, final NodeContainer nc) {
         // create Sets of in and outgoing connections
-        m_connectionsBySource.put(id, new LinkedHashSet<ConnectionContainer>());
-        m_connectionsByDest.put(id, new LinkedHashSet<ConnectionContainer>());
+        m_connectionsBySource.put(id, new CopyOnWriteArraySet<ConnectionContainer>());
+        m_connectionsByDest.put(id, new CopyOnWriteArraySet<ConnectionContainer>());
         // and then add node (avoid inconsistent node - connection setup)
         m_nodes.put(id, nc);
         clearGraphAnnotationCache();
@@ -463,6 +469,78 @@ private void completeSetFromOutPort(final HashSet<NodeID> nodes,
         }
     }
 
+    /**
+     * Estimates the cost of the most expensive path from the given node to any sink of the (flattened) workflow. The
+     * path is followed into metanodes and - if this workflow is a metanode - out into the parent workflows. The cost of
+     * a single node is its average past execution time as recorded by its {@link NodeTimer} but at least one
+     * millisecond, so that the estimate degrades to the depth of the node if no timings are known.
+     *
+     * <p>The costs are cached until the structure of a workflow of the project changes or a node of the project
+     * finishes execution (the path may cross workflow boundaries, but never leaves the project).
+     *
+     * @param id of node to start from
+     * @return the estimated cost in ms, including the cost of the node itself; 0 if the node doesn't exist (anymore)
+     */
+    long getCriticalPathCost(final NodeID id) {
+        final long version = getProjectWorkflow().m_criticalPathVersion.get();
+        CriticalPathCosts costs = m_criticalPathCosts;
+        if (costs == null || costs.m_version != version) {
+            costs = new CriticalPathCosts(version);
+            m_criticalPathCosts = costs;
+        }
+        return getCriticalPathCost(id, costs.m_costs);
+    }
+
+    private long getCriticalPathCost(final NodeID id, final Map<NodeID, Long> costCache) {
+        Long cost = costCache.get(id);
+        if (cost == null) {
+            NodeContainer nc = m_nodes.get(id);
+            if (nc == null) {
+                // removed concurrently
+                return 0L;
+            }
+            long ownCost = Math.max(1L, nc.getNodeTimer().getAverageExecutionDuration());
+            cost = ownCost + getCriticalPathCostOfSuccessors(id, -1, costCache);
+            costCache.put(id, cost);
+        }
+        return cost;
+    }
+
+    /** Most expensive path among the nodes connected to the given outport (or all ports if -1) of the given node. The
+     * node may also be this workflow, in which case the connections from the respective inport are followed. */
+    private long getCriticalPathCostOfSuccessors(final NodeID id, final int outPortIndex,
+        final Map<NodeID, Long> costCache) {
+        Set<ConnectionContainer> outgoing = m_connectionsBySource.get(id);
+        if (outgoing == null) {
+            return 0L;
+        }
+        long max = 0L;
+        for (ConnectionContainer cc : outgoing) {
+            if (outPortIndex >= 0 && cc.getSourcePort() != outPortIndex) {
+                continue;
+            }
+            NodeID nextNodeID = cc.getDest();
+            long cost;
+            if (nextNodeID.equals(getID())) {
+                // leaving the metanode - continue with the successors of the metanode in the parent workflow
+                NodeContainerParent parent = m_wfm.getDirectNCParent();
+                cost = parent instanceof WorkflowManager && !m_wfm.isProject() ? ((WorkflowManager)parent)
+                    .getWorkflow().getCriticalPathCostOfSuccessors(getID(), cc.getDestPort(), costCache) : 0L;
+            } else {
+                NodeContainer nextNode = m_nodes.get(nextNodeID);
+                if (nextNode instanceof WorkflowManager) {
+                    // entering a metanode - continue with the nodes connected to the respective inport
+                    cost = ((WorkflowManager)nextNode).getWorkflow().getCriticalPathCostOfSuccessors(nextNodeID,
+                        cc.getDestPort(), costCache);
+                } else {
+                    cost = getCriticalPathCost(nextNodeID, costCache);
+                }
+            }
+            max = Math.max(max, cost);
+        }
+        return max;
+    }
+
     /** Expand a given list of nodes to include all successors which are
      * connected to anyone of the nodes in a breadth first manner. Don't
      * include any of the nodes not contained in the "inclusion" list
@@ -1637,9 +1715,54 @@ public NodeGraphAnnotation getSingleNodeGraphAnnotation(final NodeID id)
     /** hold graph based annotations for all nodes. */
     private ArrayList<NodeGraphAnnotation> m_nodeAnnotationCache = null;
 
+    /**
+     * Incremented on every structural change of a workflow of the project and whenever one of its nodes finishes
+     * execution, invalidates the {@link CriticalPathCosts} of all workflows of the project. Only used in the workflow
+     * of the project, see {@link #getProjectWorkflow()}.
+     */
+    private final AtomicLong m_criticalPathVersion = new AtomicLong();
+
+    /** Critical path costs computed since the last change, see {@link #getCriticalPathCost(NodeID)}. */
+    private volatile CriticalPathCosts m_criticalPathCosts;
+
+    /** Costs of the nodes (of this and other workflows) reached from the nodes of this workflow. */
+    private static final class CriticalPathCosts {
+
+        private final long m_version;
+
+        private final Map<NodeID, Long> m_costs = new ConcurrentHashMap<>();
+
+        CriticalPathCosts(final long version) {
+            m_version = version;
+        }
+    }
+
+    /** @return the workflow of the project this workflow belongs to, this workflow if it is not part of a project */
+    private Workflow getProjectWorkflow() {
+        Workflow workflow = this;
+        // not using WorkflowManager#isProject as this is also called while the workflow manager is constructed
+        while (workflow.m_wfm != null) {
+            final WorkflowManager parent = workflow.m_wfm.getParent();
+            if (parent == null || parent == WorkflowManager.ROOT || parent.getWorkflow() == null) {
+                break;
+            }
+            workflow = parent.getWorkflow();
+        }
+        return workflow;
+    }
+
+    /**
+     * Invalidates the critical path costs of the project, called when a node has finished execution and hence its
+     * {@link NodeTimer} has recorded a new execution time.
+     */
+    void clearCriticalPathCosts() {
+        getProjectWorkflow().m_criticalPathVersion.incrementAndGet();
+    }
+
     /** clean cache - called internally whenever the structure (connections/nodes) are altered. */
     private void clearGraphAnnotationCache() {
         m_nodeAnnotationCache = null;
+        clearCriticalPathCosts();
         // also clear cache in parent - changes here may affect the connectivity outside as well.
         if (m_wfm != null && m_wfm.getParent() != null && m_wfm.getParent().getWorkflow() != null) {
             m_wfm.getParent().getWorkflow().clearGraphAnnotationCache();
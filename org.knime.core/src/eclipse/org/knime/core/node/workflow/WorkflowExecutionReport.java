@@ -0,0 +1,201 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.knime.core.node.workflow.NodeExecutionMetrics.toMillis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * The {@link NodeExecutionMetrics} of all native nodes in a workflow (including the nodes in metanodes and
+ * components), the nodes that took longest first. Use it to find the nodes that dominate the execution time of a
+ * workflow and whether they spend it computing, writing data to disk or waiting.
+ *
+ * <p>
+ * Components and metanodes aren't listed themselves, their execution time is the sum of the contained nodes.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public final class WorkflowExecutionReport {
+
+    private final String m_workflowName;
+
+    private final List<NodeEntry> m_nodes;
+
+    private WorkflowExecutionReport(final String workflowName, final List<NodeEntry> nodes) {
+        m_workflowName = workflowName;
+        m_nodes = Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Creates the report for the current state of a workflow. Only nodes that have been executed since they were
+     * created or loaded are contained.
+     *
+     * @param wfm the workflow, not null
+     * @return a new report
+     */
+    public static WorkflowExecutionReport create(final WorkflowManager wfm) {
+        CheckUtils.checkArgumentNotNull(wfm, "Workflow must not be null");
+        final List<NodeEntry> nodes = new ArrayList<>();
+        collectNodes(wfm, nodes);
+        nodes.sort(Comparator.comparingLong((NodeEntry e) -> e.getMetrics().getWallTimeMillis()).reversed());
+        return new WorkflowExecutionReport(wfm.getName(), nodes);
+    }
+
+    private static void collectNodes(final WorkflowManager wfm, final List<NodeEntry> nodes) {
+        for (NodeContainer nc : wfm.getNodeContainers()) {
+            if (nc instanceof WorkflowManager) {
+                collectNodes((WorkflowManager)nc, nodes);
+            } else if (nc instanceof SubNodeContainer) {
+                collectNodes(((SubNodeContainer)nc).getWorkflowManager(), nodes);
+            } else {
+                final NodeExecutionMetrics metrics = nc.getNodeTimer().getLastExecutionMetrics();
+                if (metrics != null) {
+                    nodes.add(new NodeEntry(nc.getID(), nc.getNameWithID(), metrics));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the name of the workflow
+     */
+    public String getWorkflowName() {
+        return m_workflowName;
+    }
+
+    /**
+     * @return the executed nodes, sorted by their wall time in descending order
+     */
+    public List<NodeEntry> getNodes() {
+        return m_nodes;
+    }
+
+    /**
+     * @return the sum of the wall times of all nodes in milliseconds (which exceeds the elapsed time if nodes were
+     *         executed in parallel)
+     */
+    public long getTotalWallTimeMillis() {
+        return m_nodes.stream().mapToLong(e -> e.getMetrics().getWallTimeMillis()).sum();
+    }
+
+    /**
+     * A multi-line, tabular rendering of the report.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        b.append("Execution report of \"").append(m_workflowName).append("\" (").append(m_nodes.size())
+            .append(" nodes, ").append(getTotalWallTimeMillis()).append("ms total)\n");
+        b.append(String.format("%10s %10s %5s %12s %12s %10s %10s  %s%n", "wall[ms]", "cpu[ms]", "cpu%", "alloc[KB]",
+            "spilled[KB]", "lock[ms]", "queue[ms]", "node (rows in -> rows out)"));
+        for (NodeEntry e : m_nodes) {
+            final NodeExecutionMetrics m = e.getMetrics();
+            final long wall = m.getWallTimeMillis();
+            final long cpu = toMillis(m.getCpuTimeNanos());
+            final String cpuShare = cpu < 0 || wall <= 0 ? "n/a" : Long.toString(Math.min(100, 100 * cpu / wall));
+            b.append(String.format("%10d %10d %5s %12d %12d %10d %10d  %s (%s -> %s)%n", wall, cpu, cpuShare,
+                toKB(m.getAllocatedBytes()), toKB(m.getSpilledBytes()), toMillis(m.getLockWaitTimeNanos()),
+                toMillis(m.getQueueTimeNanos()), e.getName(), toString(m.getInputRowCounts()),
+                toString(m.getOutputRowCounts())));
+        }
+        return b.toString();
+    }
+
+    private static long toKB(final long bytes) {
+        return bytes < 0 ? bytes : bytes >> 10;
+    }
+
+    /** Row counts of table ports only, e.g. "[100, 20]". */
+    private static String toString(final long[] rowCounts) {
+        return Arrays.toString(Arrays.stream(rowCounts).filter(c -> c >= 0).toArray());
+    }
+
+    /** A single node in a {@link WorkflowExecutionReport}. */
+    public static final class NodeEntry {
+
+        private final NodeID m_nodeID;
+
+        private final String m_name;
+
+        private final NodeExecutionMetrics m_metrics;
+
+        private NodeEntry(final NodeID nodeID, final String name, final NodeExecutionMetrics metrics) {
+            m_nodeID = nodeID;
+            m_name = name;
+            m_metrics = metrics;
+        }
+
+        /**
+         * @return the ID of the node
+         */
+        public NodeID getNodeID() {
+            return m_nodeID;
+        }
+
+        /**
+         * @return the name of the node along with its ID
+         */
+        public String getName() {
+            return m_name;
+        }
+
+        /**
+         * @return the metrics of the most recent execution of the node
+         */
+        public NodeExecutionMetrics getMetrics() {
+            return m_metrics;
+        }
+    }
+}
@@ -74,7 +74,8 @@ public final class WorkflowLock implements AutoCloseable {
     private final ReentrantLock m_reentrantLock;
     private final WorkflowManager m_wfm;
 
-    private boolean m_checkForNodeStateChanges;
+    /** Volatile as it's read by {@link #isStateCheckPending()} without holding the lock. */
+    private volatile boolean m_checkForNodeStateChanges;
     private boolean m_propagateChanges;
 
     /** For each thread doing something with this {@link WorkflowLock} a counter how often the thread went through
@@ -119,7 +120,12 @@ boolean isHeldByCurrentThread() {
      * @return this.
      */
     public WorkflowLock lock() {
-        m_reentrantLock.lock();
+        if (!m_reentrantLock.tryLock()) {
+            // contended, account the waiting time to the node executing in this thread (if any)
+            final long start = System.nanoTime();
+            m_reentrantLock.lock();
+            NodeTimer.addLockWaitTimeToCurrentNode(System.nanoTime() - start);
+        }
         if (KNIMEConstants.ASSERTIONS_ENABLED) {
             hasNoChildLocked();
         }
@@ -127,6 +133,18 @@ public WorkflowLock lock() {
         return this;
     }
 
+    /** Acquires the lock (and increments hold count) only if it isn't held by another thread, i.e. without ever
+     * waiting for the lock. As this can't deadlock, the lock order with respect to child locks isn't checked.
+     * @return this or null if the lock is held by another thread.
+     */
+    WorkflowLock tryLock() {
+        if (!m_reentrantLock.tryLock()) {
+            return null;
+        }
+        m_lockHierarchyLevelThreadLocal.get().increment();
+        return this;
+    }
+
     /** Checks if this thread has a lock on any child of the workflow manager. If so a coding error is reported. */
     // see bug 6644
     private void hasNoChildLocked() {
@@ -178,6 +196,14 @@ InternalNodeContainerState getWFMInternalState() {
         return m_checkForNodeStateChanges ? m_wfm.computeNewState() : m_wfm.getMostRecentInternalState();
     }
 
+    /** Whether a state update check has been queued and not yet been processed, i.e. whether the most recently set
+     * state of the workflow is possibly outdated. Can be called without holding the lock; a false answer means that
+     * there was no pending update at the time of the call.
+     * @return that property */
+    boolean isStateCheckPending() {
+        return m_checkForNodeStateChanges;
+    }
+
     /** Queues a state update check and notification when the lock is finally released by the calling thread.
      * This method is to be called when the lock is hold by the calling thread.
      * @param propagateChanges Whether to propagate state changes to the parent workflow (if any)
@@ -603,6 +603,20 @@ public Workflow getWorkflow() {
         return m_workflow;
     }
 
+    /**
+     * Estimates the cost of the most expensive path from the given node to the sinks of the workflow, based on the
+     * past execution times of the nodes on the path. Used by job managers to run nodes on the critical path first.
+     * The estimates are cached until the structure of the workflow changes or a node of the project finishes execution.
+     *
+     * @param id the ID of a node contained in this workflow
+     * @return the estimated cost in ms (including the cost of the node itself), 0 if there is no such node
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.4
+     */
+    public long getCriticalPathCost(final NodeID id) {
+        return m_workflow.getCriticalPathCost(id);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -1584,19 +1598,18 @@ public void removeConnection(final ConnectionContainer cc) {
      * @return all outgoing connections for the passed node at the specified port
      */
     public Set<ConnectionContainer> getOutgoingConnectionsFor(final NodeID id, final int portIdx) {
-        try (WorkflowLock lock = lock()) {
-            Set<ConnectionContainer> outConnections = m_workflow.getConnectionsBySource(id);
-            Set<ConnectionContainer> outConsForPort = new HashSet<ConnectionContainer>();
-            if (outConnections == null) {
-                return outConsForPort;
-            }
-            for (ConnectionContainer cont : outConnections) {
-                if (cont.getSourcePort() == portIdx) {
-                    outConsForPort.add(cont);
-                }
-            }
+        // no lock needed, connection sets are thread-safe (see Workflow)
+        Set<ConnectionContainer> outConnections = m_workflow.getConnectionsBySource(id);
+        Set<ConnectionContainer> outConsForPort = new HashSet<ConnectionContainer>();
+        if (outConnections == null) {
             return outConsForPort;
         }
+        for (ConnectionContainer cont : outConnections) {
+            if (cont.getSourcePort() == portIdx) {
+                outConsForPort.add(cont);
+            }
+        }
+        return outConsForPort;
     }
 
     /**
@@ -1607,10 +1620,12 @@ public Set<ConnectionContainer> getOutgoingConnectionsFor(final NodeID id, final
      * @throws IllegalArgumentException If the node is unknown or null.
      */
     public Set<ConnectionContainer> getOutgoingConnectionsFor(final NodeID id) {
-        try (WorkflowLock lock = lock()) {
-            getNodeContainer(id); // for exception handling
-            return new LinkedHashSet<ConnectionContainer>(m_workflow.getConnectionsBySource(id));
+        getNodeContainer(id); // for exception handling
+        Set<ConnectionContainer> outConnections = m_workflow.getConnectionsBySource(id);
+        if (outConnections == null) { // removed concurrently
+            throw new IllegalArgumentException("No such node ID: " + id);
         }
+        return new LinkedHashSet<ConnectionContainer>(outConnections);
     }
 
     /**
@@ -1622,16 +1637,14 @@ public Set<ConnectionContainer> getOutgoingConnectionsFor(final NodeID id) {
      * @throws IllegalArgumentException If node is not contained in workflow, nor is it the ID of this WFM
      */
     public ConnectionContainer getIncomingConnectionFor(final NodeID id, final int portIdx) {
-        try (WorkflowLock lock = lock()) {
-            CheckUtils.checkArgument(id.equals(getID()) || containsNodeContainer(id),
-                "Node ID \"%s\" not contained in workflow, nor it's the workflow itself (ID of this workflow is \"%s\")",
-                id, getID());
-            Set<ConnectionContainer> inConns = m_workflow.getConnectionsByDest(id);
-            if (inConns != null) {
-                for (ConnectionContainer cont : inConns) {
-                    if (cont.getDestPort() == portIdx) {
-                        return cont;
-                    }
+        CheckUtils.checkArgument(id.equals(getID()) || containsNodeContainer(id),
+            "Node ID \"%s\" not contained in workflow, nor it's the workflow itself (ID of this workflow is \"%s\")",
+            id, getID());
+        Set<ConnectionContainer> inConns = m_workflow.getConnectionsByDest(id);
+        if (inConns != null) {
+            for (ConnectionContainer cont : inConns) {
+                if (cont.getDestPort() == portIdx) {
+                    return cont;
                 }
             }
         }
@@ -1646,10 +1659,12 @@ public ConnectionContainer getIncomingConnectionFor(final NodeID id, final int p
      * @throws IllegalArgumentException If the node is unknown or null.
      */
     public Set<ConnectionContainer> getIncomingConnectionsFor(final NodeID id) {
-        try (WorkflowLock lock = lock()) {
-            getNodeContainer(id); // for exception handling
-            return new LinkedHashSet<ConnectionContainer>(m_workflow.getConnectionsByDest(id));
+        getNodeContainer(id); // for exception handling
+        Set<ConnectionContainer> inConnections = m_workflow.getConnectionsByDest(id);
+        if (inConnections == null) { // removed concurrently
+            throw new IllegalArgumentException("No such node ID: " + id);
         }
+        return new LinkedHashSet<ConnectionContainer>(inConnections);
     }
 
     /**
@@ -1659,9 +1674,7 @@ public Set<ConnectionContainer> getIncomingConnectionsFor(final NodeID id) {
      * @return the connection with the specified id
      */
     public ConnectionContainer getConnection(final ConnectionID id) {
-        try (WorkflowLock lock = lock()) {
-            return getIncomingConnectionFor(id.getDestinationNode(), id.getDestinationPort());
-        }
+        return getIncomingConnectionFor(id.getDestinationNode(), id.getDestinationPort());
     }
 
     /**
@@ -3283,6 +3296,8 @@ void doAfterExecution(final NodeContainer nc, final NodeContainerExecutionStatus
         boolean success = status.isSuccess();
         try (WorkflowLock lock = lock()) {
             nc.getNodeTimer().endExec(success);
+            // the estimated remaining cost of the nodes depends on the execution times
+            m_workflow.clearCriticalPathCosts();
             String st = success ? " - success" : " - failure";
             LOGGER.debug(nc.getNameWithID() + " doAfterExecute" + st);
             if (!success) {
@@ -3670,9 +3685,14 @@ private void parallelizeLoop(final NodeID startID) throws IllegalLoopException {
             }
 
             ExecutionContext exec = startNC != null ? startNC.createExecutionContext() : null;
+            // copy the loop body once - the copy persistor can be pasted repeatedly, which saves serializing
+            // the settings of all body nodes for each chunk
+            final WorkflowPersistor loopBodyCopy =
+                startNode.getNrRemoteChunks() > 0 ? copy(WorkflowCopyContent.builder().setNodeIDs(loopNodes).build())
+                    : null;
             for (int i = 0; i < startNode.getNrRemoteChunks(); i++) {
-                ParallelizedChunkContent copiedNodes =
-                    duplicateLoopBodyInSubWFMandAttach(subwfm, extInConnections, startID, endID, loopNodes, i);
+                ParallelizedChunkContent copiedNodes = duplicateLoopBodyInSubWFMandAttach(subwfm, extInConnections,
+                    startID, endID, loopNodes, loopBodyCopy, i);
                 if (startNC != null) {
                     NativeNodeContainer virtualInNode =
                         (NativeNodeContainer)subwfm.getNodeContainer(copiedNodes.getVirtualInputID());
@@ -3746,11 +3766,12 @@ public WorkflowCaptureOperation createCaptureOperationFor(final NodeID endNodeID
      *   added to the same workflow.
      * @param extInConnections map of incoming connections
      *   (NodeID + PortIndex) => WFM-Inport. Can be null if subWFM==this.
+     * @param loopBodyCopy copy of the nodes oldIDs (shared among all chunks)
      * ...
      */
     private ParallelizedChunkContent duplicateLoopBodyInSubWFMandAttach(final WorkflowManager subWFM,
         final HashMap<Pair<NodeID, Integer>, Integer> extInConnections, final NodeID startID, final NodeID endID,
-        final NodeID[] oldIDs, final int chunkIndex) {
+        final NodeID[] oldIDs, final WorkflowPersistor loopBodyCopy, final int chunkIndex) {
         assert m_workflowLock.isHeldByCurrentThread();
         // compute offset for new nodes (shifted in case of same
         // workflow, otherwise just underneath each other)
@@ -3788,10 +3809,8 @@ private ParallelizedChunkContent duplicateLoopBodyInSubWFMandAttach(final Workfl
             NodeUIInformation endUI = NodeUIInformation.builder(endUIPlain).translate(moveUIDist).build();
             subWFM.getNodeContainer(virtualEndID).setUIInformation(endUI);
         }
-        // copy nodes in loop body
-        WorkflowCopyContent.Builder copyContent = WorkflowCopyContent.builder();
-        copyContent.setNodeIDs(oldIDs);
-        WorkflowCopyContent newBody = subWFM.copyFromAndPasteHere(this, copyContent.build());
+        // paste (previously copied) nodes in loop body
+        WorkflowCopyContent newBody = subWFM.paste(loopBodyCopy);
         NodeID[] newIDs = newBody.getNodeIDs();
         Map<NodeID, NodeID> oldIDsHash = new HashMap<NodeID, NodeID>();
         for (int i = 0; i < oldIDs.length; i++) {
@@ -6845,10 +6864,8 @@ public String toString() {
     /** {@inheritDoc} */
     @Override
     public Collection<NodeContainer> getNodeContainers() {
-        try (WorkflowLock lock = lock()) {
-            // TODO should we copy the list as changes to the wkf later will change this list
-            return m_workflow.getNodeValues();
-        }
+        // no lock needed: the returned (live) view is thread-safe and iterated in a weakly consistent manner
+        return m_workflow.getNodeValues();
     }
 
     /**
@@ -9136,6 +9153,31 @@ InternalNodeContainerState getInternalState() {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Unlike {@link #getInternalState()} this status query never waits for the workflow lock unless the calling thread
+     * already holds it: threads polling the state (views, job managers waiting for remote jobs) then don't queue up
+     * behind the threads changing node states. If a state update is pending and the lock is free, the state is
+     * computed as in {@link #getInternalState()}; otherwise the most recently published state is returned, which is
+     * updated once the thread changing the workflow releases the lock.
+     */
+    @Override
+    public NodeContainerState getNodeContainerState() {
+        if (m_workflowLock.isHeldByCurrentThread()) {
+            return getInternalState();
+        }
+        if (m_workflowLock.isStateCheckPending()) {
+            try (WorkflowLock lock = m_workflowLock.tryLock()) {
+                if (lock != null) {
+                    return lock.getWFMInternalState();
+                }
+            }
+        }
+        return getMostRecentInternalState();
+    }
+
     /**
      * Calls {@link NodeContainer#getInternalState()} - used by the lock instance to get the originally assigned
      * workflow state as {@link #getInternalState()} is overridden in this class.
@@ -53,9 +53,12 @@
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.knime.core.data.TableBackend;
 import org.knime.core.data.TableBackendRegistry;
+import org.knime.core.data.container.storage.CompressionCodec;
+import org.knime.core.data.container.storage.CompressionCodecRegistry;
 import org.knime.core.data.container.storage.TableStoreFormatInformation;
 import org.knime.core.eclipseUtil.OSGIHelper;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.util.CheckUtils;
@@ -63,26 +66,39 @@
 
 /**
  * Represents the configuration as to which {@link TableBackend} is used in a workflow project
- * (workflow level configuration).
+ * (workflow level configuration), including the {@link CompressionCodec} of the tables written by the workflow.
  * @noreference This class is not intended to be referenced by clients.
  * @author Bernd Wiswedel, KNIME GmbH, Konstanz, Germany
  */
 public final class WorkflowTableBackendSettings {
 
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(WorkflowTableBackendSettings.class);
+
     private static final String CFG_TABLE_BACKEND = "tableBackend";
     private static final String CFG_TABLE_BACKEND_CLASS = "class";
     private static final String CFG_TABLE_BACKEND_BUNDLE = "bundle";
     private static final String CFG_TABLE_BACKEND_FEATURE = "feature";
     private static final String CFG_TABLE_BACKEND_SHORTNAME = "shortname";
+    private static final String CFG_TABLE_COMPRESSION = "tableCompression";
+    private static final String CFG_TABLE_COMPRESSION_CODEC = "codec";
+    private static final String CFG_TABLE_COMPRESSION_LEVEL = "level";
 
     private final TableBackend m_tableBackend;
 
+    /** The codec compressing the tables of the workflow or null to use the default of the table format. */
+    private final CompressionCodec m_compressionCodec;
+
     WorkflowTableBackendSettings() {
         this(TableBackendRegistry.getInstance().getDefaultBackendForNewWorkflows());
     }
 
     WorkflowTableBackendSettings(final TableBackend tableBackend) {
+        this(tableBackend, null);
+    }
+
+    WorkflowTableBackendSettings(final TableBackend tableBackend, final CompressionCodec compressionCodec) {
         m_tableBackend = CheckUtils.checkArgumentNotNull(tableBackend);
+        m_compressionCodec = compressionCodec;
     }
 
     /**
@@ -92,6 +108,13 @@ TableBackend getTableBackend() {
         return m_tableBackend;
     }
 
+    /**
+     * @return the codec compressing the tables of the workflow, empty if the default of the table format is used
+     */
+    Optional<CompressionCodec> getCompressionCodec() {
+        return Optional.ofNullable(m_compressionCodec);
+    }
+
     static WorkflowTableBackendSettings loadSettingsInModel(final NodeSettingsRO settings)
         throws InvalidSettingsException {
         TableBackend tableBackend;
@@ -114,7 +137,30 @@ static WorkflowTableBackendSettings loadSettingsInModel(final NodeSettingsRO set
         } else {
             tableBackend = registry.getPre43TableBackend();
         }
-        return new WorkflowTableBackendSettings(tableBackend);
+        return new WorkflowTableBackendSettings(tableBackend, loadCompressionCodec(settings));
+    }
+
+    private static CompressionCodec loadCompressionCodec(final NodeSettingsRO settings)
+        throws InvalidSettingsException {
+        if (!settings.containsKey(CFG_TABLE_COMPRESSION)) {
+            return null;
+        }
+        NodeSettingsRO compressionSettings = settings.getNodeSettings(CFG_TABLE_COMPRESSION);
+        String name = CheckUtils.checkSettingNotNull(compressionSettings.getString(CFG_TABLE_COMPRESSION_CODEC),
+            "Compression codec must not be null");
+        Optional<CompressionCodec> codec = CompressionCodecRegistry.getInstance().getCompressionCodec(name);
+        if (!codec.isPresent()) {
+            // tables written with the codec can't be read either, but new tables can be written nonetheless
+            LOGGER.warnWithFormat("Compression codec \"%s\" is not available, using default compression instead",
+                name);
+            return null;
+        }
+        int level = compressionSettings.getInt(CFG_TABLE_COMPRESSION_LEVEL, codec.get().getLevel());
+        try {
+            return codec.get().withLevel(level);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidSettingsException(ex.getMessage(), ex);
+        }
     }
 
     static WorkflowTableBackendSettings loadSettingsInDialog(final NodeSettingsRO settings) {
@@ -135,6 +181,11 @@ void saveSettingsTo(final NodeSettingsWO settings) {
             tableBackendSettings.addString(CFG_TABLE_BACKEND_FEATURE, feature.map(IInstallableUnit::getId).orElse(null));
             tableBackendSettings.addString(CFG_TABLE_BACKEND_SHORTNAME, m_tableBackend.getShortName());
         }
+        if (m_compressionCodec != null) {
+            NodeSettingsWO compressionSettings = settings.addNodeSettings(CFG_TABLE_COMPRESSION);
+            compressionSettings.addString(CFG_TABLE_COMPRESSION_CODEC, m_compressionCodec.getName());
+            compressionSettings.addInt(CFG_TABLE_COMPRESSION_LEVEL, m_compressionCodec.getLevel());
+        }
     }
 
     /** Get table backend selected for the current thread / executing workflow. Method resolved corresponding workflow
@@ -153,9 +204,27 @@ public static TableBackend getTableBackendForCurrentContext() {
         return TableBackendRegistry.getInstance().getDefaultBackendForNewWorkflows();
     }
 
+    /** Get the compression codec selected for the current thread / executing workflow. Method resolved corresponding
+     * workflow via {@link NodeContext}.
+     * @return The codec for the current workflow, empty if none is selected (or no workflow is detected), in which
+     * case the default compression of the table format is used.
+     * @since 4.4
+     */
+    public static Optional<CompressionCodec> getCompressionCodecForCurrentContext() {
+        NodeContext context = NodeContext.getContext();
+        if (context != null) {
+            WorkflowManager wfm = context.getWorkflowManager();
+            if (wfm != null) {
+                return wfm.getTableBackendSettings().flatMap(WorkflowTableBackendSettings::getCompressionCodec);
+            }
+        }
+        return Optional.empty();
+    }
+
     @Override
     public String toString() {
-        return String.format("backend: %s", m_tableBackend.getClass().getSimpleName());
+        return String.format("backend: %s, compression: %s", m_tableBackend.getClass().getSimpleName(),
+            m_compressionCodec != null ? m_compressionCodec : "default");
     }
 
     @SuppressWarnings("serial")
@@ -48,6 +48,10 @@
  */
 package org.knime.core.node.workflow.virtual.parchunk;
 
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.port.PortObject;
 import org.knime.core.node.workflow.LoopEndParallelizeNode;
 import org.knime.core.node.workflow.NodeContainer;
 import org.knime.core.node.workflow.NodeStateChangeListener;
@@ -127,6 +131,30 @@ public void executeChunks() {
         }
     }
 
+    /**
+     * Collects the tables produced by all chunks at the given port of the loop end node, in chunk order. Loop end nodes
+     * should combine them (together with their own result) using
+     * {@link ExecutionContext#createConcatenateTable(ExecutionMonitor, BufferedDataTable...)}, which only references
+     * the chunk tables instead of copying their rows.
+     *
+     * @param portIndex the index of the data port of the loop end node (not counting the flow variable port)
+     * @return the output tables of all chunks
+     * @throws IllegalStateException if a chunk is not executed or didn't produce a table at the given port
+     * @since 4.4
+     */
+    public BufferedDataTable[] getChunkOutputTables(final int portIndex) {
+        BufferedDataTable[] result = new BufferedDataTable[m_chunks.length];
+        for (int i = 0; i < m_chunks.length; i++) {
+            ParallelizedChunkContent pcc = m_chunks[i];
+            PortObject[] outObjects = pcc == null ? null : pcc.getOutportContent();
+            if (outObjects == null || !(outObjects[portIndex] instanceof BufferedDataTable)) {
+                throw new IllegalStateException("No table available at port " + portIndex + " of chunk " + i);
+            }
+            result[i] = (BufferedDataTable)outObjects[portIndex];
+        }
+        return result;
+    }
+
     /**
      * @return number of executed chunks
      */
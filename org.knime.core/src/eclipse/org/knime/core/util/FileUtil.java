@@ -379,6 +379,29 @@ public static void copy(final File file, final File destination)
         }
     }
 
+    /**
+     * Creates a hard link to a file or, if the file system doesn't support hard links (or the destination is on a
+     * different file system), copies it. An existing destination file is deleted first. As a hard link shares its
+     * content with the source file, this must only be used for files that are never modified in place.
+     *
+     * @param file The file to link or copy.
+     * @param destination The destination file, fully qualified (do not provide a directory).
+     * @throws IOException If that fail for any reason.
+     * @since 4.4
+     */
+    public static void linkOrCopy(final File file, final File destination) throws IOException {
+        final Path source = file.toPath();
+        final Path target = destination.toPath();
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            LOGGER.debug("Unable to link \"" + target + "\" to \"" + source + "\", copying it instead ("
+                + e.getMessage() + ")");
+            Files.copy(source, target);
+        }
+    }
+
     /**
      * Deletes a given directory recursively. If the argument represents a file,
      * the file will be deleted. If it represents a symbolic link, it won't
@@ -0,0 +1,557 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.core.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * A {@link ThreadPool} that does not keep its own worker threads but limits concurrency by means of semaphores. Each
+ * pool (and each of its sub pools) owns as many permits as its maximum thread count. A task starts as soon as it has
+ * acquired a permit from its pool and from all ancestor pools; it is then run in a new virtual thread if the Java
+ * runtime supports them (Java 21 and later) or in a thread of a shared cached executor otherwise.
+ *
+ * <p>
+ * The semantics of the maximum thread count, of sub pools and of invisible threads (see
+ * {@link #runInvisible(Callable)}) are the same as in the default implementation: a task that waits for a future of
+ * any pool or for the termination of a pool hands its permit back while waiting. With virtual threads a task blocked
+ * in I/O does not occupy a platform thread, so the maximum thread count can be raised for I/O heavy workflows without
+ * creating more platform threads.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public class VirtualThreadPool extends ThreadPool {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(VirtualThreadPool.class);
+
+    /** Runs the tasks of all pools; creates a virtual thread per task if available. */
+    private static final Executor EXECUTOR = createExecutor();
+
+    /** The pool the task that is run by the current thread has been submitted to. */
+    private static final ThreadLocal<VirtualThreadPool> CURRENT_POOL = new ThreadLocal<>();
+
+    private final Slots m_slots;
+
+    private final AtomicInteger m_maxThreads = new AtomicInteger();
+
+    private final AtomicInteger m_pendingJobs = new AtomicInteger();
+
+    private final VirtualThreadPool m_parent;
+
+    /** Tasks of this pool and all its sub pools waiting for permits, shared with all sub pools. */
+    private final Queue<Task<?>> m_queuedTasks;
+
+    private final Set<Thread> m_runningThreads = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new pool with a maximum number of concurrently running tasks.
+     *
+     * @param maxThreads the maximum number of threads
+     */
+    public VirtualThreadPool(final int maxThreads) {
+        super(maxThreads);
+        m_parent = null;
+        m_slots = new Slots(maxThreads);
+        m_maxThreads.set(maxThreads);
+        m_queuedTasks = new LinkedList<>();
+    }
+
+    private VirtualThreadPool(final int maxThreads, final VirtualThreadPool parent) {
+        super(maxThreads, parent);
+        m_parent = parent;
+        m_slots = new Slots(maxThreads);
+        m_maxThreads.set(maxThreads);
+        m_queuedTasks = parent.m_queuedTasks;
+    }
+
+    /**
+     * @return whether tasks are run in virtual threads, i.e. whether the Java runtime supports them
+     */
+    public static boolean isUsingVirtualThreads() {
+        return !(EXECUTOR instanceof ThreadPoolExecutor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ThreadPool createSubPool() {
+        return new VirtualThreadPool(m_maxThreads.get(), this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ThreadPool createSubPool(final int maxThreads) {
+        return new VirtualThreadPool(maxThreads, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Future<T> enqueue(final Callable<T> task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        return enqueue(new Task<T>(task));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Future<?> enqueue(final Runnable r) {
+        return enqueue(new Task<Object>(r, null));
+    }
+
+    private <T> Task<T> enqueue(final Task<T> task) {
+        synchronized (m_queuedTasks) {
+            incrementPendingJobs();
+            if (!tryStart(task)) {
+                m_queuedTasks.add(task);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Future<T> trySubmit(final Callable<T> t) {
+        return trySubmit(new Task<T>(t));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Future<?> trySubmit(final Runnable r) {
+        return trySubmit(new Task<Object>(r, null));
+    }
+
+    private <T> Task<T> trySubmit(final Task<T> task) {
+        synchronized (m_queuedTasks) {
+            incrementPendingJobs();
+            if (!tryStart(task)) {
+                decrementPendingJobs();
+                return null;
+            }
+        }
+        return task;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Future<T> submit(final Callable<T> task) throws InterruptedException {
+        final Task<T> ftask = (Task<T>)enqueue(task);
+        ftask.waitUntilStarted();
+        return ftask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Future<?> submit(final Runnable task) throws InterruptedException {
+        final Task<?> ftask = (Task<?>)enqueue(task);
+        ftask.waitUntilStarted();
+        return ftask;
+    }
+
+    /**
+     * Acquires a permit from the task's pool and all its ancestors and starts the task. Must be called while holding
+     * the lock on the queue.
+     */
+    private static boolean tryStart(final Task<?> task) {
+        final List<VirtualThreadPool> acquired = new ArrayList<>();
+        for (VirtualThreadPool p = task.m_pool; p != null; p = p.m_parent) {
+            if (!p.m_slots.tryAcquire()) {
+                acquired.forEach(a -> a.m_slots.release());
+                return false;
+            }
+            acquired.add(p);
+        }
+        EXECUTOR.execute(task::runInPool);
+        return true;
+    }
+
+    /** Starts as many queued tasks as there are permits available. */
+    private void checkQueue() {
+        synchronized (m_queuedTasks) {
+            for (Iterator<Task<?>> it = m_queuedTasks.iterator(); it.hasNext();) {
+                final Task<?> t = it.next();
+                if (t.isCancelled() || tryStart(t)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void incrementPendingJobs() {
+        m_pendingJobs.incrementAndGet();
+        if (m_parent != null) {
+            m_parent.incrementPendingJobs();
+        }
+    }
+
+    private void decrementPendingJobs() {
+        if (m_parent != null) {
+            m_parent.decrementPendingJobs();
+        }
+        if (m_pendingJobs.decrementAndGet() == 0) {
+            synchronized (m_pendingJobs) {
+                m_pendingJobs.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Hands the permit of this pool back while the current thread is waiting, see {@link #runInvisible(Callable)}.
+     */
+    private void hide() {
+        m_slots.release();
+        checkQueue();
+    }
+
+    /**
+     * Takes the permit handed back in {@link #hide()} again. Like with the default implementation the pool may run
+     * more tasks than allowed for a moment, no further tasks are started until it is below its limit again.
+     */
+    private void unhide() {
+        m_slots.overdraw();
+    }
+
+    private boolean isAncestorOrSelf(final VirtualThreadPool pool) {
+        for (VirtualThreadPool p = pool; p != null; p = p.m_parent) {
+            if (p == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMaxThreads() {
+        return m_maxThreads.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRunningThreads() {
+        return m_maxThreads.get() - m_slots.availablePermits();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T runInvisible(final Callable<T> r) throws ExecutionException {
+        final VirtualThreadPool current = CURRENT_POOL.get();
+        if (current == null) {
+            throw new IllegalThreadStateException("The current thread is not taken out of a thread pool");
+        }
+        final VirtualThreadPool pool = isAncestorOrSelf(current) ? this : current;
+        pool.hide();
+        try {
+            return r.call();
+        } catch (Exception ex) {
+            throw new ExecutionException(ex);
+        } finally {
+            pool.unhide();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setMaxThreads(final int newValue) {
+        if (newValue < 0) {
+            throw new IllegalArgumentException("Thread count must be >= 0");
+        }
+        synchronized (m_slots) {
+            m_slots.resize(newValue - m_maxThreads.getAndSet(newValue));
+        }
+        checkQueue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdown() {
+        synchronized (m_queuedTasks) {
+            for (Iterator<Task<?>> it = m_queuedTasks.iterator(); it.hasNext();) {
+                final Task<?> t = it.next();
+                if (t.m_pool == this) {
+                    decrementPendingJobs();
+                    t.cancel(true);
+                    it.remove();
+                }
+            }
+        }
+        setMaxThreads(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void interruptAll() {
+        m_runningThreads.forEach(Thread::interrupt);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void waitForTermination() throws InterruptedException {
+        synchronized (m_pendingJobs) {
+            final VirtualThreadPool current = CURRENT_POOL.get();
+            if (current != null) {
+                current.hide();
+            }
+            try {
+                while (m_pendingJobs.get() != 0) {
+                    m_pendingJobs.wait();
+                }
+            } finally {
+                if (current != null) {
+                    current.unhide();
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int getQueueSize() {
+        return m_queuedTasks.size();
+    }
+
+    /**
+     * @return the pool the task run by the current thread has been submitted to or <code>null</code>
+     */
+    static VirtualThreadPool currentVirtualPool() {
+        return CURRENT_POOL.get();
+    }
+
+    private static Executor createExecutor() {
+        try {
+            // Thread.ofVirtual().name("KNIME-VirtualWorker-", 0).factory(), only available with Java 21+
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "KNIME-VirtualWorker-",
+                0L);
+            final Method factoryMethod = builderClass.getMethod("factory");
+            final ThreadFactory factory = (ThreadFactory)factoryMethod.invoke(builder);
+            return r -> factory.newThread(r).start();
+        } catch (ReflectiveOperationException | RuntimeException ex) { // NOSONAR
+            LOGGER.debug("Virtual threads are not available, using platform threads: " + ex.getMessage());
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 90, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            final Thread t = new Thread(r, "KNIME-Worker-" + counter.getAndIncrement());
+            t.setPriority(Thread.MIN_PRIORITY + 2);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Permits of a pool, allows to overdraw and to change the number of permits. */
+    @SuppressWarnings("serial")
+    private static final class Slots extends Semaphore {
+
+        Slots(final int permits) {
+            super(permits);
+        }
+
+        void overdraw() {
+            if (!tryAcquire()) {
+                reducePermits(1);
+            }
+        }
+
+        void resize(final int delta) {
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+        }
+    }
+
+    private final class Task<T> extends FutureTask<T> {
+
+        private final CountDownLatch m_startWaiter = new CountDownLatch(1);
+
+        private final ClassLoader m_contextClassloader = Thread.currentThread().getContextClassLoader();
+
+        private final VirtualThreadPool m_pool = VirtualThreadPool.this;
+
+        Task(final Callable<T> callable) {
+            super(ThreadUtils.callableWithContext(callable, false));
+        }
+
+        Task(final Runnable runnable, final T result) {
+            super(ThreadUtils.runnableWithContext(runnable, false), result);
+        }
+
+        /** Runs the task in the current thread, the permits have been acquired by the caller. */
+        void runInPool() {
+            final Thread thread = Thread.currentThread();
+            final ClassLoader previousContextClassloader = thread.getContextClassLoader();
+            for (VirtualThreadPool p = m_pool; p != null; p = p.m_parent) {
+                p.m_runningThreads.add(thread);
+            }
+            CURRENT_POOL.set(m_pool);
+            thread.setContextClassLoader(m_contextClassloader);
+            try {
+                m_startWaiter.countDown();
+                run();
+                super.get();
+            } catch (InterruptedException ex) {
+                LOGGER.debug("Thread was interrupted");
+            } catch (CancellationException ex) {
+                LOGGER.debug("Future was canceled");
+            } catch (ExecutionException ex) {
+                if (!(ex.getCause() instanceof CanceledExecutionException)) {
+                    // canceled execution exception is fine and will not be reported
+                    LOGGER.error("An exception occurred while executing a runnable.", ex.getCause());
+                }
+            } finally {
+                thread.setContextClassLoader(previousContextClassloader);
+                CURRENT_POOL.remove();
+                for (VirtualThreadPool p = m_pool; p != null; p = p.m_parent) {
+                    p.m_runningThreads.remove(thread);
+                    p.m_slots.release();
+                }
+                m_pool.decrementPendingJobs();
+                Thread.interrupted(); // don't leak the interrupt into the next task of a reused thread
+            }
+            m_pool.checkQueue();
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean b = super.cancel(mayInterruptIfRunning);
+            if (b) {
+                m_startWaiter.countDown();
+            }
+            return b;
+        }
+
+        void waitUntilStarted() throws InterruptedException {
+            m_startWaiter.await();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            final VirtualThreadPool current = CURRENT_POOL.get();
+            if (current == null || isDone()) {
+                return super.get();
+            }
+            current.hide();
+            try {
+                return super.get();
+            } finally {
+                current.unhide();
+            }
+        }
+
+        @Override
+        public T get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+            final VirtualThreadPool current = CURRENT_POOL.get();
+            if (current == null || isDone()) {
+                return super.get(timeout, unit);
+            }
+            current.hide();
+            try {
+                return super.get(timeout, unit);
+            } finally {
+                current.unhide();
+            }
+        }
+    }
+}